@@ -1,8 +1,10 @@
 package rocks.cta.api.core;
 
 import java.util.List;
+import java.util.Spliterator;
 
 import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.utils.CallableSpliterator;
 
 /**
  * A {@link SubTrace} represent an extract of the logical {@link Trace} that is executed within one
@@ -66,4 +68,16 @@ public interface SubTrace extends TimedElement, TreeIterable<Callable>, Identifi
      * corresponding {@link SubTrace}
      */
     int size();
+
+    /**
+     * Creates a spliterator on the {@link Callable}s of this {@link SubTrace}, which visits the
+     * callables in the same order as {@link #iterator()} and splits the call tree at subtree
+     * boundaries.
+     *
+     * @return a new spliterator on the callables
+     */
+    @Override
+    default Spliterator<Callable> spliterator() {
+        return new CallableSpliterator(getRoot());
+    }
 }
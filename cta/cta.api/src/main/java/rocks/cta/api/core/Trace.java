@@ -1,6 +1,13 @@
 package rocks.cta.api.core;
 
+import java.util.List;
+import java.util.Spliterator;
+
 import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.utils.CallableSpliterator;
+import rocks.cta.api.utils.CallableTypeIndex;
+import rocks.cta.api.utils.CallableTraceCursor;
+import rocks.cta.api.utils.TraceWalker;
 
 /**
  * A {@link Trace} subsumes a logical invocation sequence through the target system potentially
@@ -49,4 +56,54 @@ public interface Trace extends TimedElement, TreeIterable<Callable>, Identifiabl
 	 */
 	int size();
 
+	/**
+	 * Creates a cursor on the callables of this trace, which visits the callables in the same
+	 * order as {@link #iterator()}. Implementations should override this method if they can
+	 * provide the properties of the cursor without creating callable objects.
+	 * 
+	 * @return a new cursor positioned before the first callable
+	 */
+	default TraceCursor cursor() {
+		return new CallableTraceCursor(this);
+	}
+
+	/**
+	 * Creates a spliterator on the callables of this trace, which visits the callables in the same
+	 * order as {@link #iterator()} and splits the trace at subtree boundaries.
+	 * 
+	 * @return a new spliterator on the callables
+	 */
+	@Override
+	default Spliterator<Callable> spliterator() {
+		return new CallableSpliterator(getRoot());
+	}
+
+	/**
+	 * Drives the passed visitor over all sub traces and callables of this trace with a
+	 * {@link TraceWalker}.
+	 * 
+	 * @param visitor
+	 *            visitor to drive
+	 */
+	default void accept(TraceVisitor visitor) {
+		new TraceWalker(visitor).walk(this);
+	}
+
+	/**
+	 * Returns all callables of this trace that are instances of the passed type, including remote
+	 * invocations, in the order in which {@link #accept(TraceVisitor)} visits them. This default
+	 * implementation indexes the whole trace on each call, implementations should override it to
+	 * keep a {@link CallableTypeIndex} and answer queries in time proportional to the number of
+	 * matches.
+	 * 
+	 * @param type
+	 *            type of interest, e.g. {@link rocks.cta.api.core.callables.DatabaseInvocation}
+	 * @param <T>
+	 *            type of interest
+	 * @return unmodifiable list of the matching callables
+	 */
+	default <T extends Callable> List<T> callables(Class<T> type) {
+		return new CallableTypeIndex(this).get(type);
+	}
+
 }
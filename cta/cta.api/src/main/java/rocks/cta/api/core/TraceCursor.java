@@ -0,0 +1,80 @@
+package rocks.cta.api.core;
+
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.CallableType;
+import rocks.cta.api.core.callables.MethodInvocation;
+import rocks.cta.api.core.callables.TimedCallable;
+
+/**
+ * Cursor-style traversal over the {@link Callable}s of a {@link Trace}. In contrast to a
+ * {@link TreeIterator}, a cursor does not return an object per visited callable but exposes the
+ * most frequently read properties of the current callable directly. Hence, implementations can
+ * walk a trace without allocating objects per visited node.
+ * 
+ * A cursor visits the callables in the same order and with the same depths as
+ * {@link Trace#iterator()}. A cursor is positioned before the first callable initially.
+ * 
+ * @author Alexander Wert
+ */
+public interface TraceCursor {
+
+    /**
+     * Signature identifier of callables without signature.
+     */
+    int NO_SIGNATURE = -1;
+
+    /**
+     * Moves the cursor to the next callable.
+     *
+     * @return true, if the cursor has been moved to a callable, false if the end of the trace has
+     *         been reached
+     */
+    boolean moveNext();
+
+    /**
+     * @return type of the current callable
+     */
+    CallableType type();
+
+    /**
+     * @return depth of the current callable, 0 for the root of the trace
+     */
+    int depth();
+
+    /**
+     * @return timestamp of the current callable
+     */
+    long timestamp();
+
+    /**
+     * @return response time of the current callable in nanoseconds, -1 if the current callable is
+     *         no {@link TimedCallable}
+     */
+    long responseTime();
+
+    /**
+     * Returns an identifier of the signature of the current callable. Identifiers are only valid
+     * for this cursor, equal identifiers denote equal signatures.
+     *
+     * @return signature identifier of the current callable, {@link #NO_SIGNATURE} if the current
+     *         callable is no {@link MethodInvocation} or has no signature
+     */
+    int signatureId();
+
+    /**
+     * Resolves a signature identifier returned by {@link #signatureId()}.
+     *
+     * @param signatureId
+     *            signature identifier
+     * @return the signature, null for {@link #NO_SIGNATURE}
+     */
+    String signature(int signatureId);
+
+    /**
+     * Returns the current callable as object. Depending on the implementation, this may create a
+     * new object.
+     *
+     * @return the current callable
+     */
+    Callable callable();
+}
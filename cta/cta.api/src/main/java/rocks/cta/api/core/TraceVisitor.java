@@ -0,0 +1,145 @@
+package rocks.cta.api.core;
+
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.DatabaseInvocation;
+import rocks.cta.api.core.callables.ExceptionThrow;
+import rocks.cta.api.core.callables.HTTPRequestProcessing;
+import rocks.cta.api.core.callables.LoggingInvocation;
+import rocks.cta.api.core.callables.MethodInvocation;
+import rocks.cta.api.core.callables.RemoteInvocation;
+
+/**
+ * Visitor for the {@link SubTrace}s and {@link Callable}s of a {@link Trace}, driven by
+ * {@link rocks.cta.api.utils.TraceWalker}. Elements that can contain other elements get an enter
+ * callback before and an exit callback after their content, all other callables get a single
+ * visit callback. The walker dispatches on {@link Callable#getCallableType()}, hence, visitors
+ * receive the callables with their API type and do not need instanceof checks.
+ * 
+ * The target {@link SubTrace} of a {@link RemoteInvocation} is visited between
+ * {@link #enterRemoteInvocation(RemoteInvocation)} and
+ * {@link #exitRemoteInvocation(RemoteInvocation)}, if the walker follows remote invocations. All
+ * callbacks do nothing by default, so visitors only implement the callbacks they need and several
+ * analyses can be combined into one pass over the trace.
+ * 
+ * @author Alexander Wert
+ */
+public interface TraceVisitor {
+
+    /**
+     * Called before the callables of a {@link SubTrace}.
+     *
+     * @param subTrace
+     *            sub trace to visit
+     */
+    default void enterSubTrace(SubTrace subTrace) {
+    }
+
+    /**
+     * Called after the callables of a {@link SubTrace}.
+     *
+     * @param subTrace
+     *            visited sub trace
+     */
+    default void exitSubTrace(SubTrace subTrace) {
+    }
+
+    /**
+     * Called before the callees of a {@link MethodInvocation}.
+     *
+     * @param methodInvocation
+     *            method invocation to visit
+     */
+    default void enterMethodInvocation(MethodInvocation methodInvocation) {
+    }
+
+    /**
+     * Called after the callees of a {@link MethodInvocation}.
+     *
+     * @param methodInvocation
+     *            visited method invocation
+     */
+    default void exitMethodInvocation(MethodInvocation methodInvocation) {
+    }
+
+    /**
+     * Called before the callees of a {@link HTTPRequestProcessing}.
+     *
+     * @param httpRequestProcessing
+     *            HTTP request processing to visit
+     */
+    default void enterHTTPRequestProcessing(HTTPRequestProcessing httpRequestProcessing) {
+    }
+
+    /**
+     * Called after the callees of a {@link HTTPRequestProcessing}.
+     *
+     * @param httpRequestProcessing
+     *            visited HTTP request processing
+     */
+    default void exitHTTPRequestProcessing(HTTPRequestProcessing httpRequestProcessing) {
+    }
+
+    /**
+     * Called before the target sub trace of a {@link RemoteInvocation}.
+     *
+     * @param remoteInvocation
+     *            remote invocation to visit
+     */
+    default void enterRemoteInvocation(RemoteInvocation remoteInvocation) {
+    }
+
+    /**
+     * Called after the target sub trace of a {@link RemoteInvocation}.
+     *
+     * @param remoteInvocation
+     *            visited remote invocation
+     */
+    default void exitRemoteInvocation(RemoteInvocation remoteInvocation) {
+    }
+
+    /**
+     * Called for a {@link DatabaseInvocation}.
+     *
+     * @param databaseInvocation
+     *            database invocation to visit
+     */
+    default void visitDatabaseInvocation(DatabaseInvocation databaseInvocation) {
+    }
+
+    /**
+     * Called for a {@link LoggingInvocation}.
+     *
+     * @param loggingInvocation
+     *            logging invocation to visit
+     */
+    default void visitLoggingInvocation(LoggingInvocation loggingInvocation) {
+    }
+
+    /**
+     * Called for an {@link ExceptionThrow}.
+     *
+     * @param exceptionThrow
+     *            exception throw to visit
+     */
+    default void visitExceptionThrow(ExceptionThrow exceptionThrow) {
+    }
+
+    /**
+     * Called before the callees of a {@link Callable} of any other kind. Callables that are no
+     * {@link rocks.cta.api.core.callables.NestingCallable} are exited right away.
+     *
+     * @param callable
+     *            callable to visit
+     */
+    default void enterCallable(Callable callable) {
+    }
+
+    /**
+     * Called after the callees of a {@link Callable} of any other kind.
+     *
+     * @param callable
+     *            visited callable
+     */
+    default void exitCallable(Callable callable) {
+    }
+}
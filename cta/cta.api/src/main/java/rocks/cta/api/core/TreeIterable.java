@@ -1,5 +1,9 @@
 package rocks.cta.api.core;
 
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * A {@link TreeIterable} can be applied on data structures that have a tree structure. The
  * corresponding iterator interface {@link TreeIterator} provides for specifying additional
@@ -19,4 +23,23 @@ public interface TreeIterable<E> extends Iterable<E> {
 	 */
 	@Override
 	TreeIterator<E> iterator();
+
+	/**
+	 * Creates a sequential {@link Stream} on the elements in the order of {@link #iterator()}.
+	 * 
+	 * @return a sequential stream on the elements
+	 */
+	default Stream<E> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**
+	 * Creates a parallel {@link Stream} on the elements. The stream is as parallel as the
+	 * {@link Spliterator} returned by {@link #spliterator()} can be split.
+	 * 
+	 * @return a parallel stream on the elements
+	 */
+	default Stream<E> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
 }
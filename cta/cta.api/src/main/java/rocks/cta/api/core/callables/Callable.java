@@ -66,4 +66,14 @@ public interface Callable extends Identifiable {
      */
     <T extends AdditionalInformation> Optional<Collection<T>> getAdditionalInformation(Class<T> type);
 
+    /**
+     * Returns the kind of this {@link Callable}. Implementations should return a constant instead of
+     * relying on the default implementation, which determines the kind by instanceof checks.
+     *
+     * @return the kind of this {@link Callable}
+     */
+    default CallableType getCallableType() {
+        return CallableType.of(this);
+    }
+
 }
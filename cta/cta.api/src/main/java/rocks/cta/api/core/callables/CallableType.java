@@ -0,0 +1,85 @@
+package rocks.cta.api.core.callables;
+
+/**
+ * Enumeration of the kinds of {@link Callable} defined by the CTA. Allows to dispatch on the kind of
+ * a callable without a chain of instanceof checks.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public enum CallableType {
+	/**
+	 * {@link MethodInvocation}.
+	 */
+	METHOD_INVOCATION(MethodInvocation.class),
+	/**
+	 * {@link RemoteInvocation}.
+	 */
+	REMOTE_INVOCATION(RemoteInvocation.class),
+	/**
+	 * {@link DatabaseInvocation}.
+	 */
+	DATABASE_INVOCATION(DatabaseInvocation.class),
+	/**
+	 * {@link HTTPRequestProcessing}.
+	 */
+	HTTP_REQUEST_PROCESSING(HTTPRequestProcessing.class),
+	/**
+	 * {@link LoggingInvocation}.
+	 */
+	LOGGING_INVOCATION(LoggingInvocation.class),
+	/**
+	 * {@link ExceptionThrow}.
+	 */
+	EXCEPTION_THROW(ExceptionThrow.class),
+	/**
+	 * Any other {@link Callable}.
+	 */
+	OTHER(Callable.class);
+
+	/**
+	 * API interface of the callables of this kind.
+	 */
+	private final Class<? extends Callable> apiType;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param apiType
+	 *            API interface of the callables of this kind
+	 */
+	CallableType(Class<? extends Callable> apiType) {
+		this.apiType = apiType;
+	}
+
+	/**
+	 * @return the API interface of the callables of this kind
+	 */
+	public Class<? extends Callable> getApiType() {
+		return apiType;
+	}
+
+	/**
+	 * Determines the kind of the passed callable by its API interface.
+	 * 
+	 * @param callable
+	 *            callable of interest
+	 * @return the kind of the callable
+	 */
+	public static CallableType of(Callable callable) {
+		if (callable instanceof MethodInvocation) {
+			return METHOD_INVOCATION;
+		} else if (callable instanceof RemoteInvocation) {
+			return REMOTE_INVOCATION;
+		} else if (callable instanceof DatabaseInvocation) {
+			return DATABASE_INVOCATION;
+		} else if (callable instanceof HTTPRequestProcessing) {
+			return HTTP_REQUEST_PROCESSING;
+		} else if (callable instanceof LoggingInvocation) {
+			return LOGGING_INVOCATION;
+		} else if (callable instanceof ExceptionThrow) {
+			return EXCEPTION_THROW;
+		}
+		return OTHER;
+	}
+}
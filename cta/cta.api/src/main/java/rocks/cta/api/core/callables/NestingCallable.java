@@ -1,8 +1,10 @@
 package rocks.cta.api.core.callables;
 
 import java.util.List;
+import java.util.Spliterator;
 
 import rocks.cta.api.core.TreeIterable;
+import rocks.cta.api.utils.CallableSpliterator;
 
 /**
  * A {@link NestingCallable} is a {@link Callable} that can have other {@link Callable} instances as
@@ -42,4 +44,16 @@ public interface NestingCallable extends TimedCallable, TreeIterable<Callable> {
      * @return the number of nodes below this {@link NestingCallable}
      */
     int getChildCount();
+
+    /**
+     * Creates a spliterator on this {@link NestingCallable} and all {@link Callable} instances
+     * below it, which visits the callables in the same order as {@link #iterator()} and splits
+     * the call tree at subtree boundaries.
+     *
+     * @return a new spliterator on the callables
+     */
+    @Override
+    default Spliterator<Callable> spliterator() {
+        return new CallableSpliterator(this);
+    }
 }
@@ -0,0 +1,141 @@
+package rocks.cta.api.utils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import rocks.cta.api.core.TreeIterator;
+
+/**
+ * Base class of {@link TreeIterator} implementations traversing a tree in pre-order. Instead of a
+ * {@link java.util.Stack} of iterators, the path to the current element is kept in two arrays
+ * holding the children lists of the elements on the path and the index of the next child in each
+ * list. Hence, {@link #currentDepth()} is a field access and the iterator does not allocate objects
+ * per step itself, apart from the children lists provided by {@link #getChildren(Object)}.
+ * 
+ * @param <E>
+ *            type of the elements to iterate
+ * @author Alexander Wert
+ * 
+ */
+public abstract class AbstractArrayStackIterator<E> implements TreeIterator<E> {
+
+	/**
+	 * Initial capacity of the stack.
+	 */
+	private static final int INITIAL_DEPTH = 16;
+
+	/**
+	 * Children lists on the path to the current element, null for levels without children list
+	 * (see {@link #pushLevel()}).
+	 */
+	private List<?>[] lists = new List<?>[INITIAL_DEPTH];
+
+	/**
+	 * Index of the next child in each children list on the path.
+	 */
+	private int[] nextIndices = new int[INITIAL_DEPTH];
+
+	/**
+	 * Number of levels on the stack.
+	 */
+	private int size;
+
+	/**
+	 * Depth of the element returned last.
+	 */
+	private int currentDepth = -1;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param root
+	 *            root of the tree, null for an empty tree
+	 */
+	protected AbstractArrayStackIterator(E root) {
+		if (root != null) {
+			push(Collections.singletonList(root));
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (size > 0) {
+			List<?> list = lists[size - 1];
+			if (list != null && nextIndices[size - 1] < list.size()) {
+				return true;
+			}
+			lists[--size] = null;
+		}
+		return false;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException("Iterator reached the end!");
+		}
+		int level = size - 1;
+		E element = resolve((E) lists[level].get(nextIndices[level]++));
+		currentDepth = size - 1;
+		List<? extends E> children = getChildren(element);
+		if (!children.isEmpty()) {
+			push(children);
+		}
+		return element;
+	}
+
+	@Override
+	public int currentDepth() {
+		return currentDepth;
+	}
+
+	/**
+	 * Returns the children of an element. The returned list must not be modified during the
+	 * iteration.
+	 * 
+	 * @param element
+	 *            element of the tree
+	 * @return children of the element, may be empty
+	 */
+	protected abstract List<? extends E> getChildren(E element);
+
+	/**
+	 * Returns the element to visit in place of the passed element. Implementations replacing an
+	 * element by an element one level below call {@link #pushLevel()} for that level. By default,
+	 * elements are not replaced.
+	 * 
+	 * @param element
+	 *            next element of the tree
+	 * @return element to visit
+	 */
+	protected E resolve(E element) {
+		return element;
+	}
+
+	/**
+	 * Adds a level without children list to the stack. The element returned next is reported one
+	 * level deeper than the replaced element.
+	 */
+	protected final void pushLevel() {
+		push(null);
+	}
+
+	/**
+	 * Pushes a children list onto the stack.
+	 * 
+	 * @param list
+	 *            children list, null for a level without children list
+	 */
+	private void push(List<?> list) {
+		if (size == lists.length) {
+			lists = Arrays.copyOf(lists, size * 2);
+			nextIndices = Arrays.copyOf(nextIndices, size * 2);
+		}
+		lists[size] = list;
+		nextIndices[size] = 0;
+		size++;
+	}
+}
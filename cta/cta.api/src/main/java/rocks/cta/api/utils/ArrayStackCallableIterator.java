@@ -0,0 +1,93 @@
+package rocks.cta.api.utils;
+
+import java.util.Collections;
+import java.util.List;
+
+import rocks.cta.api.core.SubTrace;
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.NestingCallable;
+import rocks.cta.api.core.callables.RemoteInvocation;
+
+/**
+ * Array-stack based iterator over {@link Callable}s (see {@link AbstractArrayStackIterator}).
+ * Iterates the same elements in the same order and at the same depths as {@link CallableIterator}
+ * or, if remote invocations are followed, as {@link CallableIteratorOnTrace}.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class ArrayStackCallableIterator extends AbstractArrayStackIterator<Callable> {
+
+	/**
+	 * Whether remote invocations are replaced by the root of their target sub trace.
+	 */
+	private final boolean followRemoteInvocations;
+
+	/**
+	 * Constructor. Iterates over the Callables of a single SubTrace.
+	 * 
+	 * @param root
+	 *            root Callable, may be null
+	 */
+	public ArrayStackCallableIterator(Callable root) {
+		this(root, false);
+	}
+
+	/**
+	 * Constructor. Iterates over the Callables of a Trace starting at the passed SubTrace. Remote
+	 * invocations with a target SubTrace are replaced by the root of the target one level below.
+	 * 
+	 * @param root
+	 *            root SubTrace, may be null
+	 */
+	public ArrayStackCallableIterator(SubTrace root) {
+		this(root == null ? null : root.getRoot(), true);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param root
+	 *            root Callable, may be null
+	 * @param followRemoteInvocations
+	 *            whether remote invocations are replaced by the root of their target sub trace
+	 */
+	protected ArrayStackCallableIterator(Callable root, boolean followRemoteInvocations) {
+		super(root);
+		this.followRemoteInvocations = followRemoteInvocations;
+	}
+
+	@Override
+	protected List<? extends Callable> getChildren(Callable element) {
+		if (element instanceof NestingCallable) {
+			return getCallees((NestingCallable) element);
+		}
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Returns the callees of the passed callable. Implementations may override this method to
+	 * avoid the allocation of views on the callees.
+	 * 
+	 * @param callable
+	 *            nesting callable
+	 * @return callees of the passed callable
+	 */
+	protected List<? extends Callable> getCallees(NestingCallable callable) {
+		return callable.getCallees();
+	}
+
+	@Override
+	protected Callable resolve(Callable element) {
+		Callable result = element;
+		while (followRemoteInvocations && result instanceof RemoteInvocation) {
+			SubTrace target = ((RemoteInvocation) result).getTargetSubTrace().orElse(null);
+			if (target == null || target.getRoot() == null) {
+				break;
+			}
+			pushLevel();
+			result = target.getRoot();
+		}
+		return result;
+	}
+}
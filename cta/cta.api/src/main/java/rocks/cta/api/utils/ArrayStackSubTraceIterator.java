@@ -0,0 +1,31 @@
+package rocks.cta.api.utils;
+
+import java.util.List;
+
+import rocks.cta.api.core.SubTrace;
+
+/**
+ * Array-stack based iterator over {@link SubTrace}s (see {@link AbstractArrayStackIterator}).
+ * Iterates the same elements in the same order and at the same depths as
+ * {@link SubTraceIterator}.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class ArrayStackSubTraceIterator extends AbstractArrayStackIterator<SubTrace> {
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param root
+	 *            root SubTrace, may be null
+	 */
+	public ArrayStackSubTraceIterator(SubTrace root) {
+		super(root);
+	}
+
+	@Override
+	protected List<? extends SubTrace> getChildren(SubTrace element) {
+		return element.getSubTraces();
+	}
+}
@@ -0,0 +1,326 @@
+package rocks.cta.api.utils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import rocks.cta.api.core.SubTrace;
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.NestingCallable;
+import rocks.cta.api.core.callables.RemoteInvocation;
+
+/**
+ * {@link Spliterator} over {@link Callable}s visiting the same elements in the same order as
+ * {@link ArrayStackCallableIterator}. Like the iterator, the spliterator keeps the callee lists on
+ * the path to the current element in arrays, but each level holds a range of the list instead of
+ * a single position. A split hands over the first half of the remaining siblings on the shallowest
+ * level with at least two remaining siblings together with all deeper levels, hence, the trace is
+ * split at subtree boundaries. Callees of the roots of target sub traces of remote invocations are
+ * levels like any other and are split the same way.
+ * 
+ * Sizes are computed from {@link NestingCallable#getChildCount()}. Without following remote
+ * invocations, the sizes are exact and the spliterator reports {@link Spliterator#SIZED} and
+ * {@link Spliterator#SUBSIZED}. Otherwise, the callables of a target sub trace are only added to
+ * the estimate when the remote invocation is reached.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class CallableSpliterator implements Spliterator<Callable> {
+
+	/**
+	 * Initial capacity of the stack.
+	 */
+	private static final int INITIAL_DEPTH = 16;
+
+	/**
+	 * Whether remote invocations are replaced by the root of their target sub trace.
+	 */
+	private final boolean followRemoteInvocations;
+
+	/**
+	 * Callable to visit before the callables on the stack, null if there is none. The callees of
+	 * the head are already on the stack.
+	 */
+	private Callable head;
+
+	/**
+	 * Callee lists on the path to the current element.
+	 */
+	private List<?>[] lists = new List<?>[INITIAL_DEPTH];
+
+	/**
+	 * Index of the next callable to visit in each list on the stack.
+	 */
+	private int[] fromIndices = new int[INITIAL_DEPTH];
+
+	/**
+	 * Index after the last callable to visit in each list on the stack.
+	 */
+	private int[] toIndices = new int[INITIAL_DEPTH];
+
+	/**
+	 * Number of levels on the stack.
+	 */
+	private int size;
+
+	/**
+	 * Number of remaining callables, a lower bound if remote invocations are followed.
+	 */
+	private long estimate;
+
+	/**
+	 * Constructor. Visits the Callables of a single SubTrace.
+	 * 
+	 * @param root
+	 *            root Callable, may be null
+	 */
+	public CallableSpliterator(Callable root) {
+		this(root, false);
+	}
+
+	/**
+	 * Constructor. Visits the Callables of a Trace starting at the passed SubTrace. Remote
+	 * invocations with a target SubTrace are replaced by the root of the target.
+	 * 
+	 * @param root
+	 *            root SubTrace, may be null
+	 */
+	public CallableSpliterator(SubTrace root) {
+		this(root == null ? null : root.getRoot(), true);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param root
+	 *            root Callable, may be null
+	 * @param followRemoteInvocations
+	 *            whether remote invocations are replaced by the root of their target sub trace
+	 */
+	protected CallableSpliterator(Callable root, boolean followRemoteInvocations) {
+		this.followRemoteInvocations = followRemoteInvocations;
+		if (root != null) {
+			push(Collections.singletonList(root));
+			estimate = sizeOf(root);
+		}
+	}
+
+	/**
+	 * Creates an empty spliterator taking over the prefix of this spliterator in
+	 * {@link #trySplit()}. Subclasses overriding {@link #getCallees(NestingCallable)} must override
+	 * this method to return an instance of their own class.
+	 * 
+	 * @return an empty spliterator
+	 */
+	protected CallableSpliterator createPrefix() {
+		return new CallableSpliterator(null, followRemoteInvocations);
+	}
+
+	/**
+	 * Returns the callees of the passed callable. The returned list must not be modified during the
+	 * traversal. Implementations may override this method to avoid the allocation of views on the
+	 * callees.
+	 * 
+	 * @param callable
+	 *            nesting callable
+	 * @return callees of the passed callable
+	 */
+	protected List<? extends Callable> getCallees(NestingCallable callable) {
+		return callable.getCallees();
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super Callable> action) {
+		Callable callable = head;
+		if (callable != null) {
+			head = null;
+		} else {
+			callable = nextUnit();
+			if (callable == null) {
+				return false;
+			}
+		}
+		estimate--;
+		action.accept(callable);
+		return true;
+	}
+
+	@Override
+	public Spliterator<Callable> trySplit() {
+		int level = splitLevel();
+		if (level < 0 && head == null && size > 0) {
+			head = nextUnit();
+			level = splitLevel();
+		}
+		if (level < 0) {
+			return null;
+		}
+
+		int from = fromIndices[level];
+		int to = toIndices[level];
+		List<?> list = lists[level];
+		long levelWeight = 0;
+		for (int i = from; i < to; i++) {
+			levelWeight += weightOf((Callable) list.get(i));
+		}
+		int mid = from + 1;
+		long prefixWeight = weightOf((Callable) list.get(from));
+		while (mid < to - 1 && 2 * prefixWeight < levelWeight) {
+			prefixWeight += weightOf((Callable) list.get(mid));
+			mid++;
+		}
+
+		long suffixEstimate = 0;
+		for (int i = mid; i < to; i++) {
+			suffixEstimate += sizeOf((Callable) list.get(i));
+		}
+		for (int l = 0; l < level; l++) {
+			for (int i = fromIndices[l]; i < toIndices[l]; i++) {
+				suffixEstimate += sizeOf((Callable) lists[l].get(i));
+			}
+		}
+
+		CallableSpliterator prefix = createPrefix();
+		prefix.head = head;
+		for (int l = level; l < size; l++) {
+			prefix.push(lists[l]);
+			prefix.fromIndices[prefix.size - 1] = fromIndices[l];
+			prefix.toIndices[prefix.size - 1] = toIndices[l];
+			if (l > level) {
+				lists[l] = null;
+			}
+		}
+		prefix.toIndices[0] = mid;
+		prefix.estimate = estimate - suffixEstimate;
+
+		head = null;
+		fromIndices[level] = mid;
+		size = level + 1;
+		estimate = suffixEstimate;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		return estimate;
+	}
+
+	@Override
+	public int characteristics() {
+		int characteristics = ORDERED | NONNULL;
+		if (!followRemoteInvocations) {
+			characteristics |= SIZED | SUBSIZED;
+		}
+		return characteristics;
+	}
+
+	/**
+	 * Takes the next callable from the stack and pushes its callees.
+	 * 
+	 * @return the next callable, null if the stack is empty
+	 */
+	private Callable nextUnit() {
+		while (size > 0 && fromIndices[size - 1] >= toIndices[size - 1]) {
+			lists[--size] = null;
+		}
+		if (size == 0) {
+			return null;
+		}
+		int level = size - 1;
+		Callable callable = resolve((Callable) lists[level].get(fromIndices[level]++));
+		if (callable instanceof NestingCallable) {
+			List<? extends Callable> callees = getCallees((NestingCallable) callable);
+			if (!callees.isEmpty()) {
+				push(callees);
+			}
+		}
+		return callable;
+	}
+
+	/**
+	 * Returns the shallowest level with at least two remaining callables.
+	 * 
+	 * @return level index, -1 if there is no such level
+	 */
+	private int splitLevel() {
+		for (int level = 0; level < size; level++) {
+			if (toIndices[level] - fromIndices[level] >= 2) {
+				return level;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Replaces remote invocations with a target sub trace by the root of the target sub trace, if
+	 * remote invocations are followed. Adds the callees of the target root to the estimate.
+	 * 
+	 * @param callable
+	 *            callable to resolve
+	 * @return the resolved callable
+	 */
+	private Callable resolve(Callable callable) {
+		Callable result = callable;
+		while (followRemoteInvocations && result instanceof RemoteInvocation) {
+			SubTrace target = ((RemoteInvocation) result).getTargetSubTrace().orElse(null);
+			if (target == null || target.getRoot() == null) {
+				break;
+			}
+			result = target.getRoot();
+			estimate += sizeOf(result) - 1;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the number of callables of the subtree of the passed callable as counted in the
+	 * estimate, i.e. without target sub traces of remote invocations.
+	 * 
+	 * @param callable
+	 *            callable
+	 * @return the size of the subtree
+	 */
+	private static long sizeOf(Callable callable) {
+		return callable instanceof NestingCallable ? 1L + ((NestingCallable) callable).getChildCount() : 1L;
+	}
+
+	/**
+	 * Returns the number of callables of the subtree of the passed callable used to balance
+	 * splits, i.e. including the target sub trace of a remote invocation if remote invocations are
+	 * followed.
+	 * 
+	 * @param callable
+	 *            callable
+	 * @return the weight of the subtree
+	 */
+	private long weightOf(Callable callable) {
+		if (followRemoteInvocations && callable instanceof RemoteInvocation) {
+			SubTrace target = ((RemoteInvocation) callable).getTargetSubTrace().orElse(null);
+			if (target != null && target.getRoot() != null) {
+				return sizeOf(target.getRoot());
+			}
+		}
+		return sizeOf(callable);
+	}
+
+	/**
+	 * Pushes a callee list onto the stack.
+	 * 
+	 * @param list
+	 *            callee list
+	 */
+	private void push(List<?> list) {
+		if (size == lists.length) {
+			lists = Arrays.copyOf(lists, size * 2);
+			fromIndices = Arrays.copyOf(fromIndices, size * 2);
+			toIndices = Arrays.copyOf(toIndices, size * 2);
+		}
+		lists[size] = list;
+		fromIndices[size] = 0;
+		toIndices[size] = list.size();
+		size++;
+	}
+}
@@ -0,0 +1,249 @@
+package rocks.cta.api.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import rocks.cta.api.core.SubTrace;
+import rocks.cta.api.core.Trace;
+import rocks.cta.api.core.TraceCursor;
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.CallableType;
+import rocks.cta.api.core.callables.MethodInvocation;
+import rocks.cta.api.core.callables.NestingCallable;
+import rocks.cta.api.core.callables.RemoteInvocation;
+import rocks.cta.api.core.callables.TimedCallable;
+
+/**
+ * {@link TraceCursor} for any {@link Trace} walking the {@link Callable} objects of the trace. The
+ * cursor keeps the callee lists of the current path in reusable arrays instead of a stack of
+ * iterators, hence, it does not allocate objects per visited callable itself. Signature
+ * identifiers are assigned by the cursor in the order signatures are encountered.
+ * 
+ * Implementations can override {@link #getCallees(NestingCallable)} and
+ * {@link #getSignatureId(MethodInvocation)} to avoid the allocations of their callables.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class CallableTraceCursor implements TraceCursor {
+
+	/**
+	 * Initial capacity of the path arrays.
+	 */
+	private static final int INITIAL_DEPTH = 16;
+
+	/**
+	 * Root callable of the trace, null if the trace is empty.
+	 */
+	private final Callable root;
+
+	/**
+	 * Callee lists of the callables on the path to the current callable, null for the levels of
+	 * replaced remote invocations.
+	 */
+	private List<?>[] callees = new List<?>[INITIAL_DEPTH];
+
+	/**
+	 * Positions of the callables on the path in their callee lists.
+	 */
+	private int[] positions = new int[INITIAL_DEPTH];
+
+	/**
+	 * Depth of the current callable.
+	 */
+	private int depth;
+
+	/**
+	 * Current callable, null before the first and after the last callable.
+	 */
+	private Callable current;
+
+	/**
+	 * Indicates whether {@link #moveNext()} has been called.
+	 */
+	private boolean started;
+
+	/**
+	 * Identifiers of the signatures encountered so far.
+	 */
+	private Map<String, Integer> signatureIds;
+
+	/**
+	 * Signatures indexed by their identifier.
+	 */
+	private List<String> signatures;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param trace
+	 *            trace to walk
+	 */
+	public CallableTraceCursor(Trace trace) {
+		SubTrace rootSubTrace = trace.getRoot();
+		root = rootSubTrace == null ? null : rootSubTrace.getRoot();
+	}
+
+	@Override
+	public boolean moveNext() {
+		if (!started) {
+			started = true;
+			current = resolve(root);
+			return current != null;
+		}
+		if (current == null) {
+			return false;
+		}
+		if (current instanceof NestingCallable) {
+			List<? extends Callable> children = getCallees((NestingCallable) current);
+			if (!children.isEmpty()) {
+				push(children);
+				current = resolve(children.get(0));
+				return true;
+			}
+		}
+		while (depth > 0) {
+			int level = depth - 1;
+			List<?> siblings = callees[level];
+			if (siblings != null) {
+				int next = ++positions[level];
+				if (next < siblings.size()) {
+					current = resolve((Callable) siblings.get(next));
+					return true;
+				}
+				callees[level] = null;
+			}
+			depth--;
+		}
+		current = null;
+		return false;
+	}
+
+	/**
+	 * Pushes the callees of the current callable onto the path.
+	 * 
+	 * @param children
+	 *            callees of the current callable, null for a replaced remote invocation
+	 */
+	private void push(List<? extends Callable> children) {
+		if (depth == callees.length) {
+			callees = Arrays.copyOf(callees, depth * 2);
+			positions = Arrays.copyOf(positions, depth * 2);
+		}
+		callees[depth] = children;
+		positions[depth] = 0;
+		depth++;
+	}
+
+	/**
+	 * Replaces remote invocations with a target sub trace by the root of the target sub trace one
+	 * level below, like {@link CallableIteratorOnTrace} does.
+	 * 
+	 * @param callable
+	 *            callable to resolve
+	 * @return the resolved callable
+	 */
+	private Callable resolve(Callable callable) {
+		Callable result = callable;
+		while (result instanceof RemoteInvocation) {
+			SubTrace target = ((RemoteInvocation) result).getTargetSubTrace().orElse(null);
+			if (target == null || target.getRoot() == null) {
+				break;
+			}
+			push(null);
+			result = target.getRoot();
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the callees of the passed callable. The returned list is not modified.
+	 * 
+	 * @param callable
+	 *            nesting callable
+	 * @return callees of the passed callable
+	 */
+	protected List<? extends Callable> getCallees(NestingCallable callable) {
+		return callable.getCallees();
+	}
+
+	/**
+	 * Returns the identifier of the signature of the passed method invocation. Implementations
+	 * overriding this method must override {@link #signature(int)} accordingly.
+	 * 
+	 * @param methodInvocation
+	 *            method invocation
+	 * @return signature identifier, {@link #NO_SIGNATURE} if the method invocation has no
+	 *         signature
+	 */
+	protected int getSignatureId(MethodInvocation methodInvocation) {
+		String signature = methodInvocation.getSignature();
+		if (signature == null) {
+			return NO_SIGNATURE;
+		}
+		if (signatureIds == null) {
+			signatureIds = new HashMap<String, Integer>();
+			signatures = new ArrayList<String>();
+		}
+		Integer id = signatureIds.get(signature);
+		if (id == null) {
+			id = signatures.size();
+			signatures.add(signature);
+			signatureIds.put(signature, id);
+		}
+		return id;
+	}
+
+	@Override
+	public String signature(int signatureId) {
+		if (signatureId == NO_SIGNATURE) {
+			return null;
+		}
+		List<String> known = signatures == null ? Collections.<String> emptyList() : signatures;
+		if (signatureId < 0 || signatureId >= known.size()) {
+			throw new IllegalArgumentException("Unknown signature identifier: " + signatureId);
+		}
+		return known.get(signatureId);
+	}
+
+	@Override
+	public CallableType type() {
+		return callable().getCallableType();
+	}
+
+	@Override
+	public int depth() {
+		callable();
+		return depth;
+	}
+
+	@Override
+	public long timestamp() {
+		return callable().getTimestamp();
+	}
+
+	@Override
+	public long responseTime() {
+		Callable callable = callable();
+		return callable instanceof TimedCallable ? ((TimedCallable) callable).getResponseTime() : -1;
+	}
+
+	@Override
+	public int signatureId() {
+		Callable callable = callable();
+		return callable instanceof MethodInvocation ? getSignatureId((MethodInvocation) callable) : NO_SIGNATURE;
+	}
+
+	@Override
+	public Callable callable() {
+		if (current == null) {
+			throw new NoSuchElementException("Cursor is not positioned on a callable.");
+		}
+		return current;
+	}
+}
@@ -0,0 +1,248 @@
+package rocks.cta.api.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import rocks.cta.api.core.Trace;
+import rocks.cta.api.core.TraceVisitor;
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.CallableType;
+import rocks.cta.api.core.callables.DatabaseInvocation;
+import rocks.cta.api.core.callables.ExceptionThrow;
+import rocks.cta.api.core.callables.HTTPRequestProcessing;
+import rocks.cta.api.core.callables.LoggingInvocation;
+import rocks.cta.api.core.callables.MethodInvocation;
+import rocks.cta.api.core.callables.RemoteInvocation;
+
+/**
+ * Index of the {@link Callable}s of a {@link Trace} by their {@link CallableType}. The index is
+ * built by a single pass of a {@link TraceWalker} and keeps the callables of each kind in the order
+ * they are visited, i.e. in pre-order with each remote invocation before the callables of its
+ * target sub trace, together with their position in that order.
+ * 
+ * {@link #get(Class)} returns the callables of the kinds matching the requested type. If all
+ * matches are of a single kind, the list of that kind is returned as is, otherwise the lists of the
+ * matching kinds are merged by position. Hence, a query takes time proportional to the number of
+ * matches rather than to the size of the trace. An index is immutable and can be shared among
+ * threads.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public final class CallableTypeIndex {
+
+	/**
+	 * All kinds of callables.
+	 */
+	private static final CallableType[] TYPES = CallableType.values();
+
+	/**
+	 * Callables of each kind, indexed by the ordinal of the kind.
+	 */
+	private final Callable[][] callables = new Callable[TYPES.length][];
+
+	/**
+	 * Positions of the callables of each kind in visiting order, indexed by the ordinal of the
+	 * kind.
+	 */
+	private final int[][] positions = new int[TYPES.length][];
+
+	/**
+	 * Unmodifiable views on the callables of each kind, indexed by the ordinal of the kind.
+	 */
+	private final List<List<Callable>> views = new ArrayList<List<Callable>>(TYPES.length);
+
+	/**
+	 * Constructor. Builds the index by a single pass over the passed trace.
+	 * 
+	 * @param trace
+	 *            trace to index
+	 */
+	public CallableTypeIndex(Trace trace) {
+		Builder builder = new Builder();
+		trace.accept(builder);
+		for (int i = 0; i < TYPES.length; i++) {
+			callables[i] = Arrays.copyOf(builder.callables[i], builder.counts[i]);
+			positions[i] = Arrays.copyOf(builder.positions[i], builder.counts[i]);
+			views.add(Collections.unmodifiableList(Arrays.asList(callables[i])));
+		}
+	}
+
+	/**
+	 * Returns the callables that are instances of the passed type in visiting order.
+	 * 
+	 * @param type
+	 *            type of interest, e.g. an API interface such as {@link DatabaseInvocation}
+	 * @param <T>
+	 *            type of interest
+	 * @return unmodifiable list of the matching callables
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Callable> List<T> get(Class<T> type) {
+		int[] candidates = new int[TYPES.length];
+		int numCandidates = 0;
+		boolean filter = false;
+		for (CallableType callableType : TYPES) {
+			int ordinal = callableType.ordinal();
+			if (callables[ordinal].length == 0) {
+				continue;
+			}
+			if (type.isAssignableFrom(callableType.getApiType())) {
+				candidates[numCandidates++] = ordinal;
+			} else if (callableType.getApiType().isAssignableFrom(type)) {
+				candidates[numCandidates++] = ordinal;
+				filter = true;
+			}
+		}
+		if (numCandidates == 0) {
+			return Collections.emptyList();
+		}
+		if (numCandidates == 1 && !filter) {
+			return (List<T>) views.get(candidates[0]);
+		}
+		return Collections.unmodifiableList(merge(type, candidates, numCandidates));
+	}
+
+	/**
+	 * @return the number of indexed callables
+	 */
+	public int size() {
+		int size = 0;
+		for (Callable[] ofType : callables) {
+			size += ofType.length;
+		}
+		return size;
+	}
+
+	/**
+	 * Merges the callables of several kinds by position, skipping callables that are not instances
+	 * of the passed type.
+	 * 
+	 * @param type
+	 *            type of interest
+	 * @param candidates
+	 *            ordinals of the kinds to merge
+	 * @param numCandidates
+	 *            number of kinds to merge
+	 * @param <T>
+	 *            type of interest
+	 * @return merged list
+	 */
+	private <T extends Callable> List<T> merge(Class<T> type, int[] candidates, int numCandidates) {
+		int total = 0;
+		for (int i = 0; i < numCandidates; i++) {
+			total += callables[candidates[i]].length;
+		}
+		List<T> result = new ArrayList<T>(total);
+		int[] next = new int[numCandidates];
+		while (true) {
+			int best = -1;
+			int bestPosition = Integer.MAX_VALUE;
+			for (int i = 0; i < numCandidates; i++) {
+				int[] ofType = positions[candidates[i]];
+				if (next[i] < ofType.length && ofType[next[i]] < bestPosition) {
+					best = i;
+					bestPosition = ofType[next[i]];
+				}
+			}
+			if (best < 0) {
+				return result;
+			}
+			Callable callable = callables[candidates[best]][next[best]++];
+			if (type.isInstance(callable)) {
+				result.add(type.cast(callable));
+			}
+		}
+	}
+
+	/**
+	 * Visitor collecting the callables of each kind.
+	 * 
+	 * @author Alexander Wert
+	 * 
+	 */
+	private static final class Builder implements TraceVisitor {
+
+		/**
+		 * Initial capacity of the arrays of each kind.
+		 */
+		private static final int INITIAL_CAPACITY = 16;
+
+		/**
+		 * Callables of each kind.
+		 */
+		private final Callable[][] callables = new Callable[TYPES.length][INITIAL_CAPACITY];
+
+		/**
+		 * Positions of the callables of each kind.
+		 */
+		private final int[][] positions = new int[TYPES.length][INITIAL_CAPACITY];
+
+		/**
+		 * Number of callables of each kind.
+		 */
+		private final int[] counts = new int[TYPES.length];
+
+		/**
+		 * Number of visited callables.
+		 */
+		private int position;
+
+		@Override
+		public void enterMethodInvocation(MethodInvocation methodInvocation) {
+			add(CallableType.METHOD_INVOCATION, methodInvocation);
+		}
+
+		@Override
+		public void enterHTTPRequestProcessing(HTTPRequestProcessing httpRequestProcessing) {
+			add(CallableType.HTTP_REQUEST_PROCESSING, httpRequestProcessing);
+		}
+
+		@Override
+		public void enterRemoteInvocation(RemoteInvocation remoteInvocation) {
+			add(CallableType.REMOTE_INVOCATION, remoteInvocation);
+		}
+
+		@Override
+		public void visitDatabaseInvocation(DatabaseInvocation databaseInvocation) {
+			add(CallableType.DATABASE_INVOCATION, databaseInvocation);
+		}
+
+		@Override
+		public void visitLoggingInvocation(LoggingInvocation loggingInvocation) {
+			add(CallableType.LOGGING_INVOCATION, loggingInvocation);
+		}
+
+		@Override
+		public void visitExceptionThrow(ExceptionThrow exceptionThrow) {
+			add(CallableType.EXCEPTION_THROW, exceptionThrow);
+		}
+
+		@Override
+		public void enterCallable(Callable callable) {
+			add(CallableType.OTHER, callable);
+		}
+
+		/**
+		 * Adds a visited callable.
+		 * 
+		 * @param type
+		 *            kind of the callable
+		 * @param callable
+		 *            visited callable
+		 */
+		private void add(CallableType type, Callable callable) {
+			int ordinal = type.ordinal();
+			int count = counts[ordinal];
+			if (count == callables[ordinal].length) {
+				callables[ordinal] = Arrays.copyOf(callables[ordinal], count * 2);
+				positions[ordinal] = Arrays.copyOf(positions[ordinal], count * 2);
+			}
+			callables[ordinal][count] = callable;
+			positions[ordinal][count] = position++;
+			counts[ordinal] = count + 1;
+		}
+	}
+}
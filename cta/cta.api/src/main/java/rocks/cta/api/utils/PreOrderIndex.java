@@ -0,0 +1,336 @@
+package rocks.cta.api.utils;
+
+import java.util.Arrays;
+
+import rocks.cta.api.core.Trace;
+import rocks.cta.api.core.TreeIterator;
+import rocks.cta.api.core.callables.Callable;
+
+/**
+ * Index assigning every {@link Callable} of a {@link Trace} its pre-order number, i.e. its position
+ * in the order of {@link Trace#iterator()}, and the end of its subtree. As in the iterator, the
+ * root of the target sub trace of a remote invocation takes the place of the remote invocation.
+ * The subtree of a callable is the range [index, subtreeEnd) of pre-order numbers, hence, ancestry
+ * and subtree size queries as well as access by position take constant time. The children of each
+ * callable are kept in pre-order, so the child whose subtree contains a position is found by binary
+ * search. The pre-order number of a callable is looked up in a hash table of primitive pre-order
+ * numbers, by identity unless the index is created for callables that are compared by equality.
+ * 
+ * The index is built by a single pass over the trace and does not reflect later modifications of
+ * the trace. An index is immutable and can be shared among threads.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public final class PreOrderIndex {
+
+	/**
+	 * Initial capacity if the size of the trace is unknown.
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * Number of indexed callables.
+	 */
+	private final int size;
+
+	/**
+	 * Callables in pre-order.
+	 */
+	private final Callable[] callables;
+
+	/**
+	 * Pre-order number after the last callable of the subtree of each callable.
+	 */
+	private final int[] subtreeEnds;
+
+	/**
+	 * Depth of each callable, as reported by the iterator of the trace.
+	 */
+	private final int[] depths;
+
+	/**
+	 * Pre-order number of the parent of each callable, -1 for the root.
+	 */
+	private final int[] parents;
+
+	/**
+	 * Offsets of the children of each callable in {@link #children}, the children of callable i
+	 * are at [childOffsets[i], childOffsets[i + 1]).
+	 */
+	private final int[] childOffsets;
+
+	/**
+	 * Pre-order numbers of the children of all callables, grouped by parent.
+	 */
+	private final int[] children;
+
+	/**
+	 * Hash table holding the pre-order number + 1 of the callables, 0 marks empty slots. The length
+	 * is a power of two and at least twice the number of callables.
+	 */
+	private final int[] slots;
+
+	/**
+	 * Whether callables are looked up by equality instead of identity.
+	 */
+	private final boolean byEquality;
+
+	/**
+	 * Constructor. Builds the index by a single pass over the passed trace. Callables are looked up
+	 * by identity.
+	 * 
+	 * @param trace
+	 *            trace to index
+	 */
+	public PreOrderIndex(Trace trace) {
+		this(trace, false);
+	}
+
+	/**
+	 * Constructor. Builds the index by a single pass over the passed trace.
+	 * 
+	 * @param trace
+	 *            trace to index
+	 * @param byEquality
+	 *            whether callables are looked up by equality instead of identity, required if the
+	 *            trace creates a new callable object on each access
+	 */
+	public PreOrderIndex(Trace trace, boolean byEquality) {
+		this.byEquality = byEquality;
+		int capacity = Math.max(trace.size(), INITIAL_CAPACITY);
+		Callable[] callableArray = new Callable[capacity];
+		int[] depthArray = new int[capacity];
+		int[] parentArray = new int[capacity];
+		int[] endArray = new int[capacity];
+		int[] open = new int[INITIAL_CAPACITY];
+		int openSize = 0;
+		int count = 0;
+
+		TreeIterator<Callable> iterator = trace.iterator();
+		while (iterator.hasNext()) {
+			Callable callable = iterator.next();
+			int depth = iterator.currentDepth();
+			while (openSize > 0 && depthArray[open[openSize - 1]] >= depth) {
+				endArray[open[--openSize]] = count;
+			}
+			if (count == callableArray.length) {
+				callableArray = Arrays.copyOf(callableArray, count * 2);
+				depthArray = Arrays.copyOf(depthArray, count * 2);
+				parentArray = Arrays.copyOf(parentArray, count * 2);
+				endArray = Arrays.copyOf(endArray, count * 2);
+			}
+			callableArray[count] = callable;
+			depthArray[count] = depth;
+			parentArray[count] = openSize > 0 ? open[openSize - 1] : -1;
+			if (openSize == open.length) {
+				open = Arrays.copyOf(open, openSize * 2);
+			}
+			open[openSize++] = count;
+			count++;
+		}
+		while (openSize > 0) {
+			endArray[open[--openSize]] = count;
+		}
+
+		size = count;
+		callables = Arrays.copyOf(callableArray, count);
+		depths = Arrays.copyOf(depthArray, count);
+		parents = Arrays.copyOf(parentArray, count);
+		subtreeEnds = Arrays.copyOf(endArray, count);
+
+		childOffsets = new int[count + 1];
+		for (int i = 0; i < count; i++) {
+			if (parents[i] >= 0) {
+				childOffsets[parents[i] + 1]++;
+			}
+		}
+		for (int i = 0; i < count; i++) {
+			childOffsets[i + 1] += childOffsets[i];
+		}
+		children = new int[Math.max(count - 1, 0)];
+		int[] nextSlots = Arrays.copyOf(childOffsets, count);
+		slots = new int[Integer.highestOneBit(Math.max(2 * count - 1, 1)) << 1];
+		int mask = slots.length - 1;
+		for (int i = 0; i < count; i++) {
+			if (parents[i] >= 0) {
+				children[nextSlots[parents[i]]++] = i;
+			}
+			int slot = hash(callables[i]) & mask;
+			while (slots[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			slots[slot] = i + 1;
+		}
+	}
+
+	/**
+	 * @return the number of indexed callables
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the callable at the passed position.
+	 * 
+	 * @param index
+	 *            pre-order number
+	 * @return the callable at the passed position
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is not in [0, size)
+	 */
+	public Callable get(int index) throws IndexOutOfBoundsException {
+		return callables[index];
+	}
+
+	/**
+	 * Returns the pre-order number of the passed callable.
+	 * 
+	 * @param callable
+	 *            callable of interest
+	 * @return pre-order number of the callable, -1 if the callable has not been indexed
+	 */
+	public int indexOf(Callable callable) {
+		if (callable == null) {
+			return -1;
+		}
+		int mask = slots.length - 1;
+		for (int slot = hash(callable) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+			Callable candidate = callables[slots[slot] - 1];
+			if (candidate == callable || byEquality && candidate.equals(callable)) {
+				return slots[slot] - 1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param index
+	 *            pre-order number
+	 * @return the depth of the callable, 0 for the root
+	 */
+	public int depth(int index) {
+		return depths[index];
+	}
+
+	/**
+	 * @param index
+	 *            pre-order number
+	 * @return the pre-order number of the parent of the callable, -1 for the root
+	 */
+	public int parent(int index) {
+		return parents[index];
+	}
+
+	/**
+	 * @param index
+	 *            pre-order number
+	 * @return the pre-order number after the last callable of the subtree of the callable
+	 */
+	public int subtreeEnd(int index) {
+		return subtreeEnds[index];
+	}
+
+	/**
+	 * @param index
+	 *            pre-order number
+	 * @return the number of callables of the subtree of the callable, including the callable
+	 */
+	public int subtreeSize(int index) {
+		return subtreeEnds[index] - index;
+	}
+
+	/**
+	 * @param index
+	 *            pre-order number
+	 * @return the number of children of the callable
+	 */
+	public int childCount(int index) {
+		return childOffsets[index + 1] - childOffsets[index];
+	}
+
+	/**
+	 * Returns a child of a callable.
+	 * 
+	 * @param index
+	 *            pre-order number of the parent
+	 * @param childIndex
+	 *            position of the child among the children of the parent
+	 * @return the pre-order number of the child
+	 * @throws IndexOutOfBoundsException
+	 *             if the child index is not in [0, childCount)
+	 */
+	public int child(int index, int childIndex) throws IndexOutOfBoundsException {
+		if (childIndex < 0 || childIndex >= childCount(index)) {
+			throw new IndexOutOfBoundsException("Child index " + childIndex + " out of range [0, " + childCount(index) + ")");
+		}
+		return children[childOffsets[index] + childIndex];
+	}
+
+	/**
+	 * Returns the child of a callable whose subtree contains the passed position, found by binary
+	 * search over the children of the callable.
+	 * 
+	 * @param index
+	 *            pre-order number of the parent
+	 * @param position
+	 *            pre-order number of a descendant of the parent
+	 * @return the pre-order number of the child, -1 if the position is not below the parent
+	 */
+	public int childContaining(int index, int position) {
+		if (!isAncestor(index, position)) {
+			return -1;
+		}
+		int low = childOffsets[index];
+		int high = childOffsets[index + 1] - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (children[mid] <= position) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return children[low];
+	}
+
+	/**
+	 * Checks whether a callable is a proper ancestor of another callable.
+	 * 
+	 * @param ancestor
+	 *            pre-order number of the potential ancestor
+	 * @param descendant
+	 *            pre-order number of the potential descendant
+	 * @return true, if the descendant is in the subtree of the ancestor and not the ancestor itself
+	 */
+	public boolean isAncestor(int ancestor, int descendant) {
+		return ancestor < descendant && descendant < subtreeEnds[ancestor];
+	}
+
+	/**
+	 * Checks whether a callable is a proper ancestor of another callable.
+	 * 
+	 * @param ancestor
+	 *            potential ancestor
+	 * @param descendant
+	 *            potential descendant
+	 * @return true, if both callables are indexed and the descendant is in the subtree of the
+	 *         ancestor and not the ancestor itself
+	 */
+	public boolean isAncestor(Callable ancestor, Callable descendant) {
+		int ancestorIndex = indexOf(ancestor);
+		int descendantIndex = indexOf(descendant);
+		return ancestorIndex >= 0 && descendantIndex >= 0 && isAncestor(ancestorIndex, descendantIndex);
+	}
+
+	/**
+	 * @param callable
+	 *            callable to look up
+	 * @return hash code of the callable, spread over the lower bits
+	 */
+	private int hash(Callable callable) {
+		int hash = byEquality ? callable.hashCode() : System.identityHashCode(callable);
+		return hash ^ (hash >>> 16);
+	}
+}
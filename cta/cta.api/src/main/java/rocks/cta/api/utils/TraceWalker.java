@@ -0,0 +1,298 @@
+package rocks.cta.api.utils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import rocks.cta.api.core.SubTrace;
+import rocks.cta.api.core.Trace;
+import rocks.cta.api.core.TraceVisitor;
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.CallableType;
+import rocks.cta.api.core.callables.DatabaseInvocation;
+import rocks.cta.api.core.callables.ExceptionThrow;
+import rocks.cta.api.core.callables.HTTPRequestProcessing;
+import rocks.cta.api.core.callables.LoggingInvocation;
+import rocks.cta.api.core.callables.MethodInvocation;
+import rocks.cta.api.core.callables.NestingCallable;
+import rocks.cta.api.core.callables.RemoteInvocation;
+
+/**
+ * Drives a {@link TraceVisitor} over a {@link Trace}, a {@link SubTrace} or the subtree of a
+ * {@link Callable} in pre-order. The walker is iterative: the elements that have been entered but
+ * not yet exited are kept in arrays together with their content and the position in it, hence,
+ * deep traces do not overflow the call stack. Callables are dispatched on
+ * {@link Callable#getCallableType()} and the content of a stack entry is known to be a list of
+ * callables or a target sub trace by the kind of the entry, so the walker does not probe the
+ * types of the visited elements.
+ * 
+ * A walker can be reused for several walks, but not concurrently.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class TraceWalker {
+
+	/**
+	 * Initial capacity of the stack.
+	 */
+	private static final int INITIAL_DEPTH = 16;
+
+	/**
+	 * Visitor to drive.
+	 */
+	private final TraceVisitor visitor;
+
+	/**
+	 * Entered elements, i.e. sub traces and callables.
+	 */
+	private Object[] elements = new Object[INITIAL_DEPTH];
+
+	/**
+	 * Kinds of the entered callables, null for entered sub traces.
+	 */
+	private CallableType[] types = new CallableType[INITIAL_DEPTH];
+
+	/**
+	 * Content of the entered elements: callee lists of callables and sub traces, target sub traces
+	 * of remote invocations.
+	 */
+	private List<?>[] contents = new List<?>[INITIAL_DEPTH];
+
+	/**
+	 * Index of the next element to visit in each content list.
+	 */
+	private int[] nextIndices = new int[INITIAL_DEPTH];
+
+	/**
+	 * Number of entries on the stack.
+	 */
+	private int size;
+
+	/**
+	 * Whether the target sub traces of remote invocations are visited during the current walk.
+	 */
+	private boolean followRemoteInvocations;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param visitor
+	 *            visitor to drive
+	 */
+	public TraceWalker(TraceVisitor visitor) {
+		if (visitor == null) {
+			throw new IllegalArgumentException("Visitor must not be null!");
+		}
+		this.visitor = visitor;
+	}
+
+	/**
+	 * Visits all sub traces and callables of the passed trace.
+	 * 
+	 * @param trace
+	 *            trace to visit
+	 */
+	public void walk(Trace trace) {
+		walk(trace.getRoot());
+	}
+
+	/**
+	 * Visits the passed sub trace and, via the remote invocations, all sub traces invoked by it.
+	 * 
+	 * @param subTrace
+	 *            sub trace to visit, may be null
+	 */
+	public void walk(SubTrace subTrace) {
+		if (subTrace != null) {
+			start(true);
+			enterSubTrace(subTrace);
+			run();
+		}
+	}
+
+	/**
+	 * Visits the passed callable and all callables below it in the same sub trace. Remote
+	 * invocations are entered and exited without visiting their target sub traces.
+	 * 
+	 * @param callable
+	 *            root of the subtree to visit, may be null
+	 */
+	public void walk(Callable callable) {
+		if (callable != null) {
+			start(false);
+			enterCallable(callable);
+			run();
+		}
+	}
+
+	/**
+	 * Returns the callees of the passed callable. The returned list must not be modified during the
+	 * walk. Implementations may override this method to avoid the allocation of views on the
+	 * callees.
+	 * 
+	 * @param callable
+	 *            nesting callable
+	 * @return callees of the passed callable
+	 */
+	protected List<? extends Callable> getCallees(NestingCallable callable) {
+		return callable.getCallees();
+	}
+
+	/**
+	 * Prepares a walk.
+	 * 
+	 * @param follow
+	 *            whether the target sub traces of remote invocations are visited
+	 */
+	private void start(boolean follow) {
+		if (size > 0) {
+			throw new IllegalStateException("Walker is already walking!");
+		}
+		this.followRemoteInvocations = follow;
+	}
+
+	/**
+	 * Visits the content of the entries on the stack until the stack is empty.
+	 */
+	private void run() {
+		try {
+			while (size > 0) {
+				int top = size - 1;
+				List<?> content = contents[top];
+				if (nextIndices[top] < content.size()) {
+					Object next = content.get(nextIndices[top]++);
+					if (types[top] == CallableType.REMOTE_INVOCATION) {
+						enterSubTrace((SubTrace) next);
+					} else {
+						enterCallable((Callable) next);
+					}
+				} else {
+					exit();
+				}
+			}
+		} finally {
+			while (size > 0) {
+				pop();
+			}
+		}
+	}
+
+	/**
+	 * Enters a sub trace.
+	 * 
+	 * @param subTrace
+	 *            sub trace to enter
+	 */
+	private void enterSubTrace(SubTrace subTrace) {
+		visitor.enterSubTrace(subTrace);
+		Callable root = subTrace.getRoot();
+		push(subTrace, null, root == null ? Collections.emptyList() : Collections.singletonList(root));
+	}
+
+	/**
+	 * Visits or enters a callable, depending on its kind.
+	 * 
+	 * @param callable
+	 *            callable to visit
+	 */
+	private void enterCallable(Callable callable) {
+		CallableType type = callable.getCallableType();
+		switch (type) {
+		case METHOD_INVOCATION:
+			MethodInvocation methodInvocation = (MethodInvocation) callable;
+			visitor.enterMethodInvocation(methodInvocation);
+			push(callable, type, getCallees(methodInvocation));
+			break;
+		case HTTP_REQUEST_PROCESSING:
+			HTTPRequestProcessing httpRequestProcessing = (HTTPRequestProcessing) callable;
+			visitor.enterHTTPRequestProcessing(httpRequestProcessing);
+			push(callable, type, getCallees(httpRequestProcessing));
+			break;
+		case REMOTE_INVOCATION:
+			RemoteInvocation remoteInvocation = (RemoteInvocation) callable;
+			visitor.enterRemoteInvocation(remoteInvocation);
+			SubTrace target = followRemoteInvocations ? remoteInvocation.getTargetSubTrace().orElse(null) : null;
+			push(callable, type, target == null ? Collections.emptyList() : Collections.singletonList(target));
+			break;
+		case DATABASE_INVOCATION:
+			visitor.visitDatabaseInvocation((DatabaseInvocation) callable);
+			break;
+		case LOGGING_INVOCATION:
+			visitor.visitLoggingInvocation((LoggingInvocation) callable);
+			break;
+		case EXCEPTION_THROW:
+			visitor.visitExceptionThrow((ExceptionThrow) callable);
+			break;
+		default:
+			visitor.enterCallable(callable);
+			if (callable instanceof NestingCallable) {
+				push(callable, type, getCallees((NestingCallable) callable));
+			} else {
+				visitor.exitCallable(callable);
+			}
+			break;
+		}
+	}
+
+	/**
+	 * Exits the element on top of the stack.
+	 */
+	private void exit() {
+		Object element = elements[size - 1];
+		CallableType type = types[size - 1];
+		pop();
+		if (type == null) {
+			visitor.exitSubTrace((SubTrace) element);
+			return;
+		}
+		switch (type) {
+		case METHOD_INVOCATION:
+			visitor.exitMethodInvocation((MethodInvocation) element);
+			break;
+		case HTTP_REQUEST_PROCESSING:
+			visitor.exitHTTPRequestProcessing((HTTPRequestProcessing) element);
+			break;
+		case REMOTE_INVOCATION:
+			visitor.exitRemoteInvocation((RemoteInvocation) element);
+			break;
+		default:
+			visitor.exitCallable((Callable) element);
+			break;
+		}
+	}
+
+	/**
+	 * Pushes an entered element onto the stack.
+	 * 
+	 * @param element
+	 *            entered element
+	 * @param type
+	 *            kind of the entered callable, null for a sub trace
+	 * @param content
+	 *            content of the element
+	 */
+	private void push(Object element, CallableType type, List<?> content) {
+		if (size == elements.length) {
+			elements = Arrays.copyOf(elements, size * 2);
+			types = Arrays.copyOf(types, size * 2);
+			contents = Arrays.copyOf(contents, size * 2);
+			nextIndices = Arrays.copyOf(nextIndices, size * 2);
+		}
+		elements[size] = element;
+		types[size] = type;
+		contents[size] = content;
+		nextIndices[size] = 0;
+		size++;
+	}
+
+	/**
+	 * Removes the top entry from the stack.
+	 */
+	private void pop() {
+		size--;
+		elements[size] = null;
+		types[size] = null;
+		contents[size] = null;
+	}
+}
@@ -0,0 +1,140 @@
+package rocks.cta.dflt.impl;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import rocks.cta.dflt.impl.core.LocationPool;
+import rocks.cta.dflt.impl.core.SubTraceImpl;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.core.callables.AbstractNestingCallableImpl;
+import rocks.cta.dflt.impl.core.callables.DatabaseInvocationImpl;
+import rocks.cta.dflt.impl.core.callables.MethodInvocationImpl;
+
+/**
+ * Creates synthetic traces of configurable size for benchmarks.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class BenchmarkTraceCreator {
+
+	/**
+	 * Number of distinct classes used for the generated method invocations.
+	 */
+	private static final int NUM_CLASSES = 64;
+
+	/**
+	 * Every n-th leaf is a database invocation instead of a method invocation.
+	 */
+	private static final int DB_LEAF_INTERVAL = 5;
+
+	/**
+	 * Response time of leaf nodes [nanoseconds].
+	 */
+	private static final long LEAF_RESPONSE_TIME = 1000L;
+
+	/**
+	 * Counter for the created nodes.
+	 */
+	private int nodeCounter = 0;
+
+	/**
+	 * Creates a trace with a single SubTrace whose call tree is a complete tree of the given
+	 * depth and width. The number of callables is the sum of width^i for i in [0, depth].
+	 * 
+	 * @param traceId
+	 *            identifier of the trace
+	 * @param depth
+	 *            depth of the call tree
+	 * @param width
+	 *            number of children of each inner node
+	 * @return trace instance
+	 */
+	public TraceImpl createTrace(long traceId, int depth, int width) {
+		TraceImpl trace = new TraceImpl(traceId);
+		SubTraceImpl subTrace = new SubTraceImpl(traceId, null, trace);
+		subTrace.setLocation(LocationPool.getDefault().intern("host", "JVM", "app", "bt", null));
+		trace.setRoot(subTrace);
+
+		MethodInvocationImpl root = new MethodInvocationImpl(null, subTrace);
+		fillMethod(root, System.currentTimeMillis());
+		subTrace.setRoot(root);
+		createChildren(root, subTrace, 1, depth, width);
+		return trace;
+	}
+
+	/**
+	 * Recursively creates the children of the given parent.
+	 * 
+	 * @param parent
+	 *            parent callable
+	 * @param subTrace
+	 *            containing SubTrace
+	 * @param depth
+	 *            depth of the children to create
+	 * @param maxDepth
+	 *            maximum depth
+	 * @param width
+	 *            number of children per node
+	 * @return response time of the parent [nanoseconds]
+	 */
+	private long createChildren(MethodInvocationImpl parent, SubTraceImpl subTrace, int depth, int maxDepth, int width) {
+		if (depth > maxDepth) {
+			parent.setResponseTime(LEAF_RESPONSE_TIME);
+			return LEAF_RESPONSE_TIME;
+		}
+		long responseTime = LEAF_RESPONSE_TIME;
+		for (int i = 0; i < width; i++) {
+			if (depth == maxDepth && (nodeCounter % DB_LEAF_INTERVAL) == 0) {
+				responseTime += createDatabaseInvocation(parent, subTrace);
+			} else {
+				MethodInvocationImpl child = new MethodInvocationImpl(parent, subTrace);
+				fillMethod(child, parent.getTimestamp() + i);
+				responseTime += createChildren(child, subTrace, depth + 1, maxDepth, width);
+			}
+		}
+		parent.setResponseTime(responseTime);
+		return responseTime;
+	}
+
+	/**
+	 * Creates a database invocation leaf.
+	 * 
+	 * @param parent
+	 *            parent callable
+	 * @param subTrace
+	 *            containing SubTrace
+	 * @return response time of the created invocation [nanoseconds]
+	 */
+	private long createDatabaseInvocation(AbstractNestingCallableImpl parent, SubTraceImpl subTrace) {
+		nodeCounter++;
+		DatabaseInvocationImpl dbInvocation = new DatabaseInvocationImpl(parent, subTrace);
+		dbInvocation.setTimestamp(parent.getTimestamp());
+		dbInvocation.setSQLStatement("SELECT * FROM TABLE_" + (nodeCounter % NUM_CLASSES) + " WHERE ID = ?");
+		dbInvocation.setPrepared(true);
+		dbInvocation.setResponseTime(LEAF_RESPONSE_TIME);
+		return LEAF_RESPONSE_TIME;
+	}
+
+	/**
+	 * Sets signature and timing information on the passed method invocation.
+	 * 
+	 * @param method
+	 *            method invocation to fill
+	 * @param timestamp
+	 *            entry timestamp
+	 */
+	private void fillMethod(MethodInvocationImpl method, long timestamp) {
+		nodeCounter++;
+		int classIdx = nodeCounter % NUM_CLASSES;
+		method.setTimestamp(timestamp);
+		method.setPackageName("org.example.package" + (classIdx % 8));
+		method.setClassName("MyClass" + classIdx);
+		method.setMethodName("method" + (nodeCounter % 16));
+		method.setReturnType("void");
+		method.setParameterTypes(Arrays.asList("java.lang.String", "int"));
+		method.setSignature("org.example.package" + (classIdx % 8) + ".MyClass" + classIdx + ".method" + (nodeCounter % 16) + "(java.lang.String,int)");
+		method.internSignature();
+		method.setCPUTime(Optional.of(LEAF_RESPONSE_TIME / 2));
+	}
+}
@@ -0,0 +1,148 @@
+package rocks.cta.dflt.impl.core;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.dflt.impl.core.callables.MethodInvocationImpl;
+
+/**
+ * Measures registering and resolving the String constants of traces with many distinct
+ * signatures. The trace benchmarks create and read method invocations with distinct signatures
+ * through the {@link StringPool} of the trace. For comparison, the hash code benchmarks register
+ * and resolve the same Strings in a map keyed by the hash code of the Strings, as traces did before
+ * the String pool was introduced.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class StringPoolBenchmark {
+
+	/**
+	 * Number of distinct signatures.
+	 */
+	@Param({ "100000" })
+	private int numSignatures;
+
+	/**
+	 * Distinct signatures.
+	 */
+	private String[] signatures;
+
+	/**
+	 * Trace with one method invocation per signature.
+	 */
+	private TraceImpl trace;
+
+	/**
+	 * Method invocations of the trace.
+	 */
+	private MethodInvocationImpl[] invocations;
+
+	/**
+	 * Hash code registry holding all signatures.
+	 */
+	private Map<Integer, String> hashCodeRegistry;
+
+	/**
+	 * Creates the signatures and the trace.
+	 */
+	@Setup
+	public void setup() {
+		signatures = new String[numSignatures];
+		for (int i = 0; i < numSignatures; i++) {
+			signatures[i] = "org.example.package" + (i % 100) + ".MyClass" + (i / 100) + ".method" + i + "(java.lang.String,int)";
+		}
+		trace = createTrace();
+		invocations = new MethodInvocationImpl[numSignatures];
+		int i = 0;
+		for (Callable callable : trace) {
+			if (callable.getParent() != null) {
+				invocations[i++] = (MethodInvocationImpl) callable;
+			}
+		}
+		hashCodeRegistry = registerHashCodes();
+	}
+
+	/**
+	 * Creates a trace with one method invocation per signature.
+	 * 
+	 * @return the trace
+	 */
+	@Benchmark
+	public TraceImpl createTrace() {
+		TraceImpl newTrace = new TraceImpl(1);
+		SubTraceImpl subTrace = new SubTraceImpl(1, null, newTrace);
+		newTrace.setRoot(subTrace);
+		MethodInvocationImpl root = new MethodInvocationImpl(null, subTrace);
+		subTrace.setRoot(root);
+		for (String signature : signatures) {
+			new MethodInvocationImpl(root, subTrace).setSignature(signature);
+		}
+		return newTrace;
+	}
+
+	/**
+	 * Resolves the signatures of all method invocations.
+	 * 
+	 * @return sum of the signature lengths
+	 */
+	@Benchmark
+	public long resolveSignatures() {
+		long length = 0;
+		for (MethodInvocationImpl invocation : invocations) {
+			length += invocation.getSignature().length();
+		}
+		return length;
+	}
+
+	/**
+	 * Registers all signatures by their hash code.
+	 * 
+	 * @return the registry
+	 */
+	@Benchmark
+	public Map<Integer, String> registerHashCodes() {
+		Map<Integer, String> registry = new HashMap<Integer, String>();
+		for (String signature : signatures) {
+			int hash = signature.hashCode();
+			if (!registry.containsKey(hash)) {
+				registry.put(hash, signature);
+			}
+		}
+		return registry;
+	}
+
+	/**
+	 * Resolves all signatures by their hash code.
+	 * 
+	 * @return sum of the signature lengths
+	 */
+	@Benchmark
+	public long resolveHashCodes() {
+		long length = 0;
+		for (String signature : signatures) {
+			length += hashCodeRegistry.get(signature.hashCode()).length();
+		}
+		return length;
+	}
+}
@@ -0,0 +1,178 @@
+package rocks.cta.dflt.impl.core;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rocks.cta.api.core.Trace;
+import rocks.cta.api.core.TraceCursor;
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.MethodInvocation;
+import rocks.cta.api.core.callables.TimedCallable;
+import rocks.cta.api.utils.CallableTraceCursor;
+import rocks.cta.dflt.impl.BenchmarkTraceCreator;
+import rocks.cta.dflt.impl.columnar.ColumnarTrace;
+
+/**
+ * Compares walking a trace with {@link Trace#iterator()} against walking it with a
+ * {@link TraceCursor}. Each benchmark sums the response times and signature hash codes of all
+ * callables. Results are reported per visited callable; run with the GC profiler
+ * ({@code -prof gc}) to see the allocation rate per visited callable
+ * ({@code gc.alloc.rate.norm}).
+ * 
+ * @author Alexander Wert
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class TraceTraversalBenchmark {
+
+	/**
+	 * Depth of the call tree.
+	 */
+	private static final int DEPTH = 6;
+
+	/**
+	 * Number of children of each inner node.
+	 */
+	private static final int WIDTH = 8;
+
+	/**
+	 * Number of callables of the trace: the sum of WIDTH^i for i in [0, DEPTH].
+	 */
+	private static final int SIZE = 299593;
+
+	/**
+	 * Trace of the default implementation.
+	 */
+	private TraceImpl trace;
+
+	/**
+	 * Columnar copy of the trace.
+	 */
+	private ColumnarTrace columnarTrace;
+
+	/**
+	 * Creates the traces.
+	 */
+	@Setup
+	public void setup() {
+		trace = new BenchmarkTraceCreator().createTrace(1, DEPTH, WIDTH);
+		if (trace.size() != SIZE) {
+			throw new IllegalStateException("Unexpected trace size: " + trace.size());
+		}
+		columnarTrace = ColumnarTrace.copyOf(trace);
+	}
+
+	/**
+	 * Walks the default implementation with its iterator.
+	 * 
+	 * @return checksum
+	 */
+	@Benchmark
+	@OperationsPerInvocation(SIZE)
+	public long iterator() {
+		return walk(trace.iterator());
+	}
+
+	/**
+	 * Walks the default implementation with the generic cursor.
+	 * 
+	 * @return checksum
+	 */
+	@Benchmark
+	@OperationsPerInvocation(SIZE)
+	public long genericCursor() {
+		return walk(new CallableTraceCursor(trace));
+	}
+
+	/**
+	 * Walks the default implementation with its cursor.
+	 * 
+	 * @return checksum
+	 */
+	@Benchmark
+	@OperationsPerInvocation(SIZE)
+	public long cursor() {
+		return walk(trace.cursor());
+	}
+
+	/**
+	 * Walks the columnar implementation with its iterator.
+	 * 
+	 * @return checksum
+	 */
+	@Benchmark
+	@OperationsPerInvocation(SIZE)
+	public long columnarIterator() {
+		return walk(columnarTrace.iterator());
+	}
+
+	/**
+	 * Walks the columnar implementation with its cursor.
+	 * 
+	 * @return checksum
+	 */
+	@Benchmark
+	@OperationsPerInvocation(SIZE)
+	public long columnarCursor() {
+		return walk(columnarTrace.cursor());
+	}
+
+	/**
+	 * Walks a trace with an iterator.
+	 * 
+	 * @param iterator
+	 *            iterator on the trace
+	 * @return checksum
+	 */
+	private static long walk(Iterator<Callable> iterator) {
+		long checksum = 0;
+		while (iterator.hasNext()) {
+			Callable callable = iterator.next();
+			if (callable instanceof TimedCallable) {
+				checksum += ((TimedCallable) callable).getResponseTime();
+			}
+			if (callable instanceof MethodInvocation) {
+				String signature = ((MethodInvocation) callable).getSignature();
+				checksum += signature == null ? 0 : signature.hashCode();
+			}
+		}
+		return checksum;
+	}
+
+	/**
+	 * Walks a trace with a cursor. Signatures are only read as identifiers, as an analysis grouping
+	 * by signature would do.
+	 * 
+	 * @param cursor
+	 *            cursor on the trace
+	 * @return checksum
+	 */
+	private static long walk(TraceCursor cursor) {
+		long checksum = 0;
+		while (cursor.moveNext()) {
+			long responseTime = cursor.responseTime();
+			if (responseTime >= 0) {
+				checksum += responseTime;
+			}
+			checksum += cursor.signatureId();
+		}
+		return checksum;
+	}
+}
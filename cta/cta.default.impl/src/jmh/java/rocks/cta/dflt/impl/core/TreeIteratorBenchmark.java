@@ -0,0 +1,118 @@
+package rocks.cta.dflt.impl.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import rocks.cta.api.core.TreeIterator;
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.utils.ArrayStackCallableIterator;
+import rocks.cta.api.utils.CallableIteratorOnTrace;
+import rocks.cta.dflt.impl.BenchmarkTraceCreator;
+
+/**
+ * Compares the stack of iterators based {@link CallableIteratorOnTrace} with the array-stack based
+ * iterators on a deep and narrow and on a flat and wide trace. Each benchmark walks the whole trace
+ * and sums the depths of all callables. Run with the GC profiler ({@code -prof gc}) to see the
+ * allocation rate per walk ({@code gc.alloc.rate.norm}).
+ * 
+ * @author Alexander Wert
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class TreeIteratorBenchmark {
+
+	/**
+	 * Shape of the trace: DEEP is a binary tree of depth 16, WIDE a tree of depth 2 with 400
+	 * children per inner node. Both have more than 130k callables.
+	 */
+	@Param({ "DEEP", "WIDE" })
+	private String shape;
+
+	/**
+	 * Trace to walk.
+	 */
+	private TraceImpl trace;
+
+	/**
+	 * Creates the trace.
+	 */
+	@Setup
+	public void setup() {
+		if ("DEEP".equals(shape)) {
+			trace = new BenchmarkTraceCreator().createTrace(1, 16, 2);
+		} else {
+			trace = new BenchmarkTraceCreator().createTrace(1, 2, 400);
+		}
+	}
+
+	/**
+	 * Walks the trace with the stack of iterators based iterator.
+	 * 
+	 * @param blackhole
+	 *            sink for the visited callables
+	 * @return checksum
+	 */
+	@Benchmark
+	public long stackIterator(Blackhole blackhole) {
+		return walk(new CallableIteratorOnTrace(trace.getRoot()), blackhole);
+	}
+
+	/**
+	 * Walks the trace with the generic array-stack based iterator.
+	 * 
+	 * @param blackhole
+	 *            sink for the visited callables
+	 * @return checksum
+	 */
+	@Benchmark
+	public long arrayStackIterator(Blackhole blackhole) {
+		return walk(new ArrayStackCallableIterator(trace.getRoot()), blackhole);
+	}
+
+	/**
+	 * Walks the trace with the iterator of the default implementation.
+	 * 
+	 * @param blackhole
+	 *            sink for the visited callables
+	 * @return checksum
+	 */
+	@Benchmark
+	public long traceIterator(Blackhole blackhole) {
+		return walk(trace.iterator(), blackhole);
+	}
+
+	/**
+	 * Walks a trace.
+	 * 
+	 * @param iterator
+	 *            iterator on the trace
+	 * @param blackhole
+	 *            sink for the visited callables
+	 * @return sum of the depths of all callables
+	 */
+	private static long walk(TreeIterator<Callable> iterator, Blackhole blackhole) {
+		long checksum = 0;
+		while (iterator.hasNext()) {
+			blackhole.consume(iterator.next());
+			checksum += iterator.currentDepth();
+		}
+		return checksum;
+	}
+}
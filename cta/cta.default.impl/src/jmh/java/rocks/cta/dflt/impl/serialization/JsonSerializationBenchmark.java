@@ -0,0 +1,133 @@
+package rocks.cta.dflt.impl.serialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rocks.cta.api.core.Trace;
+import rocks.cta.dflt.impl.BenchmarkTraceCreator;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.serialization.KryoSerializationBenchmark.NullOutputStream;
+
+/**
+ * Measures throughput and peak heap usage of the streaming JSON serialization on large traces.
+ * With the default parameters each trace consists of about 1.1 million callables. The peak heap
+ * usage of each iteration is printed after the iteration, it includes the trace to serialize.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+	/**
+	 * Depth of the call tree of the serialized trace.
+	 */
+	@Param({ "6" })
+	private int depth;
+
+	/**
+	 * Number of callees of each nesting callable.
+	 */
+	@Param({ "10" })
+	private int width;
+
+	/**
+	 * Trace to serialize.
+	 */
+	private TraceImpl trace;
+
+	/**
+	 * Serialized trace.
+	 */
+	private byte[] jsonBytes;
+
+	/**
+	 * Creates the trace and its JSON representation.
+	 */
+	@Setup
+	public void setup() {
+		trace = new BenchmarkTraceCreator().createTrace(1, depth, width);
+		ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+		CTASerializer serializer = CTASerializationFactory.getInstance().getSerializer(CTASerializationFormat.JSON);
+		serializer.prepare(outStream);
+		serializer.writeTrace(trace);
+		serializer.close();
+		jsonBytes = outStream.toByteArray();
+		System.out.println("\nCallables: " + trace.size() + ", JSON size: " + (jsonBytes.length >> 20) + " MB");
+	}
+
+	/**
+	 * Resets the peak usage of the heap memory pools.
+	 */
+	@Setup(Level.Iteration)
+	public void resetPeakHeap() {
+		System.gc();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				pool.resetPeakUsage();
+			}
+		}
+	}
+
+	/**
+	 * Prints the peak usage of the heap memory pools since the start of the iteration.
+	 */
+	@TearDown(Level.Iteration)
+	public void printPeakHeap() {
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		System.out.println("\nPeak heap: " + (peak >> 20) + " MB");
+	}
+
+	/**
+	 * Writes the trace to JSON.
+	 */
+	@Benchmark
+	public void serialize() {
+		CTASerializer serializer = CTASerializationFactory.getInstance().getSerializer(CTASerializationFormat.JSON);
+		serializer.prepare(new NullOutputStream());
+		serializer.writeTrace(trace);
+		serializer.close();
+	}
+
+	/**
+	 * Reads the trace from JSON.
+	 * 
+	 * @return the deserialized trace
+	 */
+	@Benchmark
+	public Trace deserialize() {
+		CTADeserializer deserializer = CTASerializationFactory.getInstance().getDeserializer(CTASerializationFormat.JSON);
+		deserializer.setSource(new ByteArrayInputStream(jsonBytes));
+		Trace result = deserializer.readNext();
+		deserializer.close();
+		return result;
+	}
+}
@@ -0,0 +1,129 @@
+package rocks.cta.dflt.impl.serialization;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rocks.cta.dflt.impl.BenchmarkTraceCreator;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.serialization.realizations.KryoCTASerializationEngine;
+import rocks.cta.dflt.impl.serialization.realizations.KryoCTASerializer;
+import rocks.cta.dflt.impl.serialization.realizations.PooledKryoCTASerializer;
+
+/**
+ * Compares the per-instance kryo setup of the {@link KryoCTASerializer} with the pooled
+ * {@link KryoCTASerializationEngine}. Each benchmark invocation opens a stream, writes a number of
+ * traces and closes the stream again, as collectors do for each batch of traces.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class KryoSerializationBenchmark {
+
+	/**
+	 * Number of traces written per stream.
+	 */
+	@Param({ "1", "10" })
+	private int tracesPerStream;
+
+	/**
+	 * Depth of the call tree of the serialized trace.
+	 */
+	@Param({ "3" })
+	private int depth;
+
+	/**
+	 * Trace to serialize.
+	 */
+	private TraceImpl trace;
+
+	/**
+	 * Shared pooled serialization engine.
+	 */
+	private KryoCTASerializationEngine engine;
+
+	/**
+	 * Shared thread-safe serializer.
+	 */
+	private PooledKryoCTASerializer sharedSerializer;
+
+	/**
+	 * Creates the trace and the pooled engine.
+	 */
+	@Setup
+	public void setup() {
+		trace = new BenchmarkTraceCreator().createTrace(1, depth, 4);
+		engine = new KryoCTASerializationEngine();
+		sharedSerializer = new PooledKryoCTASerializer(engine);
+		sharedSerializer.prepare(new NullOutputStream());
+	}
+
+	/**
+	 * One {@link KryoCTASerializer} (and kryo instance) per stream.
+	 */
+	@Benchmark
+	public void perInstanceSetup() {
+		CTASerializer serializer = new KryoCTASerializer();
+		serializer.prepare(new NullOutputStream());
+		for (int i = 0; i < tracesPerStream; i++) {
+			serializer.writeTrace(trace);
+		}
+		serializer.close();
+	}
+
+	/**
+	 * One {@link PooledKryoCTASerializer} per stream borrowing from the shared pool.
+	 */
+	@Benchmark
+	public void pooledPerStream() {
+		CTASerializer serializer = new PooledKryoCTASerializer(engine);
+		serializer.prepare(new NullOutputStream());
+		for (int i = 0; i < tracesPerStream; i++) {
+			serializer.writeTrace(trace);
+		}
+		serializer.close();
+	}
+
+	/**
+	 * All threads write to one shared {@link PooledKryoCTASerializer}.
+	 */
+	@Benchmark
+	public void pooledSharedStream() {
+		for (int i = 0; i < tracesPerStream; i++) {
+			sharedSerializer.writeTrace(trace);
+		}
+	}
+
+	/**
+	 * Output stream discarding all data.
+	 */
+	static final class NullOutputStream extends OutputStream {
+
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package rocks.cta.dflt.impl.serialization;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import rocks.cta.dflt.impl.BenchmarkTraceCreator;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.serialization.realizations.KryoCTADeserializer;
+import rocks.cta.dflt.impl.serialization.realizations.MappedKryoCTADeserializer;
+
+/**
+ * Compares reading a local trace file through an input stream ({@link KryoCTADeserializer}) with
+ * reading it from memory-mapped segments ({@link MappedKryoCTADeserializer}). Each benchmark
+ * invocation reads all traces of the file.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class MappedDeserializationBenchmark {
+
+	/**
+	 * Format of the trace file.
+	 */
+	@Param({ "BINARY", "BINARY_ARCHIVE" })
+	private CTASerializationFormat format;
+
+	/**
+	 * Number of traces in the file.
+	 */
+	@Param({ "100" })
+	private int numTraces;
+
+	/**
+	 * Trace file.
+	 */
+	private File file;
+
+	/**
+	 * Writes the trace file.
+	 * 
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	@Setup
+	public void setup() throws IOException {
+		TraceImpl trace = new BenchmarkTraceCreator().createTrace(1, 4, 10);
+		file = File.createTempFile("traces", ".cta");
+		CTASerializer serializer = CTASerializationFactory.getInstance().getSerializer(format);
+		serializer.prepare(new FileOutputStream(file));
+		for (int i = 0; i < numTraces; i++) {
+			serializer.writeTrace(trace);
+		}
+		serializer.close();
+		System.out.println("\nCallables per trace: " + trace.size() + ", file size: " + (file.length() >> 20) + " MB");
+	}
+
+	/**
+	 * Deletes the trace file.
+	 */
+	@TearDown
+	public void tearDown() {
+		file.delete();
+	}
+
+	/**
+	 * Reads the file through a {@link FileInputStream}.
+	 * 
+	 * @param blackhole
+	 *            consumer of the traces
+	 * @throws FileNotFoundException
+	 *             if the file cannot be opened
+	 */
+	@Benchmark
+	public void inputStream(Blackhole blackhole) throws FileNotFoundException {
+		CTADeserializer deserializer = CTASerializationFactory.getInstance().getDeserializer(format);
+		deserializer.setSource(new FileInputStream(file));
+		readAll(deserializer, blackhole);
+	}
+
+	/**
+	 * Reads the file from memory-mapped segments.
+	 * 
+	 * @param blackhole
+	 *            consumer of the traces
+	 * @throws FileNotFoundException
+	 *             if the file cannot be opened
+	 */
+	@Benchmark
+	public void memoryMapped(Blackhole blackhole) throws FileNotFoundException {
+		CTADeserializer deserializer = CTASerializationFactory.getInstance().getMappedDeserializer(format);
+		deserializer.setSource(new FileInputStream(file));
+		readAll(deserializer, blackhole);
+	}
+
+	/**
+	 * Reads all traces.
+	 * 
+	 * @param deserializer
+	 *            deserializer to read with
+	 * @param blackhole
+	 *            consumer of the traces
+	 */
+	private void readAll(CTADeserializer deserializer, Blackhole blackhole) {
+		Object trace = deserializer.readNext();
+		while (trace != null) {
+			blackhole.consume(trace);
+			trace = deserializer.readNext();
+		}
+		deserializer.close();
+	}
+}
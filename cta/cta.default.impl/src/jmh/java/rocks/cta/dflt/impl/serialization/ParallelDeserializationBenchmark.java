@@ -0,0 +1,139 @@
+package rocks.cta.dflt.impl.serialization;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rocks.cta.api.core.Trace;
+import rocks.cta.dflt.impl.BenchmarkTraceCreator;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.serialization.realizations.KryoCTADeserializer;
+import rocks.cta.dflt.impl.serialization.realizations.ParallelKryoArchiveDeserializer;
+
+/**
+ * Compares decoding an archive sequentially with the {@link KryoCTADeserializer} with decoding it
+ * in parallel with the {@link ParallelKryoArchiveDeserializer} on the common fork/join pool. Each
+ * benchmark invocation decodes all traces of the archive and sums up their response times.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ParallelDeserializationBenchmark {
+
+	/**
+	 * Number of traces in the archive.
+	 */
+	@Param({ "200" })
+	private int numTraces;
+
+	/**
+	 * Archive file.
+	 */
+	private File file;
+
+	/**
+	 * Writes the archive.
+	 * 
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	@Setup
+	public void setup() throws IOException {
+		TraceImpl trace = new BenchmarkTraceCreator().createTrace(1, 4, 10);
+		file = File.createTempFile("traces", ".cta");
+		CTASerializer serializer = CTASerializationFactory.getInstance().getSerializer(CTASerializationFormat.BINARY_ARCHIVE);
+		serializer.prepare(new FileOutputStream(file));
+		for (int i = 0; i < numTraces; i++) {
+			serializer.writeTrace(trace);
+		}
+		serializer.close();
+		System.out.println("\nAvailable processors: " + Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Deletes the archive.
+	 */
+	@TearDown
+	public void tearDown() {
+		file.delete();
+	}
+
+	/**
+	 * Decodes the archive sequentially.
+	 * 
+	 * @return sum of the response times
+	 * @throws FileNotFoundException
+	 *             if the file cannot be opened
+	 */
+	@Benchmark
+	public long sequential() throws FileNotFoundException {
+		CTADeserializer deserializer = CTASerializationFactory.getInstance().getDeserializer(CTASerializationFormat.BINARY_ARCHIVE);
+		deserializer.setSource(new FileInputStream(file));
+		long sum = 0;
+		Trace trace = deserializer.readNext();
+		while (trace != null) {
+			sum += trace.getResponseTime();
+			trace = deserializer.readNext();
+		}
+		deserializer.close();
+		return sum;
+	}
+
+	/**
+	 * Decodes the archive in parallel as ordered stream.
+	 * 
+	 * @return sum of the response times
+	 */
+	@Benchmark
+	public long parallelOrdered() {
+		return parallel(true);
+	}
+
+	/**
+	 * Decodes the archive in parallel as unordered stream.
+	 * 
+	 * @return sum of the response times
+	 */
+	@Benchmark
+	public long parallelUnordered() {
+		return parallel(false);
+	}
+
+	/**
+	 * Decodes the archive in parallel.
+	 * 
+	 * @param ordered
+	 *            whether to use an ordered stream
+	 * @return sum of the response times
+	 */
+	private long parallel(boolean ordered) {
+		ParallelCTADeserializer deserializer = CTASerializationFactory.getInstance().getParallelDeserializer(
+				CTASerializationFormat.BINARY_ARCHIVE);
+		deserializer.setSource(file);
+		long sum = deserializer.stream(ordered).mapToLong(Trace::getResponseTime).sum();
+		deserializer.close();
+		return sum;
+	}
+}
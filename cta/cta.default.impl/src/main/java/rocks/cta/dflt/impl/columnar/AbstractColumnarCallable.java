@@ -0,0 +1,194 @@
+package rocks.cta.dflt.impl.columnar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import rocks.cta.api.core.AdditionalInformation;
+import rocks.cta.api.core.SubTrace;
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.NestingCallable;
+
+/**
+ * View of a callable of a {@link ColumnarTrace}. A view only holds the trace and the index of the
+ * callable, all data is read from and written to the columns of the trace. Hence, views are cheap
+ * to create and two views of the same callable are equal.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public abstract class AbstractColumnarCallable implements Callable {
+
+	/**
+	 * Containing trace.
+	 */
+	protected final ColumnarTrace trace;
+
+	/**
+	 * Index of the callable in the columns of the trace.
+	 */
+	protected final int index;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param trace
+	 *            containing trace
+	 * @param index
+	 *            index of the callable
+	 */
+	protected AbstractColumnarCallable(ColumnarTrace trace, int index) {
+		this.trace = trace;
+		this.index = index;
+	}
+
+	/**
+	 * @return index of the callable in the columns of the containing trace
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	@Override
+	public Optional<Object> getIdentifier() {
+		CallableDetails details = trace.getDetails(index);
+		return details == null ? Optional.empty() : Optional.ofNullable(details.identifier);
+	}
+
+	@Override
+	public void setIdentifier(Object id) {
+		if (id != null || trace.getDetails(index) != null) {
+			trace.getOrCreateDetails(index).identifier = id;
+		}
+	}
+
+	@Override
+	public NestingCallable getParent() {
+		int parentIndex = trace.getParentIndex(index);
+		return parentIndex == ColumnarTrace.NONE ? null : (NestingCallable) trace.getCallable(parentIndex);
+	}
+
+	@Override
+	public SubTrace getContainingSubTrace() {
+		return trace.getSubTraces().get(trace.getSubTraceIndex(index));
+	}
+
+	@Override
+	public long getTimestamp() {
+		return trace.getTimestamp(index);
+	}
+
+	/**
+	 * @param timestamp
+	 *            the timestamp to set
+	 */
+	public void setTimestamp(long timestamp) {
+		trace.setTimestamp(index, timestamp);
+	}
+
+	@Override
+	public Optional<List<String>> getLabels() {
+		int[] labelIds = trace.getLabelIds(index);
+		if (labelIds == null) {
+			return Optional.empty();
+		}
+		List<String> labels = new ArrayList<String>(labelIds.length);
+		for (int labelId : labelIds) {
+			labels.add(trace.getStrings().get(labelId));
+		}
+		return Optional.of(Collections.unmodifiableList(labels));
+	}
+
+	/**
+	 * Adds a label.
+	 * 
+	 * @param label
+	 *            label to add
+	 */
+	public void addLabel(String label) {
+		int labelId = trace.getStrings().register(label);
+		int[] labelIds = trace.getLabelIds(index);
+		if (labelIds == null) {
+			labelIds = new int[] { labelId };
+		} else {
+			labelIds = Arrays.copyOf(labelIds, labelIds.length + 1);
+			labelIds[labelIds.length - 1] = labelId;
+		}
+		trace.setLabelIds(index, labelIds);
+	}
+
+	@Override
+	public Optional<Collection<AdditionalInformation>> getAdditionalInformation() {
+		CallableDetails details = trace.getDetails(index);
+		if (details == null || details.additionInfos == null) {
+			return Optional.empty();
+		}
+		return Optional.of(Collections.unmodifiableCollection(Arrays.asList(details.additionInfos)));
+	}
+
+	/**
+	 * Adds an additional information.
+	 * 
+	 * @param additionalInfo
+	 *            additional information to add
+	 */
+	public void addAdditionalInformation(AdditionalInformation additionalInfo) {
+		CallableDetails details = trace.getOrCreateDetails(index);
+		if (details.additionInfos == null) {
+			details.additionInfos = new AdditionalInformation[] { additionalInfo };
+		} else {
+			details.additionInfos = Arrays.copyOf(details.additionInfos, details.additionInfos.length + 1);
+			details.additionInfos[details.additionInfos.length - 1] = additionalInfo;
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T extends AdditionalInformation> Optional<Collection<T>> getAdditionalInformation(Class<T> type) {
+		CallableDetails details = trace.getDetails(index);
+		if (details == null || details.additionInfos == null) {
+			return Optional.empty();
+		}
+		List<T> result = new ArrayList<T>();
+		for (AdditionalInformation aInfo : details.additionInfos) {
+			if (type.isAssignableFrom(aInfo.getClass())) {
+				result.add((T) aInfo);
+			}
+		}
+		return Optional.of(Collections.unmodifiableCollection(result));
+	}
+
+	/**
+	 * @return details of the callable, null if it has none
+	 */
+	protected CallableDetails getDetails() {
+		return trace.getDetails(index);
+	}
+
+	/**
+	 * @return details of the callable, created if it has none
+	 */
+	protected CallableDetails getOrCreateDetails() {
+		return trace.getOrCreateDetails(index);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * System.identityHashCode(trace) + index;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || getClass() != obj.getClass()) {
+			return false;
+		}
+		AbstractColumnarCallable other = (AbstractColumnarCallable) obj;
+		return trace == other.trace && index == other.index;
+	}
+}
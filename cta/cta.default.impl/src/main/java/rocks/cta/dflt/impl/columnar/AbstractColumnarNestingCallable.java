@@ -0,0 +1,83 @@
+package rocks.cta.dflt.impl.columnar;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import rocks.cta.api.core.TreeIterator;
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.NestingCallable;
+import rocks.cta.api.core.callables.TimedCallable;
+import rocks.cta.api.utils.ArrayStackCallableIterator;
+
+/**
+ * View of a {@link NestingCallable} of a {@link ColumnarTrace}. The callees are resolved through
+ * the first child and next sibling columns of the trace.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public abstract class AbstractColumnarNestingCallable extends AbstractColumnarTimedCallable implements NestingCallable {
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param trace
+	 *            containing trace
+	 * @param index
+	 *            index of the callable
+	 */
+	protected AbstractColumnarNestingCallable(ColumnarTrace trace, int index) {
+		super(trace, index);
+	}
+
+	@Override
+	public TreeIterator<Callable> iterator() {
+		return new ArrayStackCallableIterator(this);
+	}
+
+	@Override
+	public List<Callable> getCallees() {
+		int child = trace.getFirstChildIndex(index);
+		if (child == ColumnarTrace.NONE) {
+			return Collections.emptyList();
+		}
+		List<Callable> callees = new ArrayList<Callable>();
+		for (; child != ColumnarTrace.NONE; child = trace.getNextSiblingIndex(child)) {
+			callees.add(trace.getCallable(child));
+		}
+		return Collections.unmodifiableList(callees);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T extends Callable> List<T> getCallees(Class<T> type) {
+		List<T> result = null;
+		for (int child = trace.getFirstChildIndex(index); child != ColumnarTrace.NONE; child = trace.getNextSiblingIndex(child)) {
+			Callable callable = trace.getCallable(child);
+			if (type.isAssignableFrom(callable.getClass())) {
+				if (result == null) {
+					result = new ArrayList<T>();
+				}
+				result.add((T) callable);
+			}
+		}
+		return result == null ? Collections.emptyList() : Collections.unmodifiableList(result);
+	}
+
+	@Override
+	public int getChildCount() {
+		return trace.getDescendantCount(index);
+	}
+
+	@Override
+	public long getExclusiveTime() {
+		long exclusiveTime = getResponseTime();
+		for (int child = trace.getFirstChildIndex(index); child != ColumnarTrace.NONE; child = trace.getNextSiblingIndex(child)) {
+			if (TimedCallable.class.isAssignableFrom(trace.getType(child).getApiType())) {
+				exclusiveTime -= trace.getResponseTime(child);
+			}
+		}
+		return exclusiveTime;
+	}
+}
@@ -0,0 +1,48 @@
+package rocks.cta.dflt.impl.columnar;
+
+import rocks.cta.api.core.Trace;
+import rocks.cta.api.core.callables.TimedCallable;
+
+/**
+ * View of a {@link TimedCallable} of a {@link ColumnarTrace}.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public abstract class AbstractColumnarTimedCallable extends AbstractColumnarCallable implements TimedCallable {
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param trace
+	 *            containing trace
+	 * @param index
+	 *            index of the callable
+	 */
+	protected AbstractColumnarTimedCallable(ColumnarTrace trace, int index) {
+		super(trace, index);
+	}
+
+	@Override
+	public long getExitTime() {
+		return getTimestamp() + Math.round(((double) getResponseTime()) * Trace.NANOS_TO_MILLIS_FACTOR);
+	}
+
+	@Override
+	public long getExclusiveTime() {
+		return getResponseTime();
+	}
+
+	@Override
+	public long getResponseTime() {
+		return trace.getResponseTime(index);
+	}
+
+	/**
+	 * @param responseTime
+	 *            the responseTime to set
+	 */
+	public void setResponseTime(long responseTime) {
+		trace.setResponseTime(index, responseTime);
+	}
+}
@@ -0,0 +1,196 @@
+package rocks.cta.dflt.impl.columnar;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import rocks.cta.dflt.impl.core.DirectBuffers;
+
+/**
+ * {@link CallableStore} keeping the records in a direct {@link ByteBuffer}, i.e. outside of the
+ * Java heap. Each record occupies {@link #RECORD_SIZE} bytes: the long columns, followed by the
+ * int columns and the type tag. Hence, a store holds at most {@link #MAX_CAPACITY} records.
+ * 
+ * On serialization the records are written as plain bytes and read into a new direct buffer. The
+ * buffer is released when the store grows or is closed.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+class BufferCallableStore extends CallableStore {
+
+	/**
+	 * Size of a record in bytes, padded to a multiple of eight.
+	 */
+	static final int RECORD_SIZE = 56;
+
+	/**
+	 * Maximum number of records.
+	 */
+	static final int MAX_CAPACITY = Integer.MAX_VALUE / RECORD_SIZE;
+
+	/**
+	 * Offset of the int columns within a record.
+	 */
+	private static final int INTS_OFFSET = LONG_COLUMNS * Long.BYTES;
+
+	/**
+	 * Offset of the type tag within a record.
+	 */
+	private static final int TYPE_OFFSET = INTS_OFFSET + INT_COLUMNS * Integer.BYTES;
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 3245693361810106001L;
+
+	/**
+	 * Buffer holding the records.
+	 */
+	private transient ByteBuffer buffer;
+
+	/**
+	 * Number of records the buffer can hold.
+	 */
+	private transient int capacity;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param capacity
+	 *            initial capacity
+	 */
+	BufferCallableStore(int capacity) {
+		this(ByteBuffer.allocateDirect(capacity * RECORD_SIZE).order(ByteOrder.nativeOrder()), capacity);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param buffer
+	 *            buffer with native byte order to hold the records
+	 * @param capacity
+	 *            number of records the buffer can hold
+	 */
+	BufferCallableStore(ByteBuffer buffer, int capacity) {
+		this.buffer = buffer;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Allocates a buffer with native byte order for the passed number of records. Used when
+	 * growing the store.
+	 * 
+	 * @param newCapacity
+	 *            number of records
+	 * @return the buffer
+	 */
+	protected ByteBuffer allocate(int newCapacity) {
+		return ByteBuffer.allocateDirect(newCapacity * RECORD_SIZE).order(ByteOrder.nativeOrder());
+	}
+
+	/**
+	 * @return buffer holding the records
+	 */
+	ByteBuffer getBuffer() {
+		return buffer;
+	}
+
+	@Override
+	int capacity() {
+		return capacity;
+	}
+
+	@Override
+	void resize(int newCapacity) {
+		if (newCapacity > MAX_CAPACITY) {
+			throw new IllegalStateException("Off-heap store cannot hold more than " + MAX_CAPACITY + " callables.");
+		}
+		ByteBuffer newBuffer = allocate(newCapacity);
+		ByteBuffer source = buffer.duplicate();
+		source.position(0).limit(Math.min(capacity, newCapacity) * RECORD_SIZE);
+		newBuffer.put(source);
+		newBuffer.clear();
+		DirectBuffers.release(buffer);
+		buffer = newBuffer;
+		capacity = newCapacity;
+	}
+
+	@Override
+	public void close() {
+		ByteBuffer released = buffer;
+		buffer = ByteBuffer.allocate(0);
+		capacity = 0;
+		DirectBuffers.release(released);
+	}
+
+	@Override
+	byte getType(int index) {
+		return buffer.get(index * RECORD_SIZE + TYPE_OFFSET);
+	}
+
+	@Override
+	void setType(int index, byte type) {
+		buffer.put(index * RECORD_SIZE + TYPE_OFFSET, type);
+	}
+
+	@Override
+	int getInt(int index, int column) {
+		return buffer.getInt(index * RECORD_SIZE + INTS_OFFSET + column * Integer.BYTES);
+	}
+
+	@Override
+	void setInt(int index, int column, int value) {
+		buffer.putInt(index * RECORD_SIZE + INTS_OFFSET + column * Integer.BYTES, value);
+	}
+
+	@Override
+	long getLong(int index, int column) {
+		return buffer.getLong(index * RECORD_SIZE + column * Long.BYTES);
+	}
+
+	@Override
+	void setLong(int index, int column, long value) {
+		buffer.putLong(index * RECORD_SIZE + column * Long.BYTES, value);
+	}
+
+	/**
+	 * Writes the records as bytes.
+	 * 
+	 * @param out
+	 *            stream to write to
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeInt(capacity);
+		byte[] bytes = new byte[capacity * RECORD_SIZE];
+		ByteBuffer source = buffer.duplicate();
+		source.clear();
+		source.get(bytes);
+		out.write(bytes);
+	}
+
+	/**
+	 * Reads the records into a new direct buffer.
+	 * 
+	 * @param in
+	 *            stream to read from
+	 * @throws IOException
+	 *             if reading fails
+	 * @throws ClassNotFoundException
+	 *             if a class cannot be resolved
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		capacity = in.readInt();
+		byte[] bytes = new byte[capacity * RECORD_SIZE];
+		in.readFully(bytes);
+		buffer = ByteBuffer.allocateDirect(bytes.length).order(ByteOrder.nativeOrder());
+		buffer.put(bytes);
+		buffer.clear();
+	}
+}
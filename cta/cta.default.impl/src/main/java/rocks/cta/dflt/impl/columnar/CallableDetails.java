@@ -0,0 +1,94 @@
+package rocks.cta.dflt.impl.columnar;
+
+import java.io.Serializable;
+import java.util.Map;
+
+import rocks.cta.api.core.AdditionalInformation;
+import rocks.cta.api.core.callables.HTTPMethod;
+
+/**
+ * Rarely used data of a callable of a {@link ColumnarTrace}. The trace stores details only for
+ * callables having such data, hence, plain method invocations do not need an instance. All fields
+ * are null if not set.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+class CallableDetails implements Serializable {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = -1926208786120394812L;
+
+	/**
+	 * Identifier of the callable.
+	 */
+	Object identifier;
+
+	/**
+	 * Additional information.
+	 */
+	AdditionalInformation[] additionInfos;
+
+	/**
+	 * Parameter values of a method invocation or parameter bindings of a database invocation.
+	 */
+	Map<Integer, String> parameters;
+
+	/**
+	 * Prepared flag of a database invocation.
+	 */
+	boolean prepared;
+
+	/**
+	 * SQL statement of a database invocation, URI of an HTTP request processing, message of a
+	 * logging invocation, error message of an exception throw or target of a remote invocation.
+	 */
+	String text;
+
+	/**
+	 * Database product name, logging level or cause of an exception throw.
+	 */
+	String attribute1;
+
+	/**
+	 * Database product version or stack trace of an exception throw.
+	 */
+	String attribute2;
+
+	/**
+	 * Database URL or throwable type of an exception throw.
+	 */
+	String attribute3;
+
+	/**
+	 * Request method of an HTTP request processing.
+	 */
+	HTTPMethod requestMethod;
+
+	/**
+	 * HTTP parameters.
+	 */
+	Map<String, String[]> httpParameters;
+
+	/**
+	 * HTTP attributes.
+	 */
+	Map<String, String> httpAttributes;
+
+	/**
+	 * HTTP session attributes.
+	 */
+	Map<String, String> httpSessionAttributes;
+
+	/**
+	 * HTTP headers.
+	 */
+	Map<String, String> httpHeaders;
+
+	/**
+	 * Target sub trace of a remote invocation.
+	 */
+	ColumnarSubTrace targetSubTrace;
+}
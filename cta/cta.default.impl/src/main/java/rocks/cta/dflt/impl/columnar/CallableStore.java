@@ -0,0 +1,211 @@
+package rocks.cta.dflt.impl.columnar;
+
+import java.io.Closeable;
+import java.io.Serializable;
+import java.nio.file.Path;
+
+/**
+ * Storage of the fixed-width columns of a {@link ColumnarTrace}. A store holds one record per
+ * callable consisting of a type tag, a fixed number of int columns and a fixed number of long
+ * columns. Implementations keep the records in heap arrays ({@link #heap()}), in direct memory
+ * outside of the Java heap ({@link #offHeap()}) or in a memory-mapped file ({@link #mapped(Path)}).
+ * 
+ * The sparse columns of a trace (labels and details) as well as its String constants always remain
+ * on the heap. Stores outside of the heap should be closed (see {@link ColumnarTrace#close()}) as
+ * soon as the trace is no longer needed, as otherwise their memory is only released when the store
+ * is garbage collected.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public abstract class CallableStore implements Serializable, Closeable {
+
+	/**
+	 * Index of the parent column.
+	 */
+	static final int PARENT = 0;
+
+	/**
+	 * Index of the first child column.
+	 */
+	static final int FIRST_CHILD = 1;
+
+	/**
+	 * Index of the last child column.
+	 */
+	static final int LAST_CHILD = 2;
+
+	/**
+	 * Index of the next sibling column.
+	 */
+	static final int NEXT_SIBLING = 3;
+
+	/**
+	 * Index of the descendant count column.
+	 */
+	static final int DESCENDANT_COUNT = 4;
+
+	/**
+	 * Index of the sub trace column.
+	 */
+	static final int SUB_TRACE = 5;
+
+	/**
+	 * Index of the signature identifier column.
+	 */
+	static final int SIGNATURE_ID = 6;
+
+	/**
+	 * Number of int columns.
+	 */
+	static final int INT_COLUMNS = 7;
+
+	/**
+	 * Index of the timestamp column.
+	 */
+	static final int TIMESTAMP = 0;
+
+	/**
+	 * Index of the response time column.
+	 */
+	static final int RESPONSE_TIME = 1;
+
+	/**
+	 * Index of the CPU time column.
+	 */
+	static final int CPU_TIME = 2;
+
+	/**
+	 * Number of long columns.
+	 */
+	static final int LONG_COLUMNS = 3;
+
+	/**
+	 * Initial capacity of a store.
+	 */
+	static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 4409417402356211085L;
+
+	/**
+	 * @return new store keeping the records in heap arrays
+	 */
+	public static CallableStore heap() {
+		return new HeapCallableStore(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Creates a store keeping the records in direct memory. The records are not scanned by the
+	 * garbage collector, the memory is released when the trace becomes unreachable.
+	 * 
+	 * @return new off-heap store
+	 */
+	public static CallableStore offHeap() {
+		return new BufferCallableStore(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Creates a store keeping the records in a memory-mapped file. The file is created if it does
+	 * not exist and is overwritten otherwise. It is not deleted by the store.
+	 * 
+	 * @param file
+	 *            file to map
+	 * @return new memory-mapped store
+	 */
+	public static CallableStore mapped(Path file) {
+		return mapped(file, false);
+	}
+
+	/**
+	 * Creates a store keeping the records in a memory-mapped file. The file is created if it does
+	 * not exist and is overwritten otherwise.
+	 * 
+	 * @param file
+	 *            file to map
+	 * @param deleteOnClose
+	 *            whether {@link #close()} deletes the file
+	 * @return new memory-mapped store
+	 */
+	public static CallableStore mapped(Path file, boolean deleteOnClose) {
+		return new MappedCallableStore(file, INITIAL_CAPACITY, deleteOnClose);
+	}
+
+	/**
+	 * Releases the memory held outside of the heap. The store must not be accessed afterwards.
+	 * Closing a store more than once has no effect. Heap stores hold no such memory, hence, this
+	 * implementation does nothing.
+	 */
+	@Override
+	public void close() {
+		// nothing to release
+	}
+
+	/**
+	 * @return number of records the store can hold without growing
+	 */
+	abstract int capacity();
+
+	/**
+	 * Changes the capacity of the store, keeping the records below the new capacity.
+	 * 
+	 * @param newCapacity
+	 *            new capacity
+	 */
+	abstract void resize(int newCapacity);
+
+	/**
+	 * @param index
+	 *            index of the record
+	 * @return type tag of the record
+	 */
+	abstract byte getType(int index);
+
+	/**
+	 * @param index
+	 *            index of the record
+	 * @param type
+	 *            type tag to set
+	 */
+	abstract void setType(int index, byte type);
+
+	/**
+	 * @param index
+	 *            index of the record
+	 * @param column
+	 *            index of the int column
+	 * @return value of the column
+	 */
+	abstract int getInt(int index, int column);
+
+	/**
+	 * @param index
+	 *            index of the record
+	 * @param column
+	 *            index of the int column
+	 * @param value
+	 *            value to set
+	 */
+	abstract void setInt(int index, int column, int value);
+
+	/**
+	 * @param index
+	 *            index of the record
+	 * @param column
+	 *            index of the long column
+	 * @return value of the column
+	 */
+	abstract long getLong(int index, int column);
+
+	/**
+	 * @param index
+	 *            index of the record
+	 * @param column
+	 *            index of the long column
+	 * @param value
+	 *            value to set
+	 */
+	abstract void setLong(int index, int column, long value);
+}
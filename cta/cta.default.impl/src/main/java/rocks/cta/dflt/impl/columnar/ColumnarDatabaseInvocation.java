@@ -0,0 +1,163 @@
+package rocks.cta.dflt.impl.columnar;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import rocks.cta.api.core.callables.CallableType;
+import rocks.cta.api.core.callables.DatabaseInvocation;
+import rocks.cta.api.utils.StringUtils;
+
+/**
+ * View of a {@link DatabaseInvocation} of a {@link ColumnarTrace}. In contrast to the default
+ * implementation, the bound SQL statement is not cached but computed on each call.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class ColumnarDatabaseInvocation extends AbstractColumnarTimedCallable implements DatabaseInvocation {
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param trace
+	 *            containing trace
+	 * @param index
+	 *            index of the callable
+	 */
+	ColumnarDatabaseInvocation(ColumnarTrace trace, int index) {
+		super(trace, index);
+	}
+
+	@Override
+	public Optional<Boolean> isPrepared() {
+		CallableDetails details = getDetails();
+		return Optional.of(details != null && details.prepared);
+	}
+
+	/**
+	 * @param prepared
+	 *            the prepared flag to set
+	 */
+	public void setPrepared(boolean prepared) {
+		getOrCreateDetails().prepared = prepared;
+	}
+
+	@Override
+	public String getSQLStatement() {
+		CallableDetails details = getDetails();
+		return details == null ? null : details.text;
+	}
+
+	/**
+	 * @param sql
+	 *            the SQL statement to set
+	 */
+	public void setSQLStatement(String sql) {
+		getOrCreateDetails().text = sql;
+	}
+
+	@Override
+	public Optional<String> getBoundSQLStatement() {
+		CallableDetails details = getDetails();
+		if (details == null) {
+			return Optional.empty();
+		}
+		if (!details.prepared) {
+			return Optional.ofNullable(details.text);
+		}
+		if (details.parameters == null) {
+			return Optional.empty();
+		}
+		String boundSQL = details.text;
+		int count = 1;
+		while (boundSQL.contains("?")) {
+			if (!details.parameters.containsKey(count)) {
+				throw new IllegalStateException("Invalid amount of paraemter bindings for SQL statement.");
+			}
+			boundSQL = boundSQL.replaceFirst("\\?", details.parameters.get(count));
+			count++;
+		}
+		return Optional.of(boundSQL);
+	}
+
+	@Override
+	public Optional<String> getUnboundSQLStatement() {
+		String sql = getSQLStatement();
+		return sql.contains("?") ? Optional.of(sql) : Optional.empty();
+	}
+
+	@Override
+	public Optional<Map<Integer, String>> getParameterBindings() {
+		CallableDetails details = getDetails();
+		return details == null ? Optional.empty() : Optional.ofNullable(details.parameters);
+	}
+
+	/**
+	 * Adds a parameter binding.
+	 * 
+	 * @param parameterIndex
+	 *            index of the parameter
+	 * @param value
+	 *            bound value
+	 */
+	public void addParameterBinding(int parameterIndex, String value) {
+		CallableDetails details = getOrCreateDetails();
+		if (details.parameters == null) {
+			details.parameters = new HashMap<Integer, String>();
+		}
+		details.parameters.put(parameterIndex, value);
+	}
+
+	@Override
+	public Optional<String> getDBProductName() {
+		CallableDetails details = getDetails();
+		return details == null ? Optional.empty() : Optional.ofNullable(details.attribute1);
+	}
+
+	@Override
+	public Optional<String> getDBProductVersion() {
+		CallableDetails details = getDetails();
+		return details == null ? Optional.empty() : Optional.ofNullable(details.attribute2);
+	}
+
+	@Override
+	public Optional<String> getDBUrl() {
+		CallableDetails details = getDetails();
+		return details == null ? Optional.empty() : Optional.ofNullable(details.attribute3);
+	}
+
+	/**
+	 * @param productName
+	 *            the database product name to set
+	 */
+	public void setDBProductName(Optional<String> productName) {
+		getOrCreateDetails().attribute1 = productName.orElse(null);
+	}
+
+	/**
+	 * @param productVersion
+	 *            the database product version to set
+	 */
+	public void setDBProductVersion(Optional<String> productVersion) {
+		getOrCreateDetails().attribute2 = productVersion.orElse(null);
+	}
+
+	/**
+	 * @param url
+	 *            the database URL to set
+	 */
+	public void setDBUrl(Optional<String> url) {
+		getOrCreateDetails().attribute3 = url.orElse(null);
+	}
+
+	@Override
+	public CallableType getCallableType() {
+		return CallableType.DATABASE_INVOCATION;
+	}
+
+	@Override
+	public String toString() {
+		return StringUtils.getStringRepresentation(this);
+	}
+}
@@ -0,0 +1,94 @@
+package rocks.cta.dflt.impl.columnar;
+
+import java.util.Optional;
+
+import rocks.cta.api.core.callables.CallableType;
+import rocks.cta.api.core.callables.ExceptionThrow;
+import rocks.cta.api.utils.StringUtils;
+
+/**
+ * View of an {@link ExceptionThrow} of a {@link ColumnarTrace}.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class ColumnarExceptionThrow extends AbstractColumnarCallable implements ExceptionThrow {
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param trace
+	 *            containing trace
+	 * @param index
+	 *            index of the callable
+	 */
+	ColumnarExceptionThrow(ColumnarTrace trace, int index) {
+		super(trace, index);
+	}
+
+	@Override
+	public String getErrorMessage() {
+		CallableDetails details = getDetails();
+		return details == null ? null : details.text;
+	}
+
+	@Override
+	public Optional<String> getCause() {
+		CallableDetails details = getDetails();
+		return details == null ? Optional.empty() : Optional.ofNullable(details.attribute1);
+	}
+
+	@Override
+	public Optional<String> getStackTrace() {
+		CallableDetails details = getDetails();
+		return details == null ? Optional.empty() : Optional.ofNullable(details.attribute2);
+	}
+
+	@Override
+	public Optional<String> getThrowableType() {
+		CallableDetails details = getDetails();
+		return details == null ? Optional.empty() : Optional.ofNullable(details.attribute3);
+	}
+
+	/**
+	 * @param errorMessage
+	 *            the errorMessage to set
+	 */
+	public void setErrorMessage(String errorMessage) {
+		getOrCreateDetails().text = errorMessage;
+	}
+
+	/**
+	 * @param cause
+	 *            the cause to set
+	 */
+	public void setCause(String cause) {
+		getOrCreateDetails().attribute1 = cause;
+	}
+
+	/**
+	 * @param stackTrace
+	 *            the stackTrace to set
+	 */
+	public void setStackTrace(String stackTrace) {
+		getOrCreateDetails().attribute2 = stackTrace;
+	}
+
+	/**
+	 * @param throwableType
+	 *            the throwableType to set
+	 */
+	public void setThrowableType(String throwableType) {
+		getOrCreateDetails().attribute3 = throwableType;
+	}
+
+	@Override
+	public CallableType getCallableType() {
+		return CallableType.EXCEPTION_THROW;
+	}
+
+	@Override
+	public String toString() {
+		return StringUtils.getStringRepresentation(this);
+	}
+}
@@ -0,0 +1,134 @@
+package rocks.cta.dflt.impl.columnar;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+import rocks.cta.api.core.callables.CallableType;
+import rocks.cta.api.core.callables.HTTPMethod;
+import rocks.cta.api.core.callables.HTTPRequestProcessing;
+import rocks.cta.api.utils.StringUtils;
+
+/**
+ * View of a {@link HTTPRequestProcessing} of a {@link ColumnarTrace}.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class ColumnarHTTPRequestProcessing extends AbstractColumnarNestingCallable implements HTTPRequestProcessing {
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param trace
+	 *            containing trace
+	 * @param index
+	 *            index of the callable
+	 */
+	ColumnarHTTPRequestProcessing(ColumnarTrace trace, int index) {
+		super(trace, index);
+	}
+
+	@Override
+	public String getUri() {
+		CallableDetails details = getDetails();
+		return details == null ? null : details.text;
+	}
+
+	@Override
+	public Optional<HTTPMethod> getRequestMethod() {
+		CallableDetails details = getDetails();
+		return details == null ? Optional.empty() : Optional.ofNullable(details.requestMethod);
+	}
+
+	@Override
+	public Optional<Map<String, String[]>> getHTTPParameters() {
+		CallableDetails details = getDetails();
+		if (details == null || details.httpParameters == null) {
+			return Optional.empty();
+		}
+		return Optional.of(Collections.unmodifiableMap(details.httpParameters));
+	}
+
+	@Override
+	public Optional<Map<String, String>> getHTTPAttributes() {
+		CallableDetails details = getDetails();
+		if (details == null || details.httpAttributes == null) {
+			return Optional.empty();
+		}
+		return Optional.of(Collections.unmodifiableMap(details.httpAttributes));
+	}
+
+	@Override
+	public Optional<Map<String, String>> getHTTPSessionAttributes() {
+		CallableDetails details = getDetails();
+		if (details == null || details.httpSessionAttributes == null) {
+			return Optional.empty();
+		}
+		return Optional.of(Collections.unmodifiableMap(details.httpSessionAttributes));
+	}
+
+	@Override
+	public Optional<Map<String, String>> getHTTPHeaders() {
+		CallableDetails details = getDetails();
+		return details == null ? Optional.empty() : Optional.ofNullable(details.httpHeaders);
+	}
+
+	/**
+	 * @param parameters
+	 *            the HTTP parameters to set
+	 */
+	public void setHTTPParameters(Map<String, String[]> parameters) {
+		getOrCreateDetails().httpParameters = parameters;
+	}
+
+	/**
+	 * @param attributes
+	 *            the HTTP attributes to set
+	 */
+	public void setHTTPAttributes(Map<String, String> attributes) {
+		getOrCreateDetails().httpAttributes = attributes;
+	}
+
+	/**
+	 * @param sessionAttributes
+	 *            the HTTP session attributes to set
+	 */
+	public void setHTTPSessionAttributes(Map<String, String> sessionAttributes) {
+		getOrCreateDetails().httpSessionAttributes = sessionAttributes;
+	}
+
+	/**
+	 * @param headers
+	 *            the HTTP headers to set
+	 */
+	public void setHTTPHeaders(Map<String, String> headers) {
+		getOrCreateDetails().httpHeaders = headers;
+	}
+
+	/**
+	 * @param uri
+	 *            the uri to set
+	 */
+	public void setUri(String uri) {
+		getOrCreateDetails().text = uri;
+	}
+
+	/**
+	 * @param requestMethod
+	 *            the requestMethod to set
+	 */
+	public void setRequestMethod(HTTPMethod requestMethod) {
+		getOrCreateDetails().requestMethod = requestMethod;
+	}
+
+	@Override
+	public CallableType getCallableType() {
+		return CallableType.HTTP_REQUEST_PROCESSING;
+	}
+
+	@Override
+	public String toString() {
+		return StringUtils.getStringRepresentation(this);
+	}
+}
@@ -0,0 +1,66 @@
+package rocks.cta.dflt.impl.columnar;
+
+import java.util.Optional;
+
+import rocks.cta.api.core.callables.CallableType;
+import rocks.cta.api.core.callables.LoggingInvocation;
+import rocks.cta.api.utils.StringUtils;
+
+/**
+ * View of a {@link LoggingInvocation} of a {@link ColumnarTrace}.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class ColumnarLoggingInvocation extends AbstractColumnarCallable implements LoggingInvocation {
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param trace
+	 *            containing trace
+	 * @param index
+	 *            index of the callable
+	 */
+	ColumnarLoggingInvocation(ColumnarTrace trace, int index) {
+		super(trace, index);
+	}
+
+	@Override
+	public Optional<String> getLoggingLevel() {
+		CallableDetails details = getDetails();
+		return details == null ? Optional.empty() : Optional.ofNullable(details.attribute1);
+	}
+
+	@Override
+	public String getMessage() {
+		CallableDetails details = getDetails();
+		return details == null ? null : details.text;
+	}
+
+	/**
+	 * @param loggingLevel
+	 *            the loggingLevel to set
+	 */
+	public void setLoggingLevel(String loggingLevel) {
+		getOrCreateDetails().attribute1 = loggingLevel;
+	}
+
+	/**
+	 * @param message
+	 *            the message to set
+	 */
+	public void setMessage(String message) {
+		getOrCreateDetails().text = message;
+	}
+
+	@Override
+	public CallableType getCallableType() {
+		return CallableType.LOGGING_INVOCATION;
+	}
+
+	@Override
+	public String toString() {
+		return StringUtils.getStringRepresentation(this);
+	}
+}
@@ -0,0 +1,166 @@
+package rocks.cta.dflt.impl.columnar;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import rocks.cta.api.core.callables.CallableType;
+import rocks.cta.api.core.callables.MethodInvocation;
+import rocks.cta.api.utils.StringUtils;
+import rocks.cta.dflt.impl.core.Signature;
+
+/**
+ * View of a {@link MethodInvocation} of a {@link ColumnarTrace}.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class ColumnarMethodInvocation extends AbstractColumnarNestingCallable implements MethodInvocation {
+
+	/**
+	 * Constructor pattern.
+	 */
+	private static final String CONSTRUCTOR_PATTERN = "<init>";
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param trace
+	 *            containing trace
+	 * @param index
+	 *            index of the callable
+	 */
+	ColumnarMethodInvocation(ColumnarTrace trace, int index) {
+		super(trace, index);
+	}
+
+	@Override
+	public Optional<Long> getCPUTime() {
+		long cpuTime = trace.getCPUTime(index);
+		return cpuTime == ColumnarTrace.UNKNOWN_CPU_TIME ? Optional.empty() : Optional.of(cpuTime);
+	}
+
+	/**
+	 * @param cpuTime
+	 *            the cpuTime to set, {@link Long#MIN_VALUE} if unknown
+	 */
+	public void setCPUTime(long cpuTime) {
+		trace.setCPUTime(index, cpuTime);
+	}
+
+	@Override
+	public Optional<Long> getExclusiveCPUTime() {
+		long cpuTime = trace.getCPUTime(index);
+		if (cpuTime == ColumnarTrace.UNKNOWN_CPU_TIME) {
+			return Optional.empty();
+		}
+		for (int child = trace.getFirstChildIndex(index); child != ColumnarTrace.NONE; child = trace.getNextSiblingIndex(child)) {
+			long childCPUTime = trace.getCPUTime(child);
+			if (trace.getType(child) == CallableType.METHOD_INVOCATION && childCPUTime != ColumnarTrace.UNKNOWN_CPU_TIME) {
+				cpuTime -= childCPUTime;
+			}
+		}
+		return Optional.of(cpuTime);
+	}
+
+	@Override
+	public String getSignature() {
+		Signature signature = getInternedSignature();
+		return signature == null ? null : signature.getFullSignature();
+	}
+
+	/**
+	 * @return the interned signature, null if unknown
+	 */
+	public Signature getInternedSignature() {
+		return trace.getSignature(trace.getSignatureId(index));
+	}
+
+	/**
+	 * Sets all parts of the signature at once.
+	 * 
+	 * @param signature
+	 *            full signature, may be null
+	 * @param returnType
+	 *            full qualified return type, may be null
+	 * @param packageName
+	 *            full package name, may be null
+	 * @param className
+	 *            simple class name, may be null
+	 * @param methodName
+	 *            simple method name, may be null
+	 * @param parameterTypes
+	 *            full qualified parameter types, may be null
+	 */
+	public void setSignature(String signature, String returnType, String packageName, String className, String methodName, List<String> parameterTypes) {
+		trace.setSignatureId(index, trace.getSignatures().register(signature, returnType, packageName, className, methodName, parameterTypes));
+	}
+
+	@Override
+	public Optional<String> getMethodName() {
+		Signature signature = getInternedSignature();
+		return signature == null ? Optional.empty() : Optional.ofNullable(signature.getMethodName());
+	}
+
+	@Override
+	public Optional<String> getClassName() {
+		Signature signature = getInternedSignature();
+		return signature == null ? Optional.empty() : Optional.ofNullable(signature.getClassName());
+	}
+
+	@Override
+	public Optional<String> getPackageName() {
+		Signature signature = getInternedSignature();
+		return signature == null ? Optional.empty() : Optional.ofNullable(signature.getPackageName());
+	}
+
+	@Override
+	public Optional<List<String>> getParameterTypes() {
+		Signature signature = getInternedSignature();
+		return signature == null ? Optional.empty() : Optional.ofNullable(signature.getParameterTypes());
+	}
+
+	@Override
+	public Optional<Map<Integer, String>> getParameterValues() {
+		CallableDetails details = getDetails();
+		return details == null ? Optional.empty() : Optional.ofNullable(details.parameters);
+	}
+
+	/**
+	 * Adds a parameter value.
+	 * 
+	 * @param parameterIndex
+	 *            index of the parameter
+	 * @param value
+	 *            parameter value
+	 */
+	public void addParameterValue(int parameterIndex, String value) {
+		CallableDetails details = getOrCreateDetails();
+		if (details.parameters == null) {
+			details.parameters = new HashMap<Integer, String>();
+		}
+		details.parameters.put(parameterIndex, value);
+	}
+
+	@Override
+	public Optional<String> getReturnType() {
+		Signature signature = getInternedSignature();
+		return signature == null ? Optional.empty() : Optional.ofNullable(signature.getReturnType());
+	}
+
+	@Override
+	public Optional<Boolean> isConstructor() {
+		return getMethodName().map(name -> name.equalsIgnoreCase(CONSTRUCTOR_PATTERN));
+	}
+
+	@Override
+	public CallableType getCallableType() {
+		return CallableType.METHOD_INVOCATION;
+	}
+
+	@Override
+	public String toString() {
+		return StringUtils.getStringRepresentation(this);
+	}
+}
@@ -0,0 +1,87 @@
+package rocks.cta.dflt.impl.columnar;
+
+import java.util.Optional;
+
+import rocks.cta.api.core.Location;
+import rocks.cta.api.core.SubTrace;
+import rocks.cta.api.core.callables.CallableType;
+import rocks.cta.api.core.callables.RemoteInvocation;
+import rocks.cta.api.utils.StringUtils;
+
+/**
+ * View of a {@link RemoteInvocation} of a {@link ColumnarTrace}.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class ColumnarRemoteInvocation extends AbstractColumnarTimedCallable implements RemoteInvocation {
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param trace
+	 *            containing trace
+	 * @param index
+	 *            index of the callable
+	 */
+	ColumnarRemoteInvocation(ColumnarTrace trace, int index) {
+		super(trace, index);
+	}
+
+	@Override
+	public Optional<SubTrace> getTargetSubTrace() {
+		CallableDetails details = getDetails();
+		return details == null ? Optional.empty() : Optional.ofNullable(details.targetSubTrace);
+	}
+
+	/**
+	 * @param targetSubTrace
+	 *            the targetSubTrace to set
+	 */
+	public void setTargetSubTrace(ColumnarSubTrace targetSubTrace) {
+		if (targetSubTrace != null && targetSubTrace.getContainingTrace() != trace) {
+			throw new IllegalArgumentException("Target sub trace belongs to another trace.");
+		}
+		getOrCreateDetails().targetSubTrace = targetSubTrace;
+		trace.invalidateCallableTypeIndex();
+	}
+
+	@Override
+	public Optional<Location> getTargetLocation() {
+		CallableDetails details = getDetails();
+		if (details == null || details.targetSubTrace == null) {
+			return Optional.empty();
+		}
+		return Optional.ofNullable(details.targetSubTrace.getLocation());
+	}
+
+	@Override
+	public String getTarget() {
+		CallableDetails details = getDetails();
+		if (details == null) {
+			return null;
+		}
+		if (details.text == null && details.targetSubTrace != null && details.targetSubTrace.getLocation() != null) {
+			return details.targetSubTrace.getLocation().toString();
+		}
+		return details.text;
+	}
+
+	/**
+	 * @param target
+	 *            the target to set
+	 */
+	public void setTarget(String target) {
+		getOrCreateDetails().text = target;
+	}
+
+	@Override
+	public CallableType getCallableType() {
+		return CallableType.REMOTE_INVOCATION;
+	}
+
+	@Override
+	public String toString() {
+		return StringUtils.getStringRepresentation(this);
+	}
+}
@@ -0,0 +1,210 @@
+package rocks.cta.dflt.impl.columnar;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import rocks.cta.api.core.Location;
+import rocks.cta.api.core.SubTrace;
+import rocks.cta.api.core.Trace;
+import rocks.cta.api.core.TreeIterator;
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.TimedCallable;
+import rocks.cta.api.utils.ArrayStackCallableIterator;
+import rocks.cta.api.utils.StringUtils;
+import rocks.cta.dflt.impl.core.AbstractIdentifiableImpl;
+
+/**
+ * {@link SubTrace} of a {@link ColumnarTrace}. In contrast to callables, sub traces are few and
+ * therefore regular objects. The callables of the sub trace are stored in the columns of the
+ * containing trace.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class ColumnarSubTrace extends AbstractIdentifiableImpl implements SubTrace, Serializable {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 2360525913004683004L;
+
+	/**
+	 * Containing trace.
+	 */
+	private final ColumnarTrace trace;
+
+	/**
+	 * Index of this sub trace in the containing trace.
+	 */
+	private final int index;
+
+	/**
+	 * Identifier of this sub trace.
+	 */
+	private final long subTraceId;
+
+	/**
+	 * Parent sub trace, null for the root.
+	 */
+	private final ColumnarSubTrace parent;
+
+	/**
+	 * Child sub traces, null if there are none.
+	 */
+	private List<SubTrace> children;
+
+	/**
+	 * Location of this sub trace.
+	 */
+	private Location location;
+
+	/**
+	 * Index of the root callable, {@link ColumnarTrace#NONE} if not added, yet.
+	 */
+	private int rootIndex = ColumnarTrace.NONE;
+
+	/**
+	 * Number of callables of this sub trace.
+	 */
+	private int size;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param trace
+	 *            containing trace
+	 * @param index
+	 *            index of this sub trace in the containing trace
+	 * @param subTraceId
+	 *            identifier of this sub trace
+	 * @param parent
+	 *            parent sub trace, null for the root
+	 */
+	ColumnarSubTrace(ColumnarTrace trace, int index, long subTraceId, ColumnarSubTrace parent) {
+		this.trace = trace;
+		this.index = index;
+		this.subTraceId = subTraceId;
+		this.parent = parent;
+	}
+
+	@Override
+	public TreeIterator<Callable> iterator() {
+		return new ArrayStackCallableIterator(getRoot());
+	}
+
+	@Override
+	public Callable getRoot() {
+		return rootIndex == ColumnarTrace.NONE ? null : trace.getCallable(rootIndex);
+	}
+
+	@Override
+	public SubTrace getParent() {
+		return parent;
+	}
+
+	@Override
+	public List<SubTrace> getSubTraces() {
+		if (children == null) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(children);
+	}
+
+	@Override
+	public Location getLocation() {
+		return location;
+	}
+
+	/**
+	 * Setter for the location.
+	 * 
+	 * @param location
+	 *            location to set
+	 */
+	public void setLocation(Location location) {
+		this.location = location;
+	}
+
+	@Override
+	public Trace getContainingTrace() {
+		return trace;
+	}
+
+	@Override
+	public long getSubTraceId() {
+		return subTraceId;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public long getExclusiveTime() {
+		long exclTime = getResponseTime();
+		if (children != null) {
+			for (SubTrace child : children) {
+				exclTime -= child.getResponseTime();
+			}
+		}
+		return exclTime;
+	}
+
+	@Override
+	public long getResponseTime() {
+		if (rootIndex == ColumnarTrace.NONE || !(trace.getCallable(rootIndex) instanceof TimedCallable)) {
+			return 0;
+		}
+		return trace.getResponseTime(rootIndex);
+	}
+
+	@Override
+	public String toString() {
+		return StringUtils.getStringRepresentation(this);
+	}
+
+	/**
+	 * @return index of the root callable, {@link ColumnarTrace#NONE} if not added, yet
+	 */
+	public int getRootIndex() {
+		return rootIndex;
+	}
+
+	/**
+	 * @return index of this sub trace in the containing trace
+	 */
+	int getIndex() {
+		return index;
+	}
+
+	/**
+	 * @param rootIndex
+	 *            index of the root callable
+	 */
+	void setRootIndex(int rootIndex) {
+		this.rootIndex = rootIndex;
+	}
+
+	/**
+	 * Increments the number of callables.
+	 */
+	void incrementSize() {
+		size++;
+	}
+
+	/**
+	 * Adds a child sub trace.
+	 * 
+	 * @param subTrace
+	 *            child sub trace
+	 */
+	void addSubTrace(SubTrace subTrace) {
+		if (children == null) {
+			children = new ArrayList<SubTrace>();
+		}
+		children.add(subTrace);
+	}
+}
@@ -0,0 +1,993 @@
+package rocks.cta.dflt.impl.columnar;
+
+import java.io.Closeable;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import rocks.cta.api.core.AdditionalInformation;
+import rocks.cta.api.core.SubTrace;
+import rocks.cta.api.core.Trace;
+import rocks.cta.api.core.TraceCursor;
+import rocks.cta.api.core.TraceVisitor;
+import rocks.cta.api.core.TreeIterator;
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.CallableType;
+import rocks.cta.api.core.callables.DatabaseInvocation;
+import rocks.cta.api.core.callables.ExceptionThrow;
+import rocks.cta.api.core.callables.HTTPRequestProcessing;
+import rocks.cta.api.core.callables.LoggingInvocation;
+import rocks.cta.api.core.callables.MethodInvocation;
+import rocks.cta.api.core.callables.NestingCallable;
+import rocks.cta.api.core.callables.RemoteInvocation;
+import rocks.cta.api.core.callables.TimedCallable;
+import rocks.cta.api.utils.ArrayStackCallableIterator;
+import rocks.cta.api.utils.ArrayStackSubTraceIterator;
+import rocks.cta.api.utils.CallableTypeIndex;
+import rocks.cta.api.utils.StringUtils;
+import rocks.cta.api.utils.TraceWalker;
+import rocks.cta.dflt.impl.core.AbstractIdentifiableImpl;
+import rocks.cta.dflt.impl.core.LocationPool;
+import rocks.cta.dflt.impl.core.Signature;
+import rocks.cta.dflt.impl.core.SignaturePool;
+import rocks.cta.dflt.impl.core.StringPool;
+
+/**
+ * {@link Trace} implementation storing the callables of all sub traces in parallel primitive
+ * arrays (struct of arrays) instead of one object per callable. A callable is identified by its
+ * index in the columns. The tree structure is stored as parent, first child and next sibling
+ * indices.
+ * 
+ * Callables are accessed through lightweight views (see {@link #getCallable(int)}), which hold
+ * the trace and the index only and are created on each access. Labels are kept in a sparse column
+ * of String pool identifiers. Rarely used data, such as additional information or the fields of
+ * non-method callables, is kept in a sparse column of {@link CallableDetails}.
+ * 
+ * The fixed-width columns are held by a {@link CallableStore}, which keeps them on the heap by
+ * default or, for very large traces, in direct memory or a memory-mapped file outside of the
+ * memory scanned by the garbage collector (see {@link #ColumnarTrace(long, CallableStore)}). Such
+ * traces should be closed when they are no longer needed (see {@link #close()}).
+ * 
+ * Traces are built by the add methods, e.g.
+ * {@link #addMethodInvocation(AbstractColumnarNestingCallable, ColumnarSubTrace)}, which append a
+ * callable and return its view. Instances are not thread-safe while being built.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class ColumnarTrace extends AbstractIdentifiableImpl implements Trace, Serializable, Closeable {
+
+	/**
+	 * Index value denoting no callable.
+	 */
+	public static final int NONE = -1;
+
+	/**
+	 * Value of the CPU time column if the CPU time is unknown.
+	 */
+	static final long UNKNOWN_CPU_TIME = Long.MIN_VALUE;
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = -4125338393718005376L;
+
+	/**
+	 * Callable types indexed by the type tags stored in the type column.
+	 */
+	private static final CallableType[] TYPES = CallableType.values();
+
+	/**
+	 * Identifier of the Trace.
+	 */
+	private final long traceId;
+
+	/**
+	 * String constants used in this trace.
+	 */
+	private final StringPool strings = new StringPool();
+
+	/**
+	 * Signatures used in this trace.
+	 */
+	private final SignaturePool signatures = new SignaturePool(strings);
+
+	/**
+	 * Sub traces indexed by the values of the sub trace column.
+	 */
+	private final List<ColumnarSubTrace> subTraces = new ArrayList<ColumnarSubTrace>();
+
+	/**
+	 * Number of callables.
+	 */
+	private int size;
+
+	/**
+	 * Fixed-width columns: type tags (ordinals of {@link CallableType}), tree structure, sub
+	 * trace, signature identifier and times.
+	 */
+	private final CallableStore store;
+
+	/**
+	 * Sparse label identifiers, null until the first callable has a label.
+	 */
+	private int[][] labelIds;
+
+	/**
+	 * Sparse details, null until the first callable has details.
+	 */
+	private CallableDetails[] details;
+
+	/**
+	 * Indicates that callables have been added since the descendant counts have been computed.
+	 */
+	private boolean descendantCountsStale;
+
+	/**
+	 * Type index of the callables, null if not built, yet, or discarded by a modification.
+	 */
+	private transient CallableTypeIndex callableTypeIndex;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param traceId
+	 *            identifier of this Trace
+	 */
+	public ColumnarTrace(long traceId) {
+		this(traceId, CallableStore.heap());
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param traceId
+	 *            identifier of this Trace
+	 * @param store
+	 *            new, empty store for the columns of the callables, must not be shared with other
+	 *            traces
+	 */
+	public ColumnarTrace(long traceId, CallableStore store) {
+		this.traceId = traceId;
+		this.store = store;
+	}
+
+	/**
+	 * Creates a columnar copy of the passed trace.
+	 * 
+	 * @param source
+	 *            trace to copy, may be of any implementation
+	 * @return the copy
+	 */
+	public static ColumnarTrace copyOf(Trace source) {
+		return copyOf(source, CallableStore.heap());
+	}
+
+	/**
+	 * Creates a columnar copy of the passed trace.
+	 * 
+	 * @param source
+	 *            trace to copy, may be of any implementation
+	 * @param store
+	 *            new, empty store for the columns of the copy
+	 * @return the copy
+	 */
+	public static ColumnarTrace copyOf(Trace source, CallableStore store) {
+		ColumnarTrace trace = new ColumnarTrace(source.getTraceId(), store);
+		trace.setIdentifier(source.getIdentifier().orElse(null));
+		if (source.getRoot() != null) {
+			Map<SubTrace, ColumnarSubTrace> subTraceMapping = new IdentityHashMap<SubTrace, ColumnarSubTrace>();
+			trace.copySubTraces(source.getRoot(), null, subTraceMapping);
+			Iterator<SubTrace> sourceSubTraces = source.subTraceIterator();
+			while (sourceSubTraces.hasNext()) {
+				SubTrace sourceSubTrace = sourceSubTraces.next();
+				if (sourceSubTrace.getRoot() != null) {
+					new TraceWalker(trace.new CallableCopier(subTraceMapping.get(sourceSubTrace), subTraceMapping)).walk(sourceSubTrace
+							.getRoot());
+				}
+			}
+			trace.trimToSize();
+		}
+		return trace;
+	}
+
+	/**
+	 * Recursively copies the sub trace structure.
+	 * 
+	 * @param source
+	 *            sub trace to copy
+	 * @param parent
+	 *            parent of the copy
+	 * @param subTraceMapping
+	 *            mapping of copied sub traces to their copies
+	 */
+	private void copySubTraces(SubTrace source, ColumnarSubTrace parent, Map<SubTrace, ColumnarSubTrace> subTraceMapping) {
+		ColumnarSubTrace subTrace = addSubTrace(source.getSubTraceId(), parent);
+		subTrace.setIdentifier(source.getIdentifier().orElse(null));
+		subTrace.setLocation(LocationPool.getDefault().intern(source.getLocation()));
+		subTraceMapping.put(source, subTrace);
+		for (SubTrace child : source.getSubTraces()) {
+			copySubTraces(child, subTrace, subTraceMapping);
+		}
+	}
+
+	/**
+	 * Copies a callable without its callees.
+	 * 
+	 * @param source
+	 *            callable to copy
+	 * @param parent
+	 *            parent of the copy, null for the root of a sub trace
+	 * @param subTrace
+	 *            containing sub trace of the copy
+	 * @param subTraceMapping
+	 *            mapping of copied sub traces to their copies
+	 * @return the copy
+	 */
+	private AbstractColumnarCallable copyCallable(Callable source, AbstractColumnarNestingCallable parent, ColumnarSubTrace subTrace,
+			Map<SubTrace, ColumnarSubTrace> subTraceMapping) {
+		AbstractColumnarCallable callable;
+		switch (source.getCallableType()) {
+		case METHOD_INVOCATION:
+			MethodInvocation sourceMI = (MethodInvocation) source;
+			ColumnarMethodInvocation mi = addMethodInvocation(parent, subTrace);
+			mi.setSignature(sourceMI.getSignature(), sourceMI.getReturnType().orElse(null), sourceMI.getPackageName().orElse(null), sourceMI.getClassName()
+					.orElse(null), sourceMI.getMethodName().orElse(null), sourceMI.getParameterTypes().orElse(null));
+			mi.setCPUTime(sourceMI.getCPUTime().orElse(UNKNOWN_CPU_TIME));
+			sourceMI.getParameterValues().ifPresent(values -> values.forEach(mi::addParameterValue));
+			callable = mi;
+			break;
+		case HTTP_REQUEST_PROCESSING:
+			HTTPRequestProcessing sourceHTTP = (HTTPRequestProcessing) source;
+			ColumnarHTTPRequestProcessing http = addHTTPRequestProcessing(parent, subTrace);
+			http.setUri(sourceHTTP.getUri());
+			http.setRequestMethod(sourceHTTP.getRequestMethod().orElse(null));
+			http.setHTTPParameters(sourceHTTP.getHTTPParameters().orElse(null));
+			http.setHTTPAttributes(sourceHTTP.getHTTPAttributes().orElse(null));
+			http.setHTTPSessionAttributes(sourceHTTP.getHTTPSessionAttributes().orElse(null));
+			http.setHTTPHeaders(sourceHTTP.getHTTPHeaders().orElse(null));
+			callable = http;
+			break;
+		case REMOTE_INVOCATION:
+			RemoteInvocation sourceRI = (RemoteInvocation) source;
+			ColumnarRemoteInvocation ri = addRemoteInvocation(parent, subTrace);
+			ri.setTarget(sourceRI.getTarget());
+			sourceRI.getTargetSubTrace().ifPresent(target -> ri.setTargetSubTrace(subTraceMapping.get(target)));
+			callable = ri;
+			break;
+		case DATABASE_INVOCATION:
+			DatabaseInvocation sourceDB = (DatabaseInvocation) source;
+			ColumnarDatabaseInvocation db = addDatabaseInvocation(parent, subTrace);
+			db.setSQLStatement(sourceDB.getSQLStatement());
+			db.setPrepared(sourceDB.isPrepared().orElse(false));
+			sourceDB.getParameterBindings().ifPresent(bindings -> bindings.forEach(db::addParameterBinding));
+			db.setDBProductName(sourceDB.getDBProductName());
+			db.setDBProductVersion(sourceDB.getDBProductVersion());
+			db.setDBUrl(sourceDB.getDBUrl());
+			callable = db;
+			break;
+		case LOGGING_INVOCATION:
+			LoggingInvocation sourceLog = (LoggingInvocation) source;
+			ColumnarLoggingInvocation log = addLoggingInvocation(parent, subTrace);
+			log.setLoggingLevel(sourceLog.getLoggingLevel().orElse(null));
+			log.setMessage(sourceLog.getMessage());
+			callable = log;
+			break;
+		case EXCEPTION_THROW:
+			ExceptionThrow sourceET = (ExceptionThrow) source;
+			ColumnarExceptionThrow et = addExceptionThrow(parent, subTrace);
+			et.setErrorMessage(sourceET.getErrorMessage());
+			et.setCause(sourceET.getCause().orElse(null));
+			et.setStackTrace(sourceET.getStackTrace().orElse(null));
+			et.setThrowableType(sourceET.getThrowableType().orElse(null));
+			callable = et;
+			break;
+		default:
+			throw new IllegalArgumentException("Unsupported callable type: " + source.getClass().getName());
+		}
+
+		callable.setIdentifier(source.getIdentifier().orElse(null));
+		callable.setTimestamp(source.getTimestamp());
+		if (source instanceof TimedCallable) {
+			((AbstractColumnarTimedCallable) callable).setResponseTime(((TimedCallable) source).getResponseTime());
+		}
+		source.getLabels().ifPresent(labels -> labels.forEach(callable::addLabel));
+		source.getAdditionalInformation().ifPresent(infos -> {
+			for (AdditionalInformation info : infos) {
+				callable.addAdditionalInformation(info);
+			}
+		});
+		return callable;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The type index is built on first use and shared by all subsequent calls until callables are
+	 * added, hence, subsequent queries take time proportional to the number of matches.
+	 */
+	@Override
+	public <T extends Callable> List<T> callables(Class<T> type) {
+		return getCallableTypeIndex().get(type);
+	}
+
+	/**
+	 * Returns an index of the callables of this trace by their kind. The index is built on first
+	 * use and shared by all subsequent calls. It is discarded when callables are added or the
+	 * target of a remote invocation is set, and built again by the next call.
+	 * 
+	 * @return type index of the callables of this trace
+	 */
+	public CallableTypeIndex getCallableTypeIndex() {
+		CallableTypeIndex index = callableTypeIndex;
+		if (index == null) {
+			index = new CallableTypeIndex(this);
+			callableTypeIndex = index;
+		}
+		return index;
+	}
+
+	@Override
+	public TreeIterator<Callable> iterator() {
+		return new ArrayStackCallableIterator(getRoot());
+	}
+
+	@Override
+	public TraceCursor cursor() {
+		return new ColumnarTraceCursor(this);
+	}
+
+	@Override
+	public SubTrace getRoot() {
+		return subTraces.isEmpty() ? null : subTraces.get(0);
+	}
+
+	@Override
+	public TreeIterator<SubTrace> subTraceIterator() {
+		return new ArrayStackSubTraceIterator(getRoot());
+	}
+
+	@Override
+	public long getTraceId() {
+		return traceId;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public long getExclusiveTime() {
+		return getResponseTime();
+	}
+
+	@Override
+	public long getResponseTime() {
+		SubTrace root = getRoot();
+		return root == null ? 0 : root.getResponseTime();
+	}
+
+	@Override
+	public String toString() {
+		return StringUtils.getStringRepresentation(this);
+	}
+
+	/**
+	 * Adds a new sub trace. The first added sub trace is the root of this trace.
+	 * 
+	 * @param subTraceId
+	 *            identifier of the sub trace
+	 * @param parent
+	 *            parent sub trace, null for the root
+	 * @return the new sub trace
+	 */
+	public ColumnarSubTrace addSubTrace(long subTraceId, ColumnarSubTrace parent) {
+		if (parent == null && !subTraces.isEmpty()) {
+			throw new IllegalStateException("The root sub trace has already been added.");
+		}
+		if (parent != null && parent.getContainingTrace() != this) {
+			throw new IllegalArgumentException("Parent sub trace belongs to another trace.");
+		}
+		ColumnarSubTrace subTrace = new ColumnarSubTrace(this, subTraces.size(), subTraceId, parent);
+		subTraces.add(subTrace);
+		if (parent != null) {
+			parent.addSubTrace(subTrace);
+		}
+		return subTrace;
+	}
+
+	/**
+	 * Adds a new method invocation.
+	 * 
+	 * @param parent
+	 *            calling callable, null if the method invocation is the root of the sub trace
+	 * @param subTrace
+	 *            containing sub trace
+	 * @return view of the new method invocation
+	 */
+	public ColumnarMethodInvocation addMethodInvocation(AbstractColumnarNestingCallable parent, ColumnarSubTrace subTrace) {
+		return new ColumnarMethodInvocation(this, addCallable(CallableType.METHOD_INVOCATION, parent, subTrace));
+	}
+
+	/**
+	 * Adds a new HTTP request processing.
+	 * 
+	 * @param parent
+	 *            calling callable, null if the HTTP request processing is the root of the sub
+	 *            trace
+	 * @param subTrace
+	 *            containing sub trace
+	 * @return view of the new HTTP request processing
+	 */
+	public ColumnarHTTPRequestProcessing addHTTPRequestProcessing(AbstractColumnarNestingCallable parent, ColumnarSubTrace subTrace) {
+		return new ColumnarHTTPRequestProcessing(this, addCallable(CallableType.HTTP_REQUEST_PROCESSING, parent, subTrace));
+	}
+
+	/**
+	 * Adds a new remote invocation.
+	 * 
+	 * @param parent
+	 *            calling callable
+	 * @param subTrace
+	 *            containing sub trace
+	 * @return view of the new remote invocation
+	 */
+	public ColumnarRemoteInvocation addRemoteInvocation(AbstractColumnarNestingCallable parent, ColumnarSubTrace subTrace) {
+		return new ColumnarRemoteInvocation(this, addCallable(CallableType.REMOTE_INVOCATION, parent, subTrace));
+	}
+
+	/**
+	 * Adds a new database invocation.
+	 * 
+	 * @param parent
+	 *            calling callable
+	 * @param subTrace
+	 *            containing sub trace
+	 * @return view of the new database invocation
+	 */
+	public ColumnarDatabaseInvocation addDatabaseInvocation(AbstractColumnarNestingCallable parent, ColumnarSubTrace subTrace) {
+		return new ColumnarDatabaseInvocation(this, addCallable(CallableType.DATABASE_INVOCATION, parent, subTrace));
+	}
+
+	/**
+	 * Adds a new logging invocation.
+	 * 
+	 * @param parent
+	 *            calling callable
+	 * @param subTrace
+	 *            containing sub trace
+	 * @return view of the new logging invocation
+	 */
+	public ColumnarLoggingInvocation addLoggingInvocation(AbstractColumnarNestingCallable parent, ColumnarSubTrace subTrace) {
+		return new ColumnarLoggingInvocation(this, addCallable(CallableType.LOGGING_INVOCATION, parent, subTrace));
+	}
+
+	/**
+	 * Adds a new exception throw.
+	 * 
+	 * @param parent
+	 *            calling callable
+	 * @param subTrace
+	 *            containing sub trace
+	 * @return view of the new exception throw
+	 */
+	public ColumnarExceptionThrow addExceptionThrow(AbstractColumnarNestingCallable parent, ColumnarSubTrace subTrace) {
+		return new ColumnarExceptionThrow(this, addCallable(CallableType.EXCEPTION_THROW, parent, subTrace));
+	}
+
+	/**
+	 * Appends a callable to the columns.
+	 * 
+	 * @param type
+	 *            type of the callable
+	 * @param parent
+	 *            calling callable, null for the root of the sub trace
+	 * @param subTrace
+	 *            containing sub trace
+	 * @return index of the new callable
+	 */
+	private int addCallable(CallableType type, AbstractColumnarNestingCallable parent, ColumnarSubTrace subTrace) {
+		if (subTrace == null || subTrace.getContainingTrace() != this) {
+			throw new IllegalArgumentException("Sub trace does not belong to this trace.");
+		}
+		int parentIndex = NONE;
+		if (parent == null) {
+			if (subTrace.getRootIndex() != NONE) {
+				throw new IllegalStateException("The root of the sub trace has already been added.");
+			}
+		} else {
+			if (parent.trace != this || store.getInt(parent.index, CallableStore.SUB_TRACE) != subTrace.getIndex()) {
+				throw new IllegalArgumentException("Parent does not belong to the passed sub trace.");
+			}
+			parentIndex = parent.index;
+		}
+
+		if (size == store.capacity()) {
+			grow();
+		}
+		int index = size++;
+		callableTypeIndex = null;
+		store.setType(index, (byte) type.ordinal());
+		store.setInt(index, CallableStore.PARENT, parentIndex);
+		store.setInt(index, CallableStore.FIRST_CHILD, NONE);
+		store.setInt(index, CallableStore.LAST_CHILD, NONE);
+		store.setInt(index, CallableStore.NEXT_SIBLING, NONE);
+		store.setInt(index, CallableStore.DESCENDANT_COUNT, 0);
+		store.setInt(index, CallableStore.SUB_TRACE, subTrace.getIndex());
+		store.setInt(index, CallableStore.SIGNATURE_ID, StringPool.NULL_ID);
+		store.setLong(index, CallableStore.TIMESTAMP, -1);
+		store.setLong(index, CallableStore.RESPONSE_TIME, -1);
+		store.setLong(index, CallableStore.CPU_TIME, UNKNOWN_CPU_TIME);
+
+		if (parentIndex == NONE) {
+			subTrace.setRootIndex(index);
+		} else {
+			int lastChild = store.getInt(parentIndex, CallableStore.LAST_CHILD);
+			if (lastChild == NONE) {
+				store.setInt(parentIndex, CallableStore.FIRST_CHILD, index);
+			} else {
+				store.setInt(lastChild, CallableStore.NEXT_SIBLING, index);
+			}
+			store.setInt(parentIndex, CallableStore.LAST_CHILD, index);
+			descendantCountsStale = true;
+		}
+		subTrace.incrementSize();
+		return index;
+	}
+
+	/**
+	 * Doubles the capacity of the columns.
+	 */
+	private void grow() {
+		int capacity = Math.max(store.capacity() * 2, CallableStore.INITIAL_CAPACITY);
+		store.resize(capacity);
+		if (labelIds != null) {
+			labelIds = Arrays.copyOf(labelIds, capacity);
+		}
+		if (details != null) {
+			details = Arrays.copyOf(details, capacity);
+		}
+	}
+
+	/**
+	 * Trims the columns to the number of callables and computes the descendant counts. Should be
+	 * called after the trace has been built.
+	 */
+	public void trimToSize() {
+		updateDescendantCounts();
+		if (size < store.capacity()) {
+			store.resize(size);
+			if (labelIds != null) {
+				labelIds = Arrays.copyOf(labelIds, size);
+			}
+			if (details != null) {
+				details = Arrays.copyOf(details, size);
+			}
+		}
+	}
+
+	/**
+	 * Closes the store of the columns, which releases its memory outside of the heap and deletes
+	 * its file, if requested (see {@link CallableStore#mapped(java.nio.file.Path, boolean)}). The
+	 * trace and its views must not be accessed afterwards.
+	 */
+	@Override
+	public void close() {
+		store.close();
+	}
+
+	/**
+	 * Returns a view of the callable with the passed index.
+	 * 
+	 * @param index
+	 *            index of the callable
+	 * @return new view of the callable
+	 */
+	public AbstractColumnarCallable getCallable(int index) {
+		switch (getType(index)) {
+		case METHOD_INVOCATION:
+			return new ColumnarMethodInvocation(this, index);
+		case HTTP_REQUEST_PROCESSING:
+			return new ColumnarHTTPRequestProcessing(this, index);
+		case REMOTE_INVOCATION:
+			return new ColumnarRemoteInvocation(this, index);
+		case DATABASE_INVOCATION:
+			return new ColumnarDatabaseInvocation(this, index);
+		case LOGGING_INVOCATION:
+			return new ColumnarLoggingInvocation(this, index);
+		case EXCEPTION_THROW:
+			return new ColumnarExceptionThrow(this, index);
+		default:
+			throw new IllegalStateException("Unsupported callable type: " + getType(index));
+		}
+	}
+
+	/**
+	 * @return the sub traces of this trace in the order of creation
+	 */
+	public List<ColumnarSubTrace> getSubTraces() {
+		return Collections.unmodifiableList(subTraces);
+	}
+
+	/**
+	 * @param index
+	 *            index of the callable
+	 * @return type of the callable
+	 */
+	public CallableType getType(int index) {
+		checkIndex(index);
+		return TYPES[store.getType(index)];
+	}
+
+	/**
+	 * @param index
+	 *            index of the callable
+	 * @return index of the parent, {@link #NONE} for the root of a sub trace
+	 */
+	public int getParentIndex(int index) {
+		checkIndex(index);
+		return store.getInt(index, CallableStore.PARENT);
+	}
+
+	/**
+	 * @param index
+	 *            index of the callable
+	 * @return index of the first callee, {@link #NONE} if there is none
+	 */
+	public int getFirstChildIndex(int index) {
+		checkIndex(index);
+		return store.getInt(index, CallableStore.FIRST_CHILD);
+	}
+
+	/**
+	 * @param index
+	 *            index of the callable
+	 * @return index of the next callee of the parent, {@link #NONE} if there is none
+	 */
+	public int getNextSiblingIndex(int index) {
+		checkIndex(index);
+		return store.getInt(index, CallableStore.NEXT_SIBLING);
+	}
+
+	/**
+	 * Returns the number of direct and indirect callees. The counts of all callables are computed
+	 * by {@link #trimToSize()} or, if callables have been added since, on the next call of this
+	 * method.
+	 * 
+	 * @param index
+	 *            index of the callable
+	 * @return number of direct and indirect callees
+	 */
+	public int getDescendantCount(int index) {
+		checkIndex(index);
+		updateDescendantCounts();
+		return store.getInt(index, CallableStore.DESCENDANT_COUNT);
+	}
+
+	/**
+	 * @param index
+	 *            index of the callable
+	 * @return entry timestamp [milliseconds]
+	 */
+	public long getTimestamp(int index) {
+		checkIndex(index);
+		return store.getLong(index, CallableStore.TIMESTAMP);
+	}
+
+	/**
+	 * @param index
+	 *            index of the callable
+	 * @return response time [nanoseconds]
+	 */
+	public long getResponseTime(int index) {
+		checkIndex(index);
+		return store.getLong(index, CallableStore.RESPONSE_TIME);
+	}
+
+	/**
+	 * @param index
+	 *            index of the callable
+	 * @return identifier of the signature (see {@link #getSignature(int)}),
+	 *         {@link StringPool#NULL_ID} if unknown
+	 */
+	public int getSignatureId(int index) {
+		checkIndex(index);
+		return store.getInt(index, CallableStore.SIGNATURE_ID);
+	}
+
+	/**
+	 * Retrieves the {@link Signature} for the given signature ID.
+	 * 
+	 * @param signatureId
+	 *            id for which to retrieve the signature.
+	 * @return Signature object for the passed id, null for {@link StringPool#NULL_ID}
+	 */
+	public Signature getSignature(int signatureId) {
+		return signatures.get(signatureId);
+	}
+
+	/**
+	 * @param index
+	 *            index of the callable
+	 * @return index of the containing sub trace in {@link #getSubTraces()}
+	 */
+	int getSubTraceIndex(int index) {
+		checkIndex(index);
+		return store.getInt(index, CallableStore.SUB_TRACE);
+	}
+
+	/**
+	 * @param index
+	 *            index of the callable
+	 * @return CPU time [nanoseconds], {@link #UNKNOWN_CPU_TIME} if unknown
+	 */
+	long getCPUTime(int index) {
+		checkIndex(index);
+		return store.getLong(index, CallableStore.CPU_TIME);
+	}
+
+	/**
+	 * @param index
+	 *            index of the callable
+	 * @param timestamp
+	 *            entry timestamp [milliseconds]
+	 */
+	void setTimestamp(int index, long timestamp) {
+		checkIndex(index);
+		store.setLong(index, CallableStore.TIMESTAMP, timestamp);
+	}
+
+	/**
+	 * @param index
+	 *            index of the callable
+	 * @param responseTime
+	 *            response time [nanoseconds]
+	 */
+	void setResponseTime(int index, long responseTime) {
+		checkIndex(index);
+		store.setLong(index, CallableStore.RESPONSE_TIME, responseTime);
+	}
+
+	/**
+	 * @param index
+	 *            index of the callable
+	 * @param cpuTime
+	 *            CPU time [nanoseconds], {@link #UNKNOWN_CPU_TIME} if unknown
+	 */
+	void setCPUTime(int index, long cpuTime) {
+		checkIndex(index);
+		store.setLong(index, CallableStore.CPU_TIME, cpuTime);
+	}
+
+	/**
+	 * @param index
+	 *            index of the callable
+	 * @param signatureId
+	 *            identifier of the signature
+	 */
+	void setSignatureId(int index, int signatureId) {
+		checkIndex(index);
+		store.setInt(index, CallableStore.SIGNATURE_ID, signatureId);
+	}
+
+	/**
+	 * Discards the type index, as the target of a remote invocation has been changed.
+	 */
+	void invalidateCallableTypeIndex() {
+		callableTypeIndex = null;
+	}
+
+	/**
+	 * @return pool of the signatures used in this trace
+	 */
+	SignaturePool getSignatures() {
+		return signatures;
+	}
+
+	/**
+	 * @return pool of the String constants used in this trace
+	 */
+	StringPool getStrings() {
+		return strings;
+	}
+
+	/**
+	 * @param index
+	 *            index of the callable
+	 * @return identifiers of the labels in the String pool, null if the callable has no labels
+	 */
+	int[] getLabelIds(int index) {
+		checkIndex(index);
+		return labelIds == null ? null : labelIds[index];
+	}
+
+	/**
+	 * @param index
+	 *            index of the callable
+	 * @param ids
+	 *            identifiers of the labels in the String pool
+	 */
+	void setLabelIds(int index, int[] ids) {
+		checkIndex(index);
+		if (labelIds == null) {
+			labelIds = new int[store.capacity()][];
+		}
+		labelIds[index] = ids;
+	}
+
+	/**
+	 * @param index
+	 *            index of the callable
+	 * @return details of the callable, null if it has none
+	 */
+	CallableDetails getDetails(int index) {
+		checkIndex(index);
+		return details == null ? null : details[index];
+	}
+
+	/**
+	 * @param index
+	 *            index of the callable
+	 * @return details of the callable, created if it has none
+	 */
+	CallableDetails getOrCreateDetails(int index) {
+		checkIndex(index);
+		if (details == null) {
+			details = new CallableDetails[store.capacity()];
+		}
+		CallableDetails result = details[index];
+		if (result == null) {
+			result = new CallableDetails();
+			details[index] = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Computes the descendant counts of all callables in one pass, if callables have been added
+	 * since the last computation. A callable is always added after its parent, hence, visiting the
+	 * callables in reverse order adds the count of each callable to its parent after all callees of
+	 * the callable have been added to it.
+	 */
+	private void updateDescendantCounts() {
+		if (!descendantCountsStale) {
+			return;
+		}
+		for (int index = 0; index < size; index++) {
+			store.setInt(index, CallableStore.DESCENDANT_COUNT, 0);
+		}
+		for (int index = size - 1; index >= 0; index--) {
+			int parentIndex = store.getInt(index, CallableStore.PARENT);
+			if (parentIndex != NONE) {
+				int count = store.getInt(parentIndex, CallableStore.DESCENDANT_COUNT) + store.getInt(index, CallableStore.DESCENDANT_COUNT) + 1;
+				store.setInt(parentIndex, CallableStore.DESCENDANT_COUNT, count);
+			}
+		}
+		descendantCountsStale = false;
+	}
+
+	/**
+	 * Checks the passed index.
+	 * 
+	 * @param index
+	 *            index of a callable
+	 */
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Invalid callable index: " + index);
+		}
+	}
+
+	/**
+	 * Visitor copying the callables of a sub trace. The walk keeps the copies of the entered
+	 * nesting callables on a stack, so the depth of the copied call tree is not limited by the call
+	 * stack.
+	 * 
+	 * @author Alexander Wert
+	 * 
+	 */
+	private final class CallableCopier implements TraceVisitor {
+
+		/**
+		 * Containing sub trace of the copies.
+		 */
+		private final ColumnarSubTrace subTrace;
+
+		/**
+		 * Mapping of copied sub traces to their copies.
+		 */
+		private final Map<SubTrace, ColumnarSubTrace> subTraceMapping;
+
+		/**
+		 * Copies of the entered nesting callables, the innermost on top.
+		 */
+		private final Deque<AbstractColumnarNestingCallable> parents = new ArrayDeque<AbstractColumnarNestingCallable>();
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param subTrace
+		 *            containing sub trace of the copies
+		 * @param subTraceMapping
+		 *            mapping of copied sub traces to their copies
+		 */
+		private CallableCopier(ColumnarSubTrace subTrace, Map<SubTrace, ColumnarSubTrace> subTraceMapping) {
+			this.subTrace = subTrace;
+			this.subTraceMapping = subTraceMapping;
+		}
+
+		@Override
+		public void enterMethodInvocation(MethodInvocation methodInvocation) {
+			enterNesting(methodInvocation);
+		}
+
+		@Override
+		public void exitMethodInvocation(MethodInvocation methodInvocation) {
+			parents.pop();
+		}
+
+		@Override
+		public void enterHTTPRequestProcessing(HTTPRequestProcessing httpRequestProcessing) {
+			enterNesting(httpRequestProcessing);
+		}
+
+		@Override
+		public void exitHTTPRequestProcessing(HTTPRequestProcessing httpRequestProcessing) {
+			parents.pop();
+		}
+
+		@Override
+		public void enterRemoteInvocation(RemoteInvocation remoteInvocation) {
+			copy(remoteInvocation);
+		}
+
+		@Override
+		public void visitDatabaseInvocation(DatabaseInvocation databaseInvocation) {
+			copy(databaseInvocation);
+		}
+
+		@Override
+		public void visitLoggingInvocation(LoggingInvocation loggingInvocation) {
+			copy(loggingInvocation);
+		}
+
+		@Override
+		public void visitExceptionThrow(ExceptionThrow exceptionThrow) {
+			copy(exceptionThrow);
+		}
+
+		@Override
+		public void enterCallable(Callable callable) {
+			copy(callable);
+		}
+
+		/**
+		 * Copies a nesting callable and makes the copy the parent of the following copies.
+		 * 
+		 * @param source
+		 *            callable to copy
+		 */
+		private void enterNesting(Callable source) {
+			parents.push((AbstractColumnarNestingCallable) copy(source));
+		}
+
+		/**
+		 * Copies a callable as callee of the innermost entered nesting callable.
+		 * 
+		 * @param source
+		 *            callable to copy
+		 * @return the copy
+		 */
+		private AbstractColumnarCallable copy(Callable source) {
+			return copyCallable(source, parents.peek(), subTrace, subTraceMapping);
+		}
+	}
+}
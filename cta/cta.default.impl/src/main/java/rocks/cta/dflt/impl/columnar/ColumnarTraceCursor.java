@@ -0,0 +1,185 @@
+package rocks.cta.dflt.impl.columnar;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import rocks.cta.api.core.TraceCursor;
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.CallableType;
+import rocks.cta.api.core.callables.TimedCallable;
+import rocks.cta.api.utils.CallableIteratorOnTrace;
+import rocks.cta.dflt.impl.core.Signature;
+
+/**
+ * {@link TraceCursor} for a {@link ColumnarTrace}. The cursor walks the parent, first child and next
+ * sibling columns of the trace and reads all properties from the columns, hence, it neither
+ * creates views nor other objects per visited callable. Signature identifiers are the identifiers
+ * of the trace.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class ColumnarTraceCursor implements TraceCursor {
+
+	/**
+	 * Initial capacity of the remote invocation stack.
+	 */
+	private static final int INITIAL_REMOTE_DEPTH = 4;
+
+	/**
+	 * Trace to walk.
+	 */
+	private final ColumnarTrace trace;
+
+	/**
+	 * Indices of the remote invocations whose target sub traces are being visited.
+	 */
+	private int[] remoteInvocations = new int[INITIAL_REMOTE_DEPTH];
+
+	/**
+	 * Number of remote invocations on the stack.
+	 */
+	private int remoteDepth;
+
+	/**
+	 * Index of the current callable, {@link ColumnarTrace#NONE} before the first and after the last
+	 * callable.
+	 */
+	private int current = ColumnarTrace.NONE;
+
+	/**
+	 * Depth of the current callable.
+	 */
+	private int depth;
+
+	/**
+	 * Indicates whether {@link #moveNext()} has been called.
+	 */
+	private boolean started;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param trace
+	 *            trace to walk
+	 */
+	public ColumnarTraceCursor(ColumnarTrace trace) {
+		this.trace = trace;
+	}
+
+	@Override
+	public boolean moveNext() {
+		if (!started) {
+			started = true;
+			if (!trace.getSubTraces().isEmpty()) {
+				int root = trace.getSubTraces().get(0).getRootIndex();
+				current = root == ColumnarTrace.NONE ? ColumnarTrace.NONE : resolve(root);
+			}
+			return current != ColumnarTrace.NONE;
+		}
+		if (current == ColumnarTrace.NONE) {
+			return false;
+		}
+		int firstChild = trace.getFirstChildIndex(current);
+		if (firstChild != ColumnarTrace.NONE) {
+			current = resolve(firstChild);
+			depth++;
+			return true;
+		}
+		int node = current;
+		while (true) {
+			while (trace.getParentIndex(node) == ColumnarTrace.NONE) {
+				if (remoteDepth == 0) {
+					current = ColumnarTrace.NONE;
+					return false;
+				}
+				node = remoteInvocations[--remoteDepth];
+				depth--;
+			}
+			int sibling = trace.getNextSiblingIndex(node);
+			if (sibling != ColumnarTrace.NONE) {
+				current = resolve(sibling);
+				return true;
+			}
+			node = trace.getParentIndex(node);
+			depth--;
+		}
+	}
+
+	/**
+	 * Replaces remote invocations with a target sub trace by the root of the target sub trace one
+	 * level below, like {@link CallableIteratorOnTrace} does.
+	 * 
+	 * @param index
+	 *            index of the callable to resolve
+	 * @return index of the resolved callable
+	 */
+	private int resolve(int index) {
+		int result = index;
+		while (trace.getType(result) == CallableType.REMOTE_INVOCATION) {
+			CallableDetails details = trace.getDetails(result);
+			if (details == null || details.targetSubTrace == null || details.targetSubTrace.getRootIndex() == ColumnarTrace.NONE) {
+				break;
+			}
+			if (remoteDepth == remoteInvocations.length) {
+				remoteInvocations = Arrays.copyOf(remoteInvocations, remoteDepth * 2);
+			}
+			remoteInvocations[remoteDepth++] = result;
+			result = details.targetSubTrace.getRootIndex();
+			depth++;
+		}
+		return result;
+	}
+
+	/**
+	 * @return index of the current callable in the columns of the trace
+	 */
+	public int index() {
+		if (current == ColumnarTrace.NONE) {
+			throw new NoSuchElementException("Cursor is not positioned on a callable.");
+		}
+		return current;
+	}
+
+	@Override
+	public CallableType type() {
+		return trace.getType(index());
+	}
+
+	@Override
+	public int depth() {
+		index();
+		return depth;
+	}
+
+	@Override
+	public long timestamp() {
+		return trace.getTimestamp(index());
+	}
+
+	@Override
+	public long responseTime() {
+		int index = index();
+		return TimedCallable.class.isAssignableFrom(trace.getType(index).getApiType()) ? trace.getResponseTime(index) : -1;
+	}
+
+	@Override
+	public int signatureId() {
+		return trace.getSignatureId(index());
+	}
+
+	/**
+	 * {@inheritDoc} Signatures without a full signature are resolved to a signature composed of
+	 * their package, class and method name.
+	 */
+	@Override
+	public String signature(int signatureId) {
+		Signature signature = trace.getSignature(signatureId);
+		return signature == null ? null : signature.toString();
+	}
+
+	@Override
+	public Callable callable() {
+		return trace.getCallable(index());
+	}
+}
@@ -0,0 +1,94 @@
+package rocks.cta.dflt.impl.columnar;
+
+import java.util.Arrays;
+
+/**
+ * {@link CallableStore} keeping each column in a primitive array on the heap.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+class HeapCallableStore extends CallableStore {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = -5702981398400806036L;
+
+	/**
+	 * Type tags.
+	 */
+	private byte[] types;
+
+	/**
+	 * Int columns.
+	 */
+	private final int[][] ints = new int[INT_COLUMNS][];
+
+	/**
+	 * Long columns.
+	 */
+	private final long[][] longs = new long[LONG_COLUMNS][];
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param capacity
+	 *            initial capacity
+	 */
+	HeapCallableStore(int capacity) {
+		types = new byte[capacity];
+		for (int column = 0; column < INT_COLUMNS; column++) {
+			ints[column] = new int[capacity];
+		}
+		for (int column = 0; column < LONG_COLUMNS; column++) {
+			longs[column] = new long[capacity];
+		}
+	}
+
+	@Override
+	int capacity() {
+		return types.length;
+	}
+
+	@Override
+	void resize(int newCapacity) {
+		types = Arrays.copyOf(types, newCapacity);
+		for (int column = 0; column < INT_COLUMNS; column++) {
+			ints[column] = Arrays.copyOf(ints[column], newCapacity);
+		}
+		for (int column = 0; column < LONG_COLUMNS; column++) {
+			longs[column] = Arrays.copyOf(longs[column], newCapacity);
+		}
+	}
+
+	@Override
+	byte getType(int index) {
+		return types[index];
+	}
+
+	@Override
+	void setType(int index, byte type) {
+		types[index] = type;
+	}
+
+	@Override
+	int getInt(int index, int column) {
+		return ints[column][index];
+	}
+
+	@Override
+	void setInt(int index, int column, int value) {
+		ints[column][index] = value;
+	}
+
+	@Override
+	long getLong(int index, int column) {
+		return longs[column][index];
+	}
+
+	@Override
+	void setLong(int index, int column, long value) {
+		longs[column][index] = value;
+	}
+}
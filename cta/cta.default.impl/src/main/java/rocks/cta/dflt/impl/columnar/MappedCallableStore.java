@@ -0,0 +1,111 @@
+package rocks.cta.dflt.impl.columnar;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link BufferCallableStore} keeping the records in a memory-mapped file. Growing the store
+ * extends the file and maps it again. Closing the store unmaps the file and optionally deletes it.
+ * Serializing the store yields a direct memory copy that is not bound to the file.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+class MappedCallableStore extends BufferCallableStore {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = -4542566014396155375L;
+
+	/**
+	 * Mapped file.
+	 */
+	private final transient Path file;
+
+	/**
+	 * Whether {@link #close()} deletes the file.
+	 */
+	private final transient boolean deleteOnClose;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param file
+	 *            file to map, truncated if it exists
+	 * @param capacity
+	 *            initial capacity
+	 * @param deleteOnClose
+	 *            whether {@link #close()} deletes the file
+	 */
+	MappedCallableStore(Path file, int capacity, boolean deleteOnClose) {
+		super(map(file, capacity, true), capacity);
+		this.file = file;
+		this.deleteOnClose = deleteOnClose;
+	}
+
+	/**
+	 * Unmaps the file and deletes it, if requested.
+	 * 
+	 * @throws IllegalStateException
+	 *             if the file cannot be deleted
+	 */
+	@Override
+	public void close() throws IllegalStateException {
+		super.close();
+		if (deleteOnClose) {
+			try {
+				Files.deleteIfExists(file);
+			} catch (IOException e) {
+				throw new IllegalStateException("Cannot delete file " + file, e);
+			}
+		}
+	}
+
+	@Override
+	protected ByteBuffer allocate(int newCapacity) {
+		return map(file, newCapacity, false);
+	}
+
+	/**
+	 * Maps the passed file.
+	 * 
+	 * @param file
+	 *            file to map
+	 * @param capacity
+	 *            number of records to map
+	 * @param truncate
+	 *            whether to truncate the file before mapping
+	 * @return buffer with native byte order mapping the file
+	 */
+	private static ByteBuffer map(Path file, int capacity, boolean truncate) {
+		StandardOpenOption[] options = truncate ? new StandardOpenOption[] { StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING } : new StandardOpenOption[] { StandardOpenOption.READ,
+				StandardOpenOption.WRITE };
+		try (FileChannel channel = FileChannel.open(file, options)) {
+			return channel.map(MapMode.READ_WRITE, 0, (long) capacity * RECORD_SIZE).order(ByteOrder.nativeOrder());
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot map file " + file, e);
+		}
+	}
+
+	/**
+	 * Replaces this store by a direct memory copy on serialization.
+	 * 
+	 * @return the copy
+	 */
+	private Object writeReplace() {
+		BufferCallableStore copy = new BufferCallableStore(capacity());
+		ByteBuffer source = getBuffer().duplicate();
+		source.clear();
+		copy.getBuffer().put(source);
+		copy.getBuffer().clear();
+		return copy;
+	}
+}
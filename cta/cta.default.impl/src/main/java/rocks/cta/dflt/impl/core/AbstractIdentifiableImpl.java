@@ -27,10 +27,27 @@ public abstract class AbstractIdentifiableImpl implements Identifiable, Serializ
 		return Optional.ofNullable(identifier);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @throws IllegalStateException
+	 *             if this element has been frozen
+	 */
 	@Override
-	public void setIdentifier(Object id) {
+	public void setIdentifier(Object id) throws IllegalStateException {
+		checkNotFrozen();
 		identifier = id;
+	}
 
+	/**
+	 * Checks that this element has not been frozen. Elements cannot be frozen by default, hence,
+	 * this implementation does nothing. Subclasses that can be frozen override this method.
+	 * 
+	 * @throws IllegalStateException
+	 *             if this element has been frozen
+	 */
+	protected void checkNotFrozen() throws IllegalStateException {
+		// elements cannot be frozen by default
 	}
 
 }
@@ -0,0 +1,92 @@
+package rocks.cta.dflt.impl.core;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * Releases the memory of direct and memory-mapped {@link ByteBuffer}s explicitly instead of
+ * waiting for the buffers to be garbage collected. Uses the cleaner of the buffer up to Java 8 and
+ * {@code sun.misc.Unsafe#invokeCleaner} as of Java 9. If the runtime supports neither, buffers
+ * are released when they are garbage collected.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public final class DirectBuffers {
+
+	/**
+	 * Releases the memory of a buffer, null if the runtime does not support releasing buffers.
+	 */
+	private static final Consumer<ByteBuffer> CLEANER = createCleaner();
+
+	/**
+	 * Utility class.
+	 */
+	private DirectBuffers() {
+	}
+
+	/**
+	 * Releases the memory of the passed buffer. The buffer and all buffers derived from it must
+	 * not be accessed afterwards. Heap buffers are ignored.
+	 * 
+	 * @param buffer
+	 *            buffer allocated by {@link ByteBuffer#allocateDirect(int)} or returned by
+	 *            {@link java.nio.channels.FileChannel#map}, not a slice or duplicate of such a buffer;
+	 *            may be null
+	 */
+	public static void release(ByteBuffer buffer) {
+		if (buffer != null && buffer.isDirect() && CLEANER != null) {
+			CLEANER.accept(buffer);
+		}
+	}
+
+	/**
+	 * Creates the function releasing buffers.
+	 * 
+	 * @return the function, null if the runtime does not support releasing buffers
+	 */
+	private static Consumer<ByteBuffer> createCleaner() {
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			try {
+				Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+				Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+				theUnsafe.setAccessible(true);
+				Object unsafe = theUnsafe.get(null);
+				return buffer -> invoke(invokeCleaner, unsafe, buffer);
+			} catch (NoSuchMethodException e) {
+				Method cleanerMethod = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+				Method cleanMethod = Class.forName("sun.misc.Cleaner").getMethod("clean");
+				return buffer -> {
+					Object cleaner = invoke(cleanerMethod, buffer);
+					if (cleaner != null) {
+						invoke(cleanMethod, cleaner);
+					}
+				};
+			}
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Invokes a method reflectively.
+	 * 
+	 * @param method
+	 *            method to invoke
+	 * @param target
+	 *            object to invoke the method on, null for static methods
+	 * @param arguments
+	 *            arguments of the method
+	 * @return the result of the method
+	 */
+	private static Object invoke(Method method, Object target, Object... arguments) {
+		try {
+			return method.invoke(target, arguments);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Failed releasing direct buffer.", e);
+		}
+	}
+}
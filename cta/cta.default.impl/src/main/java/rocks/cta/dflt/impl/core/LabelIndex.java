@@ -0,0 +1,193 @@
+package rocks.cta.dflt.impl.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import rocks.cta.api.core.callables.Callable;
+
+/**
+ * Inverted index from the label identifiers of a trace to the {@link Callable} instances carrying
+ * the label. The lists of callables are found via an open addressing hash table with linear
+ * probing. As label identifiers are dense, they serve as their own hash codes. Hence, the index
+ * grows with the number of distinct labels rather than with the number of String constants of the
+ * trace. Each list is exposed through an unmodifiable view that is created once, hence, lookups do
+ * not allocate objects. Callables labeled after the index has been built are inserted into the
+ * list of the label by binary search, so the lists stay in the order of the trace.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+final class LabelIndex {
+
+	/**
+	 * Initial number of slots of the hash table.
+	 */
+	private static final int INITIAL_SLOTS = 8;
+
+	/**
+	 * Label identifiers, indexed by the position of their list.
+	 */
+	private int[] labelIds = new int[INITIAL_SLOTS / 2];
+
+	/**
+	 * Lists of callables, one per label.
+	 */
+	private final List<ArrayList<Callable>> callables = new ArrayList<ArrayList<Callable>>();
+
+	/**
+	 * Unmodifiable views of the lists of callables.
+	 */
+	private final List<List<Callable>> views = new ArrayList<List<Callable>>();
+
+	/**
+	 * Hash table holding the position + 1 of the lists, 0 marks empty slots. The length is a power
+	 * of two and at least twice the number of labels.
+	 */
+	private int[] slots = new int[INITIAL_SLOTS];
+
+	/**
+	 * Adds a callable for a label. The caller has to ensure that each callable is added only once
+	 * per label.
+	 * 
+	 * @param labelId
+	 *            identifier of the label, negative identifiers are ignored
+	 * @param callable
+	 *            callable carrying the label
+	 */
+	void add(int labelId, Callable callable) {
+		if (labelId >= 0) {
+			list(labelId).add(callable);
+		}
+	}
+
+	/**
+	 * Inserts a callable for a label at its position in the passed order. The caller has to
+	 * ensure that the callable has not been added for the label yet and that the list of the label
+	 * is sorted in the passed order.
+	 * 
+	 * @param labelId
+	 *            identifier of the label, negative identifiers are ignored
+	 * @param callable
+	 *            callable carrying the label
+	 * @param order
+	 *            order of the callables
+	 */
+	void insert(int labelId, Callable callable, Comparator<? super Callable> order) {
+		if (labelId < 0) {
+			return;
+		}
+		ArrayList<Callable> list = list(labelId);
+		int position = list.size();
+		// callables are usually labeled in the order of the trace, hence, the end is checked first
+		if (position > 0 && order.compare(list.get(position - 1), callable) > 0) {
+			int low = 0;
+			int high = position - 1;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (order.compare(list.get(mid), callable) > 0) {
+					high = mid;
+				} else {
+					low = mid + 1;
+				}
+			}
+			position = low;
+		}
+		list.add(position, callable);
+	}
+
+	/**
+	 * Returns the callables carrying a label.
+	 * 
+	 * @param labelId
+	 *            identifier of the label
+	 * @return unmodifiable list of callables in the order of the trace, empty if no
+	 *         callable carries the label
+	 */
+	List<Callable> get(int labelId) {
+		int position = labelId < 0 ? -1 : indexOf(labelId);
+		if (position < 0) {
+			return Collections.emptyList();
+		}
+		return views.get(position);
+	}
+
+	/**
+	 * Trims the lists of callables to their size.
+	 */
+	void trimToSize() {
+		for (ArrayList<Callable> list : callables) {
+			list.trimToSize();
+		}
+	}
+
+	/**
+	 * Returns the list of callables of a label, creating it if necessary.
+	 * 
+	 * @param labelId
+	 *            identifier of the label, not negative
+	 * @return the list of callables
+	 */
+	private ArrayList<Callable> list(int labelId) {
+		int position = indexOf(labelId);
+		if (position < 0) {
+			position = callables.size();
+			if (2 * (position + 1) > slots.length) {
+				grow();
+			}
+			if (position == labelIds.length) {
+				labelIds = Arrays.copyOf(labelIds, position * 2);
+			}
+			labelIds[position] = labelId;
+			ArrayList<Callable> list = new ArrayList<Callable>();
+			callables.add(list);
+			views.add(Collections.unmodifiableList(list));
+			insertSlot(position);
+		}
+		return callables.get(position);
+	}
+
+	/**
+	 * Looks up the list of a label.
+	 * 
+	 * @param labelId
+	 *            identifier of the label
+	 * @return position of the list, -1 if the label has no list
+	 */
+	private int indexOf(int labelId) {
+		int mask = slots.length - 1;
+		for (int slot = labelId & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+			if (labelIds[slots[slot] - 1] == labelId) {
+				return slots[slot] - 1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Inserts a list into the hash table.
+	 * 
+	 * @param position
+	 *            position of the list
+	 */
+	private void insertSlot(int position) {
+		int mask = slots.length - 1;
+		int slot = labelIds[position] & mask;
+		while (slots[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		slots[slot] = position + 1;
+	}
+
+	/**
+	 * Doubles the number of slots of the hash table and inserts all lists again.
+	 */
+	private void grow() {
+		slots = new int[slots.length * 2];
+		for (int position = 0; position < callables.size(); position++) {
+			insertSlot(position);
+		}
+	}
+}
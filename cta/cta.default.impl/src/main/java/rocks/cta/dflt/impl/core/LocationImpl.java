@@ -1,6 +1,7 @@
 package rocks.cta.dflt.impl.core;
 
 import java.io.Serializable;
+import java.util.Objects;
 import java.util.Optional;
 
 import rocks.cta.api.core.Location;
@@ -17,37 +18,44 @@ public class LocationImpl implements Location, Serializable {
 	/**
 	 * 
 	 */
-	private static final long serialVersionUID = 7989999424512666828L;
+	private static final long serialVersionUID = -2358129304752398735L;
 
 	/**
 	 * Identifies the machine.
 	 */
-	private String host = null;
+	private String host;
 
 	/**
 	 * Identifies the runtime environment (e.g. the JVM).
 	 */
-	private Optional<String> runTimeEnvironment = Optional.empty();
+	private String runTimeEnvironment;
 
 	/**
 	 * Identifies the application.
 	 */
-	private Optional<String> application = Optional.empty();
+	private String application;
 
 	/**
 	 * Identifies the business transaction.
 	 */
-	private Optional<String> businessTransaction = Optional.empty();
+	private String businessTransaction;
 
 	/**
 	 * Identifies the node type.
 	 */
-	private Optional<String> nodeType = Optional.empty();
+	private String nodeType;
+
+	/**
+	 * Indicates whether this location has been interned by a {@link LocationPool}. Interned
+	 * locations cannot be modified.
+	 */
+	private final boolean interned;
 
 	/**
 	 * Default constructor.
 	 */
 	public LocationImpl() {
+		interned = false;
 	}
 
 	/**
@@ -63,10 +71,32 @@ public class LocationImpl implements Location, Serializable {
 	 *            Identifies the business transaction
 	 */
 	public LocationImpl(String host, String runTimeEnvironment, String application, String businessTransaction) {
-		this.setHost(host);
-		this.setRunTimeEnvironment(runTimeEnvironment);
-		this.setApplication(application);
-		this.setBusinessTransaction(businessTransaction);
+		this(host, runTimeEnvironment, application, businessTransaction, null, false);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param host
+	 *            Identifies the machine
+	 * @param runTimeEnvironment
+	 *            Identifies the runtime environment
+	 * @param application
+	 *            Identifies the application
+	 * @param businessTransaction
+	 *            Identifies the business transaction
+	 * @param nodeType
+	 *            Identifies the node type
+	 * @param interned
+	 *            whether the location is interned by a {@link LocationPool}
+	 */
+	LocationImpl(String host, String runTimeEnvironment, String application, String businessTransaction, String nodeType, boolean interned) {
+		this.host = host;
+		this.runTimeEnvironment = runTimeEnvironment;
+		this.application = application;
+		this.businessTransaction = businessTransaction;
+		this.nodeType = nodeType;
+		this.interned = interned;
 	}
 
 	/**
@@ -76,7 +106,7 @@ public class LocationImpl implements Location, Serializable {
 	 *            Identifies the machine
 	 */
 	public LocationImpl(String host) {
-		this.setHost(host);
+		this(host, null, null, null, null, false);
 	}
 
 	@Override
@@ -86,22 +116,22 @@ public class LocationImpl implements Location, Serializable {
 
 	@Override
 	public Optional<String> getRuntimeEnvironment() {
-		return runTimeEnvironment;
+		return Optional.ofNullable(runTimeEnvironment);
 	}
 
 	@Override
 	public Optional<String> getApplication() {
-		return application;
+		return Optional.ofNullable(application);
 	}
 
 	@Override
 	public Optional<String> getBusinessTransaction() {
-		return businessTransaction;
+		return Optional.ofNullable(businessTransaction);
 	}
 
 	@Override
 	public Optional<String> getNodeType() {
-		return nodeType;
+		return Optional.ofNullable(nodeType);
 	}
 
 	@Override
@@ -114,6 +144,7 @@ public class LocationImpl implements Location, Serializable {
 	 *            the host to set
 	 */
 	public void setHost(String host) {
+		checkNotInterned();
 		this.host = host;
 	}
 
@@ -122,7 +153,8 @@ public class LocationImpl implements Location, Serializable {
 	 *            the runTimeEnvironment to set
 	 */
 	public void setRunTimeEnvironment(String runTimeEnvironment) {
-		this.runTimeEnvironment = Optional.ofNullable(runTimeEnvironment);
+		checkNotInterned();
+		this.runTimeEnvironment = runTimeEnvironment;
 	}
 
 	/**
@@ -130,7 +162,8 @@ public class LocationImpl implements Location, Serializable {
 	 *            the application to set
 	 */
 	public void setApplication(String application) {
-		this.application = Optional.ofNullable(application);
+		checkNotInterned();
+		this.application = application;
 	}
 
 	/**
@@ -138,7 +171,8 @@ public class LocationImpl implements Location, Serializable {
 	 *            the businessTransaction to set
 	 */
 	public void setBusinessTransaction(String businessTransaction) {
-		this.businessTransaction = Optional.ofNullable(businessTransaction);
+		checkNotInterned();
+		this.businessTransaction = businessTransaction;
 	}
 
 	/**
@@ -146,7 +180,56 @@ public class LocationImpl implements Location, Serializable {
 	 *            the nodeType to set
 	 */
 	public void setNodeType(String nodeType) {
-		this.nodeType = Optional.ofNullable(nodeType);
+		checkNotInterned();
+		this.nodeType = nodeType;
+	}
+
+	/**
+	 * @return true, if this location has been interned by a {@link LocationPool}
+	 */
+	public boolean isInterned() {
+		return interned;
+	}
+
+	/**
+	 * Checks that this location has not been interned.
+	 * 
+	 * @throws IllegalStateException
+	 *             if this location has been interned
+	 */
+	private void checkNotInterned() throws IllegalStateException {
+		if (interned) {
+			throw new IllegalStateException("Interned locations cannot be modified.");
+		}
+	}
+
+	/**
+	 * Replaces deserialized interned locations by the instance interned in the default
+	 * {@link LocationPool}.
+	 * 
+	 * @return the location to use
+	 */
+	private Object readResolve() {
+		return interned ? LocationPool.getDefault().intern(this) : this;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(host, runTimeEnvironment, application, businessTransaction, nodeType);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || getClass() != obj.getClass()) {
+			return false;
+		}
+		LocationImpl other = (LocationImpl) obj;
+		return Objects.equals(host, other.host) && Objects.equals(runTimeEnvironment, other.runTimeEnvironment)
+				&& Objects.equals(application, other.application) && Objects.equals(businessTransaction, other.businessTransaction)
+				&& Objects.equals(nodeType, other.nodeType);
 	}
 
 }
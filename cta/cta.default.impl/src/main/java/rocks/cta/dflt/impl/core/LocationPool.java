@@ -0,0 +1,114 @@
+package rocks.cta.dflt.impl.core;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import rocks.cta.api.core.Location;
+
+/**
+ * Registry of interned {@link LocationImpl} instances. A deployment has only a few distinct
+ * combinations of host, runtime environment, application, business transaction and node type,
+ * hence, the sub traces of all traces built by the transformer and the deserializers share one
+ * interned instance per distinct location. Interned locations cannot be
+ * modified and equal interned locations of the same pool are identical, hence, they can be
+ * grouped by identity.
+ * 
+ * The pool is thread-safe. It holds the interned locations weakly, i.e. a location is removed from
+ * the pool as soon as no trace refers to it anymore. Hence, the default pool does not grow with the
+ * number of locations seen over the lifetime of the JVM, but only with the number of locations in
+ * use.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class LocationPool {
+
+	/**
+	 * Pool shared by all traces of the JVM.
+	 */
+	private static final LocationPool DEFAULT = new LocationPool();
+
+	/**
+	 * Interned locations, each mapped to a weak reference to itself. Guarded by the map.
+	 */
+	private final Map<LocationImpl, WeakReference<LocationImpl>> locations = new WeakHashMap<LocationImpl, WeakReference<LocationImpl>>();
+
+	/**
+	 * @return pool shared by all traces of the JVM
+	 */
+	public static LocationPool getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Returns the interned location equal to the passed location.
+	 * 
+	 * @param location
+	 *            location to intern, may be null
+	 * @return the interned location, null if the passed location is null
+	 */
+	public LocationImpl intern(Location location) {
+		if (location == null) {
+			return null;
+		}
+		if (location instanceof LocationImpl && ((LocationImpl) location).isInterned()) {
+			LocationImpl existing = get((LocationImpl) location);
+			if (existing == location) {
+				return existing;
+			}
+		}
+		return intern(location.getHost(), location.getRuntimeEnvironment().orElse(null), location.getApplication().orElse(null),
+				location.getBusinessTransaction().orElse(null), location.getNodeType().orElse(null));
+	}
+
+	/**
+	 * Returns the interned location with the passed values.
+	 * 
+	 * @param host
+	 *            Identifies the machine
+	 * @param runTimeEnvironment
+	 *            Identifies the runtime environment, may be null
+	 * @param application
+	 *            Identifies the application, may be null
+	 * @param businessTransaction
+	 *            Identifies the business transaction, may be null
+	 * @param nodeType
+	 *            Identifies the node type, may be null
+	 * @return the interned location
+	 */
+	public LocationImpl intern(String host, String runTimeEnvironment, String application, String businessTransaction, String nodeType) {
+		LocationImpl location = new LocationImpl(host, runTimeEnvironment, application, businessTransaction, nodeType, true);
+		synchronized (locations) {
+			LocationImpl existing = get(location);
+			if (existing != null) {
+				return existing;
+			}
+			locations.put(location, new WeakReference<LocationImpl>(location));
+			return location;
+		}
+	}
+
+	/**
+	 * @return number of interned locations that are still referenced
+	 */
+	public int size() {
+		synchronized (locations) {
+			return locations.size();
+		}
+	}
+
+	/**
+	 * Returns the interned location equal to the passed location.
+	 * 
+	 * @param location
+	 *            location to look up
+	 * @return the interned location, null if there is none
+	 */
+	private LocationImpl get(LocationImpl location) {
+		synchronized (locations) {
+			WeakReference<LocationImpl> reference = locations.get(location);
+			return reference == null ? null : reference.get();
+		}
+	}
+}
@@ -1,18 +1,22 @@
 package rocks.cta.dflt.impl.core;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
-import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.MethodInvocation;
 
 /**
- * The {@link String} encapsulates static information on a {@link Callable}.
+ * The {@link Signature} encapsulates the static information on a {@link MethodInvocation}. The
+ * components of a signature are identifiers of String constants of the containing trace.
+ * Signatures are immutable and interned per trace (see {@link SignaturePool}), hence, method
+ * invocations of the same method share the same signature identifier.
  * 
  * @author Alexander Wert
  *
  */
-public class Signature implements Serializable {
+public final class Signature implements Serializable {
 
 	/**
 	 * 
@@ -25,51 +29,52 @@ public class Signature implements Serializable {
 	private static final String PACKAGE_DELIMITER = ".";
 
 	/**
-	 * Constructor name pattern.
+	 * Full signature.
 	 */
-	private static final String CONSTRUCTOR_PATTERN = "<init>";
+	private final int signatureId;
 
 	/**
 	 * Simple method name.
 	 */
-	private int methodNameId;
+	private final int methodNameId;
 
 	/**
 	 * Full package name.
 	 */
-	private int packageNameId;
+	private final int packageNameId;
 
 	/**
 	 * Simple class name.
 	 */
-	private int classNameId;
+	private final int classNameId;
 
 	/**
-	 * List of full qualified parameter types.
+	 * List of full qualified parameter types, null if unknown.
 	 */
-	private List<Integer> parameterTypeIds;
+	private final int[] parameterTypeIds;
 
 	/**
-	 * Full qualified parameter type.
+	 * Full qualified return type.
 	 */
-	private Integer returnTypeId;
+	private final int returnTypeId;
 
 	/**
-	 * The trace instance this signature belongs to.
+	 * Pool of the String constants this signature refers to.
 	 */
-	private TraceImpl trace;
+	private final StringPool strings;
 
 	/**
-	 * Default constructor.
+	 * Cached hash code.
 	 */
-	public Signature() {
-	}
+	private final int hash;
 
 	/**
 	 * Constructor.
 	 * 
-	 * @param trace
-	 *            trace to which this signature belongs
+	 * @param strings
+	 *            pool of the String constants the identifiers refer to
+	 * @param signatureId
+	 *            id of the full signature
 	 * @param methodNameId
 	 *            id of the simple method name
 	 * @param packageNameId
@@ -77,64 +82,90 @@ public class Signature implements Serializable {
 	 * @param classNameId
 	 *            id of the simple class name
 	 * @param parameterTypeIds
-	 *            list of ids of the full qualified parameter types
+	 *            ids of the full qualified parameter types, null if unknown
 	 * @param returnTypeId
-	 *            id of the full qualified parameter type
+	 *            id of the full qualified return type
+	 */
+	Signature(StringPool strings, int signatureId, int methodNameId, int packageNameId, int classNameId, int[] parameterTypeIds, int returnTypeId) {
+		this.strings = strings;
+		this.signatureId = signatureId;
+		this.methodNameId = methodNameId;
+		this.packageNameId = packageNameId;
+		this.classNameId = classNameId;
+		this.parameterTypeIds = parameterTypeIds;
+		this.returnTypeId = returnTypeId;
+
+		int result = signatureId;
+		result = 31 * result + methodNameId;
+		result = 31 * result + packageNameId;
+		result = 31 * result + classNameId;
+		result = 31 * result + Arrays.hashCode(parameterTypeIds);
+		result = 31 * result + returnTypeId;
+		hash = result;
+	}
+
+	/**
+	 * @return the full signature, null if unknown
 	 */
-	public Signature(TraceImpl trace, int methodNameId, int packageNameId,
-			int classNameId, List<Integer> parameterTypeIds, int returnTypeId) {
-		this.trace = trace;
-		setMethodNameId(methodNameId);
-		setPackageNameId(packageNameId);
-		setClassNameId(classNameId);
-		setParameterTypeIds(parameterTypeIds);
-		setReturnTypeId(returnTypeId);
+	public String getFullSignature() {
+		return strings.get(signatureId);
 	}
 
+	/**
+	 * @return simple method name, null if unknown
+	 */
 	public String getMethodName() {
-		return trace.getStringConstant(methodNameId);
+		return strings.get(methodNameId);
 	}
 
+	/**
+	 * @return full package name, null if unknown
+	 */
 	public String getPackageName() {
-		return trace.getStringConstant(packageNameId);
+		return strings.get(packageNameId);
 	}
 
+	/**
+	 * @return full qualified return type, null if unknown
+	 */
 	public String getReturnType() {
-		return trace.getStringConstant(returnTypeId);
+		return strings.get(returnTypeId);
 	}
 
+	/**
+	 * @return simple class name, null if unknown
+	 */
 	public String getClassName() {
-		return trace.getStringConstant(classNameId);
+		return strings.get(classNameId);
 	}
 
 	/**
 	 * 
-	 * @return list of full qualified parameter types
+	 * @return list of full qualified parameter types, null if unknown
 	 */
 	public List<String> getParameterTypes() {
-//		List<String> pTypes = new ArrayList<String>();
-//		for (int id : parameterTypeIds) {
-//			pTypes.add(trace.getStringConstant(id));
-//		}
-		
-		List<String> pTypes = parameterTypeIds.stream().map(id -> trace.getStringConstant(id)).collect(Collectors.toList());
-		
+		if (parameterTypeIds == null) {
+			return null;
+		}
+		List<String> pTypes = new ArrayList<String>(parameterTypeIds.length);
+		for (int id : parameterTypeIds) {
+			pTypes.add(strings.get(id));
+		}
 		return pTypes;
 	}
 
 	/**
-	 * @return the methodNameId
+	 * @return the signatureId
 	 */
-	public int getMethodNameId() {
-		return methodNameId;
+	public int getSignatureId() {
+		return signatureId;
 	}
 
 	/**
-	 * @param methodNameId
-	 *            the methodNameId to set
+	 * @return the methodNameId
 	 */
-	public void setMethodNameId(int methodNameId) {
-		this.methodNameId = methodNameId;
+	public int getMethodNameId() {
+		return methodNameId;
 	}
 
 	/**
@@ -144,14 +175,6 @@ public class Signature implements Serializable {
 		return packageNameId;
 	}
 
-	/**
-	 * @param packageNameId
-	 *            the packageNameId to set
-	 */
-	public void setPackageNameId(int packageNameId) {
-		this.packageNameId = packageNameId;
-	}
-
 	/**
 	 * @return the classNameId
 	 */
@@ -159,29 +182,6 @@ public class Signature implements Serializable {
 		return classNameId;
 	}
 
-	/**
-	 * @param classNameId
-	 *            the classNameId to set
-	 */
-	public void setClassNameId(int classNameId) {
-		this.classNameId = classNameId;
-	}
-
-	/**
-	 * @return the parameterTypeIds
-	 */
-	public List<Integer> getParameterTypeIds() {
-		return parameterTypeIds;
-	}
-
-	/**
-	 * @param parameterTypeIds
-	 *            the parameterTypeIds to set
-	 */
-	public void setParameterTypeIds(List<Integer> parameterTypeIds) {
-		this.parameterTypeIds = parameterTypeIds;
-	}
-
 	/**
 	 * @return the returnTypeId
 	 */
@@ -189,93 +189,38 @@ public class Signature implements Serializable {
 		return returnTypeId;
 	}
 
-	/**
-	 * @param returnTypeId
-	 *            the returnTypeId to set
-	 */
-	public void setReturnTypeId(int returnTypeId) {
-		this.returnTypeId = returnTypeId;
-	}
-
 	@Override
 	public String toString() {
+		String signature = getFullSignature();
+		if (signature != null) {
+			return signature;
+		}
 		StringBuilder strBuilder = new StringBuilder();
-		boolean first = true;
-		for (String pType : getParameterTypes()) {
-			if (first) {
-				first = false;
-			} else {
-				strBuilder.append(",");
-			}
-			strBuilder.append(pType);
-
+		strBuilder.append(getPackageName()).append(PACKAGE_DELIMITER).append(getClassName()).append(PACKAGE_DELIMITER).append(getMethodName());
+		strBuilder.append("(");
+		List<String> parameterTypes = getParameterTypes();
+		if (parameterTypes != null) {
+			strBuilder.append(String.join(",", parameterTypes));
 		}
-		return getPackageName() + PACKAGE_DELIMITER + getClassName()
-				+ PACKAGE_DELIMITER + getMethodName() + "("
-				+ strBuilder.toString() + ")";
-
-	}
-
-	public boolean isConstructor() {
-		return getMethodName().equalsIgnoreCase(CONSTRUCTOR_PATTERN);
+		return strBuilder.append(")").toString();
 	}
 
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see java.lang.Object#hashCode()
-	 */
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + classNameId;
-		result = prime * result + methodNameId;
-		result = prime * result + packageNameId;
-		result = prime
-				* result
-				+ ((parameterTypeIds == null) ? 0 : parameterTypeIds.hashCode());
-		result = prime * result + returnTypeId;
-		return result;
+		return hash;
 	}
 
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see java.lang.Object#equals(java.lang.Object)
-	 */
 	@Override
 	public boolean equals(Object obj) {
 		if (this == obj) {
 			return true;
 		}
-		if (obj == null) {
-			return false;
-		}
-		if (getClass() != obj.getClass()) {
+		if (obj == null || getClass() != obj.getClass()) {
 			return false;
 		}
 		Signature other = (Signature) obj;
-		if (classNameId != other.classNameId) {
-			return false;
-		}
-		if (methodNameId != other.methodNameId) {
-			return false;
-		}
-		if (packageNameId != other.packageNameId) {
-			return false;
-		}
-		if (parameterTypeIds == null) {
-			if (other.parameterTypeIds != null) {
-				return false;
-			}
-		} else if (!parameterTypeIds.equals(other.parameterTypeIds)) {
-			return false;
-		}
-		if (returnTypeId != other.returnTypeId) {
-			return false;
-		}
-		return true;
+		return hash == other.hash && strings == other.strings && signatureId == other.signatureId && methodNameId == other.methodNameId && packageNameId == other.packageNameId
+				&& classNameId == other.classNameId && returnTypeId == other.returnTypeId && Arrays.equals(parameterTypeIds, other.parameterTypeIds);
 	}
 
 }
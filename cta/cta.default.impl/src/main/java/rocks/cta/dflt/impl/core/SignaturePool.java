@@ -0,0 +1,113 @@
+package rocks.cta.dflt.impl.core;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pool of interned {@link Signature} instances. Each distinct signature is assigned a dense
+ * identifier in the order of registration. The components of the signatures are registered in the
+ * passed {@link StringPool}.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class SignaturePool implements Serializable {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = -2329181372893524151L;
+
+	/**
+	 * Pool of the String constants the signatures refer to.
+	 */
+	private final StringPool strings;
+
+	/**
+	 * Registered signatures indexed by their identifier.
+	 */
+	private final List<Signature> signatures = new ArrayList<Signature>();
+
+	/**
+	 * Identifiers of the registered signatures.
+	 */
+	private final Map<Signature, Integer> signatureIds = new HashMap<Signature, Integer>();
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param strings
+	 *            pool of the String constants the signatures refer to
+	 */
+	public SignaturePool(StringPool strings) {
+		this.strings = strings;
+	}
+
+	/**
+	 * Registers a signature if it has not been registered before.
+	 * 
+	 * @param signature
+	 *            full signature
+	 * @param returnType
+	 *            return type
+	 * @param packageName
+	 *            package name
+	 * @param className
+	 *            class name
+	 * @param methodName
+	 *            method name
+	 * @param parameterTypes
+	 *            list of parameter types, null if unknown
+	 * @return identifier of the signature, {@link StringPool#NULL_ID} if all parts are null
+	 */
+	public int register(String signature, String returnType, String packageName, String className, String methodName, List<String> parameterTypes) {
+		if (signature == null && returnType == null && packageName == null && className == null && methodName == null && parameterTypes == null) {
+			return StringPool.NULL_ID;
+		}
+		int[] pTypeIds = null;
+		if (parameterTypes != null) {
+			pTypeIds = new int[parameterTypes.size()];
+			int i = 0;
+			for (String pType : parameterTypes) {
+				pTypeIds[i++] = strings.register(pType);
+			}
+		}
+		Signature newSignature = new Signature(strings, strings.register(signature), strings.register(methodName), strings.register(packageName),
+				strings.register(className), pTypeIds, strings.register(returnType));
+
+		Integer id = signatureIds.get(newSignature);
+		if (id == null) {
+			id = signatures.size();
+			signatures.add(newSignature);
+			signatureIds.put(newSignature, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Resolves an identifier.
+	 * 
+	 * @param id
+	 *            identifier returned by {@link #register}
+	 * @return the signature, null for {@link StringPool#NULL_ID}
+	 */
+	public Signature get(int id) {
+		if (id == StringPool.NULL_ID) {
+			return null;
+		}
+		if (id < 0 || id >= signatures.size()) {
+			throw new IllegalArgumentException("Unknown signature identifier: " + id);
+		}
+		return signatures.get(id);
+	}
+
+	/**
+	 * @return number of registered signatures
+	 */
+	public int size() {
+		return signatures.size();
+	}
+}
@@ -0,0 +1,163 @@
+package rocks.cta.dflt.impl.core;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Pool of interned String constants. Each distinct String is assigned a dense identifier in the
+ * order of registration, hence, identifiers are resolved by an array access. The identifiers of
+ * registered Strings are found via an open addressing hash table with linear probing. In contrast
+ * to using the hash code as identifier, distinct Strings always get distinct identifiers.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class StringPool implements Serializable {
+
+	/**
+	 * Identifier of the null String. Resolving this identifier returns null.
+	 */
+	public static final int NULL_ID = -1;
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 4211385837395066407L;
+
+	/**
+	 * Initial capacity of the pool.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * Registered Strings indexed by their identifier.
+	 */
+	private String[] strings;
+
+	/**
+	 * Hash table holding the identifier + 1 of the registered Strings, 0 marks empty slots. The
+	 * length is a power of two and at least twice the number of registered Strings.
+	 */
+	private int[] slots;
+
+	/**
+	 * Number of registered Strings.
+	 */
+	private int size;
+
+	/**
+	 * Constructor.
+	 */
+	public StringPool() {
+		strings = new String[INITIAL_CAPACITY];
+		slots = new int[INITIAL_CAPACITY * 2];
+	}
+
+	/**
+	 * Registers the passed String if it has not been registered before.
+	 * 
+	 * @param value
+	 *            String to register, may be null
+	 * @return identifier of the String, {@link #NULL_ID} for null
+	 */
+	public int register(String value) {
+		if (value == null) {
+			return NULL_ID;
+		}
+		int mask = slots.length - 1;
+		int slot = hash(value) & mask;
+		while (slots[slot] != 0) {
+			int id = slots[slot] - 1;
+			if (value.equals(strings[id])) {
+				return id;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		int id = size;
+		if (id == strings.length) {
+			grow();
+			return register(value);
+		}
+		strings[id] = value;
+		slots[slot] = id + 1;
+		size++;
+		return id;
+	}
+
+	/**
+	 * Returns the identifier of the passed String without registering it.
+	 * 
+	 * @param value
+	 *            String of interest
+	 * @return identifier of the String, {@link #NULL_ID} if the String is null or has not been
+	 *         registered
+	 */
+	public int indexOf(String value) {
+		if (value == null) {
+			return NULL_ID;
+		}
+		int mask = slots.length - 1;
+		int slot = hash(value) & mask;
+		while (slots[slot] != 0) {
+			int id = slots[slot] - 1;
+			if (value.equals(strings[id])) {
+				return id;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return NULL_ID;
+	}
+
+	/**
+	 * Resolves an identifier.
+	 * 
+	 * @param id
+	 *            identifier returned by {@link #register(String)}
+	 * @return the String, null for {@link #NULL_ID}
+	 */
+	public String get(int id) {
+		if (id == NULL_ID) {
+			return null;
+		}
+		if (id < 0 || id >= size) {
+			throw new IllegalArgumentException("Unknown String identifier: " + id);
+		}
+		return strings[id];
+	}
+
+	/**
+	 * @return number of registered Strings
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Doubles the capacity and rebuilds the hash table.
+	 */
+	private void grow() {
+		strings = Arrays.copyOf(strings, strings.length * 2);
+		slots = new int[strings.length * 2];
+		int mask = slots.length - 1;
+		for (int id = 0; id < size; id++) {
+			int slot = hash(strings[id]) & mask;
+			while (slots[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			slots[slot] = id + 1;
+		}
+	}
+
+	/**
+	 * Spreads the hash code of the passed String, as the table only uses the lower bits.
+	 * 
+	 * @param value
+	 *            String to hash
+	 * @return hash value
+	 */
+	private static int hash(String value) {
+		int h = value.hashCode();
+		return h ^ (h >>> 16);
+	}
+}
@@ -1,9 +1,14 @@
 package rocks.cta.dflt.impl.core;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Supplier;
 
 import rocks.cta.api.core.Location;
 import rocks.cta.api.core.SubTrace;
@@ -11,9 +16,10 @@ import rocks.cta.api.core.Trace;
 import rocks.cta.api.core.TreeIterator;
 import rocks.cta.api.core.callables.Callable;
 import rocks.cta.api.core.callables.NestingCallable;
-import rocks.cta.api.utils.CallableIterator;
 import rocks.cta.api.utils.StringUtils;
 import rocks.cta.dflt.impl.core.callables.AbstractCallableImpl;
+import rocks.cta.dflt.impl.core.callables.CallableImplIterator;
+import rocks.cta.dflt.impl.core.callables.CallableImplSpliterator;
 
 /**
  * Default implementation of the {@link SubTrace} interface of the CTA.
@@ -33,6 +39,17 @@ public class SubTraceImpl extends AbstractIdentifiableImpl implements SubTrace,
 	 */
 	private AbstractCallableImpl root;
 
+	/**
+	 * Loader of the root Callable, if the root is loaded on demand. Null if the root has been set
+	 * or loaded.
+	 */
+	private transient volatile Supplier<? extends AbstractCallableImpl> rootLoader;
+
+	/**
+	 * Response time of this SubTrace while the root has not been loaded.
+	 */
+	private transient long unloadedResponseTime;
+
 	/**
 	 * SubTrace that invoked this SubTrace.
 	 */
@@ -91,11 +108,19 @@ public class SubTraceImpl extends AbstractIdentifiableImpl implements SubTrace,
 
 	@Override
 	public TreeIterator<Callable> iterator() {
-		return new CallableIterator(getRoot());
+		return new CallableImplIterator(getRoot(), false);
+	}
+
+	@Override
+	public Spliterator<Callable> spliterator() {
+		return new CallableImplSpliterator(getRoot(), false);
 	}
 
 	@Override
 	public Callable getRoot() {
+		if (rootLoader != null) {
+			loadRoot();
+		}
 		return root;
 	}
 
@@ -106,7 +131,63 @@ public class SubTraceImpl extends AbstractIdentifiableImpl implements SubTrace,
 	 *            root of this SUbTrace
 	 */
 	public void setRoot(AbstractCallableImpl root) {
+		checkNotFrozen();
+		invalidateIndexes();
 		this.root = root;
+		this.rootLoader = null;
+	}
+
+	/**
+	 * Sets a loader that provides the root on first access. Until then, the passed response time
+	 * is returned by {@link #getResponseTime()}.
+	 * 
+	 * The loader is invoked by the first thread accessing the root, while holding the lock of the
+	 * containing trace, so that loaders of different SubTraces may register Strings and signatures
+	 * in the pools of the trace. If the loader fails, it is invoked again on the next access.
+	 * Otherwise, it is invoked only once. As the accessing thread may be any thread, the loader
+	 * must not use state that is modified by other threads, e.g. the kryo instance or the buffer of
+	 * the deserializer that has created it.
+	 * 
+	 * @param rootLoader
+	 *            loader of the root Callable
+	 * @param responseTime
+	 *            response time of this SubTrace
+	 */
+	public void setRootLoader(Supplier<? extends AbstractCallableImpl> rootLoader, long responseTime) {
+		checkNotFrozen();
+		invalidateIndexes();
+		this.root = null;
+		this.unloadedResponseTime = responseTime;
+		this.rootLoader = rootLoader;
+	}
+
+	/**
+	 * Loads the root, unless another thread has loaded it in the meantime. Loading is serialized
+	 * per trace, as the pools of the trace are shared by the call trees of all SubTraces.
+	 */
+	private void loadRoot() {
+		synchronized (containingTrace != null ? containingTrace : this) {
+			Supplier<? extends AbstractCallableImpl> loader = rootLoader;
+			if (loader != null) {
+				root = loader.get();
+				rootLoader = null;
+			}
+		}
+	}
+
+	/**
+	 * Loads the root before writing this SubTrace, as the loader is not serializable.
+	 * 
+	 * @param out
+	 *            stream to write to
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		if (rootLoader != null) {
+			loadRoot();
+		}
+		out.defaultWriteObject();
 	}
 
 	@Override
@@ -129,6 +210,7 @@ public class SubTraceImpl extends AbstractIdentifiableImpl implements SubTrace,
 	 *            a SubTrace invoked by this SubTrace
 	 */
 	public void addSubTrace(SubTrace subTrace) {
+		checkNotFrozen();
 		if (childSubTraces == null) {
 			childSubTraces = new ArrayList<SubTrace>();
 		}
@@ -147,6 +229,7 @@ public class SubTraceImpl extends AbstractIdentifiableImpl implements SubTrace,
 	 *            location to set
 	 */
 	public void setLocation(Location location) {
+		checkNotFrozen();
 		this.location = location;
 	}
 
@@ -174,6 +257,55 @@ public class SubTraceImpl extends AbstractIdentifiableImpl implements SubTrace,
 		return size;
 	}
 
+	/**
+	 * Loads the root, freezes all Callables of this SubTrace, counts them and trims the list of
+	 * child SubTraces. Invoked by {@link TraceImpl#freeze()}, should not be invoked otherwise.
+	 */
+	void freeze() {
+		int count = 0;
+		TreeIterator<Callable> iterator = iterator();
+		while (iterator.hasNext()) {
+			Callable callable = iterator.next();
+			if (callable instanceof AbstractCallableImpl) {
+				((AbstractCallableImpl) callable).freeze();
+			}
+			count++;
+		}
+		size = count;
+		if (childSubTraces != null) {
+			childSubTraces = Arrays.asList(childSubTraces.toArray(new SubTrace[childSubTraces.size()]));
+		}
+	}
+
+	/**
+	 * @return true, if the containing trace has been frozen
+	 */
+	public boolean isFrozen() {
+		return containingTrace != null && containingTrace.isFrozen();
+	}
+
+	/**
+	 * Discards the indexes of the containing trace, as they do not cover the new root.
+	 */
+	private void invalidateIndexes() {
+		if (containingTrace != null) {
+			containingTrace.invalidateIndexes();
+		}
+	}
+
+	/**
+	 * Checks that the containing trace has not been frozen.
+	 * 
+	 * @throws IllegalStateException
+	 *             if the containing trace has been frozen
+	 */
+	@Override
+	protected void checkNotFrozen() throws IllegalStateException {
+		if (isFrozen()) {
+			throw new IllegalStateException("SubTraces of a frozen trace cannot be modified.");
+		}
+	}
+
 	@Override
 	public String toString() {
 		return StringUtils.getStringRepresentation(this);
@@ -228,6 +360,9 @@ public class SubTraceImpl extends AbstractIdentifiableImpl implements SubTrace,
 
 	@Override
 	public long getResponseTime() {
+		if (rootLoader != null) {
+			return unloadedResponseTime;
+		}
 		if (root instanceof NestingCallable) {
 			return ((NestingCallable) root).getResponseTime();
 		} else {
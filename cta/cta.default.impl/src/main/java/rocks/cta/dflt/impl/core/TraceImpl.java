@@ -1,17 +1,29 @@
 package rocks.cta.dflt.impl.core;
 
 import java.io.Serializable;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
-import java.util.Map;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Function;
 
 import rocks.cta.api.core.SubTrace;
 import rocks.cta.api.core.Trace;
+import rocks.cta.api.core.TraceCursor;
+import rocks.cta.api.core.TraceVisitor;
 import rocks.cta.api.core.TreeIterator;
 import rocks.cta.api.core.callables.Callable;
-import rocks.cta.api.utils.CallableIteratorOnTrace;
+import rocks.cta.api.core.callables.NestingCallable;
+import rocks.cta.api.utils.ArrayStackSubTraceIterator;
+import rocks.cta.api.utils.CallableTypeIndex;
+import rocks.cta.api.utils.PreOrderIndex;
 import rocks.cta.api.utils.StringUtils;
-import rocks.cta.api.utils.SubTraceIterator;
+import rocks.cta.dflt.impl.core.callables.AbstractCallableImpl;
+import rocks.cta.dflt.impl.core.callables.CallableImplIterator;
+import rocks.cta.dflt.impl.core.callables.CallableImplSpliterator;
+import rocks.cta.dflt.impl.core.callables.TraceImplWalker;
+import rocks.cta.dflt.impl.core.callables.TraceImplCursor;
 
 /**
  * Default implementation of the {@link Trace} interface of the CTA.
@@ -39,18 +51,38 @@ public class TraceImpl extends AbstractIdentifiableImpl implements Trace, Serial
 	/**
 	 * Registry of Signatures used in this trace.
 	 */
-//	private Map<Integer, Signature> containedSignatures;
+	private SignaturePool signatures;
 
 	/**
 	 * Registry of String constants used in this trace instance.
 	 */
-	private Map<Integer, String> stringConstantsRegistry;
+	private StringPool stringConstantsRegistry;
 
 	/**
 	 * size of this SubTrace.
 	 */
 	private transient int size = -1;
 
+	/**
+	 * Indicates whether this trace has been frozen.
+	 */
+	private transient boolean frozen;
+
+	/**
+	 * Index from labels to the callables carrying them, null if not built, yet.
+	 */
+	private transient LabelIndex labelIndex;
+
+	/**
+	 * Pre-order index of the callables, null if not built, yet, or discarded by a modification.
+	 */
+	private transient volatile PreOrderIndex preOrderIndex;
+
+	/**
+	 * Type index of the callables, null if not built, yet, or discarded by a modification.
+	 */
+	private transient volatile CallableTypeIndex callableTypeIndex;
+
 	/**
 	 * Indicates whether CPU times are supported in this trace.
 	 */
@@ -74,7 +106,24 @@ public class TraceImpl extends AbstractIdentifiableImpl implements Trace, Serial
 
 	@Override
 	public TreeIterator<Callable> iterator() {
-		return new CallableIteratorOnTrace(getRoot());
+		SubTrace root = getRoot();
+		return new CallableImplIterator(root == null ? null : root.getRoot(), true);
+	}
+
+	@Override
+	public Spliterator<Callable> spliterator() {
+		SubTrace root = getRoot();
+		return new CallableImplSpliterator(root == null ? null : root.getRoot(), true);
+	}
+
+	@Override
+	public void accept(TraceVisitor visitor) {
+		new TraceImplWalker(visitor).walk(this);
+	}
+
+	@Override
+	public TraceCursor cursor() {
+		return new TraceImplCursor(this);
 	}
 
 	@Override
@@ -89,12 +138,14 @@ public class TraceImpl extends AbstractIdentifiableImpl implements Trace, Serial
 	 *            root SubTrace
 	 */
 	public void setRoot(SubTraceImpl root) {
+		checkNotFrozen();
+		invalidateIndexes();
 		this.rootSubTrace = root;
 	}
 
 	@Override
 	public TreeIterator<SubTrace> subTraceIterator() {
-		return new SubTraceIterator(getRoot());
+		return new ArrayStackSubTraceIterator(getRoot());
 	}
 
 	@Override
@@ -118,22 +169,27 @@ public class TraceImpl extends AbstractIdentifiableImpl implements Trace, Serial
 	}
 
 	/**
-	 * Retrieves the {@link String} for the given signature ID.
+	 * Retrieves the {@link Signature} for the given signature ID.
 	 * 
 	 * @param signatureId
 	 *            id for which to retrieve the signature.
-	 * @return Signature object for the passed id
+	 * @return Signature object for the passed id, null for {@link StringPool#NULL_ID}
 	 */
-//	public String getSignature(int signatureId) {
-//		if (containedSignatures == null) {
-//			return null;
-//		}
-//		return containedSignatures.get(signatureId);
-//	}
+	public Signature getSignature(int signatureId) {
+		if (signatures == null) {
+			if (signatureId != StringPool.NULL_ID) {
+				throw new IllegalArgumentException("Unknown signature identifier: " + signatureId);
+			}
+			return null;
+		}
+		return signatures.get(signatureId);
+	}
 
 	/**
-	 * Registers a new {@link String} if it is not contained in the repository, yet.
+	 * Registers a new {@link Signature} if it is not contained in the repository, yet.
 	 * 
+	 * @param signature
+	 *            full signature
 	 * @param returnType
 	 *            return type
 	 * @param packageName
@@ -143,47 +199,39 @@ public class TraceImpl extends AbstractIdentifiableImpl implements Trace, Serial
 	 * @param methodName
 	 *            method name
 	 * @param parameterTypes
-	 *            list of parameter types
-	 * @return id of the registered signature
-	 */
-//	public int registerSignature(String returnType, String packageName, String className, String methodName, List<String> parameterTypes) {
-//		int methodNameId = registerStringConstant(methodName);
-//		int packageNameId = registerStringConstant(packageName);
-//		int classNameId = registerStringConstant(className);
-//		int returnTypeId = registerStringConstant(returnType);
-//		List<Integer> pTypeIds = null;
-//		if (parameterTypes != null) {
-//			pTypeIds = new ArrayList<Integer>();
-//			for (String pType : parameterTypes) {
-//				pTypeIds.add(registerStringConstant(pType));
-//			}
-//		} else {
-//			pTypeIds = Collections.emptyList();
-//		}
-//
-//		Signature signature = new Signature(this, methodNameId, packageNameId, classNameId, pTypeIds, returnTypeId);
-//
-//		if (containedSignatures == null) {
-//			containedSignatures = new HashMap<Integer, Signature>();
-//		}
-//		int hash = signature.hashCode();
-//		if (!containedSignatures.containsKey(hash)) {
-//			containedSignatures.put(hash, signature);
-//
-//		}
-//
-//		return hash;
-//	}
+	 *            list of parameter types, null if unknown
+	 * @return id of the registered signature, {@link StringPool#NULL_ID} if all parts are null
+	 */
+	public int registerSignature(String signature, String returnType, String packageName, String className, String methodName, List<String> parameterTypes) {
+		checkNotFrozen();
+		if (signatures == null) {
+			if (stringConstantsRegistry == null) {
+				stringConstantsRegistry = new StringPool();
+			}
+			signatures = new SignaturePool(stringConstantsRegistry);
+		}
+		return signatures.register(signature, returnType, packageName, className, methodName, parameterTypes);
+	}
+
+	/**
+	 * @return number of distinct signatures registered in this trace
+	 */
+	public int getSignatureCount() {
+		return signatures == null ? 0 : signatures.size();
+	}
 
 	/**
 	 * Retrieves the String constant for the passed ID.
 	 * 
 	 * @param stringConstantId
 	 *            id for which to retrieve the String constant.
-	 * @return String constant for the passed id
+	 * @return String constant for the passed id, null for {@link StringPool#NULL_ID}
 	 */
 	public String getStringConstant(int stringConstantId) {
 		if (stringConstantsRegistry == null) {
+			if (stringConstantId != StringPool.NULL_ID) {
+				throw new IllegalArgumentException("Unknown String identifier: " + stringConstantId);
+			}
 			return null;
 		}
 		return stringConstantsRegistry.get(stringConstantId);
@@ -193,18 +241,335 @@ public class TraceImpl extends AbstractIdentifiableImpl implements Trace, Serial
 	 * Registers a new String constant if it is not contained in the registry, yet.
 	 * 
 	 * @param stringConstant
-	 *            stringConstant to register
-	 * @return identifier of the registered String constant
+	 *            stringConstant to register, may be null
+	 * @return identifier of the registered String constant, {@link StringPool#NULL_ID} for null
 	 */
 	public int registerStringConstant(String stringConstant) {
+		if (stringConstant == null) {
+			return StringPool.NULL_ID;
+		}
+		checkNotFrozen();
 		if (stringConstantsRegistry == null) {
-			stringConstantsRegistry = new HashMap<Integer, String>();
+			stringConstantsRegistry = new StringPool();
+		}
+		return stringConstantsRegistry.register(stringConstant);
+	}
+
+	/**
+	 * Freezes this trace once it has been built. Loads all lazily loaded SubTraces, trims the
+	 * lists of callees and child SubTraces to arrays, precomputes the sizes, the exclusive times
+	 * and the exclusive CPU times in a single pass over all Callables, resolves the labels and
+	 * builds the label index (see {@link #getCallablesWithLabel(String)}).
+	 * Afterwards, the trace and its SubTraces and Callables cannot be modified anymore and no
+	 * values are computed lazily, hence, the trace can be shared among threads without
+	 * synchronization once it has been safely published. Freezing a frozen trace has no effect.
+	 * The frozen state is not serialized.
+	 * 
+	 * @return this trace
+	 */
+	public TraceImpl freeze() {
+		if (!frozen) {
+			int count = 0;
+			Iterator<SubTrace> iterator = subTraceIterator();
+			while (iterator.hasNext()) {
+				SubTrace subTrace = iterator.next();
+				if (subTrace instanceof SubTraceImpl) {
+					((SubTraceImpl) subTrace).freeze();
+				}
+				count += subTrace.size();
+			}
+			size = count;
+			getLabelIndex().trimToSize();
+			frozen = true;
+		}
+		return this;
+	}
+
+	/**
+	 * @return true, if this trace has been frozen by {@link #freeze()}
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	/**
+	 * Checks that this trace has not been frozen.
+	 * 
+	 * @throws IllegalStateException
+	 *             if this trace has been frozen
+	 */
+	@Override
+	protected void checkNotFrozen() throws IllegalStateException {
+		if (frozen) {
+			throw new IllegalStateException("A frozen trace cannot be modified.");
+		}
+	}
+
+	/**
+	 * Returns the callables of this trace carrying the passed label. On first use, the label index
+	 * of this trace is built by a single pass over all callables. Callables labeled afterwards are
+	 * inserted into the index at their position. The index is discarded when callables are added
+	 * or replaced, and built again by the next query. Hence, subsequent queries neither scan the
+	 * trace nor allocate objects.
+	 * 
+	 * @param label
+	 *            label of interest
+	 * @return unmodifiable list of the callables carrying the label in pre-order of their sub
+	 *         traces (see {@link #subTraceIterator()}), each callable is contained once
+	 */
+	public List<Callable> getCallablesWithLabel(String label) {
+		int labelId = stringConstantsRegistry == null ? StringPool.NULL_ID : stringConstantsRegistry.indexOf(label);
+		if (labelId == StringPool.NULL_ID) {
+			return Collections.emptyList();
+		}
+		return getLabelIndex().get(labelId);
+	}
+
+	/**
+	 * Returns a pre-order index of the callables of this trace. The index is built on first use
+	 * and shared by all subsequent calls. It is discarded when callables are added or a root is
+	 * replaced, and built again by the next call.
+	 * 
+	 * @return pre-order index of the callables of this trace
+	 */
+	public PreOrderIndex getPreOrderIndex() {
+		PreOrderIndex index = preOrderIndex;
+		if (index == null) {
+			index = new PreOrderIndex(this);
+			preOrderIndex = index;
+		}
+		return index;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The type index is built on first use and shared by all subsequent calls until the trace is
+	 * modified, hence, subsequent queries take time proportional to the number of matches and a
+	 * query for a single kind of callables does not allocate.
+	 */
+	@Override
+	public <T extends Callable> List<T> callables(Class<T> type) {
+		return getCallableTypeIndex().get(type);
+	}
+
+	/**
+	 * Returns an index of the callables of this trace by their kind. The index is built on first
+	 * use and shared by all subsequent calls. It is discarded when callables are added or a root
+	 * is replaced, and built again by the next call.
+	 * 
+	 * @return type index of the callables of this trace
+	 */
+	public CallableTypeIndex getCallableTypeIndex() {
+		CallableTypeIndex index = callableTypeIndex;
+		if (index == null) {
+			index = new CallableTypeIndex(this);
+			callableTypeIndex = index;
+		}
+		return index;
+	}
+
+	/**
+	 * Discards all indexes, as callables have been added, or callables have been replaced or will
+	 * be loaded. Invoked by the callables and sub traces of this trace when their structure is
+	 * modified, should not be invoked otherwise.
+	 */
+	public void invalidateIndexes() {
+		invalidateLabelIndex();
+		invalidateTypeIndex();
+		preOrderIndex = null;
+	}
+
+	/**
+	 * Discards the label index, as callables have been added or replaced. Invoked by the callables
+	 * and sub traces of this trace, should not be invoked otherwise.
+	 */
+	public void invalidateLabelIndex() {
+		labelIndex = null;
+	}
+
+	/**
+	 * Adds a callable to the label index, if the index has been built, as the callable carries a
+	 * new label. The callable is inserted at its position in pre-order, so the index does not have
+	 * to be built again. Invoked by the callables of this trace, should not be invoked otherwise.
+	 * 
+	 * @param callable
+	 *            callable carrying the label
+	 * @param labelId
+	 *            identifier of the label
+	 */
+	public void addToLabelIndex(AbstractCallableImpl callable, int labelId) {
+		LabelIndex index = labelIndex;
+		if (index != null && isAttached(callable)) {
+			index.insert(labelId, callable, TraceImpl::comparePositions);
+		}
+	}
+
+	/**
+	 * Discards the type index, as callables have been added or replaced. Invoked by the callables
+	 * and sub traces of this trace, should not be invoked otherwise.
+	 */
+	public void invalidateTypeIndex() {
+		callableTypeIndex = null;
+	}
+
+	/**
+	 * @return the label index, built if necessary
+	 */
+	private LabelIndex getLabelIndex() {
+		LabelIndex index = labelIndex;
+		if (index == null) {
+			index = new LabelIndex();
+			Iterator<SubTrace> subTraces = subTraceIterator();
+			while (subTraces.hasNext()) {
+				for (Callable callable : subTraces.next()) {
+					if (callable instanceof AbstractCallableImpl) {
+						indexLabels(index, (AbstractCallableImpl) callable);
+					}
+				}
+			}
+			labelIndex = index;
+		}
+		return index;
+	}
+
+	/**
+	 * Adds the passed callable to the index once for each of its distinct labels.
+	 * 
+	 * @param index
+	 *            label index
+	 * @param callable
+	 *            callable to add
+	 */
+	private static void indexLabels(LabelIndex index, AbstractCallableImpl callable) {
+		for (int i = 0; i < callable.getLabelCount(); i++) {
+			if (callable.indexOfLabelId(callable.getLabelId(i)) == i) {
+				index.add(callable.getLabelId(i), callable);
+			}
 		}
-		int hash = stringConstant == null ? 0 : stringConstant.hashCode();
-		if (!stringConstantsRegistry.containsKey(hash)) {
-			stringConstantsRegistry.put(hash, stringConstant);
+	}
+
+	/**
+	 * Checks whether a callable is reachable from the root of this trace. Callables that are not
+	 * reachable yet are indexed when they are attached, as attaching discards the label index.
+	 * 
+	 * @param callable
+	 *            callable to check
+	 * @return true, if the callable is reachable from the root of this trace
+	 */
+	private boolean isAttached(Callable callable) {
+		SubTrace subTrace = callable.getContainingSubTrace();
+		if (subTrace == null || subTrace.getRoot() != root(callable, Callable::getParent)) {
+			return false;
+		}
+		return root(subTrace, SubTrace::getParent) == rootSubTrace;
+	}
+
+	/**
+	 * Compares the positions of two callables of this trace in the order of the label index, i.e.
+	 * by the position of their SubTraces in the order of {@link #subTraceIterator()} and by their
+	 * pre-order position within their SubTrace.
+	 * 
+	 * @param first
+	 *            first callable
+	 * @param second
+	 *            second callable
+	 * @return a negative number, zero, or a positive number if the first callable is before, at
+	 *         or after the second callable
+	 */
+	private static int comparePositions(Callable first, Callable second) {
+		SubTrace firstSubTrace = first.getContainingSubTrace();
+		SubTrace secondSubTrace = second.getContainingSubTrace();
+		if (firstSubTrace != secondSubTrace) {
+			return comparePreOrder(path(firstSubTrace, SubTrace::getParent), path(secondSubTrace, SubTrace::getParent),
+					SubTrace::getSubTraces);
+		}
+		return comparePreOrder(path(first, Callable::getParent), path(second, Callable::getParent),
+				callable -> ((NestingCallable) callable).getCallees());
+	}
+
+	/**
+	 * Compares the pre-order positions of two nodes of the same tree.
+	 * 
+	 * @param firstPath
+	 *            path from the root to the first node
+	 * @param secondPath
+	 *            path from the root to the second node
+	 * @param children
+	 *            function returning the children of a node
+	 * @param <T>
+	 *            type of the nodes
+	 * @return a negative number, zero, or a positive number if the first node is before, at or after
+	 *         the second node
+	 */
+	private static <T> int comparePreOrder(List<T> firstPath, List<T> secondPath, Function<T, List<? extends T>> children) {
+		int depth = 0;
+		while (depth < firstPath.size() && depth < secondPath.size() && firstPath.get(depth) == secondPath.get(depth)) {
+			depth++;
+		}
+		if (depth == 0 || depth == firstPath.size() || depth == secondPath.size()) {
+			// an ancestor precedes its descendants
+			return firstPath.size() - secondPath.size();
+		}
+		List<? extends T> siblings = children.apply(firstPath.get(depth - 1));
+		return indexOfIdentical(siblings, firstPath.get(depth)) - indexOfIdentical(siblings, secondPath.get(depth));
+	}
+
+	/**
+	 * Returns the path from the root of a tree to a node.
+	 * 
+	 * @param node
+	 *            the node
+	 * @param parent
+	 *            function returning the parent of a node, null for the root
+	 * @param <T>
+	 *            type of the nodes
+	 * @return the nodes from the root to the passed node
+	 */
+	private static <T> List<T> path(T node, Function<T, ? extends T> parent) {
+		List<T> path = new ArrayList<T>();
+		for (T current = node; current != null; current = parent.apply(current)) {
+			path.add(current);
+		}
+		Collections.reverse(path);
+		return path;
+	}
+
+	/**
+	 * Returns the root of the tree of a node.
+	 * 
+	 * @param node
+	 *            the node
+	 * @param parent
+	 *            function returning the parent of a node, null for the root
+	 * @param <T>
+	 *            type of the nodes
+	 * @return the root
+	 */
+	private static <T> T root(T node, Function<T, ? extends T> parent) {
+		T root = node;
+		for (T current = parent.apply(node); current != null; current = parent.apply(current)) {
+			root = current;
+		}
+		return root;
+	}
+
+	/**
+	 * Returns the position of an element in a list, comparing by identity.
+	 * 
+	 * @param list
+	 *            the list
+	 * @param element
+	 *            element to find
+	 * @return position of the element, -1 if the list does not contain the element
+	 */
+	private static int indexOfIdentical(List<?> list, Object element) {
+		for (int i = 0; i < list.size(); i++) {
+			if (list.get(i) == element) {
+				return i;
+			}
 		}
-		return hash;
+		return -1;
 	}
 
 	@Override
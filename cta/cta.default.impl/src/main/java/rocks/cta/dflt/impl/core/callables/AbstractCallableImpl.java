@@ -2,11 +2,11 @@ package rocks.cta.dflt.impl.core.callables;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import rocks.cta.api.core.AdditionalInformation;
 import rocks.cta.api.core.SubTrace;
@@ -40,15 +40,20 @@ public abstract class AbstractCallableImpl extends AbstractIdentifiableImpl impl
 	protected long entryTime = -1;
 
 	/**
-	 * List of label identifiers. Identifiers point to a repository in the
+	 * Label identifiers, null if no label has been added. Identifiers point to a repository in the
 	 * containing trace.
 	 */
-	protected Optional<List<Integer>> labelIds = Optional.empty();
+	protected int[] labelIds;
 
 	/**
-	 * List of additional information objects.
+	 * Resolved labels, null if the labels have not been resolved by {@link #freeze()}.
 	 */
-	protected Optional<Collection<AdditionalInformation>> additionInfos = Optional.empty();
+	private transient List<String> labels;
+
+	/**
+	 * Additional information objects, null if no additional information has been added.
+	 */
+	protected AdditionalInformation[] additionInfos;
 
 	/**
 	 * Containing SubTrace.
@@ -95,22 +100,41 @@ public abstract class AbstractCallableImpl extends AbstractIdentifiableImpl impl
 		return entryTime;
 	}
 
+	/**
+	 * Sets the entry timestamp.
+	 * 
+	 * @param timestamp
+	 *            entry timestamp [milliseconds]
+	 */
 	public void setTimestamp(long timestamp) {
+		checkNotFrozen();
 		entryTime = timestamp;
 	}
 
 	@Override
 	public Optional<List<String>> getLabels() {
-		if (!labelIds.isPresent()) {
+		if (labelIds == null) {
 			return Optional.empty();
 		}
-		
-		TraceImpl trace = ((TraceImpl) getContainingSubTrace().getContainingTrace());
+		if (labels != null) {
+			return Optional.of(labels);
+		}
+		return Optional.of(resolveLabels());
 
-		Optional<List<String>> resultList = labelIds.map(l -> l.stream().map(i -> trace.getStringConstant(i)).collect(Collectors.toList()));
-		
-		return Optional.of(Collections.unmodifiableList(resultList.get()));
+	}
 
+	/**
+	 * Resolves the label identifiers of this Callable.
+	 * 
+	 * @return unmodifiable list of labels
+	 */
+	private List<String> resolveLabels() {
+		TraceImpl trace = ((TraceImpl) getContainingSubTrace().getContainingTrace());
+		List<String> resolvedLabels = new ArrayList<String>(labelIds.length);
+		for (int labelId : labelIds) {
+			resolvedLabels.add(trace.getStringConstant(labelId));
+		}
+		return Collections.unmodifiableList(resolvedLabels);
 	}
 
 	/**
@@ -120,23 +144,70 @@ public abstract class AbstractCallableImpl extends AbstractIdentifiableImpl impl
 	 *            lable to add
 	 */
 	public void addLabel(String label) {
+		checkNotFrozen();
+
+		TraceImpl trace = (TraceImpl) containingSubTrace.getContainingTrace();
+		int labelId = trace.registerStringConstant(label);
+		boolean firstOccurrence = indexOfLabelId(labelId) < 0;
+		if (labelIds == null) {
+			labelIds = new int[] { labelId };
+		} else {
+			labelIds = Arrays.copyOf(labelIds, labelIds.length + 1);
+			labelIds[labelIds.length - 1] = labelId;
+		}
+		if (firstOccurrence) {
+			trace.addToLabelIndex(this, labelId);
+		}
+	}
 
-		if (!labelIds.isPresent()) {
-			labelIds = Optional.of(new ArrayList<Integer>());
+	/**
+	 * @return number of labels attached to this Callable
+	 */
+	public int getLabelCount() {
+		return labelIds == null ? 0 : labelIds.length;
+	}
+
+	/**
+	 * Returns the identifier of a label. Identifiers point to the String constants of the
+	 * containing trace.
+	 * 
+	 * @param index
+	 *            index of the label in the order the labels have been added
+	 * @return label identifier
+	 */
+	public int getLabelId(int index) {
+		if (index < 0 || index >= getLabelCount()) {
+			throw new IllegalArgumentException("Invalid label index: " + index);
 		}
+		return labelIds[index];
+	}
 
-		int hash = ((TraceImpl) containingSubTrace.getContainingTrace()).registerStringConstant(label);
-		labelIds.get().add(hash);
+	/**
+	 * Returns the index of the first occurrence of a label identifier.
+	 * 
+	 * @param labelId
+	 *            label identifier
+	 * @return index of the label, -1 if this Callable does not carry the label
+	 */
+	public int indexOfLabelId(int labelId) {
+		if (labelIds != null) {
+			for (int i = 0; i < labelIds.length; i++) {
+				if (labelIds[i] == labelId) {
+					return i;
+				}
+			}
+		}
+		return -1;
 	}
 
 	@Override
 	public Optional<Collection<AdditionalInformation>> getAdditionalInformation() {
 		
-		if (!additionInfos.isPresent()) {
+		if (additionInfos == null) {
 			return Optional.empty();
 		}
 		
-		return Optional.of(Collections.unmodifiableCollection(additionInfos.get()));
+		return Optional.of(Collections.unmodifiableCollection(Arrays.asList(additionInfos)));
 	}
 
 	/**
@@ -146,19 +217,22 @@ public abstract class AbstractCallableImpl extends AbstractIdentifiableImpl impl
 	 *            additional information to attach
 	 */
 	public void addAdditionalInformation(AdditionalInformation additionalInfo) {
-		if (!additionInfos.isPresent()) {
-			additionInfos = Optional.of(new ArrayList<AdditionalInformation>());
+		checkNotFrozen();
+		if (additionInfos == null) {
+			additionInfos = new AdditionalInformation[] { additionalInfo };
+		} else {
+			additionInfos = Arrays.copyOf(additionInfos, additionInfos.length + 1);
+			additionInfos[additionInfos.length - 1] = additionalInfo;
 		}
-		additionInfos.get().add(additionalInfo);
 	}
 
 	@Override
 	@SuppressWarnings("unchecked")
 	public <T extends AdditionalInformation> Optional<Collection<T>> getAdditionalInformation(Class<T> type) {
-		if (additionInfos.isPresent()) {
+		if (additionInfos != null) {
 
 			List<T> result = new ArrayList<T>();
-			for (AdditionalInformation aInfo : additionInfos.get()) {
+			for (AdditionalInformation aInfo : additionInfos) {
 				if (type.isAssignableFrom(aInfo.getClass())) {
 					result.add((T) aInfo);
 				}
@@ -169,4 +243,36 @@ public abstract class AbstractCallableImpl extends AbstractIdentifiableImpl impl
 		}
 	}
 
+	/**
+	 * Precomputes the derived values of this Callable and resolves its labels. Invoked by
+	 * {@link TraceImpl#freeze()} for each Callable of the trace, should not be invoked otherwise.
+	 */
+	public void freeze() {
+		if (labelIds != null) {
+			labels = resolveLabels();
+		}
+	}
+
+	/**
+	 * Discards the indexes of the containing trace, as this Callable has been modified.
+	 */
+	protected void invalidateTraceIndexes() {
+		if (containingSubTrace != null && containingSubTrace.getContainingTrace() != null) {
+			((TraceImpl) containingSubTrace.getContainingTrace()).invalidateIndexes();
+		}
+	}
+
+	/**
+	 * Checks that the containing trace has not been frozen.
+	 * 
+	 * @throws IllegalStateException
+	 *             if the containing trace has been frozen
+	 */
+	@Override
+	protected void checkNotFrozen() throws IllegalStateException {
+		if (containingSubTrace != null && containingSubTrace.isFrozen()) {
+			throw new IllegalStateException("Callables of a frozen trace cannot be modified.");
+		}
+	}
+
 }
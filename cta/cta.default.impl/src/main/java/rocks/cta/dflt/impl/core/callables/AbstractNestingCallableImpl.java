@@ -2,13 +2,15 @@ package rocks.cta.dflt.impl.core.callables;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Spliterator;
 
 import rocks.cta.api.core.TreeIterator;
 import rocks.cta.api.core.callables.Callable;
 import rocks.cta.api.core.callables.NestingCallable;
-import rocks.cta.api.utils.CallableIterator;
+import rocks.cta.api.core.callables.TimedCallable;
 import rocks.cta.dflt.impl.core.SubTraceImpl;
 
 /**
@@ -58,7 +60,12 @@ public abstract class AbstractNestingCallableImpl extends AbstractTimedCallableI
 
 	@Override
 	public TreeIterator<Callable> iterator() {
-		return new CallableIterator(this);
+		return new CallableImplIterator(this, false);
+	}
+
+	@Override
+	public Spliterator<Callable> spliterator() {
+		return new CallableImplSpliterator(this, false);
 	}
 
 	@Override
@@ -77,6 +84,8 @@ public abstract class AbstractNestingCallableImpl extends AbstractTimedCallableI
 	 *            a Callables called by this Callable
 	 */
 	public void addCallee(Callable callee) {
+		checkNotFrozen();
+		invalidateTraceIndexes();
 		if (children == null) {
 			children = new ArrayList<Callable>();
 		}
@@ -109,6 +118,30 @@ public abstract class AbstractNestingCallableImpl extends AbstractTimedCallableI
 
 	}
 
+	@Override
+	protected long calculateExclusiveTime() {
+		long result = getResponseTime();
+		if (children != null) {
+			for (Callable callee : children) {
+				if (callee instanceof TimedCallable) {
+					result -= ((TimedCallable) callee).getResponseTime();
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc} Trims the list of callees to an array of the exact size.
+	 */
+	@Override
+	public void freeze() {
+		super.freeze();
+		if (children != null) {
+			children = Arrays.asList(children.toArray(new Callable[children.size()]));
+		}
+	}
+
 	@Override
 	public int getChildCount() {
 		return childCount;
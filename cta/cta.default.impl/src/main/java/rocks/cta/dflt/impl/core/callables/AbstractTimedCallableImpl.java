@@ -4,7 +4,6 @@ import java.io.Serializable;
 
 import rocks.cta.api.core.Trace;
 import rocks.cta.api.core.callables.Callable;
-import rocks.cta.api.core.callables.NestingCallable;
 import rocks.cta.api.core.callables.TimedCallable;
 import rocks.cta.dflt.impl.core.SubTraceImpl;
 
@@ -60,19 +59,20 @@ public abstract class AbstractTimedCallableImpl extends AbstractCallableImpl imp
 	@Override
 	public long getExclusiveTime() {
 		if (exclusiveTime < 0) {
-			exclusiveTime = responseTime;
-			if (this instanceof NestingCallable) {
-//				for (TimedCallable tCallable : ((NestingCallable) this).getCallees(TimedCallable.class)) {
-//					exclusiveTime -= tCallable.getResponseTime();
-//				}
-				
-				exclusiveTime -= ((NestingCallable) this).getCallees(TimedCallable.class).stream().mapToLong(TimedCallable::getResponseTime).sum();
-				
-			}
+			exclusiveTime = calculateExclusiveTime();
 		}
 		return exclusiveTime;
 	}
 
+	/**
+	 * Calculates the exclusive time of this Callable.
+	 * 
+	 * @return exclusive time [nanoseconds]
+	 */
+	protected long calculateExclusiveTime() {
+		return responseTime;
+	}
+
 	@Override
 	public long getResponseTime() {
 		return responseTime;
@@ -85,7 +85,14 @@ public abstract class AbstractTimedCallableImpl extends AbstractCallableImpl imp
 	 *            response time in [nanoseconds]
 	 */
 	public void setResponseTime(long responseTime) {
+		checkNotFrozen();
 		this.responseTime = responseTime;
 	}
 
+	@Override
+	public void freeze() {
+		super.freeze();
+		exclusiveTime = calculateExclusiveTime();
+	}
+
 }
@@ -0,0 +1,40 @@
+package rocks.cta.dflt.impl.core.callables;
+
+import java.util.Collections;
+import java.util.List;
+
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.NestingCallable;
+import rocks.cta.api.utils.ArrayStackCallableIterator;
+
+/**
+ * {@link ArrayStackCallableIterator} for the default implementation. The iterator reads the callee
+ * lists of the callables directly instead of through the unmodifiable views returned by
+ * {@link NestingCallable#getCallees()}, hence, it does not allocate objects per step.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class CallableImplIterator extends ArrayStackCallableIterator {
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param root
+	 *            root Callable, may be null
+	 * @param followRemoteInvocations
+	 *            whether remote invocations are replaced by the root of their target sub trace
+	 */
+	public CallableImplIterator(Callable root, boolean followRemoteInvocations) {
+		super(root, followRemoteInvocations);
+	}
+
+	@Override
+	protected List<? extends Callable> getCallees(NestingCallable callable) {
+		if (callable instanceof AbstractNestingCallableImpl) {
+			List<Callable> children = ((AbstractNestingCallableImpl) callable).children;
+			return children == null ? Collections.<Callable> emptyList() : children;
+		}
+		return super.getCallees(callable);
+	}
+}
@@ -0,0 +1,51 @@
+package rocks.cta.dflt.impl.core.callables;
+
+import java.util.Collections;
+import java.util.List;
+
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.NestingCallable;
+import rocks.cta.api.utils.CallableSpliterator;
+
+/**
+ * {@link CallableSpliterator} for the default implementation. Like {@link CallableImplIterator},
+ * the spliterator reads the callee lists of the callables directly instead of through the
+ * unmodifiable views returned by {@link NestingCallable#getCallees()}.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class CallableImplSpliterator extends CallableSpliterator {
+
+	/**
+	 * Whether remote invocations are replaced by the root of their target sub trace.
+	 */
+	private final boolean followRemoteInvocations;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param root
+	 *            root Callable, may be null
+	 * @param followRemoteInvocations
+	 *            whether remote invocations are replaced by the root of their target sub trace
+	 */
+	public CallableImplSpliterator(Callable root, boolean followRemoteInvocations) {
+		super(root, followRemoteInvocations);
+		this.followRemoteInvocations = followRemoteInvocations;
+	}
+
+	@Override
+	protected CallableSpliterator createPrefix() {
+		return new CallableImplSpliterator(null, followRemoteInvocations);
+	}
+
+	@Override
+	protected List<? extends Callable> getCallees(NestingCallable callable) {
+		if (callable instanceof AbstractNestingCallableImpl) {
+			List<Callable> children = ((AbstractNestingCallableImpl) callable).children;
+			return children == null ? Collections.<Callable> emptyList() : children;
+		}
+		return super.getCallees(callable);
+	}
+}
@@ -1,11 +1,13 @@
 package rocks.cta.dflt.impl.core.callables;
 
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
 import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.CallableType;
 import rocks.cta.api.core.callables.DatabaseInvocation;
 import rocks.cta.api.utils.StringUtils;
 import rocks.cta.dflt.impl.core.SubTraceImpl;
@@ -34,29 +36,30 @@ public class DatabaseInvocationImpl extends AbstractTimedCallableImpl implements
 	private String sql;
 
 	/**
-	 * Parameter-bound SQL statement.
+	 * Parameter-bound SQL statement, computed by {@link #freeze()}, null before or if the statement
+	 * cannot be bound.
 	 */
-	private transient Optional<String> boundSQL = Optional.empty();
+	private transient String boundSQL;
 
 	/**
-	 * DBMS product name.
+	 * DBMS product name, null if unknown.
 	 */
-	private Optional<String> dbProductName = Optional.empty();
+	private String dbProductName;
 
 	/**
-	 * DBMS product version.
+	 * DBMS product version, null if unknown.
 	 */
-	private Optional<String> dbProductVersion = Optional.empty();
+	private String dbProductVersion;
 
 	/**
-	 * DB URL.
+	 * DB URL, null if unknown.
 	 */
-	private Optional<String> dbUrl = Optional.empty();
+	private String dbUrl;
 
 	/**
-	 * parameter bindings.
+	 * parameter bindings, null if none are available.
 	 */
-	private Optional<Map<Integer, String>> parameterBindings;
+	private Map<Integer, String> parameterBindings;
 
 	/**
 	 * Default constructor for serialization. This constructor should not be used except for
@@ -89,6 +92,7 @@ public class DatabaseInvocationImpl extends AbstractTimedCallableImpl implements
 	 *            the prepared to set
 	 */
 	public void setPrepared(boolean prepared) {
+		checkNotFrozen();
 		this.prepared = prepared;
 	}
 
@@ -97,34 +101,34 @@ public class DatabaseInvocationImpl extends AbstractTimedCallableImpl implements
 		return sql;
 	}
 
+	/**
+	 * @param sql
+	 *            the SQL statement to set, with a question mark for each parameter of a prepared
+	 *            statement
+	 */
 	public void setSQLStatement(String sql) {
+		checkNotFrozen();
 		this.sql = sql;
 	}
 
+	/**
+	 * {@inheritDoc} The statement is bound once by {@link #freeze()}, before, it is bound on each
+	 * call.
+	 * 
+	 * @throws IllegalStateException
+	 *             if a parameter of a prepared statement is not bound
+	 */
 	@Override
-	public Optional<String> getBoundSQLStatement() {
-		
-		if (!isPrepared().orElse(false)) {
-			return Optional.ofNullable(sql);
-		} else if (!boundSQL.isPresent() && parameterBindings.isPresent()) {
-			String tmpBoundSQL = sql;
-			int count = 1;
-			while (tmpBoundSQL.contains("?")) {
-				if (!parameterBindings.get().containsKey(count)) {
-					throw new IllegalStateException("Invalid amount of paraemter bindings for SQL statement.");
-				}
-				String value = parameterBindings.get().get(count);
-				tmpBoundSQL = tmpBoundSQL.replaceFirst("\\?", value);
-				count++;
-			}
-			boundSQL = Optional.of(tmpBoundSQL);
+	public Optional<String> getBoundSQLStatement() throws IllegalStateException {
+		if (boundSQL != null) {
+			return Optional.of(boundSQL);
 		}
-		return boundSQL;
+		return Optional.ofNullable(bindParameters());
 	}
 
 	@Override
 	public Optional<Map<Integer, String>> getParameterBindings() {
-		return parameterBindings;
+		return Optional.ofNullable(parameterBindings);
 	}
 
 	/**
@@ -136,25 +140,26 @@ public class DatabaseInvocationImpl extends AbstractTimedCallableImpl implements
 	 *            parameter value
 	 */
 	public void addParameterBinding(int parameterIndex, String value) {
-		if (!parameterBindings.isPresent()) {
-			parameterBindings = Optional.of(new HashMap<Integer, String>());
+		checkNotFrozen();
+		if (parameterBindings == null) {
+			parameterBindings = new HashMap<Integer, String>();
 		}
-		parameterBindings.get().put(parameterIndex, value);
+		parameterBindings.put(parameterIndex, value);
 	}
 
 	@Override
 	public Optional<String> getDBProductName() {
-		return dbProductName;
+		return Optional.ofNullable(dbProductName);
 	}
 
 	@Override
 	public Optional<String> getDBProductVersion() {
-		return dbProductVersion;
+		return Optional.ofNullable(dbProductVersion);
 	}
 
 	@Override
 	public Optional<String> getDBUrl() {
-		return dbUrl;
+		return Optional.ofNullable(dbUrl);
 	}
 
 	/**
@@ -164,7 +169,8 @@ public class DatabaseInvocationImpl extends AbstractTimedCallableImpl implements
 	 *            name of the product
 	 */
 	public void setDBProductName(Optional<String> productName) {
-		dbProductName = productName;
+		checkNotFrozen();
+		dbProductName = productName.orElse(null);
 	}
 
 	/**
@@ -174,7 +180,8 @@ public class DatabaseInvocationImpl extends AbstractTimedCallableImpl implements
 	 *            version of the product
 	 */
 	public void setDBProductVersion(Optional<String> productVersion) {
-		dbProductVersion = productVersion;
+		checkNotFrozen();
+		dbProductVersion = productVersion.orElse(null);
 	}
 
 	/**
@@ -184,7 +191,33 @@ public class DatabaseInvocationImpl extends AbstractTimedCallableImpl implements
 	 *            connection URL
 	 */
 	public void setDBUrl(Optional<String> url) {
-		dbUrl = url;
+		checkNotFrozen();
+		dbUrl = url.orElse(null);
+	}
+
+	/**
+	 * {@inheritDoc} Makes the parameter bindings unmodifiable.
+	 */
+	/**
+	 * {@inheritDoc} Makes the parameter bindings unmodifiable and binds the SQL statement.
+	 */
+	@Override
+	public void freeze() {
+		super.freeze();
+		if (parameterBindings != null) {
+			parameterBindings = Collections.unmodifiableMap(parameterBindings);
+		}
+		try {
+			boundSQL = bindParameters();
+		} catch (IllegalStateException e) {
+			// left unbound, getBoundSQLStatement() reports the missing bindings
+			boundSQL = null;
+		}
+	}
+
+	@Override
+	public CallableType getCallableType() {
+		return CallableType.DATABASE_INVOCATION;
 	}
 
 	@Override
@@ -196,6 +229,33 @@ public class DatabaseInvocationImpl extends AbstractTimedCallableImpl implements
 	public Optional<String> getUnboundSQLStatement() {
 		return sql.contains("?") ? Optional.ofNullable(sql) : Optional.empty();
 	}
+
+	/**
+	 * Replaces the parameters of a prepared statement by their bindings.
+	 * 
+	 * @return the bound statement, the plain statement if it is not prepared, null if no
+	 *         parameters are bound
+	 * @throws IllegalStateException
+	 *             if a parameter is not bound
+	 */
+	private String bindParameters() throws IllegalStateException {
+		if (!prepared) {
+			return sql;
+		} else if (parameterBindings == null) {
+			return null;
+		}
+		String tmpBoundSQL = sql;
+		int count = 1;
+		while (tmpBoundSQL.contains("?")) {
+			if (!parameterBindings.containsKey(count)) {
+				throw new IllegalStateException("Invalid amount of paraemter bindings for SQL statement.");
+			}
+			String value = parameterBindings.get(count);
+			tmpBoundSQL = tmpBoundSQL.replaceFirst("\\?", value);
+			count++;
+		}
+		return tmpBoundSQL;
+	}
 	
 	
 }
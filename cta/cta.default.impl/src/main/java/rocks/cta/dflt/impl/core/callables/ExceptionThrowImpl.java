@@ -4,6 +4,7 @@ import java.io.Serializable;
 import java.util.Optional;
 
 import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.CallableType;
 import rocks.cta.api.core.callables.ExceptionThrow;
 import rocks.cta.api.utils.StringUtils;
 import rocks.cta.dflt.impl.core.SubTraceImpl;
@@ -86,6 +87,7 @@ public class ExceptionThrowImpl extends AbstractCallableImpl implements Exceptio
 	 *            the errorMessage to set
 	 */
 	public void setErrorMessage(String errorMessage) {
+		checkNotFrozen();
 		this.errorMessage = errorMessage;
 	}
 
@@ -94,6 +96,7 @@ public class ExceptionThrowImpl extends AbstractCallableImpl implements Exceptio
 	 *            the cause to set
 	 */
 	public void setCause(String cause) {
+		checkNotFrozen();
 		this.cause = cause;
 	}
 
@@ -102,6 +105,7 @@ public class ExceptionThrowImpl extends AbstractCallableImpl implements Exceptio
 	 *            the stackTrace to set
 	 */
 	public void setStackTrace(String stackTrace) {
+		checkNotFrozen();
 		this.stackTrace = stackTrace;
 	}
 
@@ -110,9 +114,15 @@ public class ExceptionThrowImpl extends AbstractCallableImpl implements Exceptio
 	 *            the throwableType to set
 	 */
 	public void setThrowableType(String throwableType) {
+		checkNotFrozen();
 		this.throwableType = throwableType;
 	}
 	
+	@Override
+	public CallableType getCallableType() {
+		return CallableType.EXCEPTION_THROW;
+	}
+
 	@Override
 	public String toString() {
 		return StringUtils.getStringRepresentation(this);
@@ -6,6 +6,7 @@ import java.util.Map;
 import java.util.Optional;
 
 import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.CallableType;
 import rocks.cta.api.core.callables.HTTPMethod;
 import rocks.cta.api.core.callables.HTTPRequestProcessing;
 import rocks.cta.api.utils.StringUtils;
@@ -118,6 +119,7 @@ public class HTTPRequestProcessingImpl extends AbstractNestingCallableImpl imple
 	 *            the parameters to set
 	 */
 	public void setHTTPParameters(Map<String, String[]> parameters) {
+		checkNotFrozen();
 		this.parameters = parameters;
 	}
 
@@ -126,6 +128,7 @@ public class HTTPRequestProcessingImpl extends AbstractNestingCallableImpl imple
 	 *            the attributes to set
 	 */
 	public void setHTTPAttributes(Map<String, String> attributes) {
+		checkNotFrozen();
 		this.attributes = attributes;
 	}
 
@@ -134,6 +137,7 @@ public class HTTPRequestProcessingImpl extends AbstractNestingCallableImpl imple
 	 *            the sessionAttributes to set
 	 */
 	public void setHTTPSessionAttributes(Map<String, String> sessionAttributes) {
+		checkNotFrozen();
 		this.sessionAttributes = sessionAttributes;
 	}
 
@@ -142,6 +146,7 @@ public class HTTPRequestProcessingImpl extends AbstractNestingCallableImpl imple
 	 *            the headers to set
 	 */
 	public void setHTTPHeaders(Map<String, String> headers) {
+		checkNotFrozen();
 		this.headers = headers;
 	}
 
@@ -150,6 +155,7 @@ public class HTTPRequestProcessingImpl extends AbstractNestingCallableImpl imple
 	 *            the uri to set
 	 */
 	public void setUri(String uri) {
+		checkNotFrozen();
 		this.uri = uri;
 	}
 
@@ -158,9 +164,26 @@ public class HTTPRequestProcessingImpl extends AbstractNestingCallableImpl imple
 	 *            the requestMethod to set
 	 */
 	public void setRequestMethod(HTTPMethod requestMethod) {
+		checkNotFrozen();
 		this.requestMethod = requestMethod;
 	}
 
+	/**
+	 * {@inheritDoc} Makes the HTTP headers unmodifiable.
+	 */
+	@Override
+	public void freeze() {
+		super.freeze();
+		if (headers != null) {
+			headers = Collections.unmodifiableMap(headers);
+		}
+	}
+
+	@Override
+	public CallableType getCallableType() {
+		return CallableType.HTTP_REQUEST_PROCESSING;
+	}
+
 	@Override
 	public String toString() {
 		return StringUtils.getStringRepresentation(this);
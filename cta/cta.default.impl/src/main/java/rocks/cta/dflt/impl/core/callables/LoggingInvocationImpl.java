@@ -4,6 +4,7 @@ import java.io.Serializable;
 import java.util.Optional;
 
 import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.CallableType;
 import rocks.cta.api.core.callables.LoggingInvocation;
 import rocks.cta.api.utils.StringUtils;
 import rocks.cta.dflt.impl.core.SubTraceImpl;
@@ -66,6 +67,7 @@ public class LoggingInvocationImpl extends AbstractCallableImpl implements Loggi
 	 *            the loggingLevel to set
 	 */
 	public void setLoggingLevel(String loggingLevel) {
+		checkNotFrozen();
 		this.loggingLevel = loggingLevel;
 	}
 
@@ -74,9 +76,15 @@ public class LoggingInvocationImpl extends AbstractCallableImpl implements Loggi
 	 *            the message to set
 	 */
 	public void setMessage(String message) {
+		checkNotFrozen();
 		this.message = message;
 	}
 	
+	@Override
+	public CallableType getCallableType() {
+		return CallableType.LOGGING_INVOCATION;
+	}
+
 	@Override
 	public String toString() {
 		return StringUtils.getStringRepresentation(this);
@@ -1,15 +1,18 @@
 package rocks.cta.dflt.impl.core.callables;
 
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.CallableType;
 import rocks.cta.api.core.callables.MethodInvocation;
 import rocks.cta.api.utils.StringUtils;
+import rocks.cta.dflt.impl.core.Signature;
+import rocks.cta.dflt.impl.core.StringPool;
 import rocks.cta.dflt.impl.core.SubTraceImpl;
 import rocks.cta.dflt.impl.core.TraceImpl;
 
@@ -31,51 +34,38 @@ public class MethodInvocationImpl extends AbstractNestingCallableImpl implements
 	private static final String CONSTRUCTOR_PATTERN = "<init>";
 
 	/**
-	 * Signature identifier to retrieve the signature from registry.
+	 * Identifier of the interned {@link Signature} in the containing trace.
 	 */
-	private int signatureId;
+	private int signatureId = StringPool.NULL_ID;
 
 	/**
-	 * Method identifier to retrieve the signature from registry.
+	 * Parts of the signature set by the setters of single parts and not interned yet, null if
+	 * there are none. The parts are interned once by {@link #internSignature()}.
 	 */
-	private int methodId;
+	private PendingSignature pendingSignature;
 
 	/**
-	 * CPU time consumed by this {@link MethodInvocation} instance.
+	 * Value of the CPU time fields if the CPU time is unknown.
 	 */
-	private Optional<Long> cpuTime = Optional.empty();
+	private static final long UNKNOWN_CPU_TIME = Long.MIN_VALUE;
 
 	/**
-	 * Exclusive CPU time [nanoseconds].
+	 * CPU time consumed by this {@link MethodInvocation} instance, {@link #UNKNOWN_CPU_TIME} if
+	 * unknown.
 	 */
-	private transient Optional<Long> exclusiveCPUTime = Optional.empty();
+	private long cpuTime = UNKNOWN_CPU_TIME;
 
 	/**
-	 * Holds the parameter values, if any available. Key is the index of the
-	 * corresponding parameter in the method signature. Value is the string
-	 * representaiton of the parameter value.
-	 */
-	private Optional<Map<Integer, String>> parameterValues = Optional.empty();
-
-	/**
-	 * Class identifier to retrieve the signature from registry.
-	 */
-	private int classId;
-
-	/**
-	 * Package identifier to retrieve the signature from registry.
-	 */
-	private int packageId;
-
-	/**
-	 * Return type identifier to retrieve the signature from registry.
+	 * Exclusive CPU time [nanoseconds], {@link #UNKNOWN_CPU_TIME} if not calculated, yet.
 	 */
-	private int returnTypeId;
+	private transient long exclusiveCPUTime = UNKNOWN_CPU_TIME;
 
 	/**
-	 * Parameter types identifiers to retrieve the signature from registry.
+	 * Holds the parameter values, null if none are available. Key is the index of the
+	 * corresponding parameter in the method signature. Value is the string
+	 * representaiton of the parameter value.
 	 */
-	private List<Integer> parameterTypeIds;
+	private Map<Integer, String> parameterValues;
 
 	/**
 	 * Default constructor for serialization. This constructor should not be
@@ -99,7 +89,7 @@ public class MethodInvocationImpl extends AbstractNestingCallableImpl implements
 
 	@Override
 	public Optional<Long> getCPUTime() {
-		return cpuTime;
+		return cpuTime == UNKNOWN_CPU_TIME ? Optional.empty() : Optional.of(cpuTime);
 	}
 
 	/**
@@ -109,42 +99,130 @@ public class MethodInvocationImpl extends AbstractNestingCallableImpl implements
 	 *            CPU time in [nanoseconds]
 	 */
 	public void setCPUTime(Optional<Long> cpuTime) {
+		checkNotFrozen();
+		this.cpuTime = cpuTime.orElse(UNKNOWN_CPU_TIME);
+	}
+
+	/**
+	 * Sets the CPU time.
+	 * 
+	 * @param cpuTime
+	 *            CPU time in [nanoseconds]
+	 */
+	public void setCPUTime(long cpuTime) {
+		checkNotFrozen();
 		this.cpuTime = cpuTime;
 	}
 
 	@Override
 	public Optional<Long> getExclusiveCPUTime() {
+		if (cpuTime == UNKNOWN_CPU_TIME) {
+			return Optional.empty();
+		}
+		if (exclusiveCPUTime == UNKNOWN_CPU_TIME) {
+			exclusiveCPUTime = calculateExclusiveCPUTime();
+		}
+		return Optional.of(exclusiveCPUTime);
+	}
 
-		if (!exclusiveCPUTime.isPresent() && cpuTime.isPresent()) {
-			long tmpExclusiveCPUTime = cpuTime.get();
-
-			for (MethodInvocation child : getCallees(MethodInvocation.class)) {
-				tmpExclusiveCPUTime -= child.getCPUTime().orElse((long) 0);
+	/**
+	 * Calculates the exclusive CPU time of this Callable. The CPU time must be known.
+	 * 
+	 * @return exclusive CPU time [nanoseconds]
+	 */
+	private long calculateExclusiveCPUTime() {
+		long result = cpuTime;
+		if (children != null) {
+			for (Callable callee : children) {
+				if (callee instanceof MethodInvocationImpl) {
+					long calleeCPUTime = ((MethodInvocationImpl) callee).cpuTime;
+					if (calleeCPUTime != UNKNOWN_CPU_TIME) {
+						result -= calleeCPUTime;
+					}
+				} else if (callee instanceof MethodInvocation) {
+					result -= ((MethodInvocation) callee).getCPUTime().orElse((long) 0);
+				}
 			}
-
-			exclusiveCPUTime = Optional.of(tmpExclusiveCPUTime);
-
-			return exclusiveCPUTime;
-		} else {
-			return Optional.empty();
 		}
+		return result;
 	}
 
 	@Override
 	public String getSignature() {
-		return resolveStringId(signatureId);
+		PendingSignature pending = pendingSignature;
+		if (pending != null) {
+			return pending.signature;
+		}
+		Signature signature = getTrace().getSignature(signatureId);
+		return signature == null ? null : signature.getFullSignature();
 	}
 
 	/**
-	 * Resolves the string for the given id from registry.
+	 * Returns the identifier of the signature of this Callable. Method invocations of the same
+	 * trace with equal signatures have the same identifier.
 	 * 
-	 * @param id
-	 *            identifier of the string
-	 * @return {@link String} for the given identifier
+	 * @return signature identifier, {@link StringPool#NULL_ID} if no part of the signature is known
+	 * @throws IllegalStateException
+	 *             if parts of the signature have been set by the setters of single parts and
+	 *             {@link #internSignature()} has not been called afterwards
 	 */
-	private String resolveStringId(int id) {
-		String s = ((TraceImpl) containingSubTrace.getContainingTrace()).getStringConstant(id);
-		return s;
+	public int getSignatureId() throws IllegalStateException {
+		checkSignatureInterned();
+		return signatureId;
+	}
+
+	/**
+	 * @return the interned signature of this Callable, null if no part of the signature is known
+	 * @throws IllegalStateException
+	 *             if parts of the signature have been set by the setters of single parts and
+	 *             {@link #internSignature()} has not been called afterwards
+	 */
+	public Signature getInternedSignature() throws IllegalStateException {
+		checkSignatureInterned();
+		return getTrace().getSignature(signatureId);
+	}
+
+	/**
+	 * Checks that the signature has no parts pending.
+	 * 
+	 * @throws IllegalStateException
+	 *             if parts of the signature are pending
+	 */
+	private void checkSignatureInterned() throws IllegalStateException {
+		if (pendingSignature != null) {
+			throw new IllegalStateException("The signature of the method invocation has not been interned yet.");
+		}
+	}
+
+	/**
+	 * @return the containing trace
+	 */
+	private TraceImpl getTrace() {
+		return (TraceImpl) getContainingSubTrace().getContainingTrace();
+	}
+
+	/**
+	 * Sets all parts of the signature of this Callable. Prefer this method over the setters of
+	 * single parts, as the signature is interned right away. Parts set by the setters of single
+	 * parts are interned by {@link #internSignature()}.
+	 * 
+	 * @param signature
+	 *            full signature
+	 * @param returnType
+	 *            return type
+	 * @param packageName
+	 *            package name
+	 * @param className
+	 *            simple class name
+	 * @param methodName
+	 *            simple method name
+	 * @param parameterTypes
+	 *            list of parameter types, null if unknown
+	 */
+	public void setSignature(String signature, String returnType, String packageName, String className, String methodName, List<String> parameterTypes) {
+		checkNotFrozen();
+		pendingSignature = null;
+		signatureId = getTrace().registerSignature(signature, returnType, packageName, className, methodName, parameterTypes);
 	}
 
 	/**
@@ -154,7 +232,7 @@ public class MethodInvocationImpl extends AbstractNestingCallableImpl implements
 	 *            full signature
 	 */
 	public void setSignature(String signature) {
-		signatureId = ((TraceImpl) getContainingSubTrace().getContainingTrace()).registerStringConstant(signature);
+		getPendingSignature().signature = signature;
 	}
 
 	/**
@@ -164,7 +242,7 @@ public class MethodInvocationImpl extends AbstractNestingCallableImpl implements
 	 *            simple method name
 	 */
 	public void setMethodName(String name) {
-		methodId = ((TraceImpl) getContainingSubTrace().getContainingTrace()).registerStringConstant(name);
+		getPendingSignature().methodName = name;
 	}
 
 	/**
@@ -174,7 +252,7 @@ public class MethodInvocationImpl extends AbstractNestingCallableImpl implements
 	 *            simple class name
 	 */
 	public void setClassName(String name) {
-		classId = ((TraceImpl) getContainingSubTrace().getContainingTrace()).registerStringConstant(name);
+		getPendingSignature().className = name;
 	}
 
 	/**
@@ -184,7 +262,7 @@ public class MethodInvocationImpl extends AbstractNestingCallableImpl implements
 	 *            package name
 	 */
 	public void setPackageName(String name) {
-		packageId = ((TraceImpl) getContainingSubTrace().getContainingTrace()).registerStringConstant(name);
+		getPendingSignature().packageName = name;
 	}
 
 	/**
@@ -194,7 +272,7 @@ public class MethodInvocationImpl extends AbstractNestingCallableImpl implements
 	 *            return type
 	 */
 	public void setReturnType(String name) {
-		returnTypeId = ((TraceImpl) getContainingSubTrace().getContainingTrace()).registerStringConstant(name);
+		getPendingSignature().returnType = name;
 	}
 
 	/**
@@ -204,34 +282,81 @@ public class MethodInvocationImpl extends AbstractNestingCallableImpl implements
 	 *            list of parameter types
 	 */
 	public void setParameterTypes(List<String> types) {
-		parameterTypeIds = types.stream()
-				.map(type -> ((TraceImpl) getContainingSubTrace().getContainingTrace()).registerStringConstant(type))
-				.collect(Collectors.toList());
+		getPendingSignature().parameterTypes = types;
+	}
+
+	/**
+	 * Returns the pending parts of the signature, which are initialized with the parts of the
+	 * interned signature.
+	 * 
+	 * @return the pending parts
+	 */
+	private PendingSignature getPendingSignature() {
+		checkNotFrozen();
+		if (pendingSignature == null) {
+			pendingSignature = new PendingSignature(getTrace().getSignature(signatureId));
+		}
+		return pendingSignature;
+	}
+
+	/**
+	 * Interns the parts of the signature set by the setters of single parts, if any, into the
+	 * containing trace. Has to be called once all parts are set, before the signature identifier
+	 * is accessed. Called by {@link #freeze()}. Like the setters, this method must not be called
+	 * while other threads read the trace.
+	 */
+	public void internSignature() {
+		PendingSignature pending = pendingSignature;
+		if (pending != null) {
+			pendingSignature = null;
+			signatureId = getTrace().registerSignature(pending.signature, pending.returnType, pending.packageName, pending.className,
+					pending.methodName, pending.parameterTypes);
+		}
 	}
 
 	@Override
 	public Optional<String> getMethodName() {
-		return Optional.ofNullable(resolveStringId(methodId));
+		PendingSignature pending = pendingSignature;
+		if (pending != null) {
+			return Optional.ofNullable(pending.methodName);
+		}
+		Signature signature = getTrace().getSignature(signatureId);
+		return signature == null ? Optional.empty() : Optional.ofNullable(signature.getMethodName());
 	}
 
 	@Override
 	public Optional<String> getClassName() {
-		return Optional.ofNullable(resolveStringId(classId));
+		PendingSignature pending = pendingSignature;
+		if (pending != null) {
+			return Optional.ofNullable(pending.className);
+		}
+		Signature signature = getTrace().getSignature(signatureId);
+		return signature == null ? Optional.empty() : Optional.ofNullable(signature.getClassName());
 	}
 
 	@Override
 	public Optional<String> getPackageName() {
-		return Optional.ofNullable(resolveStringId(packageId));
+		PendingSignature pending = pendingSignature;
+		if (pending != null) {
+			return Optional.ofNullable(pending.packageName);
+		}
+		Signature signature = getTrace().getSignature(signatureId);
+		return signature == null ? Optional.empty() : Optional.ofNullable(signature.getPackageName());
 	}
 
 	@Override
 	public Optional<List<String>> getParameterTypes() {
-		return Optional.ofNullable(parameterTypeIds.stream().map(x -> resolveStringId(x)).collect(Collectors.toList()));
+		PendingSignature pending = pendingSignature;
+		if (pending != null) {
+			return Optional.ofNullable(pending.parameterTypes);
+		}
+		Signature signature = getTrace().getSignature(signatureId);
+		return signature == null ? Optional.empty() : Optional.ofNullable(signature.getParameterTypes());
 	}
 
 	@Override
 	public Optional<Map<Integer, String>> getParameterValues() {
-		return parameterValues;
+		return Optional.ofNullable(parameterValues);
 	}
 
 	/**
@@ -244,17 +369,23 @@ public class MethodInvocationImpl extends AbstractNestingCallableImpl implements
 	 *            String representation of the parameter value
 	 */
 	public void addParameterValue(int parameterIndex, String value) {
-		if (!parameterValues.isPresent()) {
-			parameterValues = Optional.of(new HashMap<Integer, String>());
+		checkNotFrozen();
+		if (parameterValues == null) {
+			parameterValues = new HashMap<Integer, String>();
 		}
 
-		parameterValues.map(p -> p.put(parameterIndex, value));
+		parameterValues.put(parameterIndex, value);
 
 	}
 
 	@Override
 	public Optional<String> getReturnType() {
-		return Optional.ofNullable(resolveStringId(returnTypeId));
+		PendingSignature pending = pendingSignature;
+		if (pending != null) {
+			return Optional.ofNullable(pending.returnType);
+		}
+		Signature signature = getTrace().getSignature(signatureId);
+		return signature == null ? Optional.empty() : Optional.ofNullable(signature.getReturnType());
 	}
 
 	@Override
@@ -262,9 +393,89 @@ public class MethodInvocationImpl extends AbstractNestingCallableImpl implements
 		return getMethodName().map(name -> name.equalsIgnoreCase(CONSTRUCTOR_PATTERN));
 	}
 
+	/**
+	 * {@inheritDoc} Precomputes the exclusive CPU time and makes the parameter values unmodifiable.
+	 */
+	@Override
+	public void freeze() {
+		internSignature();
+		super.freeze();
+		if (cpuTime != UNKNOWN_CPU_TIME) {
+			exclusiveCPUTime = calculateExclusiveCPUTime();
+		}
+		if (parameterValues != null) {
+			parameterValues = Collections.unmodifiableMap(parameterValues);
+		}
+	}
+
+	@Override
+	public CallableType getCallableType() {
+		return CallableType.METHOD_INVOCATION;
+	}
+
 	@Override
 	public String toString() {
 		return StringUtils.getStringRepresentation(this);
 	}
 
+	/**
+	 * Parts of a signature that have not been interned yet.
+	 * 
+	 * @author Alexander Wert
+	 * 
+	 */
+	private static final class PendingSignature implements Serializable {
+
+		/**
+		 * 
+		 */
+		private static final long serialVersionUID = -2165946404367528357L;
+
+		/**
+		 * Full signature.
+		 */
+		private String signature;
+
+		/**
+		 * Return type.
+		 */
+		private String returnType;
+
+		/**
+		 * Package name.
+		 */
+		private String packageName;
+
+		/**
+		 * Simple class name.
+		 */
+		private String className;
+
+		/**
+		 * Simple method name.
+		 */
+		private String methodName;
+
+		/**
+		 * List of parameter types, null if unknown.
+		 */
+		private List<String> parameterTypes;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param current
+		 *            interned signature to take the parts from, null if no part is known
+		 */
+		private PendingSignature(Signature current) {
+			if (current != null) {
+				signature = current.getFullSignature();
+				returnType = current.getReturnType();
+				packageName = current.getPackageName();
+				className = current.getClassName();
+				methodName = current.getMethodName();
+				parameterTypes = current.getParameterTypes();
+			}
+		}
+	}
 }
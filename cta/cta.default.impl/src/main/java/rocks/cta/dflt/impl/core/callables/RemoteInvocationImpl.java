@@ -6,6 +6,7 @@ import java.util.Optional;
 import rocks.cta.api.core.Location;
 import rocks.cta.api.core.SubTrace;
 import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.CallableType;
 import rocks.cta.api.core.callables.RemoteInvocation;
 import rocks.cta.api.utils.StringUtils;
 import rocks.cta.dflt.impl.core.SubTraceImpl;
@@ -65,6 +66,8 @@ public class RemoteInvocationImpl extends AbstractTimedCallableImpl implements R
 	 *            {@link SubTraceImpl} instance to set.
 	 */
 	public void setTargetSubTrace(SubTraceImpl targetSubTrace) {
+		checkNotFrozen();
+		invalidateTraceIndexes();
 		this.targetSubTrace = targetSubTrace;
 	}
 
@@ -90,9 +93,15 @@ public class RemoteInvocationImpl extends AbstractTimedCallableImpl implements R
 	 *            the target to set
 	 */
 	public void setTarget(String target) {
+		checkNotFrozen();
 		this.target = target;
 	}
 	
+	@Override
+	public CallableType getCallableType() {
+		return CallableType.REMOTE_INVOCATION;
+	}
+
 	@Override
 	public String toString() {
 		return StringUtils.getStringRepresentation(this);
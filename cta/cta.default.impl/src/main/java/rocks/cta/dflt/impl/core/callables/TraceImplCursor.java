@@ -0,0 +1,64 @@
+package rocks.cta.dflt.impl.core.callables;
+
+import java.util.Collections;
+import java.util.List;
+
+import rocks.cta.api.core.TraceCursor;
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.MethodInvocation;
+import rocks.cta.api.core.callables.NestingCallable;
+import rocks.cta.api.utils.CallableTraceCursor;
+import rocks.cta.dflt.impl.core.Signature;
+import rocks.cta.dflt.impl.core.TraceImpl;
+
+/**
+ * {@link TraceCursor} for a {@link TraceImpl}. The cursor reads the callee lists of the callables
+ * directly instead of through the unmodifiable views returned by
+ * {@link NestingCallable#getCallees()} and uses the interned signature identifiers of the trace.
+ * Hence, it does not allocate objects per visited callable.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class TraceImplCursor extends CallableTraceCursor {
+
+	/**
+	 * Trace to walk.
+	 */
+	private final TraceImpl trace;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param trace
+	 *            trace to walk
+	 */
+	public TraceImplCursor(TraceImpl trace) {
+		super(trace);
+		this.trace = trace;
+	}
+
+	@Override
+	protected List<? extends Callable> getCallees(NestingCallable callable) {
+		if (callable instanceof AbstractNestingCallableImpl) {
+			List<Callable> children = ((AbstractNestingCallableImpl) callable).children;
+			return children == null ? Collections.<Callable> emptyList() : children;
+		}
+		return super.getCallees(callable);
+	}
+
+	@Override
+	protected int getSignatureId(MethodInvocation methodInvocation) {
+		return ((MethodInvocationImpl) methodInvocation).getSignatureId();
+	}
+
+	/**
+	 * {@inheritDoc} Signatures without a full signature are resolved to a signature composed of
+	 * their package, class and method name.
+	 */
+	@Override
+	public String signature(int signatureId) {
+		Signature signature = trace.getSignature(signatureId);
+		return signature == null ? null : signature.toString();
+	}
+}
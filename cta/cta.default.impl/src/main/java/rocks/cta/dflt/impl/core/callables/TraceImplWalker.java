@@ -0,0 +1,40 @@
+package rocks.cta.dflt.impl.core.callables;
+
+import java.util.Collections;
+import java.util.List;
+
+import rocks.cta.api.core.TraceVisitor;
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.NestingCallable;
+import rocks.cta.api.utils.TraceWalker;
+import rocks.cta.dflt.impl.core.TraceImpl;
+
+/**
+ * {@link TraceWalker} for a {@link TraceImpl}. Like {@link CallableImplIterator}, the walker reads
+ * the callee lists of the callables directly instead of through the unmodifiable views returned by
+ * {@link NestingCallable#getCallees()}.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class TraceImplWalker extends TraceWalker {
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param visitor
+	 *            visitor to drive
+	 */
+	public TraceImplWalker(TraceVisitor visitor) {
+		super(visitor);
+	}
+
+	@Override
+	protected List<? extends Callable> getCallees(NestingCallable callable) {
+		if (callable instanceof AbstractNestingCallableImpl) {
+			List<Callable> children = ((AbstractNestingCallableImpl) callable).children;
+			return children == null ? Collections.<Callable> emptyList() : children;
+		}
+		return super.getCallees(callable);
+	}
+}
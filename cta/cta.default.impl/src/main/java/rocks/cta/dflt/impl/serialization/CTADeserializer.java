@@ -30,6 +30,16 @@ public interface CTADeserializer {
 	 */
 	Trace readNext();
 
+	/**
+	 * Skips the next trace of the source. Deserializers of formats with length-prefixed traces skip
+	 * the trace without decoding it.
+	 * 
+	 * @return false, if the deserializer has reached the end of the stream
+	 */
+	default boolean skip() {
+		return readNext() != null;
+	}
+
 	/**
 	 * Cleans up deserializer.
 	 */
@@ -1,8 +1,18 @@
 package rocks.cta.dflt.impl.serialization;
 
 import rocks.cta.api.core.Trace;
+import rocks.cta.dflt.impl.serialization.realizations.AsyncCTASerializer;
+import rocks.cta.dflt.impl.serialization.realizations.JsonCTADeserializer;
+import rocks.cta.dflt.impl.serialization.realizations.JsonCTASerializer;
+import rocks.cta.dflt.impl.serialization.realizations.KryoArchiveCTASerializer;
 import rocks.cta.dflt.impl.serialization.realizations.KryoCTADeserializer;
+import rocks.cta.dflt.impl.serialization.realizations.KryoCTASerializationEngine;
 import rocks.cta.dflt.impl.serialization.realizations.KryoCTASerializer;
+import rocks.cta.dflt.impl.serialization.realizations.KryoRandomAccessCTADeserializer;
+import rocks.cta.dflt.impl.serialization.realizations.MappedKryoCTADeserializer;
+import rocks.cta.dflt.impl.serialization.realizations.ParallelKryoArchiveDeserializer;
+import rocks.cta.dflt.impl.serialization.realizations.PooledKryoCTADeserializer;
+import rocks.cta.dflt.impl.serialization.realizations.PooledKryoCTASerializer;
 
 /**
  * Factory to create serializers and deserializers for CTA {@link Trace} instances.
@@ -17,11 +27,16 @@ public final class CTASerializationFactory {
 	 */
 	private static CTASerializationFactory instance;
 
+	/**
+	 * Shared pooled serialization engine. Created on first use.
+	 */
+	private KryoCTASerializationEngine serializationEngine;
+
 	/**
 	 * 
 	 * @return the singleton instance
 	 */
-	public static CTASerializationFactory getInstance() {
+	public static synchronized CTASerializationFactory getInstance() {
 		if (instance == null) {
 			instance = new CTASerializationFactory();
 		}
@@ -45,7 +60,12 @@ public final class CTASerializationFactory {
 		switch (format) {
 		case BINARY:
 			return new KryoCTASerializer();
+		case BINARY_DICTIONARY:
+			return new KryoCTASerializer(true);
+		case BINARY_ARCHIVE:
+			return new KryoArchiveCTASerializer();
 		case JSON:
+			return new JsonCTASerializer();
 		default:
 			throw new IllegalArgumentException("Unsupported format: " + format);
 		}
@@ -61,11 +81,168 @@ public final class CTASerializationFactory {
 	public CTADeserializer getDeserializer(CTASerializationFormat format) {
 		switch (format) {
 		case BINARY:
+		case BINARY_ARCHIVE:
+		case BINARY_DICTIONARY:
 			return new KryoCTADeserializer();
+		case JSON:
+			return new JsonCTADeserializer();
+		default:
+			throw new IllegalArgumentException("Unsupported format: " + format);
+		}
+	}
+
+	/**
+	 * Returns a deserializer instance for the given serialization format that reads traces
+	 * lazily: the trace and sub trace skeleton including identifiers, locations and response times
+	 * is read right away, the callables of a sub trace are decoded when its root is accessed first.
+	 * 
+	 * @param format
+	 *            target format
+	 * @return lazy deserializer instance
+	 */
+	public CTADeserializer getLazyDeserializer(CTASerializationFormat format) {
+		switch (format) {
+		case BINARY:
+		case BINARY_ARCHIVE:
+		case BINARY_DICTIONARY:
+			return new KryoCTADeserializer(true);
+		case JSON:
+		default:
+			throw new IllegalArgumentException("Unsupported format: " + format);
+		}
+	}
+
+	/**
+	 * Returns a deserializer instance for the given serialization format that reads local files
+	 * via memory mapping. The source of the returned deserializer must be a
+	 * {@link java.io.FileInputStream}.
+	 * 
+	 * @param format
+	 *            target format
+	 * @return deserializer instance
+	 */
+	public CTADeserializer getMappedDeserializer(CTASerializationFormat format) {
+		switch (format) {
+		case BINARY:
+		case BINARY_ARCHIVE:
+		case BINARY_DICTIONARY:
+			return new MappedKryoCTADeserializer();
+		case JSON:
+		default:
+			throw new IllegalArgumentException("Unsupported format: " + format);
+		}
+	}
+
+	/**
+	 * Returns a deserializer instance with random access by trace identifier for the given
+	 * serialization format. Only archive formats support random access.
+	 * 
+	 * @param format
+	 *            target format
+	 * @return random access deserializer instance
+	 */
+	public RandomAccessCTADeserializer getRandomAccessDeserializer(CTASerializationFormat format) {
+		switch (format) {
+		case BINARY_ARCHIVE:
+			return new KryoRandomAccessCTADeserializer();
+		case BINARY:
+		case BINARY_DICTIONARY:
+		case JSON:
+		default:
+			throw new IllegalArgumentException("Unsupported format: " + format);
+		}
+	}
+
+	/**
+	 * Returns a deserializer instance for the given serialization format that decodes traces in
+	 * parallel. Only archive formats support parallel decoding. The deserializer borrows kryo
+	 * instances per trace from the shared pool (see {@link #getSerializationEngine()}).
+	 * 
+	 * @param format
+	 *            target format
+	 * @return parallel deserializer instance
+	 */
+	public ParallelCTADeserializer getParallelDeserializer(CTASerializationFormat format) {
+		switch (format) {
+		case BINARY_ARCHIVE:
+			return new ParallelKryoArchiveDeserializer(getSerializationEngine());
+		case BINARY:
+		case BINARY_DICTIONARY:
+		case JSON:
+		default:
+			throw new IllegalArgumentException("Unsupported format: " + format);
+		}
+	}
+
+	/**
+	 * Returns a thread-safe serializer instance for the given serialization format. The returned
+	 * serializer may be shared by multiple threads and borrows pre-initialized serialization
+	 * resources from the shared pool (see {@link #getSerializationEngine()}).
+	 * 
+	 * @param format
+	 *            target format
+	 * @return thread-safe serializer instance
+	 */
+	public CTASerializer getPooledSerializer(CTASerializationFormat format) {
+		switch (format) {
+		case BINARY:
+			return new PooledKryoCTASerializer(getSerializationEngine());
+		case BINARY_ARCHIVE:
+		case BINARY_DICTIONARY:
+		case JSON:
+		default:
+			throw new IllegalArgumentException("Unsupported format: " + format);
+		}
+	}
+
+	/**
+	 * Returns a serializer for the given serialization format that writes the traces
+	 * asynchronously on a background thread (see {@link AsyncCTASerializer}). The returned
+	 * serializer may be shared by multiple threads, the calling threads block if the queue of
+	 * pending traces is full.
+	 * 
+	 * @param format
+	 *            target format
+	 * @return asynchronous serializer instance
+	 */
+	public AsyncCTASerializer getAsyncSerializer(CTASerializationFormat format) {
+		return new AsyncCTASerializer(getSerializer(format));
+	}
+
+	/**
+	 * Returns a deserializer instance for the given serialization format that borrows
+	 * pre-initialized serialization resources from the shared pool (see
+	 * {@link #getSerializationEngine()}). The deserializer holds a pooled instance until it is
+	 * closed, hence, at most {@link KryoCTASerializationEngine#getPoolSize()} pooled deserializers
+	 * can be open at the same time.
+	 * 
+	 * @param format
+	 *            target format
+	 * @return deserializer instance
+	 */
+	public CTADeserializer getPooledDeserializer(CTASerializationFormat format) {
+		switch (format) {
+		case BINARY:
+		case BINARY_ARCHIVE:
+		case BINARY_DICTIONARY:
+			return new PooledKryoCTADeserializer(getSerializationEngine());
 		case JSON:
 		default:
 			throw new IllegalArgumentException("Unsupported format: " + format);
 		}
 	}
 
+	/**
+	 * Returns the shared, thread-safe serialization engine holding a bounded pool of
+	 * pre-initialized kryo instances.
+	 * 
+	 * @return the shared serialization engine
+	 */
+	public synchronized KryoCTASerializationEngine getSerializationEngine() {
+		if (serializationEngine == null) {
+			serializationEngine = new KryoCTASerializationEngine();
+		}
+		return serializationEngine;
+	}
+
 }
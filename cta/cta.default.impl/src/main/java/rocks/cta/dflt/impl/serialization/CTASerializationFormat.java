@@ -11,6 +11,15 @@ public enum CTASerializationFormat {
 	 * Binary format.
 	 */
 	BINARY,
+	/**
+	 * Binary format grouped into compressed blocks. Readable by the {@link #BINARY} deserializers.
+	 */
+	BINARY_ARCHIVE,
+	/**
+	 * Binary format with Strings shared by all traces of the stream. Readable by the
+	 * {@link #BINARY} deserializers.
+	 */
+	BINARY_DICTIONARY,
 	/**
 	 * JSON format.
 	 */
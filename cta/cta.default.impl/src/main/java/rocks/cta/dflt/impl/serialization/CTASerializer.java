@@ -30,6 +30,13 @@ public interface CTASerializer {
 	 */
 	void writeTrace(Trace trace);
 
+	/**
+	 * Flushes buffered data of the written traces to the output stream. Serializers that write
+	 * traces in larger units may keep incomplete units buffered until {@link #close()}.
+	 */
+	default void flush() {
+	}
+
 	/**
 	 * Cleans up serializer.
 	 */
@@ -0,0 +1,43 @@
+package rocks.cta.dflt.impl.serialization;
+
+import java.io.File;
+import java.util.stream.Stream;
+
+import rocks.cta.api.core.Trace;
+
+/**
+ * Deserializer interface for CTA trace archives decoding the traces in parallel.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public interface ParallelCTADeserializer {
+
+	/**
+	 * Sets the archive file to read from.
+	 * 
+	 * <b>Note:</b> after deserializing the <b>close()</b> method needs to be called!
+	 * 
+	 * @param file
+	 *            archive file to read from
+	 */
+	void setSource(File file);
+
+	/**
+	 * Returns a parallel stream of all traces of the archive. The archive is split into parts that
+	 * are decoded concurrently by the fork/join pool executing the stream; streams evaluated within
+	 * {@link java.util.concurrent.ForkJoinPool#submit} use the submitting pool, all other streams
+	 * the common pool.
+	 * 
+	 * @param ordered
+	 *            if true, the stream has the encounter order of the archive. Unordered streams
+	 *            split more eagerly and need not buffer results of order-sensitive operations.
+	 * @return parallel stream of traces
+	 */
+	Stream<Trace> stream(boolean ordered);
+
+	/**
+	 * Cleans up deserializer.
+	 */
+	void close();
+}
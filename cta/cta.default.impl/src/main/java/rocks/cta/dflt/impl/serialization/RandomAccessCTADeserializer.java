@@ -0,0 +1,60 @@
+package rocks.cta.dflt.impl.serialization;
+
+import java.io.File;
+import java.util.Optional;
+
+import rocks.cta.api.core.Trace;
+
+/**
+ * Deserializer interface for CTA trace archives supporting random access by trace identifier.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public interface RandomAccessCTADeserializer {
+
+	/**
+	 * Sets the archive file to read from.
+	 * 
+	 * <b>Note:</b> after deserializing the <b>close()</b> method needs to be called!
+	 * 
+	 * @param file
+	 *            archive file to read from
+	 */
+	void setSource(File file);
+
+	/**
+	 * Reads the trace with the given identifier. Subsequent calls of {@link #readNext()} continue
+	 * with the trace following the read trace.
+	 * 
+	 * @param traceId
+	 *            identifier of the trace to read
+	 * @return the trace, or an empty Optional if the archive does not contain the trace
+	 */
+	Optional<Trace> read(long traceId);
+
+	/**
+	 * Positions the deserializer at the trace with the given identifier, hence, the next call of
+	 * {@link #readNext()} returns that trace. The position is not changed if the archive does not
+	 * contain the trace.
+	 * 
+	 * @param traceId
+	 *            identifier of the trace to seek to
+	 * @return true, if the archive contains the trace
+	 */
+	boolean seek(long traceId);
+
+	/**
+	 * Reads the next trace from the source. Starts with the first trace of the archive, if
+	 * {@link #seek(long)} has not been called. If the deserializer has reached the end of the
+	 * archive, this method returns null.
+	 * 
+	 * @return next {@link Trace} instance. If next trace is not available this method returns null.
+	 */
+	Trace readNext();
+
+	/**
+	 * Cleans up deserializer.
+	 */
+	void close();
+}
@@ -0,0 +1,437 @@
+package rocks.cta.dflt.impl.serialization.realizations;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import rocks.cta.api.core.Trace;
+import rocks.cta.dflt.impl.serialization.CTASerializer;
+
+/**
+ * Serializer decorator that decouples the threads writing traces from the actual serialization.
+ * Traces passed to {@link #writeTrace(Trace)} are put into a bounded queue, a dedicated writer
+ * thread takes them from the queue in batches, writes them with the wrapped serializer and flushes
+ * the wrapped serializer whenever the queue has been drained. Hence, the wrapped serializer is only
+ * used by the writer thread and does not need to be thread-safe, whereas this serializer may be
+ * shared by multiple threads.
+ * 
+ * If the queue is full, traces are either dropped or the writing thread is blocked until the queue
+ * has space again (see {@link OverflowPolicy}). {@link #close()} writes all traces that are still
+ * queued before closing the wrapped serializer. If the wrapped serializer fails or the writer thread
+ * terminates with an error, the failure is rethrown to the threads writing traces and by
+ * {@link #flush()} and {@link #close()}.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class AsyncCTASerializer implements CTASerializer {
+
+	/**
+	 * Behaviour of {@link AsyncCTASerializer#writeTrace(Trace)} if the queue is full.
+	 * 
+	 * @author Alexander Wert
+	 * 
+	 */
+	public enum OverflowPolicy {
+		/**
+		 * The trace is dropped and counted as dropped trace.
+		 */
+		DROP,
+
+		/**
+		 * The writing thread blocks until the queue has space for the trace.
+		 */
+		BLOCK
+	}
+
+	/**
+	 * Default number of traces that can be queued.
+	 */
+	public static final int DEFAULT_CAPACITY = 10000;
+
+	/**
+	 * Default maximum number of traces written per batch.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 100;
+
+	/**
+	 * Time in milliseconds the writer thread waits for new traces before checking whether the
+	 * serializer has been closed.
+	 */
+	private static final long POLL_TIMEOUT = 100;
+
+	/**
+	 * Serializer that writes the traces.
+	 */
+	private final CTASerializer delegate;
+
+	/**
+	 * Traces to be written.
+	 */
+	private final BlockingQueue<Trace> queue;
+
+	/**
+	 * Maximum number of traces written per batch.
+	 */
+	private final int batchSize;
+
+	/**
+	 * Behaviour if the queue is full.
+	 */
+	private final OverflowPolicy overflowPolicy;
+
+	/**
+	 * Number of traces accepted into the queue.
+	 */
+	private final AtomicLong queuedCount = new AtomicLong();
+
+	/**
+	 * Number of traces dropped.
+	 */
+	private final AtomicLong droppedCount = new AtomicLong();
+
+	/**
+	 * Number of traces written by the wrapped serializer.
+	 */
+	private final AtomicLong writtenCount = new AtomicLong();
+
+	/**
+	 * Number of queued traces that have been processed and flushed by the writer thread. Guarded
+	 * by the serializer instance, waiting threads are notified on each update.
+	 */
+	private long flushedCount;
+
+	/**
+	 * Number of queued traces that have to be flushed to satisfy pending {@link #flush()} calls.
+	 * Guarded by the serializer instance.
+	 */
+	private long flushTarget;
+
+	/**
+	 * Writer thread, null before {@link #prepare(OutputStream)}.
+	 */
+	private Thread writer;
+
+	/**
+	 * Indicates that no more traces are accepted.
+	 */
+	private volatile boolean closed;
+
+	/**
+	 * Held shared while a trace is checked and queued, held exclusively while closing. Hence, no
+	 * trace is queued after {@link #closed} has been set.
+	 */
+	private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+	/**
+	 * First error thrown by the wrapped serializer or the writer thread, null if no error occurred.
+	 */
+	private volatile Throwable failure;
+
+	/**
+	 * Constructor using {@link #DEFAULT_CAPACITY}, {@link #DEFAULT_BATCH_SIZE} and the
+	 * {@link OverflowPolicy#BLOCK} policy.
+	 * 
+	 * @param delegate
+	 *            serializer that writes the traces
+	 */
+	public AsyncCTASerializer(CTASerializer delegate) {
+		this(delegate, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, OverflowPolicy.BLOCK);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param delegate
+	 *            serializer that writes the traces
+	 * @param capacity
+	 *            number of traces that can be queued
+	 * @param batchSize
+	 *            maximum number of traces written per batch
+	 * @param overflowPolicy
+	 *            behaviour if the queue is full
+	 */
+	public AsyncCTASerializer(CTASerializer delegate, int capacity, int batchSize, OverflowPolicy overflowPolicy) {
+		if (delegate == null || overflowPolicy == null) {
+			throw new IllegalArgumentException("Serializer and overflow policy must not be null.");
+		}
+		if (capacity <= 0 || batchSize <= 0) {
+			throw new IllegalArgumentException("Capacity and batch size must be positive: " + capacity + ", " + batchSize);
+		}
+		this.delegate = delegate;
+		this.queue = new ArrayBlockingQueue<Trace>(capacity);
+		this.batchSize = batchSize;
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	@Override
+	public synchronized void prepare(OutputStream outStream) {
+		if (writer != null) {
+			throw new IllegalStateException("Serializer has already been prepared.");
+		}
+		delegate.prepare(outStream);
+		writer = new Thread(this::writeQueuedTraces, "cta-async-serializer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Queues a trace to be written by the writer thread. Depending on the {@link OverflowPolicy}
+	 * the trace is dropped or the calling thread blocks if the queue is full. A trace is dropped as
+	 * well if the calling thread is interrupted while blocking.
+	 * 
+	 * @param trace
+	 *            {@link Trace} instance to serialize.
+	 * @throws IllegalStateException
+	 *             if the serializer is not open, or if the wrapped serializer or the writer thread
+	 *             has failed; the trace is dropped in the latter case
+	 */
+	@Override
+	public void writeTrace(Trace trace) throws IllegalStateException {
+		if (trace == null) {
+			throw new IllegalArgumentException("Trace must not be null.");
+		}
+		closeLock.readLock().lock();
+		try {
+			if (closed || writer == null) {
+				throw new IllegalStateException("Serializer is not open.");
+			}
+			enqueue(trace);
+		} finally {
+			closeLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Blocks until all traces queued so far have been written and the wrapped serializer has been
+	 * flushed.
+	 * 
+	 * @throws IllegalStateException
+	 *             if the serializer is not open, or if the wrapped serializer or the writer thread
+	 *             has failed
+	 */
+	@Override
+	public synchronized void flush() throws IllegalStateException {
+		if (writer == null) {
+			throw new IllegalStateException("Serializer is not open.");
+		}
+		long target = queuedCount.get();
+		flushTarget = Math.max(flushTarget, target);
+		try {
+			while (flushedCount < target && writer.isAlive()) {
+				wait(POLL_TIMEOUT);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		checkFailure();
+	}
+
+	/**
+	 * Stops accepting traces, writes all queued traces and closes the wrapped serializer.
+	 * 
+	 * @throws IllegalStateException
+	 *             if the wrapped serializer failed to write a trace or the writer thread failed
+	 */
+	@Override
+	public void close() throws IllegalStateException {
+		closeLock.writeLock().lock();
+		try {
+			if (closed) {
+				return;
+			}
+			closed = true;
+		} finally {
+			closeLock.writeLock().unlock();
+		}
+		if (writer != null) {
+			boolean interrupted = false;
+			while (writer.isAlive()) {
+				try {
+					writer.join();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			// traces left behind by a writer thread that terminated abnormally
+			List<Trace> batch = new ArrayList<Trace>(batchSize);
+			while (queue.drainTo(batch, batchSize) > 0) {
+				writeBatch(batch);
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		delegate.close();
+		checkFailure();
+	}
+
+	/**
+	 * @return number of traces accepted into the queue
+	 */
+	public long getQueuedCount() {
+		return queuedCount.get();
+	}
+
+	/**
+	 * @return number of traces dropped because the queue was full, the writing thread was
+	 *         interrupted or the wrapped serializer or the writer thread had failed
+	 */
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	/**
+	 * @return number of traces written by the wrapped serializer
+	 */
+	public long getWrittenCount() {
+		return writtenCount.get();
+	}
+
+	/**
+	 * @return number of traces currently waiting in the queue
+	 */
+	public int getPendingCount() {
+		return queue.size();
+	}
+
+	/**
+	 * Main loop of the writer thread. Writes batches of queued traces until the serializer has
+	 * been closed and the queue has been drained. If the thread terminates with an error, the error
+	 * is recorded as failure and waiting {@link #flush()} calls are woken up.
+	 */
+	private void writeQueuedTraces() {
+		try {
+			List<Trace> batch = new ArrayList<Trace>(batchSize);
+			while (!closed || !queue.isEmpty()) {
+				Trace trace;
+				try {
+					trace = queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+				} catch (InterruptedException e) {
+					continue;
+				}
+				if (trace == null) {
+					continue;
+				}
+				batch.add(trace);
+				queue.drainTo(batch, batchSize - 1);
+				writeBatch(batch);
+			}
+		} catch (Throwable e) {
+			if (failure == null) {
+				failure = e;
+			}
+			synchronized (this) {
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Writes a batch of traces with the wrapped serializer and clears the batch. The wrapped
+	 * serializer is flushed if no more traces are queued or if a {@link #flush()} call is waiting
+	 * for the batch. After a failure of the wrapped
+	 * serializer all traces are dropped.
+	 * 
+	 * @param batch
+	 *            traces to write
+	 */
+	private void writeBatch(List<Trace> batch) {
+		for (Trace trace : batch) {
+			if (failure != null) {
+				droppedCount.incrementAndGet();
+				continue;
+			}
+			try {
+				delegate.writeTrace(trace);
+				writtenCount.incrementAndGet();
+			} catch (RuntimeException e) {
+				failure = e;
+				droppedCount.incrementAndGet();
+			}
+		}
+		int processed = batch.size();
+		batch.clear();
+		boolean flushRequested;
+		synchronized (this) {
+			flushRequested = flushedCount < flushTarget;
+		}
+		if ((flushRequested || queue.isEmpty()) && failure == null) {
+			try {
+				delegate.flush();
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+		}
+		synchronized (this) {
+			flushedCount += processed;
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Puts a trace into the queue according to the {@link OverflowPolicy}. While blocking, the
+	 * calling thread checks periodically whether the writer thread is still draining the queue.
+	 * 
+	 * @param trace
+	 *            trace to queue
+	 * @throws IllegalStateException
+	 *             if the wrapped serializer or the writer thread has failed
+	 */
+	private void enqueue(Trace trace) throws IllegalStateException {
+		boolean queued;
+		if (overflowPolicy == OverflowPolicy.BLOCK) {
+			try {
+				do {
+					checkWriterAlive();
+					queued = queue.offer(trace, POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+				} while (!queued);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				queued = false;
+			}
+		} else {
+			checkWriterAlive();
+			queued = queue.offer(trace);
+		}
+		if (queued) {
+			queuedCount.incrementAndGet();
+		} else {
+			droppedCount.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Checks that the writer thread is still writing traces. Counts the trace to be queued as
+	 * dropped otherwise.
+	 * 
+	 * @throws IllegalStateException
+	 *             if the wrapped serializer or the writer thread has failed
+	 */
+	private void checkWriterAlive() throws IllegalStateException {
+		if (failure != null || !writer.isAlive()) {
+			droppedCount.incrementAndGet();
+			checkFailure();
+			throw new IllegalStateException("Writer thread has terminated.");
+		}
+	}
+
+	/**
+	 * Throws an {@link IllegalStateException} if the wrapped serializer or the writer thread has
+	 * failed.
+	 * 
+	 * @throws IllegalStateException
+	 *             if a failure has been recorded
+	 */
+	private void checkFailure() throws IllegalStateException {
+		if (failure != null) {
+			throw new IllegalStateException("Asynchronous serialization failed.", failure);
+		}
+	}
+}
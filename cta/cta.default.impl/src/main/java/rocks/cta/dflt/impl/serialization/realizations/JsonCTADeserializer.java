@@ -0,0 +1,667 @@
+package rocks.cta.dflt.impl.serialization.realizations;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import rocks.cta.api.core.Trace;
+import rocks.cta.api.core.callables.HTTPMethod;
+import rocks.cta.dflt.impl.core.LocationImpl;
+import rocks.cta.dflt.impl.core.LocationPool;
+import rocks.cta.dflt.impl.core.SubTraceImpl;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.core.callables.AbstractCallableImpl;
+import rocks.cta.dflt.impl.core.callables.AbstractNestingCallableImpl;
+import rocks.cta.dflt.impl.core.callables.AbstractTimedCallableImpl;
+import rocks.cta.dflt.impl.core.callables.DatabaseInvocationImpl;
+import rocks.cta.dflt.impl.core.callables.ExceptionThrowImpl;
+import rocks.cta.dflt.impl.core.callables.HTTPRequestProcessingImpl;
+import rocks.cta.dflt.impl.core.callables.LoggingInvocationImpl;
+import rocks.cta.dflt.impl.core.callables.MethodInvocationImpl;
+import rocks.cta.dflt.impl.core.callables.RemoteInvocationImpl;
+import rocks.cta.dflt.impl.serialization.CTADeserializer;
+
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Streaming deserializer from JSON format. Traces are parsed one at a time on each call of
+ * {@link #readNext()}, hence, the memory footprint is bound by the size of a single trace rather
+ * than by the size of the source. Call trees are parsed iteratively, thus, the depth of a call
+ * tree is not limited by the call stack. The fields of an object may appear in any order. If the
+ * identifying field of an object is not its first field, the preceding fields are buffered until
+ * the identifying field has been read.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class JsonCTADeserializer extends JsonCTASerializationBase implements CTADeserializer {
+
+	/**
+	 * Source for deserialization.
+	 */
+	private JsonTokenReader parser;
+
+	/**
+	 * Indicates whether the enclosing array has been entered.
+	 */
+	private boolean started = false;
+
+	@Override
+	public void setSource(InputStream inStream) {
+		try {
+			parser = new JsonTokenReader(getJsonFactory().createParser(inStream));
+			started = false;
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed preparing JSON deserialization.", e);
+		}
+	}
+
+	@Override
+	public Trace readNext() {
+		try {
+			if (!started) {
+				JsonToken token = parser.nextToken();
+				if (token == null) {
+					return null;
+				}
+				expect(token, JsonToken.START_ARRAY);
+				started = true;
+			}
+
+			JsonToken token = parser.nextToken();
+			if (token == null || token == JsonToken.END_ARRAY) {
+				return null;
+			}
+			expect(token, JsonToken.START_OBJECT);
+			return readTrace();
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed reading trace from JSON.", e);
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			parser.close();
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed closing JSON deserialization.", e);
+		}
+	}
+
+	/**
+	 * Reads a trace. The parser is expected to be positioned at the start of the trace object.
+	 * 
+	 * @return the trace
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private TraceImpl readTrace() throws IOException {
+		parser.seekField(TRACE_ID);
+		TraceImpl trace = new TraceImpl(parser.getLongValue());
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			parser.nextToken();
+			if (ROOT.equals(field)) {
+				trace.setRoot(readSubTrace(trace, null));
+			} else {
+				parser.skipChildren();
+			}
+		}
+		return trace;
+	}
+
+	/**
+	 * Reads a sub trace. The parser is expected to be positioned at the start of the sub trace
+	 * object.
+	 * 
+	 * @param trace
+	 *            containing trace
+	 * @param parent
+	 *            parent sub trace, may be null
+	 * @return the sub trace
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private SubTraceImpl readSubTrace(TraceImpl trace, SubTraceImpl parent) throws IOException {
+		parser.seekField(SUB_TRACE_ID);
+		SubTraceImpl subTrace = new SubTraceImpl(parser.getLongValue(), parent, trace);
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			JsonToken token = parser.nextToken();
+			if (LOCATION.equals(field)) {
+				subTrace.setLocation(readLocation());
+			} else if (ROOT.equals(field)) {
+				subTrace.setRoot(readCallTree(subTrace));
+			} else if (SUB_TRACES.equals(field)) {
+				expect(token, JsonToken.START_ARRAY);
+				while (parser.nextToken() == JsonToken.START_OBJECT) {
+					readSubTrace(trace, subTrace);
+				}
+			} else {
+				parser.skipChildren();
+			}
+		}
+		return subTrace;
+	}
+
+	/**
+	 * Reads a location. The parser is expected to be positioned at the start of the location
+	 * object.
+	 * 
+	 * @return the location interned in the default {@link LocationPool}
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private LocationImpl readLocation() throws IOException {
+		String host = null;
+		String runTimeEnvironment = null;
+		String application = null;
+		String businessTransaction = null;
+		String nodeType = null;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			parser.nextToken();
+			if (HOST.equals(field)) {
+				host = parser.getText();
+			} else if (RUNTIME_ENVIRONMENT.equals(field)) {
+				runTimeEnvironment = parser.getText();
+			} else if (APPLICATION.equals(field)) {
+				application = parser.getText();
+			} else if (BUSINESS_TRANSACTION.equals(field)) {
+				businessTransaction = parser.getText();
+			} else if (NODE_TYPE.equals(field)) {
+				nodeType = parser.getText();
+			} else {
+				parser.skipChildren();
+			}
+		}
+		return LocationPool.getDefault().intern(host, runTimeEnvironment, application, businessTransaction, nodeType);
+	}
+
+	/**
+	 * Reads a call tree. The parser is expected to be positioned at the start of the root callable
+	 * object. The nesting callables whose callees array is currently parsed are kept on an
+	 * explicit stack.
+	 * 
+	 * @param subTrace
+	 *            sub trace containing the call tree
+	 * @return the root callable
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private AbstractCallableImpl readCallTree(SubTraceImpl subTrace) throws IOException {
+		Deque<AbstractNestingCallableImpl> openCallables = new ArrayDeque<AbstractNestingCallableImpl>();
+		Deque<SignatureFields> openSignatures = new ArrayDeque<SignatureFields>();
+		AbstractCallableImpl root = createCallable(null, subTrace);
+		AbstractCallableImpl current = root;
+		SignatureFields signature = new SignatureFields();
+		while (true) {
+			if (readCallableFields(current, subTrace, signature)) {
+				// callees array has been entered, further fields may follow the array
+				openCallables.push((AbstractNestingCallableImpl) current);
+				openSignatures.push(signature);
+				signature = new SignatureFields();
+			} else {
+				signature.applyTo(current);
+				if (openCallables.isEmpty()) {
+					return root;
+				}
+			}
+
+			JsonToken token = parser.nextToken();
+			while (token == JsonToken.END_ARRAY) {
+				AbstractNestingCallableImpl finished = openCallables.pop();
+				SignatureFields finishedSignature = openSignatures.pop();
+				if (readCallableFields(finished, subTrace, finishedSignature)) {
+					throw new IllegalStateException("Duplicate callees of callable in JSON source.");
+				}
+				finishedSignature.applyTo(finished);
+				if (openCallables.isEmpty()) {
+					return root;
+				}
+				token = parser.nextToken();
+			}
+			expect(token, JsonToken.START_OBJECT);
+			current = createCallable(openCallables.peek(), subTrace);
+		}
+	}
+
+	/**
+	 * Creates a callable of the type given by the type field of the current callable object.
+	 * 
+	 * @param parent
+	 *            parent of the new callable, may be null
+	 * @param subTrace
+	 *            containing sub trace
+	 * @return the new callable
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private AbstractCallableImpl createCallable(AbstractNestingCallableImpl parent, SubTraceImpl subTrace) throws IOException {
+		parser.seekField(TYPE);
+		String type = parser.getText();
+		switch (type) {
+		case TYPE_METHOD_INVOCATION:
+			return new MethodInvocationImpl(parent, subTrace);
+		case TYPE_HTTP_REQUEST_PROCESSING:
+			return new HTTPRequestProcessingImpl(parent, subTrace);
+		case TYPE_DATABASE_INVOCATION:
+			return new DatabaseInvocationImpl(parent, subTrace);
+		case TYPE_REMOTE_INVOCATION:
+			return new RemoteInvocationImpl(parent, subTrace);
+		case TYPE_EXCEPTION_THROW:
+			return new ExceptionThrowImpl(parent, subTrace);
+		case TYPE_LOGGING_INVOCATION:
+			return new LoggingInvocationImpl(parent, subTrace);
+		default:
+			throw new IllegalStateException("Unknown callable type in JSON source: " + type);
+		}
+	}
+
+	/**
+	 * Reads the fields of the current callable object until either the end of the object or the
+	 * start of the callees array is reached.
+	 * 
+	 * @param callable
+	 *            callable to fill
+	 * @param subTrace
+	 *            containing sub trace
+	 * @param signature
+	 *            collects the signature fields of method invocations
+	 * @return true, if the parser has entered the callees array, false if the end of the object
+	 *         has been reached
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private boolean readCallableFields(AbstractCallableImpl callable, SubTraceImpl subTrace, SignatureFields signature)
+			throws IOException {
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			JsonToken token = parser.nextToken();
+			if (CALLEES.equals(field) && callable instanceof AbstractNestingCallableImpl) {
+				expect(token, JsonToken.START_ARRAY);
+				return true;
+			} else if (TIMESTAMP.equals(field)) {
+				callable.setTimestamp(parser.getLongValue());
+			} else if (RESPONSE_TIME.equals(field) && callable instanceof AbstractTimedCallableImpl) {
+				((AbstractTimedCallableImpl) callable).setResponseTime(parser.getLongValue());
+			} else if (LABELS.equals(field)) {
+				for (String label : readStringArray()) {
+					callable.addLabel(label);
+				}
+			} else if (!readSpecificField(callable, field, subTrace, signature)) {
+				parser.skipChildren();
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Reads a field specific to the type of the callable. The parser is expected to be positioned
+	 * at the value of the field.
+	 * 
+	 * @param callable
+	 *            callable to fill
+	 * @param field
+	 *            name of the field
+	 * @param subTrace
+	 *            containing sub trace
+	 * @param signature
+	 *            collects the signature fields of method invocations
+	 * @return false, if the field is unknown
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private boolean readSpecificField(AbstractCallableImpl callable, String field, SubTraceImpl subTrace, SignatureFields signature)
+			throws IOException {
+		if (callable instanceof MethodInvocationImpl) {
+			return readMethodInvocationField((MethodInvocationImpl) callable, field, signature);
+		} else if (callable instanceof HTTPRequestProcessingImpl) {
+			return readHTTPRequestProcessingField((HTTPRequestProcessingImpl) callable, field);
+		} else if (callable instanceof DatabaseInvocationImpl) {
+			return readDatabaseInvocationField((DatabaseInvocationImpl) callable, field);
+		} else if (callable instanceof RemoteInvocationImpl) {
+			return readRemoteInvocationField((RemoteInvocationImpl) callable, field, subTrace);
+		} else if (callable instanceof ExceptionThrowImpl) {
+			return readExceptionThrowField((ExceptionThrowImpl) callable, field);
+		} else if (callable instanceof LoggingInvocationImpl) {
+			return readLoggingInvocationField((LoggingInvocationImpl) callable, field);
+		}
+		return false;
+	}
+
+	/**
+	 * Reads a field of a method invocation. The parts of the signature are collected and set once
+	 * the whole object has been read.
+	 * 
+	 * @param methodInvocation
+	 *            callable to fill
+	 * @param field
+	 *            name of the field
+	 * @param signature
+	 *            collects the signature fields
+	 * @return false, if the field is unknown
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private boolean readMethodInvocationField(MethodInvocationImpl methodInvocation, String field, SignatureFields signature)
+			throws IOException {
+		switch (field) {
+		case CPU_TIME:
+			methodInvocation.setCPUTime(parser.getLongValue());
+			return true;
+		case SIGNATURE:
+			signature.signature = parser.getText();
+			signature.present = true;
+			return true;
+		case METHOD_NAME:
+			signature.methodName = parser.getText();
+			signature.present = true;
+			return true;
+		case CLASS_NAME:
+			signature.className = parser.getText();
+			signature.present = true;
+			return true;
+		case PACKAGE_NAME:
+			signature.packageName = parser.getText();
+			signature.present = true;
+			return true;
+		case RETURN_TYPE:
+			signature.returnType = parser.getText();
+			signature.present = true;
+			return true;
+		case PARAMETER_TYPES:
+			signature.parameterTypes = readStringArray();
+			signature.present = true;
+			return true;
+		case PARAMETER_VALUES:
+			for (Map.Entry<String, String> entry : readStringMap().entrySet()) {
+				methodInvocation.addParameterValue(Integer.parseInt(entry.getKey()), entry.getValue());
+			}
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Reads a field of a HTTP request processing.
+	 * 
+	 * @param httpRequest
+	 *            callable to fill
+	 * @param field
+	 *            name of the field
+	 * @return false, if the field is unknown
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private boolean readHTTPRequestProcessingField(HTTPRequestProcessingImpl httpRequest, String field) throws IOException {
+		switch (field) {
+		case URI:
+			httpRequest.setUri(parser.getText());
+			return true;
+		case REQUEST_METHOD:
+			httpRequest.setRequestMethod(HTTPMethod.valueOf(parser.getText()));
+			return true;
+		case HTTP_PARAMETERS:
+			Map<String, String[]> parameters = new HashMap<String, String[]>();
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String name = parser.getCurrentName();
+				parser.nextToken();
+				List<String> values = readStringArray();
+				parameters.put(name, values.toArray(new String[values.size()]));
+			}
+			httpRequest.setHTTPParameters(parameters);
+			return true;
+		case HTTP_ATTRIBUTES:
+			httpRequest.setHTTPAttributes(readStringMap());
+			return true;
+		case HTTP_SESSION_ATTRIBUTES:
+			httpRequest.setHTTPSessionAttributes(readStringMap());
+			return true;
+		case HTTP_HEADERS:
+			httpRequest.setHTTPHeaders(readStringMap());
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Reads a field of a database invocation.
+	 * 
+	 * @param dbInvocation
+	 *            callable to fill
+	 * @param field
+	 *            name of the field
+	 * @return false, if the field is unknown
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private boolean readDatabaseInvocationField(DatabaseInvocationImpl dbInvocation, String field) throws IOException {
+		switch (field) {
+		case SQL:
+			dbInvocation.setSQLStatement(parser.getText());
+			return true;
+		case PREPARED:
+			dbInvocation.setPrepared(parser.getBooleanValue());
+			return true;
+		case PARAMETER_BINDINGS:
+			for (Map.Entry<String, String> entry : readStringMap().entrySet()) {
+				dbInvocation.addParameterBinding(Integer.parseInt(entry.getKey()), entry.getValue());
+			}
+			return true;
+		case DB_PRODUCT_NAME:
+			dbInvocation.setDBProductName(Optional.of(parser.getText()));
+			return true;
+		case DB_PRODUCT_VERSION:
+			dbInvocation.setDBProductVersion(Optional.of(parser.getText()));
+			return true;
+		case DB_URL:
+			dbInvocation.setDBUrl(Optional.of(parser.getText()));
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Reads a field of a remote invocation.
+	 * 
+	 * @param remoteInvocation
+	 *            callable to fill
+	 * @param field
+	 *            name of the field
+	 * @param subTrace
+	 *            sub trace containing the remote invocation
+	 * @return false, if the field is unknown
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private boolean readRemoteInvocationField(RemoteInvocationImpl remoteInvocation, String field, SubTraceImpl subTrace)
+			throws IOException {
+		switch (field) {
+		case TARGET:
+			remoteInvocation.setTarget(parser.getText());
+			return true;
+		case TARGET_SUB_TRACE:
+			remoteInvocation.setTargetSubTrace(readSubTrace((TraceImpl) subTrace.getContainingTrace(), subTrace));
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Reads a field of an exception throw.
+	 * 
+	 * @param exceptionThrow
+	 *            callable to fill
+	 * @param field
+	 *            name of the field
+	 * @return false, if the field is unknown
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private boolean readExceptionThrowField(ExceptionThrowImpl exceptionThrow, String field) throws IOException {
+		switch (field) {
+		case ERROR_MESSAGE:
+			exceptionThrow.setErrorMessage(parser.getText());
+			return true;
+		case CAUSE:
+			exceptionThrow.setCause(parser.getText());
+			return true;
+		case STACK_TRACE:
+			exceptionThrow.setStackTrace(parser.getText());
+			return true;
+		case THROWABLE_TYPE:
+			exceptionThrow.setThrowableType(parser.getText());
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Reads a field of a logging invocation.
+	 * 
+	 * @param loggingInvocation
+	 *            callable to fill
+	 * @param field
+	 *            name of the field
+	 * @return false, if the field is unknown
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private boolean readLoggingInvocationField(LoggingInvocationImpl loggingInvocation, String field) throws IOException {
+		switch (field) {
+		case LOGGING_LEVEL:
+			loggingInvocation.setLoggingLevel(parser.getText());
+			return true;
+		case MESSAGE:
+			loggingInvocation.setMessage(parser.getText());
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Reads an array of Strings. The parser is expected to be positioned at the start of the
+	 * array.
+	 * 
+	 * @return list of Strings
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private List<String> readStringArray() throws IOException {
+		List<String> values = new ArrayList<String>();
+		while (parser.nextToken() != JsonToken.END_ARRAY) {
+			values.add(parser.getText());
+		}
+		return values;
+	}
+
+	/**
+	 * Reads an object with String values. The parser is expected to be positioned at the start of
+	 * the object.
+	 * 
+	 * @return map of Strings
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private Map<String, String> readStringMap() throws IOException {
+		Map<String, String> values = new HashMap<String, String>();
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String name = parser.getCurrentName();
+			parser.nextToken();
+			values.put(name, parser.getText());
+		}
+		return values;
+	}
+
+	/**
+	 * Checks the type of the passed token.
+	 * 
+	 * @param token
+	 *            token to check
+	 * @param expected
+	 *            expected token type
+	 */
+	private void expect(JsonToken token, JsonToken expected) {
+		if (token != expected) {
+			throw new IllegalStateException("Invalid JSON source: expected " + expected + " but found " + token + " at "
+					+ parser.getCurrentLocation());
+		}
+	}
+
+	/**
+	 * Signature fields of a method invocation collected while reading its object.
+	 * 
+	 * @author Alexander Wert
+	 * 
+	 */
+	private static final class SignatureFields {
+
+		/**
+		 * Whether any signature field has been read.
+		 */
+		private boolean present;
+
+		/**
+		 * Full signature.
+		 */
+		private String signature;
+
+		/**
+		 * Return type.
+		 */
+		private String returnType;
+
+		/**
+		 * Package name.
+		 */
+		private String packageName;
+
+		/**
+		 * Simple class name.
+		 */
+		private String className;
+
+		/**
+		 * Simple method name.
+		 */
+		private String methodName;
+
+		/**
+		 * List of parameter types.
+		 */
+		private List<String> parameterTypes;
+
+		/**
+		 * Sets the collected signature on the passed callable, if it is a method invocation and
+		 * any signature field has been read, and resets the fields.
+		 * 
+		 * @param callable
+		 *            callable that has been read
+		 */
+		private void applyTo(AbstractCallableImpl callable) {
+			if (present && callable instanceof MethodInvocationImpl) {
+				((MethodInvocationImpl) callable).setSignature(signature, returnType, packageName, className, methodName, parameterTypes);
+			}
+			present = false;
+			signature = null;
+			returnType = null;
+			packageName = null;
+			className = null;
+			methodName = null;
+			parameterTypes = null;
+		}
+	}
+}
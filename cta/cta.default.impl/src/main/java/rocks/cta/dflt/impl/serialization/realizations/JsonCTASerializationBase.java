@@ -0,0 +1,278 @@
+package rocks.cta.dflt.impl.serialization.realizations;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+/**
+ * The {@link JsonCTASerializationBase} class defines the JSON representation shared by the
+ * {@link JsonCTASerializer} and the {@link JsonCTADeserializer}.
+ * 
+ * A JSON stream is an array of trace objects. Each trace object contains the root sub trace and
+ * each sub trace object contains its call tree as nested callable objects. Sub traces invoked by
+ * a remote invocation are nested into the corresponding callable object. The serializer writes the
+ * identifying field (traceId, subTraceId and type) as the first field of the corresponding object,
+ * which avoids buffering on reading. The deserializer accepts the fields in any order.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class JsonCTASerializationBase {
+
+	/**
+	 * Trace identifier.
+	 */
+	protected static final String TRACE_ID = "traceId";
+
+	/**
+	 * Root element of a trace or sub trace.
+	 */
+	protected static final String ROOT = "root";
+
+	/**
+	 * Sub trace identifier.
+	 */
+	protected static final String SUB_TRACE_ID = "subTraceId";
+
+	/**
+	 * Location of a sub trace.
+	 */
+	protected static final String LOCATION = "location";
+
+	/**
+	 * Child sub traces that are not invoked by a remote invocation.
+	 */
+	protected static final String SUB_TRACES = "subTraces";
+
+	/**
+	 * Location host.
+	 */
+	protected static final String HOST = "host";
+
+	/**
+	 * Location runtime environment.
+	 */
+	protected static final String RUNTIME_ENVIRONMENT = "runtimeEnvironment";
+
+	/**
+	 * Location application.
+	 */
+	protected static final String APPLICATION = "application";
+
+	/**
+	 * Location business transaction.
+	 */
+	protected static final String BUSINESS_TRANSACTION = "businessTransaction";
+
+	/**
+	 * Location node type.
+	 */
+	protected static final String NODE_TYPE = "nodeType";
+
+	/**
+	 * Type of a callable.
+	 */
+	protected static final String TYPE = "type";
+
+	/**
+	 * Entry timestamp of a callable.
+	 */
+	protected static final String TIMESTAMP = "timestamp";
+
+	/**
+	 * Labels of a callable.
+	 */
+	protected static final String LABELS = "labels";
+
+	/**
+	 * Response time of a timed callable.
+	 */
+	protected static final String RESPONSE_TIME = "responseTime";
+
+	/**
+	 * Children of a nesting callable.
+	 */
+	protected static final String CALLEES = "callees";
+
+	/**
+	 * Method invocation CPU time.
+	 */
+	protected static final String CPU_TIME = "cpuTime";
+
+	/**
+	 * Full signature of a method invocation.
+	 */
+	protected static final String SIGNATURE = "signature";
+
+	/**
+	 * Method name of a method invocation.
+	 */
+	protected static final String METHOD_NAME = "methodName";
+
+	/**
+	 * Class name of a method invocation.
+	 */
+	protected static final String CLASS_NAME = "className";
+
+	/**
+	 * Package name of a method invocation.
+	 */
+	protected static final String PACKAGE_NAME = "packageName";
+
+	/**
+	 * Return type of a method invocation.
+	 */
+	protected static final String RETURN_TYPE = "returnType";
+
+	/**
+	 * Parameter types of a method invocation.
+	 */
+	protected static final String PARAMETER_TYPES = "parameterTypes";
+
+	/**
+	 * Parameter values of a method invocation.
+	 */
+	protected static final String PARAMETER_VALUES = "parameterValues";
+
+	/**
+	 * SQL statement of a database invocation.
+	 */
+	protected static final String SQL = "sql";
+
+	/**
+	 * Prepared flag of a database invocation.
+	 */
+	protected static final String PREPARED = "prepared";
+
+	/**
+	 * Parameter bindings of a database invocation.
+	 */
+	protected static final String PARAMETER_BINDINGS = "parameterBindings";
+
+	/**
+	 * Database product name.
+	 */
+	protected static final String DB_PRODUCT_NAME = "dbProductName";
+
+	/**
+	 * Database product version.
+	 */
+	protected static final String DB_PRODUCT_VERSION = "dbProductVersion";
+
+	/**
+	 * Database URL.
+	 */
+	protected static final String DB_URL = "dbUrl";
+
+	/**
+	 * URI of a HTTP request.
+	 */
+	protected static final String URI = "uri";
+
+	/**
+	 * Method of a HTTP request.
+	 */
+	protected static final String REQUEST_METHOD = "requestMethod";
+
+	/**
+	 * HTTP parameters.
+	 */
+	protected static final String HTTP_PARAMETERS = "httpParameters";
+
+	/**
+	 * HTTP attributes.
+	 */
+	protected static final String HTTP_ATTRIBUTES = "httpAttributes";
+
+	/**
+	 * HTTP session attributes.
+	 */
+	protected static final String HTTP_SESSION_ATTRIBUTES = "httpSessionAttributes";
+
+	/**
+	 * HTTP headers.
+	 */
+	protected static final String HTTP_HEADERS = "httpHeaders";
+
+	/**
+	 * Target of a remote invocation.
+	 */
+	protected static final String TARGET = "target";
+
+	/**
+	 * Sub trace invoked by a remote invocation.
+	 */
+	protected static final String TARGET_SUB_TRACE = "targetSubTrace";
+
+	/**
+	 * Error message of an exception throw.
+	 */
+	protected static final String ERROR_MESSAGE = "errorMessage";
+
+	/**
+	 * Cause of an exception throw.
+	 */
+	protected static final String CAUSE = "cause";
+
+	/**
+	 * Stack trace of an exception throw.
+	 */
+	protected static final String STACK_TRACE = "stackTrace";
+
+	/**
+	 * Throwable type of an exception throw.
+	 */
+	protected static final String THROWABLE_TYPE = "throwableType";
+
+	/**
+	 * Logging level of a logging invocation.
+	 */
+	protected static final String LOGGING_LEVEL = "loggingLevel";
+
+	/**
+	 * Message of a logging invocation.
+	 */
+	protected static final String MESSAGE = "message";
+
+	/**
+	 * Type name of method invocations.
+	 */
+	protected static final String TYPE_METHOD_INVOCATION = "MethodInvocation";
+
+	/**
+	 * Type name of HTTP request processings.
+	 */
+	protected static final String TYPE_HTTP_REQUEST_PROCESSING = "HTTPRequestProcessing";
+
+	/**
+	 * Type name of database invocations.
+	 */
+	protected static final String TYPE_DATABASE_INVOCATION = "DatabaseInvocation";
+
+	/**
+	 * Type name of remote invocations.
+	 */
+	protected static final String TYPE_REMOTE_INVOCATION = "RemoteInvocation";
+
+	/**
+	 * Type name of exception throws.
+	 */
+	protected static final String TYPE_EXCEPTION_THROW = "ExceptionThrow";
+
+	/**
+	 * Type name of logging invocations.
+	 */
+	protected static final String TYPE_LOGGING_INVOCATION = "LoggingInvocation";
+
+	/**
+	 * Factory for JSON generators and parsers. Thread-safe and expensive to create, hence,
+	 * shared.
+	 */
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	/**
+	 * 
+	 * @return JSON factory
+	 */
+	protected JsonFactory getJsonFactory() {
+		return JSON_FACTORY;
+	}
+}
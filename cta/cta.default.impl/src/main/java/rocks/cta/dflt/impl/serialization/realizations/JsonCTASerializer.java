@@ -0,0 +1,458 @@
+package rocks.cta.dflt.impl.serialization.realizations;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+
+import rocks.cta.api.core.Location;
+import rocks.cta.api.core.SubTrace;
+import rocks.cta.api.core.Trace;
+import rocks.cta.api.core.TreeIterator;
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.DatabaseInvocation;
+import rocks.cta.api.core.callables.ExceptionThrow;
+import rocks.cta.api.core.callables.HTTPRequestProcessing;
+import rocks.cta.api.core.callables.LoggingInvocation;
+import rocks.cta.api.core.callables.MethodInvocation;
+import rocks.cta.api.core.callables.NestingCallable;
+import rocks.cta.api.core.callables.RemoteInvocation;
+import rocks.cta.api.core.callables.TimedCallable;
+import rocks.cta.api.utils.CallableIterator;
+import rocks.cta.dflt.impl.serialization.CTASerializer;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Streaming serializer to JSON format. The callables are written in the order the
+ * {@link CallableIterator} visits them, hence, no intermediate representation of the trace is
+ * built. In contrast to the binary serializers, any {@link Trace} implementation can be
+ * serialized.
+ * 
+ * Identifiers and additional information objects are not part of the JSON representation.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class JsonCTASerializer extends JsonCTASerializationBase implements CTASerializer {
+
+	/**
+	 * Sink of serialization.
+	 */
+	private JsonGenerator generator;
+
+	/**
+	 * Sub traces already written as target of a remote invocation.
+	 */
+	private final Set<SubTrace> writtenSubTraces = Collections.newSetFromMap(new IdentityHashMap<SubTrace, Boolean>());
+
+	@Override
+	public void prepare(OutputStream outStream) {
+		try {
+			generator = getJsonFactory().createGenerator(outStream, JsonEncoding.UTF8);
+			generator.writeStartArray();
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed preparing JSON serialization.", e);
+		}
+	}
+
+	@Override
+	public void writeTrace(Trace trace) {
+		try {
+			generator.writeStartObject();
+			generator.writeNumberField(TRACE_ID, trace.getTraceId());
+			if (trace.getRoot() != null) {
+				generator.writeFieldName(ROOT);
+				writeSubTrace(trace.getRoot());
+			}
+			generator.writeEndObject();
+			writtenSubTraces.clear();
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed writing trace " + trace.getTraceId() + " to JSON.", e);
+		}
+	}
+
+	@Override
+	public void flush() {
+		try {
+			generator.flush();
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed flushing JSON serialization.", e);
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			generator.writeEndArray();
+			generator.close();
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed closing JSON serialization.", e);
+		}
+	}
+
+	/**
+	 * Writes a sub trace including its call tree.
+	 * 
+	 * @param subTrace
+	 *            sub trace to write
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private void writeSubTrace(SubTrace subTrace) throws IOException {
+		writtenSubTraces.add(subTrace);
+		generator.writeStartObject();
+		generator.writeNumberField(SUB_TRACE_ID, subTrace.getSubTraceId());
+		if (subTrace.getLocation() != null) {
+			generator.writeFieldName(LOCATION);
+			writeLocation(subTrace.getLocation());
+		}
+		if (subTrace.getRoot() != null) {
+			generator.writeFieldName(ROOT);
+			writeCallTree(subTrace.getRoot());
+		}
+
+		boolean childrenStarted = false;
+		for (SubTrace child : subTrace.getSubTraces()) {
+			if (!writtenSubTraces.contains(child)) {
+				if (!childrenStarted) {
+					generator.writeArrayFieldStart(SUB_TRACES);
+					childrenStarted = true;
+				}
+				writeSubTrace(child);
+			}
+		}
+		if (childrenStarted) {
+			generator.writeEndArray();
+		}
+		generator.writeEndObject();
+	}
+
+	/**
+	 * Writes a location.
+	 * 
+	 * @param location
+	 *            location to write
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private void writeLocation(Location location) throws IOException {
+		generator.writeStartObject();
+		writeStringField(HOST, location.getHost());
+		writeOptionalStringField(RUNTIME_ENVIRONMENT, location.getRuntimeEnvironment());
+		writeOptionalStringField(APPLICATION, location.getApplication());
+		writeOptionalStringField(BUSINESS_TRANSACTION, location.getBusinessTransaction());
+		writeOptionalStringField(NODE_TYPE, location.getNodeType());
+		generator.writeEndObject();
+	}
+
+	/**
+	 * Writes the call tree below the passed root callable. The tree is traversed with a
+	 * {@link CallableIterator}: the callees array of a nesting callable is left open until the
+	 * iterator leaves the corresponding subtree.
+	 * 
+	 * @param root
+	 *            root of the call tree
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private void writeCallTree(Callable root) throws IOException {
+		TreeIterator<Callable> iterator = new CallableIterator(root);
+		int openDepth = -1;
+		while (iterator.hasNext()) {
+			Callable callable = iterator.next();
+			int depth = iterator.currentDepth();
+			while (openDepth >= depth) {
+				generator.writeEndArray();
+				generator.writeEndObject();
+				openDepth--;
+			}
+
+			writeCallable(callable);
+
+			if (callable instanceof NestingCallable && !((NestingCallable) callable).getCallees().isEmpty()) {
+				generator.writeArrayFieldStart(CALLEES);
+				openDepth = depth;
+			} else {
+				generator.writeEndObject();
+			}
+		}
+		while (openDepth >= 0) {
+			generator.writeEndArray();
+			generator.writeEndObject();
+			openDepth--;
+		}
+	}
+
+	/**
+	 * Starts the object of the passed callable and writes all of its fields except for the
+	 * callees. The object is left open.
+	 * 
+	 * @param callable
+	 *            callable to write
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private void writeCallable(Callable callable) throws IOException {
+		generator.writeStartObject();
+		if (callable instanceof MethodInvocation) {
+			generator.writeStringField(TYPE, TYPE_METHOD_INVOCATION);
+			writeCommonFields(callable);
+			writeMethodInvocation((MethodInvocation) callable);
+		} else if (callable instanceof HTTPRequestProcessing) {
+			generator.writeStringField(TYPE, TYPE_HTTP_REQUEST_PROCESSING);
+			writeCommonFields(callable);
+			writeHTTPRequestProcessing((HTTPRequestProcessing) callable);
+		} else if (callable instanceof DatabaseInvocation) {
+			generator.writeStringField(TYPE, TYPE_DATABASE_INVOCATION);
+			writeCommonFields(callable);
+			writeDatabaseInvocation((DatabaseInvocation) callable);
+		} else if (callable instanceof RemoteInvocation) {
+			generator.writeStringField(TYPE, TYPE_REMOTE_INVOCATION);
+			writeCommonFields(callable);
+			writeRemoteInvocation((RemoteInvocation) callable);
+		} else if (callable instanceof ExceptionThrow) {
+			generator.writeStringField(TYPE, TYPE_EXCEPTION_THROW);
+			writeCommonFields(callable);
+			writeExceptionThrow((ExceptionThrow) callable);
+		} else if (callable instanceof LoggingInvocation) {
+			generator.writeStringField(TYPE, TYPE_LOGGING_INVOCATION);
+			writeCommonFields(callable);
+			writeLoggingInvocation((LoggingInvocation) callable);
+		} else {
+			throw new IllegalArgumentException("Unsupported callable type: " + callable.getClass().getName());
+		}
+	}
+
+	/**
+	 * Writes the fields common to all callables.
+	 * 
+	 * @param callable
+	 *            callable to write
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private void writeCommonFields(Callable callable) throws IOException {
+		generator.writeNumberField(TIMESTAMP, callable.getTimestamp());
+		if (callable instanceof TimedCallable) {
+			generator.writeNumberField(RESPONSE_TIME, ((TimedCallable) callable).getResponseTime());
+		}
+		Optional<List<String>> labels = callable.getLabels();
+		if (labels.isPresent()) {
+			writeStringArrayField(LABELS, labels.get());
+		}
+	}
+
+	/**
+	 * Writes the fields specific to method invocations.
+	 * 
+	 * @param methodInvocation
+	 *            method invocation to write
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private void writeMethodInvocation(MethodInvocation methodInvocation) throws IOException {
+		if (methodInvocation.getCPUTime().isPresent()) {
+			generator.writeNumberField(CPU_TIME, methodInvocation.getCPUTime().get());
+		}
+		writeStringField(SIGNATURE, methodInvocation.getSignature());
+		writeOptionalStringField(METHOD_NAME, methodInvocation.getMethodName());
+		writeOptionalStringField(CLASS_NAME, methodInvocation.getClassName());
+		writeOptionalStringField(PACKAGE_NAME, methodInvocation.getPackageName());
+		writeOptionalStringField(RETURN_TYPE, methodInvocation.getReturnType());
+		if (methodInvocation.getParameterTypes().isPresent()) {
+			writeStringArrayField(PARAMETER_TYPES, methodInvocation.getParameterTypes().get());
+		}
+		if (methodInvocation.getParameterValues().isPresent()) {
+			writeIndexedMapField(PARAMETER_VALUES, methodInvocation.getParameterValues().get());
+		}
+	}
+
+	/**
+	 * Writes the fields specific to HTTP request processings.
+	 * 
+	 * @param httpRequest
+	 *            HTTP request processing to write
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private void writeHTTPRequestProcessing(HTTPRequestProcessing httpRequest) throws IOException {
+		writeStringField(URI, httpRequest.getUri());
+		if (httpRequest.getRequestMethod().isPresent()) {
+			generator.writeStringField(REQUEST_METHOD, httpRequest.getRequestMethod().get().name());
+		}
+		if (httpRequest.getHTTPParameters().isPresent()) {
+			generator.writeObjectFieldStart(HTTP_PARAMETERS);
+			for (Entry<String, String[]> entry : httpRequest.getHTTPParameters().get().entrySet()) {
+				generator.writeArrayFieldStart(entry.getKey());
+				for (String value : entry.getValue()) {
+					generator.writeString(value);
+				}
+				generator.writeEndArray();
+			}
+			generator.writeEndObject();
+		}
+		writeOptionalMapField(HTTP_ATTRIBUTES, httpRequest.getHTTPAttributes());
+		writeOptionalMapField(HTTP_SESSION_ATTRIBUTES, httpRequest.getHTTPSessionAttributes());
+		writeOptionalMapField(HTTP_HEADERS, httpRequest.getHTTPHeaders());
+	}
+
+	/**
+	 * Writes the fields specific to database invocations.
+	 * 
+	 * @param dbInvocation
+	 *            database invocation to write
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private void writeDatabaseInvocation(DatabaseInvocation dbInvocation) throws IOException {
+		writeStringField(SQL, dbInvocation.getSQLStatement());
+		if (dbInvocation.isPrepared().isPresent()) {
+			generator.writeBooleanField(PREPARED, dbInvocation.isPrepared().get());
+		}
+		if (dbInvocation.getParameterBindings().isPresent()) {
+			writeIndexedMapField(PARAMETER_BINDINGS, dbInvocation.getParameterBindings().get());
+		}
+		writeOptionalStringField(DB_PRODUCT_NAME, dbInvocation.getDBProductName());
+		writeOptionalStringField(DB_PRODUCT_VERSION, dbInvocation.getDBProductVersion());
+		writeOptionalStringField(DB_URL, dbInvocation.getDBUrl());
+	}
+
+	/**
+	 * Writes the fields specific to remote invocations.
+	 * 
+	 * @param remoteInvocation
+	 *            remote invocation to write
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private void writeRemoteInvocation(RemoteInvocation remoteInvocation) throws IOException {
+		writeStringField(TARGET, remoteInvocation.getTarget());
+		if (remoteInvocation.getTargetSubTrace().isPresent()) {
+			generator.writeFieldName(TARGET_SUB_TRACE);
+			writeSubTrace(remoteInvocation.getTargetSubTrace().get());
+		}
+	}
+
+	/**
+	 * Writes the fields specific to exception throws.
+	 * 
+	 * @param exceptionThrow
+	 *            exception throw to write
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private void writeExceptionThrow(ExceptionThrow exceptionThrow) throws IOException {
+		writeStringField(ERROR_MESSAGE, exceptionThrow.getErrorMessage());
+		writeOptionalStringField(CAUSE, exceptionThrow.getCause());
+		writeOptionalStringField(STACK_TRACE, exceptionThrow.getStackTrace());
+		writeOptionalStringField(THROWABLE_TYPE, exceptionThrow.getThrowableType());
+	}
+
+	/**
+	 * Writes the fields specific to logging invocations.
+	 * 
+	 * @param loggingInvocation
+	 *            logging invocation to write
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private void writeLoggingInvocation(LoggingInvocation loggingInvocation) throws IOException {
+		writeOptionalStringField(LOGGING_LEVEL, loggingInvocation.getLoggingLevel());
+		writeStringField(MESSAGE, loggingInvocation.getMessage());
+	}
+
+	/**
+	 * Writes a String field if the value is not null.
+	 * 
+	 * @param name
+	 *            field name
+	 * @param value
+	 *            field value
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private void writeStringField(String name, String value) throws IOException {
+		if (value != null) {
+			generator.writeStringField(name, value);
+		}
+	}
+
+	/**
+	 * Writes a String field if the value is present.
+	 * 
+	 * @param name
+	 *            field name
+	 * @param value
+	 *            field value
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private void writeOptionalStringField(String name, Optional<String> value) throws IOException {
+		if (value.isPresent()) {
+			writeStringField(name, value.get());
+		}
+	}
+
+	/**
+	 * Writes an array of Strings.
+	 * 
+	 * @param name
+	 *            field name
+	 * @param values
+	 *            array values
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private void writeStringArrayField(String name, List<String> values) throws IOException {
+		generator.writeArrayFieldStart(name);
+		for (String value : values) {
+			generator.writeString(value);
+		}
+		generator.writeEndArray();
+	}
+
+	/**
+	 * Writes a map with parameter indices as keys.
+	 * 
+	 * @param name
+	 *            field name
+	 * @param map
+	 *            map to write
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private void writeIndexedMapField(String name, Map<Integer, String> map) throws IOException {
+		generator.writeObjectFieldStart(name);
+		for (Entry<Integer, String> entry : map.entrySet()) {
+			generator.writeStringField(String.valueOf(entry.getKey()), entry.getValue());
+		}
+		generator.writeEndObject();
+	}
+
+	/**
+	 * Writes a map of Strings if present.
+	 * 
+	 * @param name
+	 *            field name
+	 * @param map
+	 *            map to write
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private void writeOptionalMapField(String name, Optional<Map<String, String>> map) throws IOException {
+		if (map.isPresent()) {
+			generator.writeObjectFieldStart(name);
+			for (Entry<String, String> entry : map.get().entrySet()) {
+				generator.writeStringField(entry.getKey(), entry.getValue());
+			}
+			generator.writeEndObject();
+		}
+	}
+}
@@ -0,0 +1,260 @@
+package rocks.cta.dflt.impl.serialization.realizations;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Token reader on top of a {@link JsonParser} that allows to look ahead for the identifying field
+ * of an object. As JSON objects are unordered, the identifying field (e.g. the type of a callable)
+ * may follow other fields. {@link #seekField(String)} buffers the tokens of the preceding fields
+ * and replays them after the identifying field. If the identifying field is the first field of
+ * the object, nothing is buffered.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+final class JsonTokenReader {
+
+	/**
+	 * Underlying parser.
+	 */
+	private final JsonParser parser;
+
+	/**
+	 * Buffered tokens to replay before reading further tokens from the parser.
+	 */
+	private final Deque<BufferedToken> replay = new ArrayDeque<BufferedToken>();
+
+	/**
+	 * Current token, if it has been taken from the replay buffer. Null if the current token is the
+	 * current token of the parser.
+	 */
+	private BufferedToken current;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param parser
+	 *            underlying parser
+	 */
+	JsonTokenReader(JsonParser parser) {
+		this.parser = parser;
+	}
+
+	/**
+	 * Moves to the next token.
+	 * 
+	 * @return the next token, null if the end of the input has been reached
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	JsonToken nextToken() throws IOException {
+		current = replay.pollFirst();
+		if (current != null) {
+			return current.token;
+		}
+		return parser.nextToken();
+	}
+
+	/**
+	 * @return the current token
+	 */
+	JsonToken getCurrentToken() {
+		return current != null ? current.token : parser.getCurrentToken();
+	}
+
+	/**
+	 * @return the name of the current field, if the current token is a field name
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	String getCurrentName() throws IOException {
+		if (current != null) {
+			return current.token == JsonToken.FIELD_NAME ? current.text : null;
+		}
+		return parser.getCurrentName();
+	}
+
+	/**
+	 * @return textual representation of the current token
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	String getText() throws IOException {
+		return current != null ? current.text : parser.getText();
+	}
+
+	/**
+	 * @return the current token as long value
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	long getLongValue() throws IOException {
+		if (current != null) {
+			try {
+				return Long.parseLong(current.text);
+			} catch (NumberFormatException e) {
+				throw new IllegalStateException("Invalid JSON source: expected a long value but found '" + current.text + "'", e);
+			}
+		}
+		return parser.getLongValue();
+	}
+
+	/**
+	 * @return the current token as boolean value
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	boolean getBooleanValue() throws IOException {
+		if (current != null) {
+			if (current.token == JsonToken.VALUE_TRUE || current.token == JsonToken.VALUE_FALSE) {
+				return current.token == JsonToken.VALUE_TRUE;
+			}
+			throw new IllegalStateException("Invalid JSON source: expected a boolean value but found '" + current.text + "'");
+		}
+		return parser.getBooleanValue();
+	}
+
+	/**
+	 * Skips the children of the current token, if it starts an object or array.
+	 * 
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	void skipChildren() throws IOException {
+		JsonToken token = getCurrentToken();
+		if (token != JsonToken.START_OBJECT && token != JsonToken.START_ARRAY) {
+			return;
+		}
+		int depth = 1;
+		while (depth > 0) {
+			token = nextToken();
+			if (token == null) {
+				return;
+			}
+			if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+				depth++;
+			} else if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+				depth--;
+			}
+		}
+	}
+
+	/**
+	 * Searches the field with the passed name in the current object. The reader is expected to be
+	 * positioned at the start of the object. Afterwards, the reader is positioned at the scalar
+	 * value of the field and the fields preceding the searched field are replayed by the
+	 * subsequent calls of {@link #nextToken()}.
+	 * 
+	 * @param name
+	 *            name of the field to search
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	void seekField(String name) throws IOException {
+		List<BufferedToken> preceding = null;
+		JsonToken token = nextToken();
+		while (token == JsonToken.FIELD_NAME) {
+			String field = getCurrentName();
+			if (name.equals(field)) {
+				token = nextToken();
+				if (token == null || token.isStructStart()) {
+					throw new IllegalStateException("Invalid JSON source: expected a value for field '" + name + "' at " + getCurrentLocation());
+				}
+				if (preceding != null) {
+					for (int i = preceding.size() - 1; i >= 0; i--) {
+						replay.addFirst(preceding.get(i));
+					}
+				}
+				return;
+			}
+			if (preceding == null) {
+				preceding = new ArrayList<BufferedToken>();
+			}
+			preceding.add(new BufferedToken(token, field));
+			bufferValue(preceding);
+			token = nextToken();
+		}
+		throw new IllegalStateException("Invalid JSON source: expected field '" + name + "' at " + getCurrentLocation());
+	}
+
+	/**
+	 * @return location of the underlying parser
+	 */
+	JsonLocation getCurrentLocation() {
+		return parser.getCurrentLocation();
+	}
+
+	/**
+	 * Closes the underlying parser.
+	 * 
+	 * @throws IOException
+	 *             if closing fails
+	 */
+	void close() throws IOException {
+		parser.close();
+	}
+
+	/**
+	 * Moves to the next value and buffers all its tokens.
+	 * 
+	 * @param buffer
+	 *            buffer to add the tokens to
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private void bufferValue(List<BufferedToken> buffer) throws IOException {
+		int depth = 0;
+		do {
+			JsonToken token = nextToken();
+			if (token == null) {
+				throw new IllegalStateException("Invalid JSON source: unexpected end of input at " + getCurrentLocation());
+			}
+			buffer.add(new BufferedToken(token, token.isScalarValue() || token == JsonToken.FIELD_NAME ? getText() : null));
+			if (token.isStructStart()) {
+				depth++;
+			} else if (token.isStructEnd()) {
+				depth--;
+			}
+		} while (depth > 0);
+	}
+
+	/**
+	 * Token taken from the parser for later replay.
+	 * 
+	 * @author Alexander Wert
+	 * 
+	 */
+	private static final class BufferedToken {
+
+		/**
+		 * Token type.
+		 */
+		private final JsonToken token;
+
+		/**
+		 * Field name or textual value, null for structural tokens.
+		 */
+		private final String text;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param token
+		 *            token type
+		 * @param text
+		 *            field name or textual value
+		 */
+		private BufferedToken(JsonToken token, String text) {
+			this.token = token;
+			this.text = text;
+		}
+	}
+}
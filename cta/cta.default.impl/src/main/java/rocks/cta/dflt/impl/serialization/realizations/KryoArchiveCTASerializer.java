@@ -0,0 +1,107 @@
+package rocks.cta.dflt.impl.serialization.realizations;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import rocks.cta.api.core.Trace;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.serialization.CTASerializer;
+import rocks.cta.dflt.impl.serialization.realizations.archive.ArchiveFormat;
+import rocks.cta.dflt.impl.serialization.realizations.archive.ArchiveWriter;
+import rocks.cta.dflt.impl.serialization.realizations.archive.BlockCodec;
+import rocks.cta.dflt.impl.serialization.realizations.archive.BlockCodecs;
+
+/**
+ * Serializer to the block-compressed archive format (see {@link ArchiveFormat}) using Kryo. The
+ * traces are serialized as by the {@link KryoCTASerializer} and grouped into compressed blocks.
+ * Archives can be read by the {@link KryoCTADeserializer}.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class KryoArchiveCTASerializer extends KryoCTASerializationBase implements CTASerializer {
+
+	/**
+	 * Codec to compress the blocks with.
+	 */
+	private final BlockCodec codec;
+
+	/**
+	 * Size of the uncompressed blocks [bytes].
+	 */
+	private final int blockSize;
+
+	/**
+	 * Sink of serialization.
+	 */
+	private ArchiveWriter writer;
+
+	/**
+	 * Constructor. Uses Deflate compression and the default block size.
+	 */
+	public KryoArchiveCTASerializer() {
+		this(BlockCodecs.DEFLATE, ArchiveFormat.DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param codec
+	 *            codec to compress the blocks with, must be registered at {@link BlockCodecs} for
+	 *            reading
+	 * @param blockSize
+	 *            size of the uncompressed blocks [bytes]
+	 */
+	public KryoArchiveCTASerializer(BlockCodec codec, int blockSize) {
+		super();
+		if (blockSize <= 0) {
+			throw new IllegalArgumentException("Block size must be positive!");
+		}
+		this.codec = codec;
+		this.blockSize = blockSize;
+	}
+
+	@Override
+	public void prepare(OutputStream outStream) {
+		try {
+			writer = new ArchiveWriter(outStream, codec, blockSize);
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed writing archive header.", e);
+		}
+	}
+
+	@Override
+	public void writeTrace(Trace trace) {
+		if (!(trace instanceof TraceImpl)) {
+			throw new IllegalArgumentException("This serializer can only serialize instances of " + TraceImpl.class.getName());
+		}
+		try {
+			writer.writeTrace(getKryoInstance(), trace);
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed writing archive block.", e);
+		}
+	}
+
+	/**
+	 * Flushes the completed blocks. The current block is kept until it is full or the serializer
+	 * is closed.
+	 */
+	@Override
+	public void flush() {
+		try {
+			writer.flush();
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed flushing archive.", e);
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			writer.close();
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed closing archive.", e);
+		}
+	}
+
+}
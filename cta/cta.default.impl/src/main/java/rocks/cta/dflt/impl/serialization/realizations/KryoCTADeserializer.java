@@ -1,15 +1,21 @@
 package rocks.cta.dflt.impl.serialization.realizations;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 
 import rocks.cta.api.core.Trace;
 import rocks.cta.dflt.impl.core.TraceImpl;
 import rocks.cta.dflt.impl.serialization.CTADeserializer;
+import rocks.cta.dflt.impl.serialization.realizations.archive.ArchiveFormat;
+import rocks.cta.dflt.impl.serialization.realizations.archive.ArchiveReader;
 
 import com.esotericsoftware.kryo.io.Input;
 
 /**
- * Serializer from binary format using Kryo.
+ * Serializer from binary format using Kryo. Reads binary streams (see {@link TraceStreamFormat}),
+ * binary streams without header written by earlier versions as well as block-compressed archives
+ * written by the {@link KryoArchiveCTASerializer}; the format is detected automatically.
  * 
  * @author Alexander Wert
  *
@@ -21,6 +27,16 @@ public class KryoCTADeserializer extends KryoCTASerializationBase implements CTA
 	 */
 	private Input input;
 
+	/**
+	 * Reader of the archive blocks. Null if the source is a plain binary stream.
+	 */
+	private ArchiveReader archiveReader;
+
+	/**
+	 * Whether the source consists of length-prefixed trace records.
+	 */
+	private boolean records;
+
 	/**
 	 * Constructor.
 	 */
@@ -28,24 +44,92 @@ public class KryoCTADeserializer extends KryoCTASerializationBase implements CTA
 		super();
 	}
 
+	/**
+	 * Constructor.
+	 * 
+	 * @param lazy
+	 *            if true, the call trees of the sub traces are decoded when the root of the sub
+	 *            trace is accessed first
+	 */
+	public KryoCTADeserializer(boolean lazy) {
+		super(lazy);
+	}
+
 	@Override
 	public void setSource(InputStream inStream) {
-		input = new Input(inStream);
+		InputStream in = inStream.markSupported() ? inStream : new BufferedInputStream(inStream);
+		try {
+			records = false;
+			if (ArchiveFormat.isArchive(in)) {
+				archiveReader = new ArchiveReader(in);
+				input = new Input();
+			} else {
+				archiveReader = null;
+				records = TraceStreamFormat.hasHeader(in);
+				input = new Input(in);
+			}
+			if (records) {
+				TraceStreamFormat.readHeader(getKryoInstance(), input);
+			} else {
+				TraceStreamFormat.reset(getKryoInstance());
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed reading from input stream.", e);
+		}
 
 	}
 
 	@Override
 	public Trace readNext() {
-		if (input.eof()) {
+		if (input.eof() && !nextArchiveBlock()) {
 			return null;
 		}
 
+		if (records) {
+			return TraceStreamFormat.readRecord(getKryoInstance(), input);
+		}
 		return getKryoInstance().readObject(input, TraceImpl.class);
 	}
 
+	@Override
+	public boolean skip() {
+		if (!records) {
+			return readNext() != null;
+		}
+		return TraceStreamFormat.skipRecord(getKryoInstance(), input);
+	}
+
+	/**
+	 * Loads the next archive block into the input.
+	 * 
+	 * @return false, if the source is not an archive or the end of the archive has been reached
+	 */
+	private boolean nextArchiveBlock() {
+		if (archiveReader == null) {
+			return false;
+		}
+		try {
+			while (archiveReader.nextBlock(input)) {
+				if (!input.eof()) {
+					return true;
+				}
+			}
+			return false;
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed reading archive block.", e);
+		}
+	}
+
 	@Override
 	public void close() {
 		input.close();
+		if (archiveReader != null) {
+			try {
+				archiveReader.close();
+			} catch (IOException e) {
+				throw new IllegalStateException("Failed closing input stream.", e);
+			}
+		}
 
 	}
 
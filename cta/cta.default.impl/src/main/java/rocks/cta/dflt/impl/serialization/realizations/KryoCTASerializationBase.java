@@ -15,6 +15,14 @@ import rocks.cta.dflt.impl.core.callables.HTTPRequestProcessingImpl;
 import rocks.cta.dflt.impl.core.callables.LoggingInvocationImpl;
 import rocks.cta.dflt.impl.core.callables.MethodInvocationImpl;
 import rocks.cta.dflt.impl.core.callables.RemoteInvocationImpl;
+import rocks.cta.dflt.impl.serialization.realizations.serializers.DatabaseInvocationSerializer;
+import rocks.cta.dflt.impl.serialization.realizations.serializers.ExceptionThrowSerializer;
+import rocks.cta.dflt.impl.serialization.realizations.serializers.HTTPRequestProcessingSerializer;
+import rocks.cta.dflt.impl.serialization.realizations.serializers.LocationImplSerializer;
+import rocks.cta.dflt.impl.serialization.realizations.serializers.LoggingInvocationSerializer;
+import rocks.cta.dflt.impl.serialization.realizations.serializers.MethodInvocationSerializer;
+import rocks.cta.dflt.impl.serialization.realizations.serializers.RemoteInvocationSerializer;
+import rocks.cta.dflt.impl.serialization.realizations.serializers.TraceImplSerializer;
 
 /**
  * The {@link KryoCTASerializationBase} class is responsible for serializing and deserializing
@@ -25,6 +33,11 @@ import rocks.cta.dflt.impl.core.callables.RemoteInvocationImpl;
  */
 public class KryoCTASerializationBase {
 
+	/**
+	 * Kryo instances of the threads decoding lazily read call trees.
+	 */
+	private static final ThreadLocal<Kryo> LOADER_KRYO = ThreadLocal.withInitial(KryoCTASerializationBase::createKryo);
+
 	/**
 	 * kryo instance.
 	 */
@@ -34,21 +47,57 @@ public class KryoCTASerializationBase {
 	 * Constructor. Initializes kryo.
 	 */
 	public KryoCTASerializationBase() {
-		kryo = new Kryo();
+		this(false);
+	}
+
+	/**
+	 * Constructor. Initializes kryo.
+	 * 
+	 * @param lazy
+	 *            if true, traces are read lazily (see {@link TraceImplSerializer})
+	 */
+	public KryoCTASerializationBase(boolean lazy) {
+		kryo = createKryo(lazy);
+	}
 
-		kryo.register(TraceImpl.class);
+	/**
+	 * Creates a new kryo instance with all classes of the default implementation registered. The
+	 * registration order determines the class identifiers written to the stream, which are also
+	 * used as type tags of the callables. Hence, all kryo instances created by this method are
+	 * compatible with each other.
+	 * 
+	 * @return new kryo instance
+	 */
+	static Kryo createKryo() {
+		return createKryo(false);
+	}
+
+	/**
+	 * Creates a new kryo instance as {@link #createKryo()} does.
+	 * 
+	 * @param lazy
+	 *            if true, traces are read lazily (see {@link TraceImplSerializer})
+	 * @return new kryo instance
+	 */
+	static Kryo createKryo(boolean lazy) {
+		Kryo kryo = new Kryo();
+		// traces are written by dedicated serializers that do not rely on reference tracking
+		kryo.setReferences(false);
+
+		kryo.register(TraceImpl.class, new TraceImplSerializer(lazy ? LOADER_KRYO::get : null));
 		kryo.register(SubTraceImpl.class);
-		kryo.register(LocationImpl.class);
+		kryo.register(LocationImpl.class, new LocationImplSerializer());
 		kryo.register(AbstractCallableImpl.class);
 		kryo.register(AbstractTimedCallableImpl.class);
 		kryo.register(AbstractNestingCallableImpl.class);
-		kryo.register(RemoteInvocationImpl.class);
-		kryo.register(DatabaseInvocationImpl.class);
-		kryo.register(MethodInvocationImpl.class);
+		kryo.register(RemoteInvocationImpl.class, new RemoteInvocationSerializer());
+		kryo.register(DatabaseInvocationImpl.class, new DatabaseInvocationSerializer());
+		kryo.register(MethodInvocationImpl.class, new MethodInvocationSerializer());
 		kryo.register(Signature.class);
-		kryo.register(HTTPRequestProcessingImpl.class);
-		kryo.register(ExceptionThrowImpl.class);
-		kryo.register(LoggingInvocationImpl.class);
+		kryo.register(HTTPRequestProcessingImpl.class, new HTTPRequestProcessingSerializer());
+		kryo.register(ExceptionThrowImpl.class, new ExceptionThrowSerializer());
+		kryo.register(LoggingInvocationImpl.class, new LoggingInvocationSerializer());
+		return kryo;
 	}
 
 	/**
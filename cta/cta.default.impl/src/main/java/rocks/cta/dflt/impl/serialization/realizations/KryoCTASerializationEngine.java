@@ -0,0 +1,372 @@
+package rocks.cta.dflt.impl.serialization.realizations;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import rocks.cta.api.core.Trace;
+import rocks.cta.dflt.impl.core.TraceImpl;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Thread-safe serialization engine based on a bounded pool of pre-registered kryo instances. Each
+ * pooled kryo instance comes with its own reusable {@link Output} and {@link Input} buffer, hence,
+ * callers pay the kryo setup only once per pooled instance instead of once per stream.
+ * 
+ * If all pooled instances are in use, callers block until an instance is released, but at most for
+ * the borrow timeout. Afterwards an {@link IllegalStateException} is thrown. Note that a
+ * {@link PooledKryoCTADeserializer} holds its instance from setting the source until it is closed,
+ * hence, at most {@link #getPoolSize()} pooled deserializers can be open at the same time.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class KryoCTASerializationEngine {
+
+	/**
+	 * Default maximum number of pooled kryo instances.
+	 */
+	public static final int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
+	/**
+	 * Default initial size of the pooled buffers [bytes].
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Default maximum time [ms] to wait for an idle kryo instance.
+	 */
+	public static final long DEFAULT_BORROW_TIMEOUT = 30000L;
+
+	/**
+	 * Pooled output buffers grown beyond this size [bytes] are replaced on release in order to not
+	 * retain the memory of exceptionally large traces.
+	 */
+	private static final int MAX_RETAINED_BUFFER_SIZE = 16 * 1024 * 1024;
+
+	/**
+	 * Idle pooled instances.
+	 */
+	private final BlockingQueue<KryoContext> idleContexts;
+
+	/**
+	 * Maximum number of pooled instances.
+	 */
+	private final int poolSize;
+
+	/**
+	 * Initial size of the pooled buffers.
+	 */
+	private final int bufferSize;
+
+	/**
+	 * Maximum time [ms] to wait for an idle instance.
+	 */
+	private final long borrowTimeout;
+
+	/**
+	 * Number of instances created so far.
+	 */
+	private final AtomicInteger createdContexts = new AtomicInteger(0);
+
+	/**
+	 * Constructor using the default pool and buffer sizes.
+	 */
+	public KryoCTASerializationEngine() {
+		this(DEFAULT_POOL_SIZE, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Constructor using the default borrow timeout.
+	 * 
+	 * @param poolSize
+	 *            maximum number of pooled kryo instances
+	 * @param bufferSize
+	 *            initial size of the pooled buffers in bytes
+	 */
+	public KryoCTASerializationEngine(int poolSize, int bufferSize) {
+		this(poolSize, bufferSize, DEFAULT_BORROW_TIMEOUT);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param poolSize
+	 *            maximum number of pooled kryo instances
+	 * @param bufferSize
+	 *            initial size of the pooled buffers in bytes
+	 * @param borrowTimeout
+	 *            maximum time in milliseconds to wait for an idle kryo instance
+	 */
+	public KryoCTASerializationEngine(int poolSize, int bufferSize, long borrowTimeout) {
+		if (poolSize <= 0) {
+			throw new IllegalArgumentException("Pool size must be positive!");
+		}
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("Buffer size must be positive!");
+		}
+		if (borrowTimeout < 0) {
+			throw new IllegalArgumentException("Borrow timeout must not be negative!");
+		}
+		this.poolSize = poolSize;
+		this.bufferSize = bufferSize;
+		this.borrowTimeout = borrowTimeout;
+		idleContexts = new ArrayBlockingQueue<KryoContext>(poolSize);
+	}
+
+	/**
+	 * Serializes the passed trace into a byte array.
+	 * 
+	 * @param trace
+	 *            {@link Trace} instance to serialize
+	 * @return serialized trace
+	 */
+	public byte[] serialize(Trace trace) {
+		checkTrace(trace);
+		KryoContext context = borrow();
+		try {
+			context.kryo.writeObject(context.output, trace);
+			return context.output.toBytes();
+		} finally {
+			release(context);
+		}
+	}
+
+	/**
+	 * Writes the stream header (see {@link TraceStreamFormat}) into the passed stream. The header
+	 * has to be written once before the first trace.
+	 * 
+	 * @param outStream
+	 *            stream to write to
+	 * @throws IOException
+	 *             if writing to the stream fails
+	 */
+	public void writeHeader(OutputStream outStream) throws IOException {
+		synchronized (outStream) {
+			outStream.write(TraceStreamFormat.getHeader(false));
+		}
+	}
+
+	/**
+	 * Serializes the passed trace as length-prefixed record into the passed stream. The record is
+	 * serialized into a pooled buffer first and afterwards written as one chunk while holding the
+	 * monitor of the stream. Hence, multiple threads may write to the same stream concurrently.
+	 * 
+	 * @param trace
+	 *            {@link Trace} instance to serialize
+	 * @param outStream
+	 *            stream to write to
+	 * @throws IOException
+	 *             if writing to the stream fails
+	 */
+	public void writeTrace(Trace trace, OutputStream outStream) throws IOException {
+		checkTrace(trace);
+		KryoContext context = borrow();
+		try {
+			TraceStreamFormat.beginRecord(context.output);
+			context.kryo.writeObject(context.output, trace);
+			int start = TraceStreamFormat.endRecord(context.output);
+			synchronized (outStream) {
+				outStream.write(context.output.getBuffer(), start, context.output.position() - start);
+			}
+		} finally {
+			release(context);
+		}
+	}
+
+	/**
+	 * Deserializes a single trace from the passed bytes.
+	 * 
+	 * @param bytes
+	 *            serialized trace
+	 * @return deserialized {@link Trace}
+	 */
+	public Trace deserialize(byte[] bytes) {
+		return deserialize(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * Deserializes a single trace from the given range of the passed bytes.
+	 * 
+	 * @param bytes
+	 *            buffer containing the serialized trace
+	 * @param offset
+	 *            start of the serialized trace in the buffer
+	 * @param length
+	 *            number of bytes of the serialized trace
+	 * @return deserialized {@link Trace}
+	 */
+	public Trace deserialize(byte[] bytes, int offset, int length) {
+		KryoContext context = borrow();
+		try {
+			context.input.setBuffer(bytes, offset, length);
+			return context.kryo.readObject(context.input, TraceImpl.class);
+		} finally {
+			release(context);
+		}
+	}
+
+	/**
+	 * Borrows a kryo context from the pool. Blocks if the maximum number of instances is in use,
+	 * but at most for the borrow timeout. <b>Note:</b> each borrowed context has to be returned by calling
+	 * {@link #release(KryoContext)}.
+	 * 
+	 * @return kryo context for exclusive use by the caller
+	 * @throws IllegalStateException
+	 *             if no instance became idle within the borrow timeout
+	 */
+	KryoContext borrow() throws IllegalStateException {
+		KryoContext context = idleContexts.poll();
+		if (context != null) {
+			return context;
+		}
+
+		while (true) {
+			int created = createdContexts.get();
+			if (created >= poolSize) {
+				break;
+			}
+			if (createdContexts.compareAndSet(created, created + 1)) {
+				return new KryoContext(KryoCTASerializationBase.createKryo(), bufferSize);
+			}
+		}
+
+		try {
+			context = idleContexts.poll(borrowTimeout, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a kryo instance.", e);
+		}
+		if (context == null) {
+			throw new IllegalStateException("Kryo pool exhausted: all " + poolSize + " instances are in use for more than " + borrowTimeout
+					+ " ms. Close unused pooled deserializers or increase the pool size.");
+		}
+		return context;
+	}
+
+	/**
+	 * Returns a borrowed kryo context to the pool.
+	 * 
+	 * @param context
+	 *            context to return
+	 */
+	void release(KryoContext context) {
+		context.reset(bufferSize);
+		idleContexts.offer(context);
+	}
+
+	/**
+	 * @return maximum number of pooled kryo instances
+	 */
+	public int getPoolSize() {
+		return poolSize;
+	}
+
+	/**
+	 * @return maximum time in milliseconds to wait for an idle kryo instance
+	 */
+	public long getBorrowTimeout() {
+		return borrowTimeout;
+	}
+
+	/**
+	 * Checks whether the passed trace can be serialized by this engine.
+	 * 
+	 * @param trace
+	 *            trace to check
+	 */
+	private void checkTrace(Trace trace) {
+		if (!(trace instanceof TraceImpl)) {
+			throw new IllegalArgumentException("This serializer can only serialize instances of " + TraceImpl.class.getName());
+		}
+	}
+
+	/**
+	 * Pooled kryo instance together with its reusable buffers.
+	 * 
+	 * @author Alexander Wert
+	 * 
+	 */
+	static final class KryoContext {
+
+		/**
+		 * Pre-registered kryo instance.
+		 */
+		private final Kryo kryo;
+
+		/**
+		 * Reusable output buffer.
+		 */
+		private Output output;
+
+		/**
+		 * Reusable input.
+		 */
+		private final Input input;
+
+		/**
+		 * Buffer owned by the reusable input.
+		 */
+		private final byte[] inputBuffer;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param kryo
+		 *            pre-registered kryo instance
+		 * @param bufferSize
+		 *            initial buffer size
+		 */
+		private KryoContext(Kryo kryo, int bufferSize) {
+			this.kryo = kryo;
+			this.output = new Output(bufferSize, -1);
+			this.inputBuffer = new byte[bufferSize];
+			this.input = new Input(inputBuffer);
+		}
+
+		/**
+		 * @return the pooled kryo instance
+		 */
+		Kryo getKryo() {
+			return kryo;
+		}
+
+		/**
+		 * @return the reusable output buffer
+		 */
+		Output getOutput() {
+			return output;
+		}
+
+		/**
+		 * @return the reusable input
+		 */
+		Input getInput() {
+			return input;
+		}
+
+		/**
+		 * Resets the buffers for the next use.
+		 * 
+		 * @param bufferSize
+		 *            initial buffer size used if the output buffer has to be replaced
+		 */
+		private void reset(int bufferSize) {
+			output.setOutputStream(null);
+			if (output.getBuffer().length > MAX_RETAINED_BUFFER_SIZE) {
+				output = new Output(bufferSize, -1);
+			} else {
+				output.clear();
+			}
+			input.setInputStream(null);
+			input.setBuffer(inputBuffer);
+			TraceStreamFormat.reset(kryo);
+		}
+	}
+}
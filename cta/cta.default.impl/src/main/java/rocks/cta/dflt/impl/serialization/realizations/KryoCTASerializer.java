@@ -5,11 +5,16 @@ import java.io.OutputStream;
 import rocks.cta.api.core.Trace;
 import rocks.cta.dflt.impl.core.TraceImpl;
 import rocks.cta.dflt.impl.serialization.CTASerializer;
+import rocks.cta.dflt.impl.serialization.realizations.serializers.SharedStringDictionary;
 
 import com.esotericsoftware.kryo.io.Output;
 
 /**
- * Serializer to binary format using Kryo.
+ * Serializer to binary format using Kryo. Writes a stream header followed by length-prefixed trace
+ * records (see {@link TraceStreamFormat}). Optionally, the Strings of low cardinality of all traces,
+ * such as signatures and SQL statements, are written into a {@link SharedStringDictionary}, hence,
+ * each of them is written only once per stream. The Strings added by a trace are written as
+ * dictionary record in front of the trace record.
  * 
  * @author Alexander Wert
  *
@@ -21,17 +26,45 @@ public class KryoCTASerializer extends KryoCTASerializationBase implements CTASe
 	 */
 	private Output output;
 
+	/**
+	 * Buffer of the trace record being written.
+	 */
+	private final Output record = new Output(KryoCTASerializationEngine.DEFAULT_BUFFER_SIZE, -1);
+
+	/**
+	 * Buffer of the dictionary record being written, null if no shared dictionary is used.
+	 */
+	private final Output dictionaryRecord;
+
+	/**
+	 * Dictionary shared by all traces of the stream, null if no shared dictionary is used.
+	 */
+	private SharedStringDictionary dictionary;
+
 	/**
 	 * Constructor.
 	 */
 	public KryoCTASerializer() {
+		this(false);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param sharedDictionary
+	 *            whether the Strings of all traces are written into a shared dictionary
+	 */
+	public KryoCTASerializer(boolean sharedDictionary) {
 		super();
+		dictionaryRecord = sharedDictionary ? new Output(KryoCTASerializationEngine.DEFAULT_BUFFER_SIZE, -1) : null;
 	}
 
 	@Override
 	public void prepare(OutputStream outStream) {
 		output = new Output(outStream);
-
+		output.writeBytes(TraceStreamFormat.getHeader(dictionaryRecord != null));
+		dictionary = dictionaryRecord != null ? new SharedStringDictionary() : null;
+		TraceStreamFormat.getTraceSerializer(getKryoInstance()).setDictionary(dictionary);
 	}
 
 	@Override
@@ -39,7 +72,26 @@ public class KryoCTASerializer extends KryoCTASerializationBase implements CTASe
 		if (!(trace instanceof TraceImpl)) {
 			throw new IllegalArgumentException("THis serializer can only serialize instances of " + TraceImpl.class.getName());
 		}
-		getKryoInstance().writeObject(output, trace);
+		if (dictionary == null) {
+			TraceStreamFormat.beginRecord(record);
+		} else {
+			TraceStreamFormat.beginRecord(record, TraceStreamFormat.RECORD_TRACE);
+		}
+		getKryoInstance().writeObject(record, trace);
+		int start = TraceStreamFormat.endRecord(record);
+
+		if (dictionary != null && dictionary.hasDelta()) {
+			TraceStreamFormat.beginRecord(dictionaryRecord, TraceStreamFormat.RECORD_DICTIONARY);
+			dictionary.writeDelta(dictionaryRecord);
+			int dictionaryStart = TraceStreamFormat.endRecord(dictionaryRecord);
+			output.writeBytes(dictionaryRecord.getBuffer(), dictionaryStart, dictionaryRecord.position() - dictionaryStart);
+		}
+		output.writeBytes(record.getBuffer(), start, record.position() - start);
+	}
+
+	@Override
+	public void flush() {
+		output.flush();
 	}
 
 	@Override
@@ -0,0 +1,91 @@
+package rocks.cta.dflt.impl.serialization.realizations;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Optional;
+
+import rocks.cta.api.core.Trace;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.serialization.RandomAccessCTADeserializer;
+import rocks.cta.dflt.impl.serialization.realizations.archive.RandomAccessArchiveReader;
+
+import com.esotericsoftware.kryo.io.Input;
+
+/**
+ * Random access deserializer for archives written by the {@link KryoArchiveCTASerializer}. Only
+ * the block containing the requested trace is read and decoded.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class KryoRandomAccessCTADeserializer extends KryoCTASerializationBase implements RandomAccessCTADeserializer {
+
+	/**
+	 * Reader of the archive file.
+	 */
+	private RandomAccessArchiveReader reader;
+
+	/**
+	 * Input holding the current block.
+	 */
+	private Input input;
+
+	/**
+	 * Constructor.
+	 */
+	public KryoRandomAccessCTADeserializer() {
+		super();
+	}
+
+	@Override
+	public void setSource(File file) {
+		try {
+			reader = new RandomAccessArchiveReader(file);
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed opening archive " + file, e);
+		}
+		input = new Input();
+	}
+
+	@Override
+	public Optional<Trace> read(long traceId) {
+		if (!seek(traceId)) {
+			return Optional.empty();
+		}
+		return Optional.of(readNext());
+	}
+
+	@Override
+	public boolean seek(long traceId) {
+		try {
+			return reader.seek(traceId, input);
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed reading archive block.", e);
+		}
+	}
+
+	@Override
+	public Trace readNext() {
+		try {
+			while (input.eof()) {
+				if (!reader.nextBlock(input)) {
+					return null;
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed reading archive block.", e);
+		}
+
+		return getKryoInstance().readObject(input, TraceImpl.class);
+	}
+
+	@Override
+	public void close() {
+		try {
+			reader.close();
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed closing archive.", e);
+		}
+	}
+
+}
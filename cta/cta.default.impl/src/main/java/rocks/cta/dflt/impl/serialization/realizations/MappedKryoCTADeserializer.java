@@ -0,0 +1,377 @@
+package rocks.cta.dflt.impl.serialization.realizations;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import rocks.cta.api.core.Trace;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.serialization.CTADeserializer;
+import rocks.cta.dflt.impl.serialization.realizations.archive.FileSegmentMapper;
+import rocks.cta.dflt.impl.serialization.realizations.archive.MappedArchiveReader;
+
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.ByteBufferInput;
+
+/**
+ * Deserializer from binary files using Kryo on memory-mapped file segments. In contrast to the
+ * {@link KryoCTADeserializer}, traces are decoded straight from the mapped segments without copying
+ * the data through a stream buffer. Each segment holds many traces. Reads binary files with and
+ * without header (see {@link TraceStreamFormat}) as well as block-compressed archives. For files
+ * with header, the length of the header and of each record is known before decoding them, hence,
+ * a new segment starting at the record is mapped before reading a record crossing the end of the
+ * segment. Files without header lack record lengths and are mapped in segments of the maximum
+ * size, so that only traces crossing the end of such a segment are read again from a new segment.
+ * Decoding errors are not retried and indicate corrupted data.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class MappedKryoCTADeserializer extends KryoCTASerializationBase implements CTADeserializer {
+
+	/**
+	 * Minimum size of the mapped segments [bytes].
+	 */
+	private final int segmentSize;
+
+	/**
+	 * Mapper of the source file.
+	 */
+	private FileSegmentMapper mapper;
+
+	/**
+	 * Reader of the archive blocks. Null if the source is a plain binary file.
+	 */
+	private MappedArchiveReader archiveReader;
+
+	/**
+	 * Input reading from the current segment or block.
+	 */
+	private ReadOnlyByteBufferInput input;
+
+	/**
+	 * File offset of the buffer of the input. Only used for plain binary files.
+	 */
+	private long bufferOffset;
+
+	/**
+	 * Whether the source consists of length-prefixed trace records.
+	 */
+	private boolean records;
+
+	/**
+	 * Constructor. Uses the default segment size.
+	 */
+	public MappedKryoCTADeserializer() {
+		this(FileSegmentMapper.DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param segmentSize
+	 *            minimum size of the mapped segments [bytes]
+	 */
+	public MappedKryoCTADeserializer(int segmentSize) {
+		super();
+		if (segmentSize <= 0) {
+			throw new IllegalArgumentException("Segment size must be positive!");
+		}
+		this.segmentSize = segmentSize;
+	}
+
+	/**
+	 * Sets the source to read from. The whole file is read, independent of the position of the
+	 * stream.
+	 * 
+	 * @param inStream
+	 *            input stream to read from, must be a {@link FileInputStream}
+	 */
+	@Override
+	public void setSource(InputStream inStream) {
+		if (!(inStream instanceof FileInputStream)) {
+			throw new IllegalArgumentException("This deserializer can only read from instances of "
+					+ FileInputStream.class.getName());
+		}
+		setSource(((FileInputStream) inStream).getChannel());
+	}
+
+	/**
+	 * Sets the file to read from.
+	 * 
+	 * <b>Note:</b> after deserializing the <b>close()</b> method needs to be called!
+	 * 
+	 * @param file
+	 *            file to read from
+	 */
+	public void setSource(File file) {
+		try {
+			setSource(FileChannel.open(file.toPath(), StandardOpenOption.READ));
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed opening file " + file, e);
+		}
+	}
+
+	/**
+	 * Sets the file to read from.
+	 * 
+	 * @param channel
+	 *            file to read from
+	 */
+	private void setSource(FileChannel channel) {
+		try {
+			mapper = new FileSegmentMapper(channel, segmentSize);
+			input = new ReadOnlyByteBufferInput();
+			records = false;
+			if (MappedArchiveReader.isArchive(mapper)) {
+				archiveReader = new MappedArchiveReader(mapper);
+				input.setBuffer(ByteBuffer.allocate(0));
+			} else {
+				archiveReader = null;
+				records = TraceStreamFormat.hasHeader(mapper.map(0, TraceStreamFormat.MAGIC.length));
+				if (!records) {
+					map(0, Integer.MAX_VALUE);
+				}
+			}
+			if (records) {
+				readHeader();
+			} else {
+				TraceStreamFormat.reset(getKryoInstance());
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed mapping file.", e);
+		}
+	}
+
+	@Override
+	public Trace readNext() {
+		try {
+			if (archiveReader != null) {
+				return readNextFromArchive();
+			}
+			return records ? readNextRecord() : readNextFromSegment();
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed mapping file.", e);
+		}
+	}
+
+	@Override
+	public boolean skip() {
+		if (!records) {
+			return readNext() != null;
+		}
+		try {
+			for (int end = nextRecord(); end >= 0; end = nextRecord()) {
+				try {
+					if (TraceStreamFormat.isTraceRecord(getKryoInstance(), input)) {
+						return true;
+					}
+				} finally {
+					input.setPosition(end);
+				}
+			}
+			return false;
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed mapping file.", e);
+		}
+	}
+
+	/**
+	 * Reads the header of a binary file. The length of the header body is read first, so that the
+	 * whole header is mapped before decoding it.
+	 * 
+	 * @throws IOException
+	 *             if mapping fails
+	 */
+	private void readHeader() throws IOException {
+		map(0, TraceStreamFormat.HEADER_PREFIX_SIZE + TraceStreamFormat.RECORD_PREFIX_SIZE);
+		input.setPosition(TraceStreamFormat.HEADER_PREFIX_SIZE);
+		int bodyLength = input.readVarInt(true);
+		long headerLength = (long) input.position() + bodyLength;
+		if (headerLength > mapper.getFileSize()) {
+			throw new IllegalStateException("Truncated stream header.");
+		}
+		map(0, (int) headerLength);
+		TraceStreamFormat.readHeader(getKryoInstance(), input);
+	}
+
+	/**
+	 * Positions the input at the content of the next record of a binary file with header. A new
+	 * segment starting at the record is mapped if the record crosses the end of the segment.
+	 * 
+	 * @return position of the end of the record in the buffer of the input, -1 if the end of the
+	 *         file has been reached
+	 * @throws IOException
+	 *             if mapping fails
+	 */
+	private int nextRecord() throws IOException {
+		int start = input.position();
+		long recordOffset = bufferOffset + start;
+		long remaining = mapper.getFileSize() - recordOffset;
+		if (remaining <= 0) {
+			return -1;
+		}
+		if (input.limit() - start < Math.min(TraceStreamFormat.RECORD_PREFIX_SIZE, remaining)) {
+			map(recordOffset, TraceStreamFormat.RECORD_PREFIX_SIZE);
+			start = 0;
+		}
+		int length = input.readVarInt(true);
+		int prefixLength = input.position() - start;
+		if (prefixLength + (long) length > remaining) {
+			throw new IllegalStateException("Truncated record at file offset " + recordOffset + ".");
+		}
+		if (input.limit() - input.position() < length) {
+			map(recordOffset, prefixLength + length);
+			input.setPosition(prefixLength);
+		}
+		return input.position() + length;
+	}
+
+	/**
+	 * Reads the next trace record of a binary file with header. Dictionary records are applied to
+	 * the shared dictionary.
+	 * 
+	 * @return next trace, null if the end of the file has been reached
+	 * @throws IOException
+	 *             if mapping fails
+	 */
+	private Trace readNextRecord() throws IOException {
+		for (int end = nextRecord(); end >= 0; end = nextRecord()) {
+			try {
+				if (TraceStreamFormat.isTraceRecord(getKryoInstance(), input)) {
+					return getKryoInstance().readObject(input, TraceImpl.class);
+				}
+			} finally {
+				input.setPosition(end);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Reads the next trace of a plain binary file. As the length of the trace is unknown, a trace
+	 * crossing the end of the segment is read again once from a new segment of the maximum size
+	 * starting at the trace.
+	 * 
+	 * @return next trace, null if the end of the file has been reached
+	 * @throws IOException
+	 *             if mapping fails
+	 */
+	private Trace readNextFromSegment() throws IOException {
+		int start = input.position();
+		long traceOffset = bufferOffset + start;
+		if (traceOffset >= mapper.getFileSize()) {
+			return null;
+		}
+		try {
+			return getKryoInstance().readObject(input, TraceImpl.class);
+		} catch (KryoException | ReadOnlyBufferException e) {
+			// reading beyond the end of a read-only segment fails with either exception
+			if (start == 0 || bufferOffset + input.limit() >= mapper.getFileSize()) {
+				throw e;
+			}
+		}
+		// the trace crosses the end of the segment
+		map(traceOffset, Integer.MAX_VALUE);
+		return getKryoInstance().readObject(input, TraceImpl.class);
+	}
+
+	/**
+	 * Reads the next trace of an archive.
+	 * 
+	 * @return next trace, null if the end of the archive has been reached
+	 * @throws IOException
+	 *             if mapping fails
+	 */
+	private Trace readNextFromArchive() throws IOException {
+		while (input.position() == input.limit()) {
+			if (!archiveReader.nextBlock(input)) {
+				return null;
+			}
+		}
+		return getKryoInstance().readObject(input, TraceImpl.class);
+	}
+
+	/**
+	 * Sets the segment starting at the passed offset as buffer of the input.
+	 * 
+	 * @param offset
+	 *            file offset of the segment
+	 * @param minLength
+	 *            minimum length of the segment
+	 * @throws IOException
+	 *             if mapping fails
+	 */
+	private void map(long offset, int minLength) throws IOException {
+		input.setBuffer(mapper.map(offset, minLength));
+		bufferOffset = offset;
+	}
+
+	@Override
+	public void close() {
+		try {
+			// the input must not refer to the unmapped segment
+			input.setBuffer(ByteBuffer.allocate(0));
+			mapper.close();
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed closing file.", e);
+		}
+	}
+
+	/**
+	 * Input reading from read-only buffers. The ASCII String decoding of the {@link ByteBufferInput}
+	 * temporarily modifies the buffer, which is not possible for read-only mappings.
+	 * 
+	 * @author Alexander Wert
+	 * 
+	 */
+	private static final class ReadOnlyByteBufferInput extends ByteBufferInput {
+
+		/**
+		 * Mask of the bit marking the last character of an ASCII String.
+		 */
+		private static final int ASCII_END_MARK = 0x80;
+
+		@Override
+		public void setPosition(int position) {
+			super.setPosition(position);
+			niobuffer.position(position);
+		}
+
+		@Override
+		public String readString() {
+			if (position < limit && (niobuffer.get(position) & ASCII_END_MARK) == 0) {
+				return readAsciiString();
+			}
+			return super.readString();
+		}
+
+		/**
+		 * Reads an ASCII String without modifying the buffer.
+		 * 
+		 * @return the String
+		 */
+		private String readAsciiString() {
+			int end = position;
+			while ((niobuffer.get(end) & ASCII_END_MARK) == 0) {
+				end++;
+				if (end == limit) {
+					throw new KryoException("Buffer underflow.");
+				}
+			}
+			char[] chars = new char[end - position + 1];
+			for (int i = 0; i < chars.length; i++) {
+				chars[i] = (char) (niobuffer.get(position + i) & (ASCII_END_MARK - 1));
+			}
+			position = end + 1;
+			niobuffer.position(position);
+			return new String(chars);
+		}
+	}
+
+}
@@ -0,0 +1,86 @@
+package rocks.cta.dflt.impl.serialization.realizations;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import rocks.cta.api.core.Trace;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.serialization.ParallelCTADeserializer;
+import rocks.cta.dflt.impl.serialization.realizations.KryoCTASerializationEngine.KryoContext;
+import rocks.cta.dflt.impl.serialization.realizations.archive.ArchiveBlocks;
+
+import com.esotericsoftware.kryo.io.Input;
+
+/**
+ * Parallel deserializer for archives written by the {@link KryoArchiveCTASerializer}. The archive
+ * is split at block boundaries. Each trace is decoded with a kryo instance borrowed from a
+ * {@link KryoCTASerializationEngine}, hence, the decoding threads do not retain kryo instances
+ * after the stream is consumed. At most {@link KryoCTASerializationEngine#getPoolSize()} traces are
+ * decoded at the same time, further threads wait for the borrow timeout of the engine.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class ParallelKryoArchiveDeserializer implements ParallelCTADeserializer {
+
+	/**
+	 * Engine providing pooled kryo instances.
+	 */
+	private final KryoCTASerializationEngine engine;
+
+	/**
+	 * Blocks of the archive.
+	 */
+	private ArchiveBlocks blocks;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param engine
+	 *            engine providing pooled kryo instances
+	 */
+	public ParallelKryoArchiveDeserializer(KryoCTASerializationEngine engine) {
+		this.engine = engine;
+	}
+
+	@Override
+	public void setSource(File file) {
+		try {
+			blocks = new ArchiveBlocks(file);
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed opening archive " + file, e);
+		}
+	}
+
+	@Override
+	public Stream<Trace> stream(boolean ordered) {
+		return StreamSupport.stream(blocks.spliterator(this::readTrace, ordered), true);
+	}
+
+	@Override
+	public void close() {
+		try {
+			blocks.close();
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed closing archive.", e);
+		}
+	}
+
+	/**
+	 * Reads one trace with a pooled kryo instance.
+	 * 
+	 * @param input
+	 *            input holding a decoded block
+	 * @return the trace
+	 */
+	private Trace readTrace(Input input) {
+		KryoContext context = engine.borrow();
+		try {
+			return context.getKryo().readObject(input, TraceImpl.class);
+		} finally {
+			engine.release(context);
+		}
+	}
+}
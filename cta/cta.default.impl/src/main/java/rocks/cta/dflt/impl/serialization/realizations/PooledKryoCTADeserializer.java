@@ -0,0 +1,147 @@
+package rocks.cta.dflt.impl.serialization.realizations;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import rocks.cta.api.core.Trace;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.serialization.CTADeserializer;
+import rocks.cta.dflt.impl.serialization.realizations.KryoCTASerializationEngine.KryoContext;
+import rocks.cta.dflt.impl.serialization.realizations.archive.ArchiveFormat;
+import rocks.cta.dflt.impl.serialization.realizations.archive.ArchiveReader;
+
+/**
+ * Deserializer from binary format using a pooled {@link KryoCTASerializationEngine}. The kryo
+ * instance and its input buffer are borrowed from the engine when the source is set and returned
+ * on {@link #close()}. Hence, opening a stream does not pay the kryo setup. As the
+ * {@link KryoCTADeserializer}, this deserializer reads binary streams with and without header as
+ * well as block-compressed archives.
+ * 
+ * <b>Note:</b> like all deserializers, an instance of this class must be used by one thread at a
+ * time. As each open deserializer holds one pooled instance, at most
+ * {@link KryoCTASerializationEngine#getPoolSize()} pooled deserializers can be open at the same
+ * time. Setting the source of a further deserializer waits for the borrow timeout of the engine
+ * and then fails with an {@link IllegalStateException}. Use the non-pooled
+ * {@link KryoCTADeserializer} for long-lived streams.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class PooledKryoCTADeserializer implements CTADeserializer {
+
+	/**
+	 * Engine providing pooled kryo instances.
+	 */
+	private final KryoCTASerializationEngine engine;
+
+	/**
+	 * Borrowed kryo context. Null if no source is set.
+	 */
+	private KryoContext context;
+
+	/**
+	 * Reader of the archive blocks. Null if the source is a plain binary stream.
+	 */
+	private ArchiveReader archiveReader;
+
+	/**
+	 * Whether the source consists of length-prefixed trace records.
+	 */
+	private boolean records;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param engine
+	 *            engine providing pooled kryo instances
+	 */
+	public PooledKryoCTADeserializer(KryoCTASerializationEngine engine) {
+		this.engine = engine;
+	}
+
+	@Override
+	public void setSource(InputStream inStream) {
+		if (context == null) {
+			context = engine.borrow();
+		}
+		InputStream in = inStream.markSupported() ? inStream : new BufferedInputStream(inStream);
+		try {
+			records = false;
+			if (ArchiveFormat.isArchive(in)) {
+				archiveReader = new ArchiveReader(in);
+				context.getInput().setInputStream(null);
+			} else {
+				archiveReader = null;
+				records = TraceStreamFormat.hasHeader(in);
+				context.getInput().setInputStream(in);
+			}
+			if (records) {
+				TraceStreamFormat.readHeader(context.getKryo(), context.getInput());
+			} else {
+				TraceStreamFormat.reset(context.getKryo());
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed reading from input stream.", e);
+		}
+	}
+
+	@Override
+	public Trace readNext() {
+		if (context.getInput().eof() && !nextArchiveBlock()) {
+			return null;
+		}
+
+		if (records) {
+			return TraceStreamFormat.readRecord(context.getKryo(), context.getInput());
+		}
+		return context.getKryo().readObject(context.getInput(), TraceImpl.class);
+	}
+
+	@Override
+	public boolean skip() {
+		if (!records) {
+			return readNext() != null;
+		}
+		return TraceStreamFormat.skipRecord(context.getKryo(), context.getInput());
+	}
+
+	/**
+	 * Loads the next archive block into the input.
+	 * 
+	 * @return false, if the source is not an archive or the end of the archive has been reached
+	 */
+	private boolean nextArchiveBlock() {
+		if (archiveReader == null) {
+			return false;
+		}
+		try {
+			while (archiveReader.nextBlock(context.getInput())) {
+				if (!context.getInput().eof()) {
+					return true;
+				}
+			}
+			return false;
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed reading archive block.", e);
+		}
+	}
+
+	@Override
+	public void close() {
+		if (context != null) {
+			context.getInput().close();
+			engine.release(context);
+			context = null;
+		}
+		if (archiveReader != null) {
+			try {
+				archiveReader.close();
+			} catch (IOException e) {
+				throw new IllegalStateException("Failed closing input stream.", e);
+			}
+			archiveReader = null;
+		}
+	}
+
+}
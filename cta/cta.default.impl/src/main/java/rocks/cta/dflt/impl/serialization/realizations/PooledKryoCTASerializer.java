@@ -0,0 +1,81 @@
+package rocks.cta.dflt.impl.serialization.realizations;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import rocks.cta.api.core.Trace;
+import rocks.cta.dflt.impl.serialization.CTASerializer;
+
+/**
+ * Thread-safe serializer to binary format using a pooled {@link KryoCTASerializationEngine}. In
+ * contrast to the {@link KryoCTASerializer}, one instance of this serializer may be shared by
+ * multiple threads writing to the same output stream. The binary format is identical to the format
+ * written by the {@link KryoCTASerializer}.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class PooledKryoCTASerializer implements CTASerializer {
+
+	/**
+	 * Engine providing pooled kryo instances.
+	 */
+	private final KryoCTASerializationEngine engine;
+
+	/**
+	 * Sink of serialization.
+	 */
+	private volatile OutputStream outStream;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param engine
+	 *            engine providing pooled kryo instances
+	 */
+	public PooledKryoCTASerializer(KryoCTASerializationEngine engine) {
+		this.engine = engine;
+	}
+
+	@Override
+	public void prepare(OutputStream outStream) {
+		this.outStream = outStream;
+		try {
+			engine.writeHeader(outStream);
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed writing to output stream.", e);
+		}
+	}
+
+	@Override
+	public void writeTrace(Trace trace) {
+		try {
+			engine.writeTrace(trace, outStream);
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed writing trace to output stream.", e);
+		}
+	}
+
+	@Override
+	public void flush() {
+		try {
+			synchronized (outStream) {
+				outStream.flush();
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed flushing output stream.", e);
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			synchronized (outStream) {
+				outStream.close();
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed closing output stream.", e);
+		}
+	}
+
+}
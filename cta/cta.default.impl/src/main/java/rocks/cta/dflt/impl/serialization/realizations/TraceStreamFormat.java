@@ -0,0 +1,399 @@
+package rocks.cta.dflt.impl.serialization.realizations;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.serialization.realizations.serializers.SharedStringDictionary;
+import rocks.cta.dflt.impl.serialization.realizations.serializers.TraceImplSerializer;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Registration;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Layout of the binary trace stream. A stream starts with a header followed by a sequence of trace
+ * records.
+ * 
+ * The header consists of the {@link #MAGIC} bytes, the format {@link #VERSION} of the writer, the
+ * oldest format version whose readers are able to read the stream, and the length of the header
+ * body followed by the body. The body holds the type table, which lists the kryo registration
+ * identifiers of the writer together with the names of the registered classes. Readers resolve the
+ * type tags of the stream by class name, hence, writers and readers do not need to agree on the
+ * registration order.
+ * 
+ * The type table is followed by flags. If {@link #FLAG_SHARED_DICTIONARY} is set, the Strings of
+ * low cardinality of all traces are written into a {@link SharedStringDictionary} and each record
+ * starts with a record type: trace records hold a trace, dictionary records hold the Strings added
+ * to the dictionary by the following trace. Otherwise, all records are trace records without
+ * record type. In both cases, each call tree has its own String table for the remaining Strings.
+ * 
+ * Each record consists of the length of the record in bytes followed by the record. Readers skip
+ * traces without decoding them and ignore data that newer writers append to the header body or to
+ * a record, as well as records of unknown type. Traces containing callables of a type unknown to
+ * the reader cannot be decoded: reading such a trace fails with an {@link IllegalStateException},
+ * but the reader continues with the next record, hence, the following traces remain readable.
+ * Streams without header, as written by earlier versions, are read as sequence of traces without
+ * length; a trace that cannot be decoded ends such a stream.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public final class TraceStreamFormat {
+
+	/**
+	 * Magic bytes identifying a trace stream.
+	 */
+	static final byte[] MAGIC = { (byte) 0x89, 'C', 'T', 'S' };
+
+	/**
+	 * Size of the part of the header preceding the length of the header body [bytes].
+	 */
+	static final int HEADER_PREFIX_SIZE = MAGIC.length + 2;
+
+	/**
+	 * Current format version.
+	 */
+	public static final byte VERSION = 3;
+
+	/**
+	 * Oldest format version whose readers are able to read streams without shared dictionary
+	 * written in the current version.
+	 */
+	static final byte COMPATIBLE_VERSION = 3;
+
+	/**
+	 * Oldest format version whose readers are able to read streams with shared dictionary.
+	 */
+	static final byte DICTIONARY_COMPATIBLE_VERSION = 3;
+
+	/**
+	 * Header flag indicating that the Strings of low cardinality of all traces are written into a
+	 * shared dictionary.
+	 */
+	static final int FLAG_SHARED_DICTIONARY = 1;
+
+	/**
+	 * Type of records holding a trace.
+	 */
+	static final byte RECORD_TRACE = 0;
+
+	/**
+	 * Type of records holding a dictionary delta.
+	 */
+	static final byte RECORD_DICTIONARY = 1;
+
+	/**
+	 * Space reserved at the start of record buffers for the length of the record [bytes].
+	 */
+	static final int RECORD_PREFIX_SIZE = 5;
+
+	/**
+	 * Serialized header of streams without shared dictionary, created on first use.
+	 */
+	private static volatile byte[] header;
+
+	/**
+	 * Serialized header of streams with shared dictionary, created on first use.
+	 */
+	private static volatile byte[] dictionaryHeader;
+
+	/**
+	 * Private constructor for utility class.
+	 */
+	private TraceStreamFormat() {
+	}
+
+	/**
+	 * Checks whether the passed stream starts with the stream magic bytes. The position of the
+	 * stream is not changed.
+	 * 
+	 * @param inStream
+	 *            stream to check, must support mark and reset
+	 * @return true, if the stream starts with a header
+	 * @throws IOException
+	 *             if reading from the stream fails
+	 */
+	public static boolean hasHeader(InputStream inStream) throws IOException {
+		if (!inStream.markSupported()) {
+			throw new IllegalArgumentException("Input stream must support mark and reset.");
+		}
+		inStream.mark(MAGIC.length);
+		try {
+			for (byte magicByte : MAGIC) {
+				if (inStream.read() != (magicByte & 0xFF)) {
+					return false;
+				}
+			}
+			return true;
+		} finally {
+			inStream.reset();
+		}
+	}
+
+	/**
+	 * Checks whether the passed buffer starts with the stream magic bytes. The position of the
+	 * buffer is not changed.
+	 * 
+	 * @param buffer
+	 *            buffer to check
+	 * @return true, if the buffer starts with a header
+	 */
+	static boolean hasHeader(ByteBuffer buffer) {
+		if (buffer.remaining() < MAGIC.length) {
+			return false;
+		}
+		for (int i = 0; i < MAGIC.length; i++) {
+			if (buffer.get(buffer.position() + i) != MAGIC[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the serialized header. All kryo instances created by
+	 * {@link KryoCTASerializationBase#createKryo()} share the same header.
+	 * 
+	 * @param sharedDictionary
+	 *            whether the Strings of all traces are written into a shared dictionary
+	 * @return the header, must not be modified
+	 */
+	static byte[] getHeader(boolean sharedDictionary) {
+		byte[] result = sharedDictionary ? dictionaryHeader : header;
+		if (result == null) {
+			Kryo kryo = KryoCTASerializationBase.createKryo();
+			Output body = new Output(256, -1);
+			int numTypes = kryo.getNextRegistrationId();
+			body.writeVarInt(numTypes, true);
+			for (int id = 0; id < numTypes; id++) {
+				Registration registration = kryo.getRegistration(id);
+				body.writeString(registration == null ? null : registration.getType().getName());
+			}
+			body.writeVarInt(sharedDictionary ? FLAG_SHARED_DICTIONARY : 0, true);
+
+			Output output = new Output(body.position() + MAGIC.length + 2, -1);
+			output.writeBytes(MAGIC);
+			output.writeByte(VERSION);
+			output.writeByte(sharedDictionary ? DICTIONARY_COMPATIBLE_VERSION : COMPATIBLE_VERSION);
+			output.writeVarInt(body.position(), true);
+			output.writeBytes(body.getBuffer(), 0, body.position());
+			result = output.toBytes();
+			if (sharedDictionary) {
+				dictionaryHeader = result;
+			} else {
+				header = result;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Reads the header and configures the trace serializer of the passed kryo instance to resolve
+	 * the type tags and, if used, the shared dictionary of the stream.
+	 * 
+	 * @param kryo
+	 *            kryo instance reading the stream
+	 * @param input
+	 *            input positioned at the start of the header
+	 */
+	static void readHeader(Kryo kryo, Input input) {
+		for (byte magicByte : MAGIC) {
+			if (input.readByte() != magicByte) {
+				throw new IllegalStateException("Invalid stream header.");
+			}
+		}
+		byte version = input.readByte();
+		byte compatibleVersion = input.readByte();
+		if (compatibleVersion > VERSION) {
+			throw new IllegalStateException("Unsupported stream version " + version + ", requires a reader of version "
+					+ compatibleVersion + " or newer.");
+		}
+		// newer writers may append data to the body, which is ignored
+		Input body = new Input(input.readBytes(input.readVarInt(true)));
+
+		Map<String, Registration> localTypes = new HashMap<String, Registration>();
+		for (int id = 0; id < kryo.getNextRegistrationId(); id++) {
+			Registration registration = kryo.getRegistration(id);
+			if (registration != null) {
+				localTypes.put(registration.getType().getName(), registration);
+			}
+		}
+		Registration[] streamTypes = new Registration[body.readVarInt(true)];
+		for (int id = 0; id < streamTypes.length; id++) {
+			String typeName = body.readString();
+			streamTypes[id] = typeName == null ? null : localTypes.get(typeName);
+		}
+		// flags have been added in version 2
+		int flags = body.position() < body.limit() ? body.readVarInt(true) : 0;
+
+		TraceImplSerializer serializer = getTraceSerializer(kryo);
+		serializer.setStreamTypes(streamTypes);
+		serializer.setDictionary((flags & FLAG_SHARED_DICTIONARY) != 0 ? new SharedStringDictionary() : null);
+	}
+
+	/**
+	 * Resets the trace serializer of the passed kryo instance to read or write traces without
+	 * stream header.
+	 * 
+	 * @param kryo
+	 *            kryo instance
+	 */
+	static void reset(Kryo kryo) {
+		TraceImplSerializer serializer = getTraceSerializer(kryo);
+		serializer.setStreamTypes(null);
+		serializer.setDictionary(null);
+	}
+
+	/**
+	 * @param kryo
+	 *            kryo instance
+	 * @return the trace serializer of the passed kryo instance
+	 */
+	static TraceImplSerializer getTraceSerializer(Kryo kryo) {
+		return (TraceImplSerializer) kryo.getSerializer(TraceImpl.class);
+	}
+
+	/**
+	 * Prepares the passed buffer for writing a new record.
+	 * 
+	 * @param record
+	 *            record buffer
+	 */
+	static void beginRecord(Output record) {
+		record.clear();
+		record.setPosition(RECORD_PREFIX_SIZE);
+	}
+
+	/**
+	 * Prepares the passed buffer for writing a new record of a stream with shared dictionary.
+	 * 
+	 * @param record
+	 *            record buffer
+	 * @param recordType
+	 *            type of the record
+	 */
+	static void beginRecord(Output record, byte recordType) {
+		beginRecord(record);
+		record.writeByte(recordType);
+	}
+
+	/**
+	 * Writes the length of the record in front of the record.
+	 * 
+	 * @param record
+	 *            record buffer filled since {@link #beginRecord(Output)}
+	 * @return offset of the record including its length in the buffer
+	 */
+	static int endRecord(Output record) {
+		int end = record.position();
+		int length = end - RECORD_PREFIX_SIZE;
+		int start = RECORD_PREFIX_SIZE - lengthSize(length);
+		record.setPosition(start);
+		record.writeVarInt(length, true);
+		record.setPosition(end);
+		return start;
+	}
+
+	/**
+	 * Reads the next trace record. Dictionary records preceding the trace record are applied to the
+	 * shared dictionary, records of unknown type are skipped. The input is positioned at the end of
+	 * the trace record, even if the trace cannot be decoded.
+	 * 
+	 * @param kryo
+	 *            kryo instance
+	 * @param input
+	 *            input positioned at the start of a record
+	 * @return the trace, null if the end of the stream has been reached
+	 * @throws IllegalStateException
+	 *             if the trace cannot be decoded, e.g. because it contains a callable of unknown
+	 *             type
+	 */
+	static TraceImpl readRecord(Kryo kryo, Input input) throws IllegalStateException {
+		while (!input.eof()) {
+			int length = input.readVarInt(true);
+			long end = input.total() + length;
+			try {
+				if (isTraceRecord(kryo, input)) {
+					TraceImpl trace = kryo.readObject(input, TraceImpl.class);
+					if (input.total() > end) {
+						throw new IllegalStateException("Trace exceeds its record length of " + length + " bytes.");
+					}
+					return trace;
+				}
+			} finally {
+				long remaining = end - input.total();
+				if (remaining > 0) {
+					input.skip(remaining);
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Skips the next trace record. Dictionary records preceding the trace record are applied to the
+	 * shared dictionary.
+	 * 
+	 * @param kryo
+	 *            kryo instance
+	 * @param input
+	 *            input positioned at the start of a record
+	 * @return false, if the end of the stream has been reached
+	 */
+	static boolean skipRecord(Kryo kryo, Input input) {
+		while (!input.eof()) {
+			int length = input.readVarInt(true);
+			long end = input.total() + length;
+			try {
+				if (isTraceRecord(kryo, input)) {
+					return true;
+				}
+			} finally {
+				long remaining = end - input.total();
+				if (remaining > 0) {
+					input.skip(remaining);
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Reads the type of a record. Dictionary records are applied to the shared dictionary.
+	 * 
+	 * @param kryo
+	 *            kryo instance
+	 * @param input
+	 *            input positioned after the length of the record
+	 * @return true, if the record is a trace record and the input is positioned at the trace
+	 */
+	static boolean isTraceRecord(Kryo kryo, Input input) {
+		SharedStringDictionary dictionary = getTraceSerializer(kryo).getDictionary();
+		if (dictionary == null) {
+			return true;
+		}
+		byte recordType = input.readByte();
+		if (recordType == RECORD_DICTIONARY) {
+			dictionary.readDelta(input);
+		}
+		return recordType == RECORD_TRACE;
+	}
+
+	/**
+	 * @param length
+	 *            record length
+	 * @return number of bytes of the variable length encoding of the passed length
+	 */
+	private static int lengthSize(int length) {
+		int size = 1;
+		while ((length >>>= 7) != 0) {
+			size++;
+		}
+		return size;
+	}
+}
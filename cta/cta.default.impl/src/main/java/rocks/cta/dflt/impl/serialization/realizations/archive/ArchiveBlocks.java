@@ -0,0 +1,157 @@
+package rocks.cta.dflt.impl.serialization.realizations.archive;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Function;
+
+import com.esotericsoftware.kryo.io.Input;
+
+/**
+ * The data blocks of an archive file (see {@link ArchiveFormat}). The block headers are scanned on
+ * opening the archive; blocks are read with positional reads, hence, multiple threads may decode
+ * different blocks concurrently.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class ArchiveBlocks {
+
+	/**
+	 * Archive file.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * File offsets of the blocks.
+	 */
+	private final long[] offsets;
+
+	/**
+	 * Headers of the blocks.
+	 */
+	private final BlockHeader[] headers;
+
+	/**
+	 * Constructor. Scans the block headers.
+	 * 
+	 * @param file
+	 *            archive file
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	public ArchiveBlocks(File file) throws IOException {
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			ByteBuffer buffer = ByteBuffer.allocate(1 + BlockHeader.SIZE);
+			buffer.limit(ArchiveFormat.HEADER_SIZE);
+			RandomAccessArchiveReader.readFully(channel, 0, buffer);
+			buffer.flip();
+			for (byte magicByte : ArchiveFormat.MAGIC) {
+				if (buffer.get() != magicByte) {
+					throw new IllegalArgumentException("File does not contain a trace archive.");
+				}
+			}
+			byte version = buffer.get();
+			ArchiveFormat.checkVersion(version);
+
+			List<Long> blockOffsets = new ArrayList<Long>();
+			List<BlockHeader> blockHeaders = new ArrayList<BlockHeader>();
+			long offset = ArchiveFormat.HEADER_SIZE;
+			long fileSize = channel.size();
+			while (offset < fileSize) {
+				buffer.clear();
+				buffer.limit((int) Math.min(buffer.capacity(), fileSize - offset));
+				RandomAccessArchiveReader.readFully(channel, offset, buffer);
+				buffer.flip();
+				int blockType = buffer.get();
+				if (blockType == ArchiveFormat.BLOCK_TYPE_INDEX) {
+					break;
+				}
+				if (blockType != ArchiveFormat.BLOCK_TYPE_DATA || buffer.remaining() < BlockHeader.SIZE) {
+					throw new IllegalStateException("Invalid archive block at offset " + offset);
+				}
+				BlockHeader header = BlockHeader.read(buffer);
+				blockOffsets.add(offset);
+				blockHeaders.add(header);
+				offset += 1 + BlockHeader.SIZE + header.getEncodedLength();
+			}
+			offsets = new long[blockOffsets.size()];
+			for (int i = 0; i < offsets.length; i++) {
+				offsets[i] = blockOffsets.get(i);
+			}
+			headers = blockHeaders.toArray(new BlockHeader[blockHeaders.size()]);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return number of data blocks
+	 */
+	public int getBlockCount() {
+		return headers.length;
+	}
+
+	/**
+	 * @param block
+	 *            index of the block
+	 * @return header of the block
+	 */
+	public BlockHeader getHeader(int block) {
+		return headers[block];
+	}
+
+	/**
+	 * Creates a spliterator over the items of all blocks. The spliterator splits at block
+	 * boundaries.
+	 * 
+	 * @param itemReader
+	 *            reads one item from the input holding a decoded block, must be safe for concurrent
+	 *            use by multiple threads
+	 * @param ordered
+	 *            whether the spliterator reports the items in the order of the archive
+	 * @param <T>
+	 *            item type
+	 * @return new spliterator
+	 */
+	public <T> Spliterator<T> spliterator(Function<Input, T> itemReader, boolean ordered) {
+		return new ArchiveSpliterator<T>(this, 0, headers.length, itemReader, ordered);
+	}
+
+	/**
+	 * Reads and decodes a block.
+	 * 
+	 * @param block
+	 *            index of the block
+	 * @param decoder
+	 *            decoder to use
+	 * @param input
+	 *            input to read the items of the block from
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	void decode(int block, BlockDecoder decoder, Input input) throws IOException {
+		BlockHeader header = headers[block];
+		byte[] encoded = decoder.getEncodedBuffer(header);
+		RandomAccessArchiveReader.readFully(channel, offsets[block] + 1 + BlockHeader.SIZE,
+				ByteBuffer.wrap(encoded, 0, header.getEncodedLength()));
+		decoder.decode(header, input);
+	}
+
+	/**
+	 * Closes the archive file.
+	 * 
+	 * @throws IOException
+	 *             if closing fails
+	 */
+	public void close() throws IOException {
+		channel.close();
+	}
+}
@@ -0,0 +1,109 @@
+package rocks.cta.dflt.impl.serialization.realizations.archive;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Constants of the block-compressed trace archive format. An archive starts with the
+ * {@link #MAGIC} bytes and the format {@link #VERSION}, followed by a sequence of blocks. Each
+ * block consists of a block type byte, a {@link BlockHeader} and the encoded block data. The
+ * decoded block data is a sequence of kryo serialized traces.
+ * 
+ * The archive ends with an index block, which lists the trace identifiers sorted ascending
+ * together with the offset of the containing block and the offset of the trace within the
+ * decoded block. The index is followed by a fixed-size trailer holding the offset of the index
+ * block and the {@link #MAGIC} bytes, hence, readers can locate the index from the end of the
+ * file.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public final class ArchiveFormat {
+
+	/**
+	 * Magic bytes identifying a trace archive.
+	 */
+	static final byte[] MAGIC = { (byte) 0x89, 'C', 'T', 'A' };
+
+	/**
+	 * Current format version. Version 2 writes equal locations of a trace as reference.
+	 */
+	static final byte VERSION = 2;
+
+	/**
+	 * Oldest format version readable by the current readers.
+	 */
+	static final byte OLDEST_READABLE_VERSION = 1;
+
+	/**
+	 * Type of blocks containing traces.
+	 */
+	static final int BLOCK_TYPE_DATA = 1;
+
+	/**
+	 * Type of the index block.
+	 */
+	static final int BLOCK_TYPE_INDEX = 2;
+
+	/**
+	 * Number of bytes of the archive header.
+	 */
+	static final int HEADER_SIZE = MAGIC.length + 1;
+
+	/**
+	 * Number of bytes of the trailer following the index block.
+	 */
+	static final int TRAILER_SIZE = 8 + MAGIC.length;
+
+	/**
+	 * Default size of the uncompressed blocks [bytes].
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = 2 * 1024 * 1024;
+
+	/**
+	 * Private constructor for utility class.
+	 */
+	private ArchiveFormat() {
+	}
+
+	/**
+	 * Checks whether archives of the passed version can be read.
+	 * 
+	 * @param version
+	 *            format version of the archive
+	 * @throws IllegalStateException
+	 *             if the version is not supported
+	 */
+	static void checkVersion(byte version) throws IllegalStateException {
+		if (version < OLDEST_READABLE_VERSION || version > VERSION) {
+			throw new IllegalStateException("Unsupported archive version: " + version);
+		}
+	}
+
+	/**
+	 * Checks whether the passed stream starts with the archive magic bytes. The position of the
+	 * stream is not changed.
+	 * 
+	 * @param inStream
+	 *            stream to check, must support mark and reset
+	 * @return true, if the stream contains a trace archive
+	 * @throws IOException
+	 *             if reading from the stream fails
+	 */
+	public static boolean isArchive(InputStream inStream) throws IOException {
+		if (!inStream.markSupported()) {
+			throw new IllegalArgumentException("Input stream must support mark and reset.");
+		}
+		inStream.mark(MAGIC.length);
+		try {
+			for (byte magicByte : MAGIC) {
+				if (inStream.read() != (magicByte & 0xFF)) {
+					return false;
+				}
+			}
+			return true;
+		} finally {
+			inStream.reset();
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package rocks.cta.dflt.impl.serialization.realizations.archive;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.esotericsoftware.kryo.io.Input;
+
+/**
+ * Reads the blocks of a block-compressed archive (see {@link ArchiveFormat}) sequentially. Blocks
+ * are read one at a time, hence, the memory footprint is bound by the block size. For random access
+ * by trace identifier see {@link RandomAccessArchiveReader}.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class ArchiveReader {
+
+	/**
+	 * Source of the archive.
+	 */
+	private final DataInputStream in;
+
+	/**
+	 * Decoder of the blocks.
+	 */
+	private final BlockDecoder decoder = new BlockDecoder();
+
+	/**
+	 * Header of the current block.
+	 */
+	private BlockHeader currentHeader;
+
+	/**
+	 * Constructor. Reads and checks the archive header.
+	 * 
+	 * @param inStream
+	 *            stream to read from
+	 * @throws IOException
+	 *             if reading the archive header fails
+	 */
+	public ArchiveReader(InputStream inStream) throws IOException {
+		this.in = new DataInputStream(inStream);
+		for (byte magicByte : ArchiveFormat.MAGIC) {
+			if (in.readByte() != magicByte) {
+				throw new IllegalArgumentException("Input stream does not contain a trace archive.");
+			}
+		}
+		byte version = in.readByte();
+		ArchiveFormat.checkVersion(version);
+	}
+
+	/**
+	 * Reads and decodes the next block and sets it as buffer of the passed input.
+	 * 
+	 * @param input
+	 *            input to read the traces of the block from
+	 * @return false, if the end of the archive has been reached
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	public boolean nextBlock(Input input) throws IOException {
+		int blockType = in.read();
+		if (blockType < 0 || blockType == ArchiveFormat.BLOCK_TYPE_INDEX) {
+			currentHeader = null;
+			return false;
+		}
+		if (blockType != ArchiveFormat.BLOCK_TYPE_DATA) {
+			throw new IllegalStateException("Unknown archive block type: " + blockType);
+		}
+
+		try {
+			currentHeader = BlockHeader.read(in);
+			in.readFully(decoder.getEncodedBuffer(currentHeader), 0, currentHeader.getEncodedLength());
+		} catch (EOFException e) {
+			throw new IllegalStateException("Truncated archive block.", e);
+		}
+		decoder.decode(currentHeader, input);
+		return true;
+	}
+
+	/**
+	 * @return header of the current block, null if no block has been read or the end of the
+	 *         archive has been reached
+	 */
+	public BlockHeader getCurrentHeader() {
+		return currentHeader;
+	}
+
+	/**
+	 * Closes the underlying stream.
+	 * 
+	 * @throws IOException
+	 *             if closing fails
+	 */
+	public void close() throws IOException {
+		in.close();
+	}
+}
@@ -0,0 +1,156 @@
+package rocks.cta.dflt.impl.serialization.realizations.archive;
+
+import java.io.IOException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.esotericsoftware.kryo.io.Input;
+
+/**
+ * Spliterator over the items of a range of archive blocks. Splits at block boundaries; each split
+ * decodes its blocks with its own buffers.
+ * 
+ * @author Alexander Wert
+ * 
+ * @param <T>
+ *            item type
+ */
+class ArchiveSpliterator<T> implements Spliterator<T> {
+
+	/**
+	 * Blocks of the archive.
+	 */
+	private final ArchiveBlocks blocks;
+
+	/**
+	 * Reads one item from a decoded block.
+	 */
+	private final Function<Input, T> itemReader;
+
+	/**
+	 * Whether the items are reported in archive order.
+	 */
+	private final boolean ordered;
+
+	/**
+	 * Index of the next block to decode.
+	 */
+	private int nextBlock;
+
+	/**
+	 * Index after the last block of this spliterator.
+	 */
+	private final int endBlock;
+
+	/**
+	 * Decoder of the blocks. Created on first use.
+	 */
+	private BlockDecoder decoder;
+
+	/**
+	 * Input holding the current block. Created on first use.
+	 */
+	private Input input;
+
+	/**
+	 * Number of items left in the current block.
+	 */
+	private int remainingInBlock;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param blocks
+	 *            blocks of the archive
+	 * @param firstBlock
+	 *            index of the first block
+	 * @param endBlock
+	 *            index after the last block
+	 * @param itemReader
+	 *            reads one item from a decoded block
+	 * @param ordered
+	 *            whether the items are reported in archive order
+	 */
+	ArchiveSpliterator(ArchiveBlocks blocks, int firstBlock, int endBlock, Function<Input, T> itemReader, boolean ordered) {
+		this.blocks = blocks;
+		this.nextBlock = firstBlock;
+		this.endBlock = endBlock;
+		this.itemReader = itemReader;
+		this.ordered = ordered;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action) {
+		while (remainingInBlock == 0) {
+			if (nextBlock >= endBlock) {
+				return false;
+			}
+			decodeNextBlock();
+		}
+		remainingInBlock--;
+		action.accept(itemReader.apply(input));
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super T> action) {
+		while (true) {
+			for (; remainingInBlock > 0; remainingInBlock--) {
+				action.accept(itemReader.apply(input));
+			}
+			if (nextBlock >= endBlock) {
+				return;
+			}
+			decodeNextBlock();
+		}
+	}
+
+	@Override
+	public Spliterator<T> trySplit() {
+		// in ordered mode the split off prefix must not follow the rest of the current block
+		if (ordered && remainingInBlock > 0) {
+			return null;
+		}
+		int numBlocks = endBlock - nextBlock;
+		if (numBlocks < 2) {
+			return null;
+		}
+		int middle = nextBlock + numBlocks / 2;
+		Spliterator<T> prefix = new ArchiveSpliterator<T>(blocks, nextBlock, middle, itemReader, ordered);
+		nextBlock = middle;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		long size = remainingInBlock;
+		for (int i = nextBlock; i < endBlock; i++) {
+			size += blocks.getHeader(i).getTraceCount();
+		}
+		return size;
+	}
+
+	@Override
+	public int characteristics() {
+		int characteristics = NONNULL | IMMUTABLE | SIZED | SUBSIZED;
+		return ordered ? characteristics | ORDERED : characteristics;
+	}
+
+	/**
+	 * Decodes the next block of this spliterator.
+	 */
+	private void decodeNextBlock() {
+		if (decoder == null) {
+			decoder = new BlockDecoder();
+			input = new Input();
+		}
+		try {
+			blocks.decode(nextBlock, decoder, input);
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed reading archive block.", e);
+		}
+		remainingInBlock = blocks.getHeader(nextBlock).getTraceCount();
+		nextBlock++;
+	}
+}
@@ -0,0 +1,208 @@
+package rocks.cta.dflt.impl.serialization.realizations.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+
+import rocks.cta.api.core.Trace;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Writes traces to a block-compressed archive (see {@link ArchiveFormat}). Traces are collected in
+ * an uncompressed block buffer, which is encoded and written as soon as it exceeds the configured
+ * block size. The trace index is written on {@link #close()}.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class ArchiveWriter {
+
+	/**
+	 * Sink of the archive.
+	 */
+	private final DataOutputStream out;
+
+	/**
+	 * Codec to encode the blocks with.
+	 */
+	private final BlockCodec codec;
+
+	/**
+	 * Size of the uncompressed blocks [bytes].
+	 */
+	private final int blockSize;
+
+	/**
+	 * Buffer of the current block.
+	 */
+	private final Output blockOutput;
+
+	/**
+	 * Checksum calculator.
+	 */
+	private final CRC32 crc = new CRC32();
+
+	/**
+	 * Positions of the written traces.
+	 */
+	private final TraceIndex index = new TraceIndex();
+
+	/**
+	 * Number of bytes written to the sink so far.
+	 */
+	private long position;
+
+	/**
+	 * Number of traces in the current block.
+	 */
+	private int traceCount;
+
+	/**
+	 * Smallest trace identifier in the current block.
+	 */
+	private long minTraceId;
+
+	/**
+	 * Largest trace identifier in the current block.
+	 */
+	private long maxTraceId;
+
+	/**
+	 * Earliest timestamp in the current block.
+	 */
+	private long minTimestamp;
+
+	/**
+	 * Latest timestamp in the current block.
+	 */
+	private long maxTimestamp;
+
+	/**
+	 * Constructor. Writes the archive header.
+	 * 
+	 * @param outStream
+	 *            stream to write to
+	 * @param codec
+	 *            codec to encode the blocks with
+	 * @param blockSize
+	 *            size of the uncompressed blocks in bytes
+	 * @throws IOException
+	 *             if writing the archive header fails
+	 */
+	public ArchiveWriter(OutputStream outStream, BlockCodec codec, int blockSize) throws IOException {
+		if (blockSize <= 0) {
+			throw new IllegalArgumentException("Block size must be positive!");
+		}
+		this.out = new DataOutputStream(new BufferedOutputStream(outStream));
+		this.codec = codec;
+		this.blockSize = blockSize;
+		this.blockOutput = new Output(blockSize + blockSize / 4, -1);
+		out.write(ArchiveFormat.MAGIC);
+		out.writeByte(ArchiveFormat.VERSION);
+		position = ArchiveFormat.HEADER_SIZE;
+		resetBlock();
+	}
+
+	/**
+	 * Appends a trace to the current block. Writes the block if it exceeds the block size. If the
+	 * trace cannot be serialized, the current block and the index remain unchanged.
+	 * 
+	 * @param kryo
+	 *            kryo instance to serialize the trace with
+	 * @param trace
+	 *            trace to write
+	 * @throws IOException
+	 *             if writing a block fails
+	 */
+	public void writeTrace(Kryo kryo, Trace trace) throws IOException {
+		int start = blockOutput.position();
+		try {
+			kryo.writeObject(blockOutput, trace);
+		} catch (RuntimeException e) {
+			// discard the partially written trace
+			blockOutput.setPosition(start);
+			throw e;
+		}
+		index.add(trace.getTraceId(), position, start);
+
+		traceCount++;
+		minTraceId = Math.min(minTraceId, trace.getTraceId());
+		maxTraceId = Math.max(maxTraceId, trace.getTraceId());
+		if (trace.getRoot() != null && trace.getRoot().getRoot() != null) {
+			long timestamp = trace.getRoot().getRoot().getTimestamp();
+			minTimestamp = Math.min(minTimestamp, timestamp);
+			maxTimestamp = Math.max(maxTimestamp, timestamp);
+		}
+
+		if (blockOutput.position() >= blockSize) {
+			flushBlock();
+		}
+	}
+
+	/**
+	 * Encodes and writes the current block, if it contains any traces.
+	 * 
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	public void flushBlock() throws IOException {
+		if (traceCount == 0) {
+			return;
+		}
+		int length = blockOutput.position();
+		byte[] encoded = codec.encode(blockOutput.getBuffer(), length);
+		crc.reset();
+		crc.update(encoded, 0, encoded.length);
+
+		boolean hasTimestamps = minTimestamp <= maxTimestamp;
+		BlockHeader.Range timestamps = hasTimestamps ? new BlockHeader.Range(minTimestamp, maxTimestamp) : new BlockHeader.Range(
+				BlockHeader.UNKNOWN_TIMESTAMP, BlockHeader.UNKNOWN_TIMESTAMP);
+		BlockHeader header = new BlockHeader(codec.getId(), traceCount, new BlockHeader.Range(minTraceId, maxTraceId), timestamps,
+				length, encoded.length, (int) crc.getValue());
+		out.writeByte(ArchiveFormat.BLOCK_TYPE_DATA);
+		header.write(out);
+		out.write(encoded);
+		position += 1 + BlockHeader.SIZE + encoded.length;
+		resetBlock();
+	}
+
+	/**
+	 * Flushes the written blocks to the underlying stream. The current block is not written.
+	 * 
+	 * @throws IOException
+	 *             if flushing fails
+	 */
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	/**
+	 * Writes the last block, the index and the trailer and closes the underlying stream.
+	 * 
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	public void close() throws IOException {
+		flushBlock();
+		index.write(out);
+		out.writeLong(position);
+		out.write(ArchiveFormat.MAGIC);
+		out.close();
+	}
+
+	/**
+	 * Starts a new block.
+	 */
+	private void resetBlock() {
+		blockOutput.clear();
+		traceCount = 0;
+		minTraceId = Long.MAX_VALUE;
+		maxTraceId = Long.MIN_VALUE;
+		minTimestamp = Long.MAX_VALUE;
+		maxTimestamp = Long.MIN_VALUE;
+	}
+}
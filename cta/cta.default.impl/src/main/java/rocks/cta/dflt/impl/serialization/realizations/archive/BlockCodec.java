@@ -0,0 +1,45 @@
+package rocks.cta.dflt.impl.serialization.realizations.archive;
+
+/**
+ * Codec compressing the blocks of a trace archive. Implementations must be stateless as codecs
+ * are shared by all archive writers and readers. Custom codecs are made available to readers by
+ * registering them with {@link BlockCodecs#register(BlockCodec)}.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public interface BlockCodec {
+
+	/**
+	 * Returns the identifier of this codec. The identifier is written to the header of each block,
+	 * hence, it must be unique and must not change.
+	 * 
+	 * @return identifier of this codec
+	 */
+	byte getId();
+
+	/**
+	 * Encodes a block.
+	 * 
+	 * @param data
+	 *            buffer containing the block
+	 * @param length
+	 *            number of bytes of the block
+	 * @return encoded block
+	 */
+	byte[] encode(byte[] data, int length);
+
+	/**
+	 * Decodes a block.
+	 * 
+	 * @param encoded
+	 *            buffer containing the encoded block
+	 * @param encodedLength
+	 *            number of bytes of the encoded block
+	 * @param target
+	 *            buffer to decode the block into, at least of size decodedLength
+	 * @param decodedLength
+	 *            number of bytes of the decoded block
+	 */
+	void decode(byte[] encoded, int encodedLength, byte[] target, int decodedLength);
+}
@@ -0,0 +1,66 @@
+package rocks.cta.dflt.impl.serialization.realizations.archive;
+
+/**
+ * Registry of the available {@link BlockCodec}s.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public final class BlockCodecs {
+
+	/**
+	 * Codec storing blocks without compression.
+	 */
+	public static final BlockCodec UNCOMPRESSED = new UncompressedBlockCodec();
+
+	/**
+	 * Default codec using Deflate.
+	 */
+	public static final BlockCodec DEFLATE = new DeflateBlockCodec();
+
+	/**
+	 * Number of possible codec identifiers.
+	 */
+	private static final int MAX_CODECS = 256;
+
+	/**
+	 * Registered codecs by identifier.
+	 */
+	private static final BlockCodec[] CODECS = new BlockCodec[MAX_CODECS];
+
+	static {
+		register(UNCOMPRESSED);
+		register(DEFLATE);
+	}
+
+	/**
+	 * Private constructor for utility class.
+	 */
+	private BlockCodecs() {
+	}
+
+	/**
+	 * Registers a codec. Replaces any codec registered with the same identifier.
+	 * 
+	 * @param codec
+	 *            codec to register
+	 */
+	public static synchronized void register(BlockCodec codec) {
+		CODECS[codec.getId() & 0xFF] = codec;
+	}
+
+	/**
+	 * Returns the codec registered for the passed identifier.
+	 * 
+	 * @param id
+	 *            codec identifier
+	 * @return registered codec
+	 */
+	public static synchronized BlockCodec get(byte id) {
+		BlockCodec codec = CODECS[id & 0xFF];
+		if (codec == null) {
+			throw new IllegalStateException("No block codec registered for id " + (id & 0xFF));
+		}
+		return codec;
+	}
+}
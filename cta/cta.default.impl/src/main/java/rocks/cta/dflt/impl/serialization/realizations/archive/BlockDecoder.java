@@ -0,0 +1,110 @@
+package rocks.cta.dflt.impl.serialization.realizations.archive;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+import com.esotericsoftware.kryo.io.Input;
+
+/**
+ * Verifies and decodes archive blocks. Buffers are reused across blocks.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+class BlockDecoder {
+
+	/**
+	 * Checksum calculator.
+	 */
+	private final CRC32 crc = new CRC32();
+
+	/**
+	 * Reusable buffer for encoded blocks.
+	 */
+	private byte[] encoded = new byte[0];
+
+	/**
+	 * Reusable buffer for decoded blocks.
+	 */
+	private byte[] decoded = new byte[0];
+
+	/**
+	 * Returns the buffer to read the encoded data of the block described by the passed header
+	 * into.
+	 * 
+	 * @param header
+	 *            header of the block
+	 * @return buffer with at least the encoded length of the block
+	 */
+	byte[] getEncodedBuffer(BlockHeader header) {
+		if (encoded.length < header.getEncodedLength()) {
+			encoded = new byte[header.getEncodedLength()];
+		}
+		return encoded;
+	}
+
+	/**
+	 * Verifies the checksum of the encoded data, decodes the block and sets the decoded data as
+	 * buffer of the passed input.
+	 * 
+	 * @param header
+	 *            header of the block
+	 * @param input
+	 *            input to read the traces of the block from
+	 */
+	void decode(BlockHeader header, Input input) {
+		crc.reset();
+		crc.update(encoded, 0, header.getEncodedLength());
+		if ((int) crc.getValue() != header.getChecksum()) {
+			throw new IllegalStateException("Checksum mismatch in archive block.");
+		}
+
+		if (decoded.length < header.getLength()) {
+			decoded = new byte[header.getLength()];
+		}
+		BlockCodecs.get(header.getCodecId()).decode(encoded, header.getEncodedLength(), decoded, header.getLength());
+		rewind(header, input);
+	}
+
+	/**
+	 * Verifies the checksum of the encoded data and decodes the block. Blocks stored without
+	 * compression are not copied.
+	 * 
+	 * @param header
+	 *            header of the block
+	 * @param encodedData
+	 *            encoded data of the block, from position to limit
+	 * @return buffer holding the decoded data of the block, from position to limit
+	 */
+	ByteBuffer decode(BlockHeader header, ByteBuffer encodedData) {
+		crc.reset();
+		crc.update(encodedData.duplicate());
+		if ((int) crc.getValue() != header.getChecksum()) {
+			throw new IllegalStateException("Checksum mismatch in archive block.");
+		}
+
+		BlockCodec codec = BlockCodecs.get(header.getCodecId());
+		if (codec == BlockCodecs.UNCOMPRESSED) {
+			return encodedData.slice();
+		}
+		encodedData.duplicate().get(getEncodedBuffer(header), 0, header.getEncodedLength());
+		if (decoded.length < header.getLength()) {
+			decoded = new byte[header.getLength()];
+		}
+		codec.decode(encoded, header.getEncodedLength(), decoded, header.getLength());
+		return ByteBuffer.wrap(decoded, 0, header.getLength());
+	}
+
+	/**
+	 * Sets the last decoded block as buffer of the passed input, positioned at the start of the
+	 * block.
+	 * 
+	 * @param header
+	 *            header of the last decoded block
+	 * @param input
+	 *            input to read the traces of the block from
+	 */
+	void rewind(BlockHeader header, Input input) {
+		input.setBuffer(decoded, 0, header.getLength());
+	}
+}
@@ -0,0 +1,245 @@
+package rocks.cta.dflt.impl.serialization.realizations.archive;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Header of an archive block. Describes the contained traces, hence, readers may skip blocks
+ * without decoding them.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class BlockHeader {
+
+	/**
+	 * Value of the timestamps of blocks without timestamp information.
+	 */
+	public static final long UNKNOWN_TIMESTAMP = -1;
+
+	/**
+	 * Number of bytes of a written header.
+	 */
+	static final int SIZE = 49;
+
+	/**
+	 * Identifier of the codec the block data is encoded with.
+	 */
+	private final byte codecId;
+
+	/**
+	 * Number of traces in the block.
+	 */
+	private final int traceCount;
+
+	/**
+	 * Range of the trace identifiers in the block.
+	 */
+	private final Range traceIds;
+
+	/**
+	 * Range of the timestamps of the traces in the block.
+	 */
+	private final Range timestamps;
+
+	/**
+	 * Number of bytes of the decoded block data.
+	 */
+	private final int length;
+
+	/**
+	 * Number of bytes of the encoded block data.
+	 */
+	private final int encodedLength;
+
+	/**
+	 * CRC32 checksum of the encoded block data.
+	 */
+	private final int checksum;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param codecId
+	 *            identifier of the codec the block data is encoded with
+	 * @param traceCount
+	 *            number of traces in the block
+	 * @param traceIds
+	 *            range of the trace identifiers in the block
+	 * @param timestamps
+	 *            range of the timestamps of the traces in the block, {@link #UNKNOWN_TIMESTAMP} as
+	 *            bounds if unknown
+	 * @param length
+	 *            number of bytes of the decoded block data
+	 * @param encodedLength
+	 *            number of bytes of the encoded block data
+	 * @param checksum
+	 *            CRC32 checksum of the encoded block data
+	 */
+	public BlockHeader(byte codecId, int traceCount, Range traceIds, Range timestamps, int length, int encodedLength, int checksum) {
+		this.codecId = codecId;
+		this.traceCount = traceCount;
+		this.traceIds = traceIds;
+		this.timestamps = timestamps;
+		this.length = length;
+		this.encodedLength = encodedLength;
+		this.checksum = checksum;
+	}
+
+	/**
+	 * Writes this header.
+	 * 
+	 * @param out
+	 *            output to write to
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	void write(DataOutput out) throws IOException {
+		out.writeByte(codecId);
+		out.writeInt(traceCount);
+		out.writeLong(traceIds.getMin());
+		out.writeLong(traceIds.getMax());
+		out.writeLong(timestamps.getMin());
+		out.writeLong(timestamps.getMax());
+		out.writeInt(length);
+		out.writeInt(encodedLength);
+		out.writeInt(checksum);
+	}
+
+	/**
+	 * Reads a header.
+	 * 
+	 * @param in
+	 *            input to read from
+	 * @return the header
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	static BlockHeader read(DataInput in) throws IOException {
+		return new BlockHeader(in.readByte(), in.readInt(), new Range(in.readLong(), in.readLong()), new Range(in.readLong(),
+				in.readLong()), in.readInt(), in.readInt(), in.readInt());
+	}
+
+	/**
+	 * Reads a header from the current position of the passed buffer.
+	 * 
+	 * @param buffer
+	 *            buffer to read from
+	 * @return the header
+	 */
+	static BlockHeader read(ByteBuffer buffer) {
+		return new BlockHeader(buffer.get(), buffer.getInt(), new Range(buffer.getLong(), buffer.getLong()), new Range(
+				buffer.getLong(), buffer.getLong()), buffer.getInt(), buffer.getInt(), buffer.getInt());
+	}
+
+	/**
+	 * @return identifier of the codec the block data is encoded with
+	 */
+	public byte getCodecId() {
+		return codecId;
+	}
+
+	/**
+	 * @return number of traces in the block
+	 */
+	public int getTraceCount() {
+		return traceCount;
+	}
+
+	/**
+	 * @return smallest trace identifier in the block
+	 */
+	public long getMinTraceId() {
+		return traceIds.getMin();
+	}
+
+	/**
+	 * @return largest trace identifier in the block
+	 */
+	public long getMaxTraceId() {
+		return traceIds.getMax();
+	}
+
+	/**
+	 * @return earliest timestamp of a trace in the block, {@link #UNKNOWN_TIMESTAMP} if unknown
+	 */
+	public long getMinTimestamp() {
+		return timestamps.getMin();
+	}
+
+	/**
+	 * @return latest timestamp of a trace in the block, {@link #UNKNOWN_TIMESTAMP} if unknown
+	 */
+	public long getMaxTimestamp() {
+		return timestamps.getMax();
+	}
+
+	/**
+	 * @return number of bytes of the decoded block data
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * @return number of bytes of the encoded block data
+	 */
+	public int getEncodedLength() {
+		return encodedLength;
+	}
+
+	/**
+	 * @return CRC32 checksum of the encoded block data
+	 */
+	public int getChecksum() {
+		return checksum;
+	}
+
+	/**
+	 * Closed range of long values.
+	 * 
+	 * @author Alexander Wert
+	 * 
+	 */
+	public static final class Range {
+
+		/**
+		 * Lower bound.
+		 */
+		private final long min;
+
+		/**
+		 * Upper bound.
+		 */
+		private final long max;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param min
+		 *            lower bound
+		 * @param max
+		 *            upper bound
+		 */
+		public Range(long min, long max) {
+			this.min = min;
+			this.max = max;
+		}
+
+		/**
+		 * @return lower bound
+		 */
+		public long getMin() {
+			return min;
+		}
+
+		/**
+		 * @return upper bound
+		 */
+		public long getMax() {
+			return max;
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package rocks.cta.dflt.impl.serialization.realizations.archive;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Codec compressing blocks with the Deflate implementation of the JDK. Uses the fastest
+ * compression level by default, as archives are written by the collectors in the critical path.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class DeflateBlockCodec implements BlockCodec {
+
+	/**
+	 * Identifier of this codec.
+	 */
+	public static final byte ID = 1;
+
+	/**
+	 * Deflate compression level.
+	 */
+	private final int level;
+
+	/**
+	 * Constructor using the fastest compression level.
+	 */
+	public DeflateBlockCodec() {
+		this(Deflater.BEST_SPEED);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param level
+	 *            Deflate compression level (0-9)
+	 */
+	public DeflateBlockCodec(int level) {
+		if (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+			throw new IllegalArgumentException("Invalid compression level: " + level);
+		}
+		this.level = level;
+	}
+
+	@Override
+	public byte getId() {
+		return ID;
+	}
+
+	@Override
+	public byte[] encode(byte[] data, int length) {
+		Deflater deflater = new Deflater(level);
+		try {
+			deflater.setInput(data, 0, length);
+			deflater.finish();
+			byte[] encoded = new byte[Math.max(64, length / 2)];
+			int encodedLength = 0;
+			while (!deflater.finished()) {
+				if (encodedLength == encoded.length) {
+					encoded = Arrays.copyOf(encoded, encoded.length * 2);
+				}
+				encodedLength += deflater.deflate(encoded, encodedLength, encoded.length - encodedLength);
+			}
+			return Arrays.copyOf(encoded, encodedLength);
+		} finally {
+			deflater.end();
+		}
+	}
+
+	@Override
+	public void decode(byte[] encoded, int encodedLength, byte[] target, int decodedLength) {
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(encoded, 0, encodedLength);
+			int length = 0;
+			while (length < decodedLength && !inflater.finished()) {
+				int inflated = inflater.inflate(target, length, decodedLength - length);
+				if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				length += inflated;
+			}
+			if (length != decodedLength) {
+				throw new IllegalStateException("Invalid length of compressed block: " + length);
+			}
+		} catch (DataFormatException e) {
+			throw new IllegalStateException("Corrupt compressed block.", e);
+		} finally {
+			inflater.end();
+		}
+	}
+}
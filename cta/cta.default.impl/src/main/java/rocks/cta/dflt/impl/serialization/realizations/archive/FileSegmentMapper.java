@@ -0,0 +1,131 @@
+package rocks.cta.dflt.impl.serialization.realizations.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import rocks.cta.dflt.impl.core.DirectBuffers;
+
+/**
+ * Maps a file segment-wise into memory. At most one segment is mapped at a time; a new segment is
+ * mapped whenever a requested range is not covered by the current segment.
+ * 
+ * <b>Note:</b> a segment is unmapped as soon as it is replaced by a new segment or the mapper is
+ * closed. Buffers returned by {@link #map(long, int)} must not be accessed afterwards. If the
+ * runtime does not allow to unmap segments explicitly, segments are unmapped when they are garbage
+ * collected.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class FileSegmentMapper {
+
+	/**
+	 * Default size of the mapped segments [bytes].
+	 */
+	public static final int DEFAULT_SEGMENT_SIZE = 256 * 1024 * 1024;
+
+	/**
+	 * Mapped file.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * Size of the mapped file [bytes].
+	 */
+	private final long fileSize;
+
+	/**
+	 * Minimum size of the mapped segments [bytes].
+	 */
+	private final int segmentSize;
+
+	/**
+	 * Currently mapped segment, null if no segment is mapped.
+	 */
+	private MappedByteBuffer segment;
+
+	/**
+	 * File offset of the currently mapped segment.
+	 */
+	private long segmentOffset;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param channel
+	 *            file to map
+	 * @param segmentSize
+	 *            minimum size of the mapped segments [bytes]
+	 * @throws IOException
+	 *             if the file size cannot be determined
+	 */
+	public FileSegmentMapper(FileChannel channel, int segmentSize) throws IOException {
+		if (segmentSize <= 0) {
+			throw new IllegalArgumentException("Segment size must be positive!");
+		}
+		this.channel = channel;
+		this.fileSize = channel.size();
+		this.segmentSize = segmentSize;
+	}
+
+	/**
+	 * Returns a buffer starting at the passed file offset and ending at the end of the mapped
+	 * segment. Maps a new segment if the current segment does not cover the requested range.
+	 * 
+	 * @param offset
+	 *            file offset of the first byte
+	 * @param minLength
+	 *            minimum number of bytes the buffer has to provide, unless the end of the file is
+	 *            reached before
+	 * @return buffer with position 0 at the passed offset
+	 * @throws IOException
+	 *             if mapping fails
+	 */
+	public ByteBuffer map(long offset, int minLength) throws IOException {
+		if (offset < 0 || offset > fileSize) {
+			throw new IllegalStateException("Invalid file offset: " + offset);
+		}
+		long end = Math.min(fileSize, offset + minLength);
+		if (segment == null || offset < segmentOffset || end > segmentOffset + segment.capacity()) {
+			long length = Math.min(fileSize - offset, Math.max(segmentSize, minLength));
+			if (length > Integer.MAX_VALUE) {
+				length = Integer.MAX_VALUE;
+			}
+			release();
+			segment = channel.map(MapMode.READ_ONLY, offset, length);
+			segmentOffset = offset;
+		}
+		ByteBuffer buffer = segment.duplicate();
+		buffer.position((int) (offset - segmentOffset));
+		return buffer.slice();
+	}
+
+	/**
+	 * @return size of the mapped file [bytes]
+	 */
+	public long getFileSize() {
+		return fileSize;
+	}
+
+	/**
+	 * Unmaps the current segment and closes the file.
+	 * 
+	 * @throws IOException
+	 *             if closing fails
+	 */
+	public void close() throws IOException {
+		release();
+		channel.close();
+	}
+
+	/**
+	 * Unmaps the current segment, if any.
+	 */
+	private void release() {
+		DirectBuffers.release(segment);
+		segment = null;
+	}
+}
@@ -0,0 +1,124 @@
+package rocks.cta.dflt.impl.serialization.realizations.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.esotericsoftware.kryo.io.ByteBufferInput;
+
+/**
+ * Reads the blocks of a memory-mapped archive file (see {@link ArchiveFormat}) sequentially. The
+ * block headers and the encoded data are read straight from the mapped segments. Blocks stored
+ * without compression are decoded without any copy.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class MappedArchiveReader {
+
+	/**
+	 * Mapper of the archive file.
+	 */
+	private final FileSegmentMapper mapper;
+
+	/**
+	 * Decoder of the blocks.
+	 */
+	private final BlockDecoder decoder = new BlockDecoder();
+
+	/**
+	 * File offset of the next block.
+	 */
+	private long nextBlockOffset;
+
+	/**
+	 * Header of the current block.
+	 */
+	private BlockHeader currentHeader;
+
+	/**
+	 * Constructor. Reads and checks the archive header.
+	 * 
+	 * @param mapper
+	 *            mapper of the archive file
+	 * @throws IOException
+	 *             if mapping fails
+	 */
+	public MappedArchiveReader(FileSegmentMapper mapper) throws IOException {
+		this.mapper = mapper;
+		if (!isArchive(mapper)) {
+			throw new IllegalArgumentException("File does not contain a trace archive.");
+		}
+		byte version = mapper.map(0, ArchiveFormat.HEADER_SIZE).get(ArchiveFormat.MAGIC.length);
+		ArchiveFormat.checkVersion(version);
+		nextBlockOffset = ArchiveFormat.HEADER_SIZE;
+	}
+
+	/**
+	 * Checks whether the mapped file starts with the archive magic bytes.
+	 * 
+	 * @param mapper
+	 *            mapper of the file to check
+	 * @return true, if the file contains a trace archive
+	 * @throws IOException
+	 *             if mapping fails
+	 */
+	public static boolean isArchive(FileSegmentMapper mapper) throws IOException {
+		if (mapper.getFileSize() < ArchiveFormat.HEADER_SIZE) {
+			return false;
+		}
+		ByteBuffer header = mapper.map(0, ArchiveFormat.HEADER_SIZE);
+		for (byte magicByte : ArchiveFormat.MAGIC) {
+			if (header.get() != magicByte) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Decodes the next block and sets it as buffer of the passed input.
+	 * 
+	 * @param input
+	 *            input to read the traces of the block from
+	 * @return false, if the end of the archive has been reached
+	 * @throws IOException
+	 *             if mapping fails
+	 */
+	public boolean nextBlock(ByteBufferInput input) throws IOException {
+		if (nextBlockOffset >= mapper.getFileSize()) {
+			currentHeader = null;
+			return false;
+		}
+		ByteBuffer buffer = mapper.map(nextBlockOffset, 1 + BlockHeader.SIZE);
+		int blockType = buffer.get();
+		if (blockType == ArchiveFormat.BLOCK_TYPE_INDEX) {
+			currentHeader = null;
+			return false;
+		}
+		if (blockType != ArchiveFormat.BLOCK_TYPE_DATA) {
+			throw new IllegalStateException("Unknown archive block type: " + blockType);
+		}
+		if (buffer.remaining() < BlockHeader.SIZE) {
+			throw new IllegalStateException("Truncated archive block.");
+		}
+		currentHeader = BlockHeader.read(buffer);
+
+		long dataOffset = nextBlockOffset + 1 + BlockHeader.SIZE;
+		ByteBuffer encodedData = mapper.map(dataOffset, currentHeader.getEncodedLength());
+		if (encodedData.remaining() < currentHeader.getEncodedLength()) {
+			throw new IllegalStateException("Truncated archive block.");
+		}
+		encodedData.limit(currentHeader.getEncodedLength());
+		input.setBuffer(decoder.decode(currentHeader, encodedData));
+		nextBlockOffset = dataOffset + currentHeader.getEncodedLength();
+		return true;
+	}
+
+	/**
+	 * @return header of the current block, null if no block has been read or the end of the
+	 *         archive has been reached
+	 */
+	public BlockHeader getCurrentHeader() {
+		return currentHeader;
+	}
+}
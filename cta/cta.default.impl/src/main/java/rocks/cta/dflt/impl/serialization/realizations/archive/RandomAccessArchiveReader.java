@@ -0,0 +1,271 @@
+package rocks.cta.dflt.impl.serialization.realizations.archive;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import com.esotericsoftware.kryo.io.Input;
+
+/**
+ * Reads a block-compressed archive file (see {@link ArchiveFormat}) with random access by trace
+ * identifier. The index is not loaded into memory, lookups are binary searches on the index block
+ * of the file. Hence, opening an archive and looking up a trace takes a number of reads
+ * logarithmic in the number of traces, independent of the archive size.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class RandomAccessArchiveReader {
+
+	/**
+	 * Size of the index block header: block type and number of entries.
+	 */
+	private static final int INDEX_HEADER_SIZE = 1 + 4;
+
+	/**
+	 * Archive file.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * Decoder of the blocks.
+	 */
+	private final BlockDecoder decoder = new BlockDecoder();
+
+	/**
+	 * Offset of the first index entry.
+	 */
+	private final long indexEntriesOffset;
+
+	/**
+	 * Number of index entries.
+	 */
+	private final int indexSize;
+
+	/**
+	 * Offset of the end of the data blocks.
+	 */
+	private final long dataEnd;
+
+	/**
+	 * Buffer for reading block headers and index entries.
+	 */
+	private final ByteBuffer readBuffer = ByteBuffer.allocate(1 + BlockHeader.SIZE);
+
+	/**
+	 * Offset of the currently decoded block, -1 if no block is decoded.
+	 */
+	private long currentBlockOffset = -1;
+
+	/**
+	 * Header of the currently decoded block.
+	 */
+	private BlockHeader currentHeader;
+
+	/**
+	 * Constructor. Reads the archive header and the trailer.
+	 * 
+	 * @param file
+	 *            archive file
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	public RandomAccessArchiveReader(File file) throws IOException {
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			ByteBuffer header = read(0, ArchiveFormat.HEADER_SIZE);
+			checkMagic(header);
+			byte version = header.get();
+			ArchiveFormat.checkVersion(version);
+
+			ByteBuffer trailer = read(channel.size() - ArchiveFormat.TRAILER_SIZE, ArchiveFormat.TRAILER_SIZE);
+			long indexOffset = trailer.getLong();
+			checkMagic(trailer);
+			ByteBuffer indexHeader = read(indexOffset, INDEX_HEADER_SIZE);
+			if (indexHeader.get() != ArchiveFormat.BLOCK_TYPE_INDEX) {
+				throw new IllegalStateException("Invalid archive index offset: " + indexOffset);
+			}
+			indexSize = indexHeader.getInt();
+			indexEntriesOffset = indexOffset + INDEX_HEADER_SIZE;
+			dataEnd = indexOffset;
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Decodes the block containing the trace with the passed identifier and positions the passed
+	 * input at the trace. If the identifier occurs multiple times, the input is positioned at the
+	 * first written trace with that identifier.
+	 * 
+	 * @param traceId
+	 *            identifier of the trace
+	 * @param input
+	 *            input to read the trace from
+	 * @return false, if the archive does not contain the trace
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	public boolean seek(long traceId, Input input) throws IOException {
+		int low = 0;
+		int high = indexSize;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (read(indexEntriesOffset + (long) middle * TraceIndex.ENTRY_SIZE, 8).getLong() < traceId) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		if (low == indexSize) {
+			return false;
+		}
+		ByteBuffer entry = read(indexEntriesOffset + (long) low * TraceIndex.ENTRY_SIZE, TraceIndex.ENTRY_SIZE);
+		if (entry.getLong() != traceId) {
+			return false;
+		}
+		long blockOffset = entry.getLong();
+		int offsetInBlock = entry.getInt();
+
+		loadBlock(blockOffset, input);
+		input.setPosition(offsetInBlock);
+		return true;
+	}
+
+	/**
+	 * Decodes the block following the current block. If no block has been decoded so far, the
+	 * first block is decoded.
+	 * 
+	 * @param input
+	 *            input to read the traces of the block from
+	 * @return false, if the end of the archive has been reached
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	public boolean nextBlock(Input input) throws IOException {
+		long blockOffset = currentBlockOffset < 0 ? ArchiveFormat.HEADER_SIZE : currentBlockOffset + 1 + BlockHeader.SIZE
+				+ currentHeader.getEncodedLength();
+		if (blockOffset >= dataEnd) {
+			return false;
+		}
+		loadBlock(blockOffset, input);
+		return true;
+	}
+
+	/**
+	 * @return number of traces in the archive
+	 */
+	public int getTraceCount() {
+		return indexSize;
+	}
+
+	/**
+	 * @return header of the currently decoded block, null if no block has been decoded
+	 */
+	public BlockHeader getCurrentHeader() {
+		return currentHeader;
+	}
+
+	/**
+	 * Closes the archive file.
+	 * 
+	 * @throws IOException
+	 *             if closing fails
+	 */
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Decodes the block at the passed offset, unless it is the current block, and sets it as buffer
+	 * of the passed input.
+	 * 
+	 * @param blockOffset
+	 *            offset of the block
+	 * @param input
+	 *            input to read the traces of the block from
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private void loadBlock(long blockOffset, Input input) throws IOException {
+		if (blockOffset == currentBlockOffset) {
+			decoder.rewind(currentHeader, input);
+			return;
+		}
+		currentBlockOffset = -1;
+		ByteBuffer headerBuffer = read(blockOffset, 1 + BlockHeader.SIZE);
+		if (headerBuffer.get() != ArchiveFormat.BLOCK_TYPE_DATA) {
+			throw new IllegalStateException("Invalid archive block offset: " + blockOffset);
+		}
+		BlockHeader header = BlockHeader.read(headerBuffer);
+		byte[] encoded = decoder.getEncodedBuffer(header);
+		readFully(channel, blockOffset + 1 + BlockHeader.SIZE, ByteBuffer.wrap(encoded, 0, header.getEncodedLength()));
+		decoder.decode(header, input);
+		currentHeader = header;
+		currentBlockOffset = blockOffset;
+	}
+
+	/**
+	 * Reads a small number of bytes.
+	 * 
+	 * @param offset
+	 *            file offset to read from
+	 * @param length
+	 *            number of bytes to read, at most the size of a block header
+	 * @return buffer holding the read bytes
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private ByteBuffer read(long offset, int length) throws IOException {
+		if (offset < 0) {
+			throw new IllegalStateException("Invalid archive offset: " + offset);
+		}
+		readBuffer.clear();
+		readBuffer.limit(length);
+		readFully(channel, offset, readBuffer);
+		readBuffer.flip();
+		return readBuffer;
+	}
+
+	/**
+	 * Fills the passed buffer.
+	 * 
+	 * @param channel
+	 *            file to read from
+	 * @param offset
+	 *            file offset to read from
+	 * @param buffer
+	 *            buffer to fill
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	static void readFully(FileChannel channel, long offset, ByteBuffer buffer) throws IOException {
+		long position = offset;
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, position);
+			if (read < 0) {
+				throw new EOFException("Unexpected end of archive at offset " + position);
+			}
+			position += read;
+		}
+	}
+
+	/**
+	 * Checks the magic bytes at the current position of the passed buffer.
+	 * 
+	 * @param buffer
+	 *            buffer to check
+	 */
+	private static void checkMagic(ByteBuffer buffer) {
+		byte[] magic = new byte[ArchiveFormat.MAGIC.length];
+		buffer.get(magic);
+		if (!Arrays.equals(magic, ArchiveFormat.MAGIC)) {
+			throw new IllegalArgumentException("File does not contain an indexed trace archive.");
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package rocks.cta.dflt.impl.serialization.realizations.archive;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Collects the positions of the traces written to an archive and writes them as index block. The
+ * entries are written sorted by trace identifier; entries with equal trace identifiers keep the
+ * order in which they have been added.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+class TraceIndex {
+
+	/**
+	 * Number of bytes of a written index entry: trace identifier, block offset and offset within
+	 * the block.
+	 */
+	static final int ENTRY_SIZE = 8 + 8 + 4;
+
+	/**
+	 * Initial capacity of the entry arrays.
+	 */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/**
+	 * Trace identifiers of the entries.
+	 */
+	private long[] traceIds = new long[INITIAL_CAPACITY];
+
+	/**
+	 * Offsets of the blocks containing the traces.
+	 */
+	private long[] blockOffsets = new long[INITIAL_CAPACITY];
+
+	/**
+	 * Offsets of the traces within the decoded blocks.
+	 */
+	private int[] offsetsInBlock = new int[INITIAL_CAPACITY];
+
+	/**
+	 * Number of entries.
+	 */
+	private int size;
+
+	/**
+	 * Adds an entry.
+	 * 
+	 * @param traceId
+	 *            identifier of the trace
+	 * @param blockOffset
+	 *            offset of the block containing the trace
+	 * @param offsetInBlock
+	 *            offset of the trace within the decoded block
+	 */
+	void add(long traceId, long blockOffset, int offsetInBlock) {
+		if (size == traceIds.length) {
+			traceIds = Arrays.copyOf(traceIds, size * 2);
+			blockOffsets = Arrays.copyOf(blockOffsets, size * 2);
+			offsetsInBlock = Arrays.copyOf(offsetsInBlock, size * 2);
+		}
+		traceIds[size] = traceId;
+		blockOffsets[size] = blockOffset;
+		offsetsInBlock[size] = offsetInBlock;
+		size++;
+	}
+
+	/**
+	 * Writes the index block, excluding the trailer.
+	 * 
+	 * @param out
+	 *            output to write to
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	void write(DataOutput out) throws IOException {
+		out.writeByte(ArchiveFormat.BLOCK_TYPE_INDEX);
+		out.writeInt(size);
+		int[] order = sortedOrder();
+		for (int i = 0; i < size; i++) {
+			int entry = order == null ? i : order[i];
+			out.writeLong(traceIds[entry]);
+			out.writeLong(blockOffsets[entry]);
+			out.writeInt(offsetsInBlock[entry]);
+		}
+	}
+
+	/**
+	 * Computes the order of the entries sorted by trace identifier.
+	 * 
+	 * @return entry indices in sorted order, null if the entries have been added in sorted order
+	 */
+	private int[] sortedOrder() {
+		boolean sorted = true;
+		for (int i = 1; i < size && sorted; i++) {
+			sorted = traceIds[i - 1] <= traceIds[i];
+		}
+		if (sorted) {
+			return null;
+		}
+
+		int[] order = new int[size];
+		for (int i = 0; i < size; i++) {
+			order[i] = i;
+		}
+		mergeSort(order, new int[size], 0, size);
+		return order;
+	}
+
+	/**
+	 * Stable merge sort of entry indices by trace identifier.
+	 * 
+	 * @param order
+	 *            entry indices to sort
+	 * @param buffer
+	 *            temporary buffer of the same size
+	 * @param from
+	 *            first index of the range to sort (inclusive)
+	 * @param to
+	 *            last index of the range to sort (exclusive)
+	 */
+	private void mergeSort(int[] order, int[] buffer, int from, int to) {
+		if (to - from < 2) {
+			return;
+		}
+		int middle = (from + to) >>> 1;
+		mergeSort(order, buffer, from, middle);
+		mergeSort(order, buffer, middle, to);
+		if (traceIds[order[middle - 1]] <= traceIds[order[middle]]) {
+			return;
+		}
+		System.arraycopy(order, from, buffer, from, to - from);
+		int left = from;
+		int right = middle;
+		for (int i = from; i < to; i++) {
+			if (right >= to || (left < middle && traceIds[buffer[left]] <= traceIds[buffer[right]])) {
+				order[i] = buffer[left++];
+			} else {
+				order[i] = buffer[right++];
+			}
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package rocks.cta.dflt.impl.serialization.realizations.archive;
+
+import java.util.Arrays;
+
+/**
+ * Codec storing blocks without compression.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class UncompressedBlockCodec implements BlockCodec {
+
+	/**
+	 * Identifier of this codec.
+	 */
+	public static final byte ID = 0;
+
+	@Override
+	public byte getId() {
+		return ID;
+	}
+
+	@Override
+	public byte[] encode(byte[] data, int length) {
+		return Arrays.copyOf(data, length);
+	}
+
+	@Override
+	public void decode(byte[] encoded, int encodedLength, byte[] target, int decodedLength) {
+		if (encodedLength != decodedLength) {
+			throw new IllegalStateException("Invalid length of uncompressed block: " + encodedLength);
+		}
+		System.arraycopy(encoded, 0, target, 0, decodedLength);
+	}
+}
@@ -0,0 +1,104 @@
+package rocks.cta.dflt.impl.serialization.realizations.serializers;
+
+import rocks.cta.dflt.impl.core.SubTraceImpl;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.core.callables.AbstractCallableImpl;
+import rocks.cta.dflt.impl.core.callables.AbstractNestingCallableImpl;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Base class of the serializers of the callable types. Within a trace, a callable serializer only
+ * writes the fields specific to its callable type. The fields common to all callables and the call
+ * tree structure are written by the {@link TraceImplSerializer}, which uses the kryo registration
+ * identifier of the callable class as type tag.
+ * 
+ * A callable can also be serialized on its own by {@link Kryo#writeObject(Output, Object)}. Then,
+ * the call tree rooted at the callable is written in the layout of the {@link TraceImplSerializer}
+ * with its own String table. Target sub traces of remote invocations are not written. On reading,
+ * the call tree is attached to a new sub trace of a new trace, both with identifier 0.
+ * 
+ * @author Alexander Wert
+ * 
+ * @param <T>
+ *            callable type
+ */
+public abstract class CallableSerializer<T extends AbstractCallableImpl> extends Serializer<T> {
+
+	@Override
+	public void write(Kryo kryo, Output output, T callable) {
+		TraceImplSerializer.writeCallTree(kryo, output, callable, TraceSerializationContext.forDetachedCallTree(true));
+	}
+
+	@Override
+	public T read(Kryo kryo, Input input, Class<T> type) {
+		TraceImpl trace = new TraceImpl(0);
+		SubTraceImpl subTrace = new SubTraceImpl(0, null, trace);
+		trace.setRoot(subTrace);
+		AbstractCallableImpl root = TraceImplSerializer.readCallTree(kryo, input, subTrace,
+				TraceSerializationContext.forDetachedCallTree(false));
+		if (!type.isInstance(root)) {
+			throw new KryoException("Expected a callable of type " + type.getName() + " but found " + root.getClass().getName());
+		}
+		subTrace.setRoot(root);
+		return type.cast(root);
+	}
+
+	/**
+	 * Creates a new callable and adds it to the passed parent.
+	 * 
+	 * @param parent
+	 *            parent callable, may be null
+	 * @param subTrace
+	 *            containing sub trace
+	 * @return new callable
+	 */
+	abstract T create(AbstractNestingCallableImpl parent, SubTraceImpl subTrace);
+
+	/**
+	 * Writes the fields specific to the callable type.
+	 * 
+	 * @param kryo
+	 *            kryo instance
+	 * @param output
+	 *            output to write to
+	 * @param callable
+	 *            callable to write
+	 * @param context
+	 *            state of the trace serialization
+	 */
+	abstract void writeFields(Kryo kryo, Output output, T callable, TraceSerializationContext context);
+
+	/**
+	 * Reads the fields specific to the callable type.
+	 * 
+	 * @param kryo
+	 *            kryo instance
+	 * @param input
+	 *            input to read from
+	 * @param callable
+	 *            callable to fill
+	 * @param context
+	 *            state of the trace deserialization
+	 */
+	abstract void readFields(Kryo kryo, Input input, T callable, TraceSerializationContext context);
+
+	/**
+	 * Combines presence flags.
+	 * 
+	 * @param flags
+	 *            current flags
+	 * @param flag
+	 *            flag to set
+	 * @param present
+	 *            whether to set the flag
+	 * @return new flags
+	 */
+	static int flag(int flags, int flag, boolean present) {
+		return present ? flags | flag : flags;
+	}
+}
@@ -0,0 +1,52 @@
+package rocks.cta.dflt.impl.serialization.realizations.serializers;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+
+import rocks.cta.dflt.impl.core.SubTraceImpl;
+import rocks.cta.dflt.impl.core.callables.AbstractNestingCallableImpl;
+import rocks.cta.dflt.impl.core.callables.DatabaseInvocationImpl;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Serializer for {@link DatabaseInvocationImpl} instances.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class DatabaseInvocationSerializer extends CallableSerializer<DatabaseInvocationImpl> {
+
+	@Override
+	DatabaseInvocationImpl create(AbstractNestingCallableImpl parent, SubTraceImpl subTrace) {
+		return new DatabaseInvocationImpl(parent, subTrace);
+	}
+
+	@Override
+	void writeFields(Kryo kryo, Output output, DatabaseInvocationImpl callable, TraceSerializationContext context) {
+		output.writeBoolean(callable.isPrepared().orElse(false));
+		context.writeString(output, callable.getSQLStatement());
+		context.writeIndexedMap(output, callable.getParameterBindings().orElse(null));
+		context.writeString(output, callable.getDBProductName().orElse(null));
+		context.writeString(output, callable.getDBProductVersion().orElse(null));
+		context.writeString(output, callable.getDBUrl().orElse(null));
+	}
+
+	@Override
+	void readFields(Kryo kryo, Input input, DatabaseInvocationImpl callable, TraceSerializationContext context) {
+		callable.setPrepared(input.readBoolean());
+		callable.setSQLStatement(context.readString(input));
+		Map<Integer, String> parameterBindings = context.readIndexedMap(input);
+		if (parameterBindings != null) {
+			for (Entry<Integer, String> entry : parameterBindings.entrySet()) {
+				callable.addParameterBinding(entry.getKey(), entry.getValue());
+			}
+		}
+		callable.setDBProductName(Optional.ofNullable(context.readString(input)));
+		callable.setDBProductVersion(Optional.ofNullable(context.readString(input)));
+		callable.setDBUrl(Optional.ofNullable(context.readString(input)));
+	}
+}
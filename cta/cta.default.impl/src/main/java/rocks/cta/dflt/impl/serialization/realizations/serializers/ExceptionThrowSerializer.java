@@ -0,0 +1,39 @@
+package rocks.cta.dflt.impl.serialization.realizations.serializers;
+
+import rocks.cta.dflt.impl.core.SubTraceImpl;
+import rocks.cta.dflt.impl.core.callables.AbstractNestingCallableImpl;
+import rocks.cta.dflt.impl.core.callables.ExceptionThrowImpl;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Serializer for {@link ExceptionThrowImpl} instances.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class ExceptionThrowSerializer extends CallableSerializer<ExceptionThrowImpl> {
+
+	@Override
+	ExceptionThrowImpl create(AbstractNestingCallableImpl parent, SubTraceImpl subTrace) {
+		return new ExceptionThrowImpl(parent, subTrace);
+	}
+
+	@Override
+	void writeFields(Kryo kryo, Output output, ExceptionThrowImpl callable, TraceSerializationContext context) {
+		context.writeValue(output, callable.getErrorMessage());
+		context.writeValue(output, callable.getCause().orElse(null));
+		context.writeValue(output, callable.getStackTrace().orElse(null));
+		context.writeString(output, callable.getThrowableType().orElse(null));
+	}
+
+	@Override
+	void readFields(Kryo kryo, Input input, ExceptionThrowImpl callable, TraceSerializationContext context) {
+		callable.setErrorMessage(context.readValue(input));
+		callable.setCause(context.readValue(input));
+		callable.setStackTrace(context.readValue(input));
+		callable.setThrowableType(context.readString(input));
+	}
+}
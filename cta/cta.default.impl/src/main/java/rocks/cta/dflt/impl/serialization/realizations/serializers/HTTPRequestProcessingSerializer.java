@@ -0,0 +1,82 @@
+package rocks.cta.dflt.impl.serialization.realizations.serializers;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import rocks.cta.api.core.callables.HTTPMethod;
+import rocks.cta.dflt.impl.core.SubTraceImpl;
+import rocks.cta.dflt.impl.core.callables.AbstractNestingCallableImpl;
+import rocks.cta.dflt.impl.core.callables.HTTPRequestProcessingImpl;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Serializer for {@link HTTPRequestProcessingImpl} instances.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class HTTPRequestProcessingSerializer extends CallableSerializer<HTTPRequestProcessingImpl> {
+
+	/**
+	 * HTTP methods by ordinal.
+	 */
+	private static final HTTPMethod[] HTTP_METHODS = HTTPMethod.values();
+
+	@Override
+	HTTPRequestProcessingImpl create(AbstractNestingCallableImpl parent, SubTraceImpl subTrace) {
+		return new HTTPRequestProcessingImpl(parent, subTrace);
+	}
+
+	@Override
+	void writeFields(Kryo kryo, Output output, HTTPRequestProcessingImpl callable, TraceSerializationContext context) {
+		context.writeValue(output, callable.getUri());
+		output.writeVarInt(callable.getRequestMethod().map(method -> method.ordinal() + 1).orElse(0), true);
+
+		Map<String, String[]> parameters = callable.getHTTPParameters().orElse(null);
+		if (parameters == null) {
+			output.writeVarInt(0, true);
+		} else {
+			output.writeVarInt(parameters.size() + 1, true);
+			for (Entry<String, String[]> entry : parameters.entrySet()) {
+				context.writeString(output, entry.getKey());
+				output.writeVarInt(entry.getValue().length, true);
+				for (String value : entry.getValue()) {
+					context.writeValue(output, value);
+				}
+			}
+		}
+		context.writeStringMap(output, callable.getHTTPAttributes().orElse(null));
+		context.writeStringMap(output, callable.getHTTPSessionAttributes().orElse(null));
+		context.writeStringMap(output, callable.getHTTPHeaders().orElse(null));
+	}
+
+	@Override
+	void readFields(Kryo kryo, Input input, HTTPRequestProcessingImpl callable, TraceSerializationContext context) {
+		callable.setUri(context.readValue(input));
+		int requestMethod = input.readVarInt(true);
+		if (requestMethod > 0) {
+			callable.setRequestMethod(HTTP_METHODS[requestMethod - 1]);
+		}
+
+		int numParameters = input.readVarInt(true) - 1;
+		if (numParameters >= 0) {
+			Map<String, String[]> parameters = new HashMap<String, String[]>();
+			for (int i = 0; i < numParameters; i++) {
+				String name = context.readString(input);
+				String[] values = new String[input.readVarInt(true)];
+				for (int j = 0; j < values.length; j++) {
+					values[j] = context.readValue(input);
+				}
+				parameters.put(name, values);
+			}
+			callable.setHTTPParameters(parameters);
+		}
+		callable.setHTTPAttributes(context.readStringMap(input));
+		callable.setHTTPSessionAttributes(context.readStringMap(input));
+		callable.setHTTPHeaders(context.readStringMap(input));
+	}
+}
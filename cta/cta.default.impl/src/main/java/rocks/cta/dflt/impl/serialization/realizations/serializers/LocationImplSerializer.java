@@ -0,0 +1,38 @@
+package rocks.cta.dflt.impl.serialization.realizations.serializers;
+
+import rocks.cta.dflt.impl.core.LocationImpl;
+import rocks.cta.dflt.impl.core.LocationPool;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Serializer for {@link LocationImpl} instances. Absent optional values are written as null
+ * Strings. Read locations are interned in the default {@link LocationPool}.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class LocationImplSerializer extends Serializer<LocationImpl> {
+
+	@Override
+	public void write(Kryo kryo, Output output, LocationImpl location) {
+		output.writeString(location.getHost());
+		output.writeString(location.getRuntimeEnvironment().orElse(null));
+		output.writeString(location.getApplication().orElse(null));
+		output.writeString(location.getBusinessTransaction().orElse(null));
+		output.writeString(location.getNodeType().orElse(null));
+	}
+
+	@Override
+	public LocationImpl read(Kryo kryo, Input input, Class<LocationImpl> type) {
+		String host = input.readString();
+		String runTimeEnvironment = input.readString();
+		String application = input.readString();
+		String businessTransaction = input.readString();
+		String nodeType = input.readString();
+		return LocationPool.getDefault().intern(host, runTimeEnvironment, application, businessTransaction, nodeType);
+	}
+}
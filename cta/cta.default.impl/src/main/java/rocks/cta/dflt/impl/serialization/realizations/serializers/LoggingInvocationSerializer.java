@@ -0,0 +1,35 @@
+package rocks.cta.dflt.impl.serialization.realizations.serializers;
+
+import rocks.cta.dflt.impl.core.SubTraceImpl;
+import rocks.cta.dflt.impl.core.callables.AbstractNestingCallableImpl;
+import rocks.cta.dflt.impl.core.callables.LoggingInvocationImpl;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Serializer for {@link LoggingInvocationImpl} instances.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class LoggingInvocationSerializer extends CallableSerializer<LoggingInvocationImpl> {
+
+	@Override
+	LoggingInvocationImpl create(AbstractNestingCallableImpl parent, SubTraceImpl subTrace) {
+		return new LoggingInvocationImpl(parent, subTrace);
+	}
+
+	@Override
+	void writeFields(Kryo kryo, Output output, LoggingInvocationImpl callable, TraceSerializationContext context) {
+		context.writeString(output, callable.getLoggingLevel().orElse(null));
+		context.writeValue(output, callable.getMessage());
+	}
+
+	@Override
+	void readFields(Kryo kryo, Input input, LoggingInvocationImpl callable, TraceSerializationContext context) {
+		callable.setLoggingLevel(context.readString(input));
+		callable.setMessage(context.readValue(input));
+	}
+}
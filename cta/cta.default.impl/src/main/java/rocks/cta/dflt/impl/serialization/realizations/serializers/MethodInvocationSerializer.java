@@ -0,0 +1,93 @@
+package rocks.cta.dflt.impl.serialization.realizations.serializers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+
+import rocks.cta.dflt.impl.core.SubTraceImpl;
+import rocks.cta.dflt.impl.core.callables.AbstractNestingCallableImpl;
+import rocks.cta.dflt.impl.core.callables.MethodInvocationImpl;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Serializer for {@link MethodInvocationImpl} instances.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class MethodInvocationSerializer extends CallableSerializer<MethodInvocationImpl> {
+
+	/**
+	 * Flag indicating a present CPU time.
+	 */
+	private static final int CPU_TIME = 1;
+
+	/**
+	 * Flag indicating present parameter types.
+	 */
+	private static final int PARAMETER_TYPES = 2;
+
+	@Override
+	MethodInvocationImpl create(AbstractNestingCallableImpl parent, SubTraceImpl subTrace) {
+		return new MethodInvocationImpl(parent, subTrace);
+	}
+
+	@Override
+	void writeFields(Kryo kryo, Output output, MethodInvocationImpl callable, TraceSerializationContext context) {
+		Optional<Long> cpuTime = callable.getCPUTime();
+		Optional<List<String>> parameterTypes = callable.getParameterTypes();
+		int flags = flag(0, CPU_TIME, cpuTime.isPresent());
+		flags = flag(flags, PARAMETER_TYPES, parameterTypes.isPresent());
+		output.writeByte(flags);
+
+		if (cpuTime.isPresent()) {
+			output.writeVarLong(cpuTime.get(), false);
+		}
+		context.writeString(output, callable.getSignature());
+		context.writeString(output, callable.getMethodName().orElse(null));
+		context.writeString(output, callable.getClassName().orElse(null));
+		context.writeString(output, callable.getPackageName().orElse(null));
+		context.writeString(output, callable.getReturnType().orElse(null));
+		if (parameterTypes.isPresent()) {
+			output.writeVarInt(parameterTypes.get().size(), true);
+			for (String parameterType : parameterTypes.get()) {
+				context.writeString(output, parameterType);
+			}
+		}
+		context.writeIndexedMap(output, callable.getParameterValues().orElse(null));
+	}
+
+	@Override
+	void readFields(Kryo kryo, Input input, MethodInvocationImpl callable, TraceSerializationContext context) {
+		int flags = input.readByte();
+
+		if ((flags & CPU_TIME) != 0) {
+			callable.setCPUTime(input.readVarLong(false));
+		}
+		String signature = context.readString(input);
+		String methodName = context.readString(input);
+		String className = context.readString(input);
+		String packageName = context.readString(input);
+		String returnType = context.readString(input);
+		List<String> parameterTypes = null;
+		if ((flags & PARAMETER_TYPES) != 0) {
+			int size = input.readVarInt(true);
+			parameterTypes = new ArrayList<String>(size);
+			for (int i = 0; i < size; i++) {
+				parameterTypes.add(context.readString(input));
+			}
+		}
+		callable.setSignature(signature, returnType, packageName, className, methodName, parameterTypes);
+		Map<Integer, String> parameterValues = context.readIndexedMap(input);
+		if (parameterValues != null) {
+			for (Entry<Integer, String> entry : parameterValues.entrySet()) {
+				callable.addParameterValue(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package rocks.cta.dflt.impl.serialization.realizations.serializers;
+
+import java.util.Optional;
+
+import rocks.cta.api.core.SubTrace;
+import rocks.cta.dflt.impl.core.SubTraceImpl;
+import rocks.cta.dflt.impl.core.callables.AbstractNestingCallableImpl;
+import rocks.cta.dflt.impl.core.callables.RemoteInvocationImpl;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Serializer for {@link RemoteInvocationImpl} instances. The target sub trace is written as
+ * reference into the sub traces of the trace. Target sub traces that are not reachable from the
+ * root sub trace are registered for writing when the remote invocation is written (see
+ * {@link TraceImplSerializer}). If the remote invocation is serialized detached from its trace, the
+ * target sub trace is not written.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class RemoteInvocationSerializer extends CallableSerializer<RemoteInvocationImpl> {
+
+	/**
+	 * Reference of an absent target sub trace.
+	 */
+	private static final int NO_TARGET = 0;
+
+	@Override
+	RemoteInvocationImpl create(AbstractNestingCallableImpl parent, SubTraceImpl subTrace) {
+		return new RemoteInvocationImpl(parent, subTrace);
+	}
+
+	@Override
+	void writeFields(Kryo kryo, Output output, RemoteInvocationImpl callable, TraceSerializationContext context) {
+		context.writeString(output, callable.getTarget());
+		Optional<SubTrace> target = callable.getTargetSubTrace();
+		if (target.isPresent() && !context.isDetached()) {
+			output.writeVarInt(context.register(target.get()) + 1, true);
+		} else {
+			output.writeVarInt(NO_TARGET, true);
+		}
+	}
+
+	@Override
+	void readFields(Kryo kryo, Input input, RemoteInvocationImpl callable, TraceSerializationContext context) {
+		callable.setTarget(context.readString(input));
+		int reference = input.readVarInt(true);
+		if (reference != NO_TARGET) {
+			callable.setTargetSubTrace(context.getSubTrace(reference - 1));
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package rocks.cta.dflt.impl.serialization.realizations.serializers;
+
+import java.util.Arrays;
+
+import rocks.cta.dflt.impl.core.StringPool;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Dictionary of Strings shared by all traces of a stream. Traces refer to Strings of low cardinality
+ * by their identifier in the dictionary (see {@link TraceSerializationContext}). The writer emits the Strings added to the dictionary since the last
+ * delta as dictionary delta, which precedes the first trace referring to these Strings. The reader
+ * rebuilds the dictionary from the deltas, hence, all traces read from the stream share the same
+ * String instances.
+ * 
+ * The dictionary only grows, identifiers remain valid for the whole stream. Lazily read call trees
+ * are decoded with a {@link #snapshot()} taken when their trace is read, which may be used by
+ * other threads while the reader adds further deltas.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class SharedStringDictionary {
+
+	/**
+	 * Initial capacity of the read Strings.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * Strings registered to be written.
+	 */
+	private final StringPool strings;
+
+	/**
+	 * Strings read from deltas indexed by their identifier. Entries below {@link #deltaEnd} are
+	 * never modified, the array is replaced when growing.
+	 */
+	private String[] readStrings;
+
+	/**
+	 * Number of Strings written or read as deltas.
+	 */
+	private int deltaEnd;
+
+	/**
+	 * Whether this dictionary is a snapshot that must not be modified.
+	 */
+	private final boolean snapshot;
+
+	/**
+	 * Constructor. Creates an empty dictionary.
+	 */
+	public SharedStringDictionary() {
+		this.strings = new StringPool();
+		this.readStrings = new String[INITIAL_CAPACITY];
+		this.snapshot = false;
+	}
+
+	/**
+	 * Constructor for snapshots.
+	 * 
+	 * @param readStrings
+	 *            read Strings shared with the dictionary the snapshot is taken from
+	 * @param size
+	 *            number of read Strings visible in the snapshot
+	 */
+	private SharedStringDictionary(String[] readStrings, int size) {
+		this.strings = null;
+		this.readStrings = readStrings;
+		this.deltaEnd = size;
+		this.snapshot = true;
+	}
+
+	/**
+	 * Returns a read-only view of the Strings read so far. The snapshot is not affected by further
+	 * deltas, hence, it can be used by another thread while this dictionary is read further.
+	 * Taking a snapshot does not copy the Strings.
+	 * 
+	 * @return the snapshot
+	 */
+	SharedStringDictionary snapshot() {
+		return snapshot ? this : new SharedStringDictionary(readStrings, deltaEnd);
+	}
+
+	/**
+	 * Registers a String to be written.
+	 * 
+	 * @param value
+	 *            String to register, may be null
+	 * @return identifier of the String, {@link StringPool#NULL_ID} for null
+	 */
+	int register(String value) {
+		checkNotSnapshot();
+		return strings.register(value);
+	}
+
+	/**
+	 * Resolves a read identifier.
+	 * 
+	 * @param id
+	 *            identifier of the String
+	 * @return the String, null for {@link StringPool#NULL_ID}
+	 */
+	String get(int id) {
+		if (id == StringPool.NULL_ID) {
+			return null;
+		}
+		if (id < 0 || id >= deltaEnd) {
+			throw new IllegalStateException("Invalid String reference: " + id);
+		}
+		return readStrings[id];
+	}
+
+	/**
+	 * @return true, if Strings have been registered since the last delta
+	 */
+	public boolean hasDelta() {
+		return strings != null && strings.size() > deltaEnd;
+	}
+
+	/**
+	 * Writes the Strings registered since the last delta.
+	 * 
+	 * @param output
+	 *            output to write to
+	 */
+	public void writeDelta(Output output) {
+		checkNotSnapshot();
+		output.writeVarInt(deltaEnd, true);
+		output.writeVarInt(strings.size() - deltaEnd, true);
+		for (int id = deltaEnd; id < strings.size(); id++) {
+			output.writeString(strings.get(id));
+		}
+		deltaEnd = strings.size();
+	}
+
+	/**
+	 * Reads a delta and adds its Strings to the dictionary.
+	 * 
+	 * @param input
+	 *            input to read from
+	 */
+	public void readDelta(Input input) {
+		checkNotSnapshot();
+		int start = input.readVarInt(true);
+		if (start != deltaEnd) {
+			throw new IllegalStateException("Dictionary delta starts at " + start + ", expected " + deltaEnd);
+		}
+		int count = input.readVarInt(true);
+		if (deltaEnd + count > readStrings.length) {
+			// snapshots keep referring to the previous array
+			readStrings = Arrays.copyOf(readStrings, Math.max(readStrings.length * 2, deltaEnd + count));
+		}
+		for (int i = 0; i < count; i++) {
+			readStrings[deltaEnd] = input.readString();
+			deltaEnd++;
+		}
+	}
+
+	/**
+	 * @return number of Strings in the dictionary
+	 */
+	public int size() {
+		return strings != null ? Math.max(strings.size(), deltaEnd) : deltaEnd;
+	}
+
+	/**
+	 * Ensures that this dictionary is not a snapshot.
+	 */
+	private void checkNotSnapshot() {
+		if (snapshot) {
+			throw new IllegalStateException("Dictionary snapshots cannot be modified.");
+		}
+	}
+}
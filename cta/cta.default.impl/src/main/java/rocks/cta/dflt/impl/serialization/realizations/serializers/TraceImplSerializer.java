@@ -0,0 +1,451 @@
+package rocks.cta.dflt.impl.serialization.realizations.serializers;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import rocks.cta.api.core.Location;
+import rocks.cta.api.core.SubTrace;
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.NestingCallable;
+import rocks.cta.api.core.callables.TimedCallable;
+import rocks.cta.dflt.impl.core.LocationImpl;
+import rocks.cta.dflt.impl.core.SubTraceImpl;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.core.callables.AbstractCallableImpl;
+import rocks.cta.dflt.impl.core.callables.AbstractNestingCallableImpl;
+import rocks.cta.dflt.impl.core.callables.AbstractTimedCallableImpl;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Registration;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Serializer for {@link TraceImpl} instances. Writes the trace in the following layout:
+ * <ul>
+ * <li>trace identifier and number of sub traces,</li>
+ * <li>for each sub trace: its header and its response time,</li>
+ * <li>for each sub trace: the length of its call tree in bytes followed by the call tree.</li>
+ * </ul>
+ * A sub trace header consists of the reference to the parent sub trace, the sub trace identifier
+ * and the location. A location is written in full on its first occurrence in the trace, subsequent
+ * occurrences of equal locations are written as reference to the first one. Parents are written before their children. Call trees are written in
+ * pre-order. Each callable starts with the kryo registration identifier of its class as type tag,
+ * followed by its timestamp as delta to the timestamp of the parent, its response time and labels,
+ * its number of callees and the fields written by the {@link CallableSerializer} of its type.
+ * Numbers are written as variable length integers and Strings as references into a per-call-tree
+ * String table or, if they are of low cardinality, into a {@link SharedStringDictionary}.
+ * 
+ * As the sub trace skeleton precedes the call trees and each call tree is self-contained, a lazy
+ * serializer reads the skeleton right away and decodes the call tree of a sub trace only when its
+ * root is accessed first (see {@link SubTraceImpl#setRootLoader}). Call trees may be decoded by any
+ * thread, hence, they are decoded with a kryo instance of the decoding thread, the type table of
+ * the stream and a snapshot of the shared dictionary taken when the trace has been read.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class TraceImplSerializer extends Serializer<TraceImpl> {
+
+	/**
+	 * Initial capacity of the stack used to read call trees.
+	 */
+	private static final int INITIAL_STACK_SIZE = 32;
+
+	/**
+	 * Initial size of the call tree buffer [bytes].
+	 */
+	private static final int INITIAL_BUFFER_SIZE = 4096;
+
+	/**
+	 * Call tree buffers grown beyond this size [bytes] are replaced after writing a trace in order
+	 * to not retain the memory of exceptionally large traces.
+	 */
+	private static final int MAX_RETAINED_BUFFER_SIZE = 4 * 1024 * 1024;
+
+	/**
+	 * Marker of a location written as reference to an equal location of a preceding sub trace
+	 * header. The markers of absent and fully written locations are {@link Kryo#NULL} and
+	 * {@link Kryo#NOT_NULL}.
+	 */
+	private static final byte LOCATION_REFERENCE = 2;
+
+	/**
+	 * Provides the kryo instance of the current thread to decode call trees on demand. Null if
+	 * call trees are decoded right away.
+	 */
+	private final Supplier<Kryo> loaderKryo;
+
+	/**
+	 * Buffer for the call trees of the trace being written.
+	 */
+	private Output callTreeBuffer = new Output(INITIAL_BUFFER_SIZE, -1);
+
+	/**
+	 * Registrations indexed by the type tags of the stream being read. Null if the type tags are
+	 * the registration identifiers of the kryo instance.
+	 */
+	private Registration[] streamTypes;
+
+	/**
+	 * Dictionary shared by all traces of the stream being written or read. Null if each call tree
+	 * has its own String table.
+	 */
+	private SharedStringDictionary dictionary;
+
+	/**
+	 * Constructor. Creates a serializer reading complete traces.
+	 */
+	public TraceImplSerializer() {
+		this(null);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param loaderKryo
+	 *            if not null, call trees are decoded when the root of their sub trace is accessed
+	 *            first, using the kryo instance provided for the accessing thread. The provided
+	 *            instances must not be used by other threads and must be compatible with the kryo
+	 *            instance of this serializer.
+	 */
+	public TraceImplSerializer(Supplier<Kryo> loaderKryo) {
+		this.loaderKryo = loaderKryo;
+	}
+
+	/**
+	 * Sets the types of the stream to read.
+	 * 
+	 * @param streamTypes
+	 *            registrations indexed by the type tags of the stream, null if the type tags are the
+	 *            registration identifiers of the kryo instance
+	 */
+	public void setStreamTypes(Registration[] streamTypes) {
+		this.streamTypes = streamTypes;
+	}
+
+	/**
+	 * Sets the dictionary of the stream to write or read.
+	 * 
+	 * @param dictionary
+	 *            dictionary shared by all traces of the stream, null to use a String table per call
+	 *            tree
+	 */
+	public void setDictionary(SharedStringDictionary dictionary) {
+		this.dictionary = dictionary;
+	}
+
+	/**
+	 * @return dictionary shared by all traces of the stream, null if each call tree has its own
+	 *         String table
+	 */
+	public SharedStringDictionary getDictionary() {
+		return dictionary;
+	}
+
+	@Override
+	public void write(Kryo kryo, Output output, TraceImpl trace) {
+		TraceSerializationContext context = TraceSerializationContext.forWriting(dictionary);
+		output.writeVarLong(trace.getTraceId(), false);
+		if (trace.getRoot() != null) {
+			context.register(trace.getRoot());
+		}
+
+		// call trees are buffered as they may register further sub traces
+		Output buffer = callTreeBuffer;
+		buffer.clear();
+		int[] callTreeEnds = new int[INITIAL_STACK_SIZE];
+		for (int i = 0; i < context.getSubTraceCount(); i++) {
+			SubTraceImpl subTrace = context.getSubTrace(i);
+			for (SubTrace child : subTrace.getSubTraces()) {
+				context.register(child);
+			}
+			writeCallTree(kryo, buffer, subTrace.getRoot(), context.forCallTree());
+			if (i == callTreeEnds.length) {
+				callTreeEnds = Arrays.copyOf(callTreeEnds, i * 2);
+			}
+			callTreeEnds[i] = buffer.position();
+		}
+
+		output.writeVarInt(context.getSubTraceCount(), true);
+		for (int i = 0; i < context.getSubTraceCount(); i++) {
+			SubTraceImpl subTrace = context.getSubTrace(i);
+			writeSubTraceHeader(kryo, output, subTrace, context);
+			output.writeVarLong(subTrace.getResponseTime(), false);
+		}
+		int callTreeStart = 0;
+		for (int i = 0; i < context.getSubTraceCount(); i++) {
+			output.writeVarInt(callTreeEnds[i] - callTreeStart, true);
+			output.writeBytes(buffer.getBuffer(), callTreeStart, callTreeEnds[i] - callTreeStart);
+			callTreeStart = callTreeEnds[i];
+		}
+
+		if (buffer.getBuffer().length > MAX_RETAINED_BUFFER_SIZE) {
+			callTreeBuffer = new Output(INITIAL_BUFFER_SIZE, -1);
+		}
+	}
+
+	@Override
+	public TraceImpl read(Kryo kryo, Input input, Class<TraceImpl> type) {
+		boolean lazy = loaderKryo != null;
+		// the dictionary may grow while lazily read call trees are decoded
+		SharedStringDictionary traceDictionary = lazy && dictionary != null ? dictionary.snapshot() : dictionary;
+		TraceSerializationContext context = TraceSerializationContext.forReading(streamTypes, traceDictionary);
+		TraceImpl trace = new TraceImpl(input.readVarLong(false));
+		int numSubTraces = input.readVarInt(true);
+		long[] responseTimes = new long[numSubTraces];
+		for (int i = 0; i < numSubTraces; i++) {
+			readSubTraceHeader(kryo, input, trace, context);
+			responseTimes[i] = input.readVarLong(false);
+		}
+		if (numSubTraces > 0) {
+			trace.setRoot(context.getSubTrace(0));
+		}
+
+		for (int i = 0; i < numSubTraces; i++) {
+			SubTraceImpl subTrace = context.getSubTrace(i);
+			int length = input.readVarInt(true);
+			if (length == 0) {
+				continue;
+			}
+			if (lazy) {
+				// each attempt starts with an empty String table, as a failed attempt may leave a
+				// partially filled one behind
+				byte[] callTree = input.readBytes(length);
+				subTrace.setRootLoader(() -> readCallTree(loaderKryo.get(), new Input(callTree), subTrace, context.forCallTree()),
+						responseTimes[i]);
+			} else {
+				subTrace.setRoot(readCallTree(kryo, input, subTrace, context.forCallTree()));
+			}
+		}
+		return trace;
+	}
+
+	/**
+	 * Writes the header of a sub trace.
+	 * 
+	 * @param kryo
+	 *            kryo instance
+	 * @param output
+	 *            output to write to
+	 * @param subTrace
+	 *            sub trace to write
+	 * @param context
+	 *            state of the trace serialization
+	 */
+	private void writeSubTraceHeader(Kryo kryo, Output output, SubTraceImpl subTrace, TraceSerializationContext context) {
+		int parentReference = subTrace.getParent() == null ? 0 : context.indexOf(subTrace.getParent()) + 1;
+		output.writeVarInt(parentReference, true);
+		output.writeVarLong(subTrace.getSubTraceId(), false);
+		Location location = subTrace.getLocation();
+		if (location != null && !(location instanceof LocationImpl)) {
+			throw new IllegalArgumentException("Unsupported location type: " + location.getClass().getName());
+		}
+		if (location == null) {
+			output.writeByte(Kryo.NULL);
+			return;
+		}
+		int locationReference = context.registerLocation(location);
+		if (locationReference >= 0) {
+			output.writeByte(LOCATION_REFERENCE);
+			output.writeVarInt(locationReference, true);
+		} else {
+			output.writeByte(Kryo.NOT_NULL);
+			kryo.writeObject(output, location);
+		}
+	}
+
+	/**
+	 * Reads the header of a sub trace and appends the sub trace to the read sub traces.
+	 * 
+	 * @param kryo
+	 *            kryo instance
+	 * @param input
+	 *            input to read from
+	 * @param trace
+	 *            containing trace
+	 * @param context
+	 *            state of the trace deserialization
+	 * @return the sub trace
+	 */
+	private SubTraceImpl readSubTraceHeader(Kryo kryo, Input input, TraceImpl trace, TraceSerializationContext context) {
+		int parentReference = input.readVarInt(true);
+		SubTraceImpl parent = parentReference == 0 ? null : context.getSubTrace(parentReference - 1);
+		SubTraceImpl subTrace = new SubTraceImpl(input.readVarLong(false), parent, trace);
+		byte locationMarker = input.readByte();
+		if (locationMarker == LOCATION_REFERENCE) {
+			subTrace.setLocation(context.getLocation(input.readVarInt(true)));
+		} else if (locationMarker != Kryo.NULL) {
+			LocationImpl location = kryo.readObject(input, LocationImpl.class);
+			context.addLocation(location);
+			subTrace.setLocation(location);
+		}
+		context.addSubTrace(subTrace);
+		return subTrace;
+	}
+
+	/**
+	 * Writes a call tree in pre-order.
+	 * 
+	 * @param kryo
+	 *            kryo instance
+	 * @param output
+	 *            output to write to
+	 * @param root
+	 *            root of the call tree, may be null
+	 * @param context
+	 *            state of the trace serialization
+	 */
+	static void writeCallTree(Kryo kryo, Output output, Callable root, TraceSerializationContext context) {
+		if (root == null) {
+			return;
+		}
+
+		Deque<Callable> stack = new ArrayDeque<Callable>();
+		stack.push(root);
+		while (!stack.isEmpty()) {
+			Callable callable = stack.pop();
+			List<Callable> callees = writeCallable(kryo, output, callable, callable == root, context);
+			for (int i = callees.size() - 1; i >= 0; i--) {
+				stack.push(callees.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Writes a single callable without its callees.
+	 * 
+	 * @param kryo
+	 *            kryo instance
+	 * @param output
+	 *            output to write to
+	 * @param callable
+	 *            callable to write
+	 * @param root
+	 *            whether the callable is the root of the written call tree
+	 * @param context
+	 *            state of the trace serialization
+	 * @return the callees of the written callable
+	 */
+	@SuppressWarnings("unchecked")
+	private static List<Callable> writeCallable(Kryo kryo, Output output, Callable callable, boolean root, TraceSerializationContext context) {
+		Registration registration = kryo.getRegistration(callable.getClass());
+		if (!(registration.getSerializer() instanceof CallableSerializer)) {
+			throw new IllegalArgumentException("Unsupported callable type: " + callable.getClass().getName());
+		}
+		output.writeVarInt(registration.getId(), true);
+
+		long parentTimestamp = root || callable.getParent() == null ? 0 : callable.getParent().getTimestamp();
+		output.writeVarLong(callable.getTimestamp() - parentTimestamp, false);
+		if (callable instanceof TimedCallable) {
+			output.writeVarLong(((TimedCallable) callable).getResponseTime(), false);
+		}
+
+		Optional<List<String>> labels = callable.getLabels();
+		if (labels.isPresent()) {
+			output.writeVarInt(labels.get().size() + 1, true);
+			for (String label : labels.get()) {
+				context.writeString(output, label);
+			}
+		} else {
+			output.writeVarInt(0, true);
+		}
+
+		List<Callable> callees = callable instanceof NestingCallable ? ((NestingCallable) callable).getCallees() : null;
+		if (callees != null) {
+			output.writeVarInt(callees.size(), true);
+		}
+
+		((CallableSerializer<AbstractCallableImpl>) registration.getSerializer()).writeFields(kryo, output,
+				(AbstractCallableImpl) callable, context);
+		return callees == null ? Collections.<Callable> emptyList() : callees;
+	}
+
+	/**
+	 * Reads a non-empty call tree. The callables with pending callees are kept on an explicit
+	 * stack.
+	 * 
+	 * @param kryo
+	 *            kryo instance
+	 * @param input
+	 *            input to read from
+	 * @param subTrace
+	 *            sub trace containing the call tree
+	 * @param context
+	 *            state of the call tree deserialization
+	 * @return root of the call tree
+	 */
+	@SuppressWarnings("unchecked")
+	static AbstractCallableImpl readCallTree(Kryo kryo, Input input, SubTraceImpl subTrace, TraceSerializationContext context) {
+		AbstractCallableImpl root = null;
+		AbstractNestingCallableImpl[] parents = new AbstractNestingCallableImpl[INITIAL_STACK_SIZE];
+		int[] pendingCallees = new int[INITIAL_STACK_SIZE];
+		int top = -1;
+		do {
+			AbstractNestingCallableImpl parent = top < 0 ? null : parents[top];
+			Registration registration = context.readType(kryo, input);
+			if (!(registration.getSerializer() instanceof CallableSerializer)) {
+				throw new IllegalStateException("Unexpected type tag: " + registration.getId());
+			}
+			CallableSerializer<AbstractCallableImpl> serializer = (CallableSerializer<AbstractCallableImpl>) registration.getSerializer();
+			AbstractCallableImpl callable = serializer.create(parent, subTrace);
+			if (parent == null) {
+				root = callable;
+			}
+
+			long parentTimestamp = parent == null ? 0 : parent.getTimestamp();
+			callable.setTimestamp(parentTimestamp + input.readVarLong(false));
+			if (callable instanceof AbstractTimedCallableImpl) {
+				((AbstractTimedCallableImpl) callable).setResponseTime(input.readVarLong(false));
+			}
+			int numLabels = input.readVarInt(true) - 1;
+			for (int i = 0; i < numLabels; i++) {
+				callable.addLabel(context.readString(input));
+			}
+			int numCallees = 0;
+			if (callable instanceof AbstractNestingCallableImpl) {
+				numCallees = input.readVarInt(true);
+			}
+
+			serializer.readFields(kryo, input, callable, context);
+
+			if (top >= 0) {
+				pendingCallees[top]--;
+			}
+			if (numCallees > 0) {
+				top++;
+				if (top == parents.length) {
+					parents = Arrays.copyOf(parents, top * 2);
+					pendingCallees = Arrays.copyOf(pendingCallees, top * 2);
+				}
+				parents[top] = (AbstractNestingCallableImpl) callable;
+				pendingCallees[top] = numCallees;
+			}
+			while (top >= 0 && pendingCallees[top] == 0) {
+				parents[top] = null;
+				top--;
+			}
+		} while (top >= 0);
+		return root;
+	}
+
+	/**
+	 * Casts the passed sub trace to the default implementation.
+	 * 
+	 * @param subTrace
+	 *            sub trace to cast
+	 * @return the sub trace
+	 */
+	static SubTraceImpl toSubTraceImpl(SubTrace subTrace) {
+		if (!(subTrace instanceof SubTraceImpl)) {
+			throw new IllegalArgumentException("Unsupported sub trace type: " + subTrace.getClass().getName());
+		}
+		return (SubTraceImpl) subTrace;
+	}
+}
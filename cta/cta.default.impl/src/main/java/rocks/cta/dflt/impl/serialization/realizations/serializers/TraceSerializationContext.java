@@ -0,0 +1,458 @@
+package rocks.cta.dflt.impl.serialization.realizations.serializers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import rocks.cta.api.core.Location;
+import rocks.cta.api.core.SubTrace;
+import rocks.cta.dflt.impl.core.LocationImpl;
+import rocks.cta.dflt.impl.core.SubTraceImpl;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Registration;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * State shared by the serializers while writing or reading a single trace.
+ * 
+ * Strings are written as references into a String table that is built up on the fly: the first
+ * occurrence of a String is written in full, all subsequent occurrences are written as the index
+ * of the first occurrence. Each call tree has its own String table (see {@link #forCallTree()}),
+ * hence, call trees can be decoded independently of each other. If a
+ * {@link SharedStringDictionary} is used, Strings of low cardinality, such as signatures, SQL
+ * statements and labels, are written as references into the dictionary instead (see
+ * {@link #writeString(Output, String)}). Values of high cardinality, such as parameter values,
+ * messages and stack traces, always go into the String table of the call tree (see
+ * {@link #writeValue(Output, String)}), so that the dictionary, which lives as long as the stream,
+ * does not grow with every trace. Sub traces are referenced by the order in which they have been registered. Locations
+ * are written in full on their first occurrence in a trace and referenced by the order of their
+ * first occurrence afterwards.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+final class TraceSerializationContext {
+
+	/**
+	 * Reference of null Strings and absent values.
+	 */
+	private static final int NULL_REFERENCE = 0;
+
+	/**
+	 * String table indices of the written Strings, null for reading.
+	 */
+	private Map<String, Integer> stringIndices;
+
+	/**
+	 * String table of the read Strings, null for writing.
+	 */
+	private List<String> strings;
+
+	/**
+	 * Indices of the registered sub traces.
+	 */
+	private Map<SubTrace, Integer> subTraceIndices;
+
+	/**
+	 * Indices of the written locations, created on first use.
+	 */
+	private Map<Location, Integer> locationIndices;
+
+	/**
+	 * Locations in the order they have been read, created on first use.
+	 */
+	private List<LocationImpl> locations;
+
+	/**
+	 * Sub traces in the order they have been registered or read, null for detached call trees.
+	 */
+	private final List<SubTraceImpl> subTraces;
+
+	/**
+	 * Registrations indexed by the type tags of the read stream, null if the type tags are the
+	 * registration identifiers of the kryo instance.
+	 */
+	private final Registration[] streamTypes;
+
+	/**
+	 * Dictionary shared by all traces of the stream, null if each call tree has its own String
+	 * table.
+	 */
+	private final SharedStringDictionary dictionary;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param subTraces
+	 *            sub traces of the trace
+	 * @param subTraceIndices
+	 *            indices of the sub traces, null for reading
+	 * @param streamTypes
+	 *            registrations indexed by the type tags of the read stream, may be null
+	 * @param dictionary
+	 *            dictionary shared by all traces of the stream, may be null
+	 */
+	private TraceSerializationContext(List<SubTraceImpl> subTraces, Map<SubTrace, Integer> subTraceIndices,
+			Registration[] streamTypes, SharedStringDictionary dictionary) {
+		this.subTraces = subTraces;
+		this.subTraceIndices = subTraceIndices;
+		this.streamTypes = streamTypes;
+		this.dictionary = dictionary;
+		if (subTraceIndices != null) {
+			stringIndices = new HashMap<String, Integer>();
+		} else {
+			strings = new ArrayList<String>();
+		}
+	}
+
+	/**
+	 * Creates a context for writing a trace.
+	 * 
+	 * @param dictionary
+	 *            dictionary shared by all traces of the stream, null to write a String table per
+	 *            call tree
+	 * @return new context
+	 */
+	static TraceSerializationContext forWriting(SharedStringDictionary dictionary) {
+		return new TraceSerializationContext(new ArrayList<SubTraceImpl>(), new IdentityHashMap<SubTrace, Integer>(), null,
+				dictionary);
+	}
+
+	/**
+	 * Creates a context for reading a trace.
+	 * 
+	 * @param streamTypes
+	 *            registrations indexed by the type tags of the read stream, null if the type tags
+	 *            are the registration identifiers of the kryo instance
+	 * @param dictionary
+	 *            dictionary shared by all traces of the stream, null if each call tree has its own
+	 *            String table
+	 * @return new context
+	 */
+	static TraceSerializationContext forReading(Registration[] streamTypes, SharedStringDictionary dictionary) {
+		return new TraceSerializationContext(new ArrayList<SubTraceImpl>(), null, streamTypes, dictionary);
+	}
+
+	/**
+	 * Creates a context for writing or reading a call tree detached from its trace. The call tree
+	 * has its own String table and cannot refer to sub traces.
+	 * 
+	 * @param writing
+	 *            true for writing, false for reading
+	 * @return new context
+	 */
+	static TraceSerializationContext forDetachedCallTree(boolean writing) {
+		return new TraceSerializationContext(null, writing ? new IdentityHashMap<SubTrace, Integer>() : null, null, null);
+	}
+
+	/**
+	 * @return true, if the call tree is written or read detached from its trace, hence, sub traces
+	 *         cannot be referenced
+	 */
+	boolean isDetached() {
+		return subTraces == null;
+	}
+
+	/**
+	 * Creates a context for writing or reading a single call tree. The returned context shares the
+	 * sub traces and the shared dictionary with this context, but has its own String table.
+	 * 
+	 * @return new context
+	 */
+	TraceSerializationContext forCallTree() {
+		return new TraceSerializationContext(subTraces, subTraceIndices, streamTypes, dictionary);
+	}
+
+	/**
+	 * Writes a reference to the passed String of low cardinality. The String is written into the
+	 * shared dictionary, if used, and into the String table of the call tree otherwise.
+	 * 
+	 * @param output
+	 *            output to write to
+	 * @param value
+	 *            String to write, may be null
+	 */
+	void writeString(Output output, String value) {
+		if (value != null && dictionary != null) {
+			output.writeVarInt(dictionary.register(value) + 1, true);
+		} else {
+			writeValue(output, value);
+		}
+	}
+
+	/**
+	 * Reads a String written by {@link #writeString(Output, String)}.
+	 * 
+	 * @param input
+	 *            input to read from
+	 * @return the String, or null
+	 */
+	String readString(Input input) {
+		if (dictionary == null) {
+			return readValue(input);
+		}
+		int reference = input.readVarInt(true);
+		return reference == NULL_REFERENCE ? null : dictionary.get(reference - 1);
+	}
+
+	/**
+	 * Writes a reference to the passed String of potentially high cardinality. The String is
+	 * always written into the String table of the call tree.
+	 * 
+	 * @param output
+	 *            output to write to
+	 * @param value
+	 *            String to write, may be null
+	 */
+	void writeValue(Output output, String value) {
+		if (value == null) {
+			output.writeVarInt(NULL_REFERENCE, true);
+			return;
+		}
+		Integer index = stringIndices.get(value);
+		if (index != null) {
+			output.writeVarInt(index + 1, true);
+		} else {
+			int newIndex = stringIndices.size();
+			stringIndices.put(value, newIndex);
+			output.writeVarInt(newIndex + 1, true);
+			output.writeString(value);
+		}
+	}
+
+	/**
+	 * Reads a String written by {@link #writeValue(Output, String)}.
+	 * 
+	 * @param input
+	 *            input to read from
+	 * @return the String, or null
+	 */
+	String readValue(Input input) {
+		int reference = input.readVarInt(true);
+		if (reference == NULL_REFERENCE) {
+			return null;
+		} else if (reference <= strings.size()) {
+			return strings.get(reference - 1);
+		} else if (reference == strings.size() + 1) {
+			String value = input.readString();
+			strings.add(value);
+			return value;
+		}
+		throw new IllegalStateException("Invalid String reference: " + reference);
+	}
+
+	/**
+	 * Reads a type tag.
+	 * 
+	 * @param kryo
+	 *            kryo instance
+	 * @param input
+	 *            input to read from
+	 * @return registration of the type
+	 */
+	Registration readType(Kryo kryo, Input input) {
+		int tag = input.readVarInt(true);
+		Registration registration;
+		if (streamTypes == null) {
+			registration = kryo.getRegistration(tag);
+		} else {
+			registration = tag < streamTypes.length ? streamTypes[tag] : null;
+		}
+		if (registration == null) {
+			throw new IllegalStateException("Unknown type tag: " + tag);
+		}
+		return registration;
+	}
+
+	/**
+	 * Writes a map of Strings. Keys are written as Strings of low cardinality, values as Strings of
+	 * high cardinality. Absent maps and empty maps are distinguished.
+	 * 
+	 * @param output
+	 *            output to write to
+	 * @param map
+	 *            map to write, may be null
+	 */
+	void writeStringMap(Output output, Map<String, String> map) {
+		if (map == null) {
+			output.writeVarInt(NULL_REFERENCE, true);
+			return;
+		}
+		output.writeVarInt(map.size() + 1, true);
+		for (Entry<String, String> entry : map.entrySet()) {
+			writeString(output, entry.getKey());
+			writeValue(output, entry.getValue());
+		}
+	}
+
+	/**
+	 * Reads a map of Strings.
+	 * 
+	 * @param input
+	 *            input to read from
+	 * @return the map, or null
+	 */
+	Map<String, String> readStringMap(Input input) {
+		int size = input.readVarInt(true) - 1;
+		if (size < 0) {
+			return null;
+		}
+		Map<String, String> map = new HashMap<String, String>();
+		for (int i = 0; i < size; i++) {
+			map.put(readString(input), readValue(input));
+		}
+		return map;
+	}
+
+	/**
+	 * Writes a map with parameter indices as keys and values of high cardinality.
+	 * 
+	 * @param output
+	 *            output to write to
+	 * @param map
+	 *            map to write, may be null
+	 */
+	void writeIndexedMap(Output output, Map<Integer, String> map) {
+		if (map == null) {
+			output.writeVarInt(NULL_REFERENCE, true);
+			return;
+		}
+		output.writeVarInt(map.size() + 1, true);
+		for (Entry<Integer, String> entry : map.entrySet()) {
+			output.writeVarInt(entry.getKey(), false);
+			writeValue(output, entry.getValue());
+		}
+	}
+
+	/**
+	 * Reads a map with parameter indices as keys.
+	 * 
+	 * @param input
+	 *            input to read from
+	 * @return the map, or null
+	 */
+	Map<Integer, String> readIndexedMap(Input input) {
+		int size = input.readVarInt(true) - 1;
+		if (size < 0) {
+			return null;
+		}
+		Map<Integer, String> map = new HashMap<Integer, String>();
+		for (int i = 0; i < size; i++) {
+			map.put(input.readVarInt(false), readValue(input));
+		}
+		return map;
+	}
+
+	/**
+	 * Appends a sub trace to the registered or read sub traces.
+	 * 
+	 * @param subTrace
+	 *            sub trace to add
+	 * @return index of the sub trace
+	 */
+	int addSubTrace(SubTraceImpl subTrace) {
+		int index = subTraces.size();
+		subTraces.add(subTrace);
+		if (subTraceIndices != null) {
+			subTraceIndices.put(subTrace, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Registers a sub trace to be written, unless it has been registered before. The parent of the
+	 * sub trace is registered first, hence, parents always have a smaller index than their
+	 * children.
+	 * 
+	 * @param subTrace
+	 *            sub trace to register
+	 * @return index of the sub trace
+	 */
+	int register(SubTrace subTrace) {
+		int index = indexOf(subTrace);
+		if (index >= 0) {
+			return index;
+		}
+		if (subTrace.getParent() != null) {
+			register(subTrace.getParent());
+		}
+		return addSubTrace(TraceImplSerializer.toSubTraceImpl(subTrace));
+	}
+
+	/**
+	 * Returns the index of a registered sub trace.
+	 * 
+	 * @param subTrace
+	 *            sub trace of interest
+	 * @return index of the sub trace, -1 if it has not been registered yet
+	 */
+	int indexOf(SubTrace subTrace) {
+		Integer index = subTraceIndices.get(subTrace);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * @param index
+	 *            index of the sub trace
+	 * @return the sub trace with the passed index
+	 */
+	SubTraceImpl getSubTrace(int index) {
+		if (subTraces == null || index < 0 || index >= subTraces.size()) {
+			throw new IllegalStateException("Invalid sub trace reference: " + index);
+		}
+		return subTraces.get(index);
+	}
+
+	/**
+	 * @return number of sub traces registered or read so far
+	 */
+	int getSubTraceCount() {
+		return subTraces.size();
+	}
+
+	/**
+	 * Registers a location to be written, unless an equal location has been registered before.
+	 * 
+	 * @param location
+	 *            location to register
+	 * @return index of the equal location registered before, -1 if the location has been
+	 *         registered now
+	 */
+	int registerLocation(Location location) {
+		if (locationIndices == null) {
+			locationIndices = new HashMap<Location, Integer>();
+		}
+		Integer index = locationIndices.putIfAbsent(location, locationIndices.size());
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * Appends a location to the read locations.
+	 * 
+	 * @param location
+	 *            read location
+	 */
+	void addLocation(LocationImpl location) {
+		if (locations == null) {
+			locations = new ArrayList<LocationImpl>();
+		}
+		locations.add(location);
+	}
+
+	/**
+	 * @param index
+	 *            index of the location
+	 * @return the read location with the passed index
+	 */
+	LocationImpl getLocation(int index) {
+		if (locations == null || index < 0 || index >= locations.size()) {
+			throw new IllegalStateException("Invalid location reference: " + index);
+		}
+		return locations.get(index);
+	}
+}
@@ -1,10 +1,12 @@
 package rocks.cta.dflt.impl.tranformer;
 
+import java.util.Collections;
 import java.util.Map;
 
 import rocks.cta.api.core.Location;
 import rocks.cta.api.core.SubTrace;
 import rocks.cta.api.core.Trace;
+import rocks.cta.api.core.TraceVisitor;
 import rocks.cta.api.core.callables.Callable;
 import rocks.cta.api.core.callables.DatabaseInvocation;
 import rocks.cta.api.core.callables.ExceptionThrow;
@@ -13,7 +15,9 @@ import rocks.cta.api.core.callables.LoggingInvocation;
 import rocks.cta.api.core.callables.MethodInvocation;
 import rocks.cta.api.core.callables.RemoteInvocation;
 import rocks.cta.api.core.callables.TimedCallable;
+import rocks.cta.api.utils.TraceWalker;
 import rocks.cta.dflt.impl.core.LocationImpl;
+import rocks.cta.dflt.impl.core.LocationPool;
 import rocks.cta.dflt.impl.core.SubTraceImpl;
 import rocks.cta.dflt.impl.core.TraceImpl;
 import rocks.cta.dflt.impl.core.callables.AbstractCallableImpl;
@@ -68,42 +72,56 @@ public class DefaultCTATransformer {
 		dfltSubTrace.setLocation(dfltLocation);
 
 		// transform callables
-		AbstractCallableImpl dfltCallable = transform(subTrace.getRoot(), null, dfltSubTrace);
-		dfltSubTrace.setRoot(dfltCallable);
+		if (subTrace.getRoot() != null) {
+			CallableTransformer callableTransformer = new CallableTransformer(dfltSubTrace);
+			new TraceWalker(callableTransformer).walk(subTrace.getRoot());
+			dfltSubTrace.setRoot(callableTransformer.root);
+		}
 
 		return dfltSubTrace;
 	}
 
 	/**
-	 * Transforms a {@link Location} instance into a {@link LocationImpl} instance.
+	 * Transforms a {@link Location} instance into a {@link LocationImpl} instance. Equal locations
+	 * are transformed into the same instance interned in the default {@link LocationPool}.
 	 * 
 	 * @param location
-	 *            {@link Location} instance to transform
+	 *            {@link Location} instance to transform, may be null
 	 * @return corresponding location in the default implementation format
 	 */
 	public LocationImpl transform(Location location) {
-		LocationImpl loc = new LocationImpl(location.getHost());
-		
-		location.getRuntimeEnvironment().ifPresent(s -> loc.setRunTimeEnvironment(s));
-		location.getApplication().ifPresent(s -> loc.setApplication(s));
-		location.getBusinessTransaction().ifPresent(s -> loc.setBusinessTransaction(s));
-		
-		return loc;
+		return LocationPool.getDefault().intern(location);
 	}
 
 	/**
-	 * This is only a placeholder method. Actually, it should never be called!
+	 * Transforms a single {@link Callable} instance of any kind into the corresponding
+	 * implementation of the default implementation, without its callees.
 	 * 
 	 * @param callable
-	 *            callable
+	 *            {@link Callable} instance to transform
 	 * @param dfltParent
-	 *            parent
+	 *            parent nesting callable in the default implementation
 	 * @param dfltSubTrace
-	 *            subTrace
-	 * @return nothing
+	 *            containing sub trace in the default implementation
+	 * @return corresponding callable in the default implementation format
 	 */
 	public AbstractCallableImpl transform(Callable callable, AbstractNestingCallableImpl dfltParent, SubTraceImpl dfltSubTrace) {
-		throw new IllegalStateException("This method should never be called!");
+		switch (callable.getCallableType()) {
+		case METHOD_INVOCATION:
+			return transform((MethodInvocation) callable, dfltParent, dfltSubTrace);
+		case REMOTE_INVOCATION:
+			return transform((RemoteInvocation) callable, dfltParent, dfltSubTrace);
+		case DATABASE_INVOCATION:
+			return transform((DatabaseInvocation) callable, dfltParent, dfltSubTrace);
+		case HTTP_REQUEST_PROCESSING:
+			return transform((HTTPRequestProcessing) callable, dfltParent, dfltSubTrace);
+		case LOGGING_INVOCATION:
+			return transform((LoggingInvocation) callable, dfltParent, dfltSubTrace);
+		case EXCEPTION_THROW:
+			return transform((ExceptionThrow) callable, dfltParent, dfltSubTrace);
+		default:
+			throw new IllegalArgumentException("Unsupported callable type: " + callable.getClass().getName());
+		}
 	}
 
 	/**
@@ -122,17 +140,10 @@ public class DefaultCTATransformer {
 		MethodInvocationImpl dfltMethodInvocation = new MethodInvocationImpl(dfltParent, dfltSubTrace);
 		dfltMethodInvocation.setCPUTime(methodInvocation.getCPUTime());
 		
-		//TODO: Eigene setter methode aufrufen
-//		dfltMethodInvocation.setSignature(methodInvocation.getReturnType().orElse(""), methodInvocation.getPackageName().orElse(""), methodInvocation.getClassName().orElse(""), methodInvocation.getMethodName().orElse(""),
-//				methodInvocation.getParameterTypes().orElse(Collections.emptyList()));
+		dfltMethodInvocation.setSignature(methodInvocation.getSignature(), methodInvocation.getReturnType().orElse(null), methodInvocation.getPackageName().orElse(null),
+				methodInvocation.getClassName().orElse(null), methodInvocation.getMethodName().orElse(null), methodInvocation.getParameterTypes().orElse(null));
 		
-		methodInvocation.getReturnType().ifPresent(v -> dfltMethodInvocation.setReturnType(v));
-		methodInvocation.getPackageName().ifPresent(v -> dfltMethodInvocation.setPackageName(v));
-		methodInvocation.getClassName().ifPresent(v -> dfltMethodInvocation.setClassName(v));
-		methodInvocation.getMethodName().ifPresent(v -> dfltMethodInvocation.setMethodName(v));
-		methodInvocation.getParameterTypes().ifPresent(v -> dfltMethodInvocation.setParameterTypes(v));
-		
-		Map<Integer, String> parameterValues = methodInvocation.getParameterValues().get();
+		Map<Integer, String> parameterValues = methodInvocation.getParameterValues().orElse(Collections.emptyMap());
 		for (Integer key : parameterValues.keySet()) {
 			dfltMethodInvocation.addParameterValue(key, parameterValues.get(key));
 		}
@@ -157,7 +168,7 @@ public class DefaultCTATransformer {
 		RemoteInvocationImpl dfltRemoteInvocation = new RemoteInvocationImpl(dfltParent, dfltSubTrace);
 		dfltRemoteInvocation.setTarget(remoteInvocation.getTarget());
 		if (remoteInvocation.getTargetSubTrace().isPresent()) {
-			SubTraceImpl dfltTargetSubTrace = transform(remoteInvocation.getTargetSubTrace().get(), null, (TraceImpl) dfltSubTrace.getContainingTrace());
+			SubTraceImpl dfltTargetSubTrace = transform(remoteInvocation.getTargetSubTrace().get(), dfltSubTrace, (TraceImpl) dfltSubTrace.getContainingTrace());
 			dfltRemoteInvocation.setTargetSubTrace(dfltTargetSubTrace);
 		}
 
@@ -186,7 +197,7 @@ public class DefaultCTATransformer {
 		dfltDBInvocation.setDBUrl(dbInvocation.getDBUrl());
 		dbInvocation.isPrepared().ifPresent(b -> dfltDBInvocation.setPrepared(b));
 		dfltDBInvocation.setSQLStatement(dbInvocation.getSQLStatement());
-		Map<Integer, String> parameterBindings = dbInvocation.getParameterBindings().get();
+		Map<Integer, String> parameterBindings = dbInvocation.getParameterBindings().orElse(Collections.emptyMap());
 		for (Integer key : parameterBindings.keySet()) {
 			dfltDBInvocation.addParameterBinding(key, parameterBindings.get(key));
 		}
@@ -213,10 +224,10 @@ public class DefaultCTATransformer {
 		HTTPRequestProcessingImpl dfltHTTPRequest = new HTTPRequestProcessingImpl(dfltParent, dfltSubTrace);
 		dfltHTTPRequest.setUri(httpRequest.getUri());
 		httpRequest.getRequestMethod().ifPresent(v -> dfltHTTPRequest.setRequestMethod(v));
-		dfltHTTPRequest.setHTTPParameters(httpRequest.getHTTPParameters().get());
-		dfltHTTPRequest.setHTTPAttributes(httpRequest.getHTTPAttributes().get());
-		dfltHTTPRequest.setHTTPSessionAttributes(httpRequest.getHTTPSessionAttributes().get());
-		dfltHTTPRequest.setHTTPHeaders(httpRequest.getHTTPHeaders().get());
+		httpRequest.getHTTPParameters().ifPresent(v -> dfltHTTPRequest.setHTTPParameters(v));
+		httpRequest.getHTTPAttributes().ifPresent(v -> dfltHTTPRequest.setHTTPAttributes(v));
+		httpRequest.getHTTPSessionAttributes().ifPresent(v -> dfltHTTPRequest.setHTTPSessionAttributes(v));
+		httpRequest.getHTTPHeaders().ifPresent(v -> dfltHTTPRequest.setHTTPHeaders(v));
 		
 		transformTimedCallableInfo(httpRequest, dfltHTTPRequest);
 		transformCallableInfo(httpRequest, dfltHTTPRequest);
@@ -290,8 +301,120 @@ public class DefaultCTATransformer {
 	 */
 	private void transformCallableInfo(Callable callable, AbstractCallableImpl dfltCallable) {
 		dfltCallable.setTimestamp(callable.getTimestamp());
-		for (String label : callable.getLabels().get()) {
+		for (String label : callable.getLabels().orElse(Collections.emptyList())) {
 			dfltCallable.addLabel(label);
 		}
 	}
+
+	/**
+	 * Transforms the callables of a sub trace in a single pass of a {@link TraceWalker}. Target sub
+	 * traces of remote invocations are transformed by
+	 * {@link DefaultCTATransformer#transform(RemoteInvocation, AbstractNestingCallableImpl, SubTraceImpl)}
+	 * .
+	 * 
+	 * @author Alexander Wert
+	 * 
+	 */
+	private class CallableTransformer implements TraceVisitor {
+
+		/**
+		 * Containing sub trace in the default implementation.
+		 */
+		private final SubTraceImpl dfltSubTrace;
+
+		/**
+		 * Transformed root callable, null until the root has been visited.
+		 */
+		private AbstractCallableImpl root;
+
+		/**
+		 * Transformed parent of the callables visited next.
+		 */
+		private AbstractNestingCallableImpl dfltParent;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param dfltSubTrace
+		 *            containing sub trace in the default implementation
+		 */
+		CallableTransformer(SubTraceImpl dfltSubTrace) {
+			this.dfltSubTrace = dfltSubTrace;
+		}
+
+		@Override
+		public void enterMethodInvocation(MethodInvocation methodInvocation) {
+			enter(transform(methodInvocation, dfltParent, dfltSubTrace));
+		}
+
+		@Override
+		public void exitMethodInvocation(MethodInvocation methodInvocation) {
+			exit();
+		}
+
+		@Override
+		public void enterHTTPRequestProcessing(HTTPRequestProcessing httpRequestProcessing) {
+			enter(transform(httpRequestProcessing, dfltParent, dfltSubTrace));
+		}
+
+		@Override
+		public void exitHTTPRequestProcessing(HTTPRequestProcessing httpRequestProcessing) {
+			exit();
+		}
+
+		@Override
+		public void enterRemoteInvocation(RemoteInvocation remoteInvocation) {
+			visited(transform(remoteInvocation, dfltParent, dfltSubTrace));
+		}
+
+		@Override
+		public void visitDatabaseInvocation(DatabaseInvocation databaseInvocation) {
+			visited(transform(databaseInvocation, dfltParent, dfltSubTrace));
+		}
+
+		@Override
+		public void visitLoggingInvocation(LoggingInvocation loggingInvocation) {
+			visited(transform(loggingInvocation, dfltParent, dfltSubTrace));
+		}
+
+		@Override
+		public void visitExceptionThrow(ExceptionThrow exceptionThrow) {
+			visited(transform(exceptionThrow, dfltParent, dfltSubTrace));
+		}
+
+		@Override
+		public void enterCallable(Callable callable) {
+			throw new IllegalArgumentException("Unsupported callable type: " + callable.getClass().getName());
+		}
+
+		/**
+		 * Records a transformed callable and makes it the parent of the callables visited next.
+		 * 
+		 * @param dfltCallable
+		 *            transformed nesting callable
+		 */
+		private void enter(AbstractNestingCallableImpl dfltCallable) {
+			visited(dfltCallable);
+			dfltParent = dfltCallable;
+		}
+
+		/**
+		 * Makes the parent of the current parent the parent of the callables visited next.
+		 */
+		private void exit() {
+			dfltParent = (AbstractNestingCallableImpl) dfltParent.getParent();
+		}
+
+		/**
+		 * Records a transformed callable.
+		 * 
+		 * @param dfltCallable
+		 *            transformed callable
+		 */
+		private void visited(AbstractCallableImpl dfltCallable) {
+			if (root == null) {
+				root = dfltCallable;
+			}
+		}
+	}
 }
@@ -0,0 +1,220 @@
+package rocks.cta.dflt.impl;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import rocks.cta.dflt.impl.columnar.CallableStore;
+import rocks.cta.dflt.impl.columnar.ColumnarMethodInvocation;
+import rocks.cta.dflt.impl.columnar.ColumnarSubTrace;
+import rocks.cta.dflt.impl.columnar.ColumnarTrace;
+import rocks.cta.dflt.impl.core.SubTraceImpl;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.core.callables.AbstractNestingCallableImpl;
+import rocks.cta.dflt.impl.core.callables.MethodInvocationImpl;
+
+/**
+ * Measures the heap footprint of the callables of a trace with one million method invocations in
+ * the object layout ({@link TraceImpl}) and in the columnar layout ({@link ColumnarTrace}). The
+ * absolute numbers depend on the JVM (e.g. compressed oops), hence the test only checks the layouts
+ * against each other.
+ * 
+ * The measurement builds several traces with more than a million nodes and is therefore skipped
+ * unless the system property {@value #ENABLE_PROPERTY} is set to true, e.g. with
+ * <code>gradle test -Pfootprint</code>.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class CallableFootprintTest {
+
+	/**
+	 * System property that enables the measurement.
+	 */
+	public static final String ENABLE_PROPERTY = "cta.footprint";
+
+	/**
+	 * Number of callees of each inner node.
+	 */
+	private static final int WIDTH = 10;
+
+	/**
+	 * Depth of the call tree, the trace has 1,111,111 nodes.
+	 */
+	private static final int DEPTH = 6;
+
+	/**
+	 * Number of distinct methods.
+	 */
+	private static final int NUM_METHODS = 16;
+
+	/**
+	 * Upper bound of the heap needed for the CPU times and labels of the object layout, relative
+	 * to the footprint of method invocations without these values. Storing the values in Optional
+	 * fields needed about 50%.
+	 */
+	private static final double MAX_VALUE_OVERHEAD = 0.15;
+
+	/**
+	 * Upper bound of the footprint of the columnar layout relative to the object layout.
+	 */
+	private static final double MAX_COLUMNAR_RATIO = 0.75;
+
+	/**
+	 * Upper bound of the heap footprint of the columnar layout with off-heap columns relative to
+	 * the columnar layout with heap columns.
+	 */
+	private static final double MAX_OFF_HEAP_RATIO = 0.25;
+
+	/**
+	 * Number of created callables of the current trace.
+	 */
+	private int size;
+
+	/**
+	 * Skips the measurement unless it is enabled by {@link #ENABLE_PROPERTY}.
+	 */
+	@Before
+	public void checkEnabled() {
+		Assume.assumeTrue(Boolean.getBoolean(ENABLE_PROPERTY));
+	}
+
+	/**
+	 * Reports the average footprint of a method invocation in all layouts and checks the layouts
+	 * against each other.
+	 */
+	@Test
+	public void testFootprint() {
+		long bare = measureObjectLayout(false);
+		long object = measureObjectLayout(true);
+		long columnar = measureColumnarLayout(CallableStore.heap());
+		long offHeap = measureColumnarLayout(CallableStore.offHeap());
+		System.out.println("Footprint of " + size + " method invocations [bytes per callable]: object layout without values " + bare
+				+ ", object layout " + object + ", columnar layout " + columnar + ", columnar layout off-heap " + offHeap);
+
+		Assert.assertTrue("Values need " + (object - bare) + " of " + bare + " bytes per callable", object - bare <= bare
+				* MAX_VALUE_OVERHEAD);
+		Assert.assertTrue("Columnar layout needs " + columnar + " of " + object + " bytes per callable", columnar <= object
+				* MAX_COLUMNAR_RATIO);
+		Assert.assertTrue("Off-heap columnar layout needs " + offHeap + " of " + columnar + " bytes per callable", offHeap <= columnar
+				* MAX_OFF_HEAP_RATIO);
+	}
+
+	/**
+	 * Creates the trace in the object layout and measures the used heap memory.
+	 * 
+	 * @param withValues
+	 *            whether the method invocations have a CPU time and every fourth a label
+	 * @return average heap footprint of a callable in bytes
+	 */
+	private long measureObjectLayout(boolean withValues) {
+		size = 0;
+		long before = usedMemory();
+		TraceImpl trace = new TraceImpl(1);
+		SubTraceImpl subTrace = new SubTraceImpl(1, null, trace);
+		trace.setRoot(subTrace);
+		subTrace.setRoot(createNode(null, subTrace, 0, withValues));
+		long after = usedMemory();
+
+		Assert.assertEquals(size, trace.size());
+		return (after - before) / size;
+	}
+
+	/**
+	 * Creates the trace in the columnar layout and measures the used heap memory.
+	 * 
+	 * @param store
+	 *            store for the columns of the trace
+	 * @return average heap footprint of a callable in bytes
+	 */
+	private long measureColumnarLayout(CallableStore store) {
+		size = 0;
+		long before = usedMemory();
+		ColumnarTrace trace = new ColumnarTrace(1, store);
+		ColumnarSubTrace subTrace = trace.addSubTrace(1, null);
+		createNode(trace, null, subTrace, 0);
+		trace.trimToSize();
+		long after = usedMemory();
+
+		Assert.assertEquals(size, trace.size());
+		return (after - before) / size;
+	}
+
+	/**
+	 * Recursively creates the call tree in the object layout.
+	 * 
+	 * @param parent
+	 *            parent node
+	 * @param subTrace
+	 *            containing sub trace
+	 * @param depth
+	 *            depth of the node to create
+	 * @param withValues
+	 *            whether the node has a CPU time and possibly a label
+	 * @return the node
+	 */
+	private MethodInvocationImpl createNode(AbstractNestingCallableImpl parent, SubTraceImpl subTrace, int depth, boolean withValues) {
+		int method = size % NUM_METHODS;
+		MethodInvocationImpl node = new MethodInvocationImpl(parent, subTrace);
+		node.setSignature("void my.package.MyClass.method" + method + "()", "void", "my.package", "MyClass", "method" + method, null);
+		node.setTimestamp(size);
+		node.setResponseTime(2 * size);
+		if (withValues) {
+			node.setCPUTime(size);
+			if (size % 4 == 0) {
+				node.addLabel("label" + method);
+			}
+		}
+		size++;
+		if (depth < DEPTH) {
+			for (int i = 0; i < WIDTH; i++) {
+				createNode(node, subTrace, depth + 1, withValues);
+			}
+		}
+		return node;
+	}
+
+	/**
+	 * Recursively creates the call tree in the columnar layout.
+	 * 
+	 * @param trace
+	 *            containing trace
+	 * @param parent
+	 *            parent node
+	 * @param subTrace
+	 *            containing sub trace
+	 * @param depth
+	 *            depth of the node to create
+	 */
+	private void createNode(ColumnarTrace trace, ColumnarMethodInvocation parent, ColumnarSubTrace subTrace, int depth) {
+		int method = size % NUM_METHODS;
+		ColumnarMethodInvocation node = trace.addMethodInvocation(parent, subTrace);
+		node.setSignature("void my.package.MyClass.method" + method + "()", "void", "my.package", "MyClass", "method" + method, null);
+		node.setTimestamp(size);
+		node.setResponseTime(2 * size);
+		node.setCPUTime(size);
+		if (size % 4 == 0) {
+			node.addLabel("label" + method);
+		}
+		size++;
+		if (depth < DEPTH) {
+			for (int i = 0; i < WIDTH; i++) {
+				createNode(trace, node, subTrace, depth + 1);
+			}
+		}
+	}
+
+	/**
+	 * @return used heap memory after garbage collection
+	 */
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		long used = Long.MAX_VALUE;
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+			used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+		}
+		return used;
+	}
+}
@@ -0,0 +1,162 @@
+package rocks.cta.dflt.impl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import rocks.cta.api.core.SubTrace;
+import rocks.cta.api.core.TreeIterable;
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.NestingCallable;
+import rocks.cta.api.core.callables.TimedCallable;
+import rocks.cta.api.utils.CallableSpliterator;
+import rocks.cta.dflt.impl.columnar.ColumnarTrace;
+import rocks.cta.dflt.impl.core.TraceImpl;
+
+/**
+ * JUnit test for the {@link CallableSpliterator} and the streams on traces.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class CallableSpliteratorTest {
+
+	/**
+	 * Tests sequential and parallel streams on a trace against its iterator.
+	 */
+	@Test
+	public void testTraceStream() {
+		TraceImpl trace = new TraceCreator().createTrace();
+		assertSameElements(trace);
+		long responseTimes = 0;
+		for (Callable callable : trace) {
+			if (callable instanceof TimedCallable) {
+				responseTimes += ((TimedCallable) callable).getResponseTime();
+			}
+		}
+		Assert.assertEquals(responseTimes, trace.parallelStream().filter(c -> c instanceof TimedCallable).mapToLong(c -> ((TimedCallable) c).getResponseTime()).sum());
+
+		ColumnarTrace columnarTrace = ColumnarTrace.copyOf(trace);
+		assertSameElements(columnarTrace);
+	}
+
+	/**
+	 * Tests streams on sub traces and nesting callables, which have exact sizes.
+	 */
+	@Test
+	public void testSubTraceStream() {
+		TraceImpl trace = new TraceCreator().createTrace();
+		Iterator<SubTrace> subTraceIterator = trace.subTraceIterator();
+		while (subTraceIterator.hasNext()) {
+			SubTrace subTrace = subTraceIterator.next();
+			assertSameElements(subTrace);
+			Spliterator<Callable> spliterator = subTrace.spliterator();
+			Assert.assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED));
+			Assert.assertEquals(subTrace.size(), spliterator.getExactSizeIfKnown());
+			assertSplits(subTrace, subTrace.spliterator(), true);
+		}
+
+		NestingCallable root = (NestingCallable) trace.getRoot().getRoot();
+		assertSameElements(root);
+		Assert.assertEquals(root.getChildCount() + 1, root.stream().count());
+	}
+
+	/**
+	 * Tests that splitting a trace down to single callables preserves the order of the callables.
+	 */
+	@Test
+	public void testSplit() {
+		TraceImpl trace = new TraceCreator().createTrace();
+		assertSplits(trace, trace.spliterator(), false);
+		assertSplits(trace, new CallableSpliterator(trace.getRoot()), false);
+
+		Spliterator<Callable> spliterator = trace.spliterator();
+		Assert.assertNotNull(spliterator.trySplit());
+		Assert.assertTrue(spliterator.estimateSize() < trace.stream().count());
+	}
+
+	/**
+	 * Tests spliterators on an empty trace.
+	 */
+	@Test
+	public void testEmptyTrace() {
+		TraceImpl trace = new TraceImpl(1);
+		Spliterator<Callable> spliterator = trace.spliterator();
+		Assert.assertEquals(0, spliterator.estimateSize());
+		Assert.assertNull(spliterator.trySplit());
+		Assert.assertFalse(spliterator.tryAdvance(c -> Assert.fail()));
+		Assert.assertEquals(0, trace.parallelStream().count());
+	}
+
+	/**
+	 * Asserts that the sequential and the parallel stream return the same callables in the same
+	 * order as the iterator.
+	 * 
+	 * @param iterable
+	 *            trace, sub trace or nesting callable
+	 */
+	private static void assertSameElements(TreeIterable<Callable> iterable) {
+		List<Callable> expected = new ArrayList<Callable>();
+		for (Callable callable : iterable) {
+			expected.add(callable);
+		}
+		Assert.assertFalse(expected.isEmpty());
+		Assert.assertEquals(expected, iterable.stream().collect(Collectors.toList()));
+		Assert.assertEquals(expected, iterable.parallelStream().collect(Collectors.toList()));
+	}
+
+	/**
+	 * Splits the spliterator recursively and asserts that the parts visit the callables of the
+	 * iterator in the same order.
+	 * 
+	 * @param iterable
+	 *            trace, sub trace or nesting callable
+	 * @param spliterator
+	 *            new spliterator on the iterable
+	 * @param exact
+	 *            whether the estimated sizes must be exact
+	 */
+	private static void assertSplits(TreeIterable<Callable> iterable, Spliterator<Callable> spliterator, boolean exact) {
+		List<Callable> actual = new ArrayList<Callable>();
+		collect(spliterator, actual, exact);
+		List<Callable> expected = new ArrayList<Callable>();
+		for (Callable callable : iterable) {
+			expected.add(callable);
+		}
+		Assert.assertEquals(expected, actual);
+	}
+
+	/**
+	 * Splits the spliterator recursively and collects the callables in encounter order.
+	 * 
+	 * @param spliterator
+	 *            spliterator to split
+	 * @param callables
+	 *            list to add the callables to
+	 * @param exact
+	 *            whether the estimated sizes must be exact
+	 */
+	private static void collect(Spliterator<Callable> spliterator, List<Callable> callables, boolean exact) {
+		long estimate = spliterator.estimateSize();
+		int before = callables.size();
+		Spliterator<Callable> prefix = spliterator.trySplit();
+		if (prefix != null) {
+			Assert.assertTrue(prefix.estimateSize() > 0);
+			Assert.assertTrue(spliterator.estimateSize() > 0);
+			collect(prefix, callables, exact);
+			collect(spliterator, callables, exact);
+		} else {
+			spliterator.forEachRemaining(callables::add);
+		}
+		if (exact) {
+			Assert.assertEquals(estimate, callables.size() - before);
+		} else {
+			Assert.assertTrue(estimate <= callables.size() - before);
+		}
+	}
+}
@@ -0,0 +1,174 @@
+package rocks.cta.dflt.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import rocks.cta.api.core.SubTrace;
+import rocks.cta.api.core.Trace;
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.DatabaseInvocation;
+import rocks.cta.api.core.callables.ExceptionThrow;
+import rocks.cta.api.core.callables.HTTPRequestProcessing;
+import rocks.cta.api.core.callables.LoggingInvocation;
+import rocks.cta.api.core.callables.MethodInvocation;
+import rocks.cta.api.core.callables.NestingCallable;
+import rocks.cta.api.core.callables.RemoteInvocation;
+import rocks.cta.api.core.callables.TimedCallable;
+import rocks.cta.api.utils.CallableTypeIndex;
+import rocks.cta.dflt.impl.columnar.AbstractColumnarNestingCallable;
+import rocks.cta.dflt.impl.columnar.ColumnarTrace;
+import rocks.cta.dflt.impl.core.SubTraceImpl;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.core.callables.AbstractCallableImpl;
+import rocks.cta.dflt.impl.core.callables.AbstractNestingCallableImpl;
+import rocks.cta.dflt.impl.core.callables.DatabaseInvocationImpl;
+import rocks.cta.dflt.impl.core.callables.LoggingInvocationImpl;
+import rocks.cta.dflt.impl.core.callables.MethodInvocationImpl;
+
+/**
+ * JUnit test for the {@link CallableTypeIndex} and {@link Trace#callables(Class)}.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class CallableTypeIndexTest {
+
+	/**
+	 * Types to query.
+	 */
+	private static final Class<?>[] TYPES = { Callable.class, NestingCallable.class, TimedCallable.class, MethodInvocation.class,
+			HTTPRequestProcessing.class, RemoteInvocation.class, DatabaseInvocation.class, LoggingInvocation.class, ExceptionThrow.class,
+			MethodInvocationImpl.class };
+
+	/**
+	 * Tests the queries on a trace against a recursive traversal of the trace.
+	 */
+	@Test
+	public void testCallables() {
+		TraceImpl trace = createTrace();
+		assertCallables(trace);
+		trace.freeze();
+		assertCallables(trace);
+		assertCallables(ColumnarTrace.copyOf(trace));
+	}
+
+	/**
+	 * Tests that the index is cached until the trace is modified.
+	 */
+	@Test
+	public void testCaching() {
+		TraceImpl trace = createTrace();
+		CallableTypeIndex index = trace.getCallableTypeIndex();
+		Assert.assertSame(index, trace.getCallableTypeIndex());
+		Assert.assertSame(trace.callables(DatabaseInvocation.class), trace.callables(DatabaseInvocation.class));
+		((AbstractCallableImpl) trace.getRoot().getRoot()).addLabel("newLabel");
+		Assert.assertSame(index, trace.getCallableTypeIndex());
+		int numDatabaseInvocations = trace.callables(DatabaseInvocation.class).size();
+		new DatabaseInvocationImpl((AbstractNestingCallableImpl) trace.getRoot().getRoot(), (SubTraceImpl) trace.getRoot());
+		Assert.assertNotSame(index, trace.getCallableTypeIndex());
+		Assert.assertEquals(numDatabaseInvocations + 1, trace.callables(DatabaseInvocation.class).size());
+
+		trace.freeze();
+		Assert.assertSame(trace.getCallableTypeIndex(), trace.getCallableTypeIndex());
+		Assert.assertEquals(trace.getCallableTypeIndex().size(), trace.callables(Callable.class).size());
+
+		ColumnarTrace columnarTrace = ColumnarTrace.copyOf(trace);
+		CallableTypeIndex columnarIndex = columnarTrace.getCallableTypeIndex();
+		Assert.assertSame(columnarIndex, columnarTrace.getCallableTypeIndex());
+		columnarTrace.addLoggingInvocation((AbstractColumnarNestingCallable) columnarTrace.getCallable(0), columnarTrace.getSubTraces().get(0));
+		Assert.assertNotSame(columnarIndex, columnarTrace.getCallableTypeIndex());
+		assertCallables(columnarTrace);
+	}
+
+	/**
+	 * Tests queries on an empty trace.
+	 */
+	@Test
+	public void testEmptyTrace() {
+		TraceImpl trace = new TraceImpl(1);
+		Assert.assertTrue(trace.callables(Callable.class).isEmpty());
+		Assert.assertTrue(trace.callables(MethodInvocation.class).isEmpty());
+	}
+
+	/**
+	 * Asserts that all queries on the passed trace return the matching callables in pre-order.
+	 * 
+	 * @param trace
+	 *            trace to query
+	 */
+	@SuppressWarnings("unchecked")
+	private static void assertCallables(Trace trace) {
+		List<Callable> all = new ArrayList<Callable>();
+		collect(trace.getRoot(), all);
+		for (Class<?> type : TYPES) {
+			List<Callable> expected = new ArrayList<Callable>();
+			for (Callable callable : all) {
+				if (type.isInstance(callable)) {
+					expected.add(callable);
+				}
+			}
+			Assert.assertEquals(type.getSimpleName(), expected, trace.callables((Class<? extends Callable>) type));
+		}
+	}
+
+	/**
+	 * Collects the callables of a sub trace and the sub traces it invokes in pre-order.
+	 * 
+	 * @param subTrace
+	 *            sub trace to traverse
+	 * @param result
+	 *            list to add the callables to
+	 */
+	private static void collect(SubTrace subTrace, List<Callable> result) {
+		if (subTrace.getRoot() != null) {
+			collect(subTrace.getRoot(), result);
+		}
+	}
+
+	/**
+	 * Collects a callable, its callees and the sub traces invoked by them in pre-order.
+	 * 
+	 * @param callable
+	 *            callable to traverse
+	 * @param result
+	 *            list to add the callables to
+	 */
+	private static void collect(Callable callable, List<Callable> result) {
+		result.add(callable);
+		if (callable instanceof NestingCallable) {
+			for (Callable callee : ((NestingCallable) callable).getCallees()) {
+				collect(callee, result);
+			}
+		} else if (callable instanceof RemoteInvocation) {
+			((RemoteInvocation) callable).getTargetSubTrace().ifPresent(target -> collect(target, result));
+		}
+	}
+
+	/**
+	 * Creates a test trace with database and logging invocations below each method invocation.
+	 * 
+	 * @return test trace
+	 */
+	private static TraceImpl createTrace() {
+		TraceImpl trace = new TraceCreator().createTrace();
+		List<MethodInvocationImpl> methodInvocations = new ArrayList<MethodInvocationImpl>();
+		for (Callable callable : trace) {
+			if (callable instanceof MethodInvocationImpl) {
+				methodInvocations.add((MethodInvocationImpl) callable);
+			}
+		}
+		int i = 0;
+		for (MethodInvocationImpl methodInvocation : methodInvocations) {
+			SubTraceImpl subTrace = (SubTraceImpl) methodInvocation.getContainingSubTrace();
+			if (i++ % 2 == 0) {
+				new DatabaseInvocationImpl(methodInvocation, subTrace);
+			} else {
+				new LoggingInvocationImpl(methodInvocation, subTrace);
+			}
+		}
+		return trace;
+	}
+}
@@ -0,0 +1,341 @@
+package rocks.cta.dflt.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import rocks.cta.api.core.SubTrace;
+import rocks.cta.api.core.Trace;
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.CallableType;
+import rocks.cta.api.core.callables.MethodInvocation;
+import rocks.cta.api.core.callables.NestingCallable;
+import rocks.cta.api.core.callables.RemoteInvocation;
+import rocks.cta.api.core.callables.TimedCallable;
+import rocks.cta.dflt.impl.columnar.CallableStore;
+import rocks.cta.dflt.impl.columnar.ColumnarDatabaseInvocation;
+import rocks.cta.dflt.impl.columnar.ColumnarMethodInvocation;
+import rocks.cta.dflt.impl.columnar.ColumnarSubTrace;
+import rocks.cta.dflt.impl.columnar.ColumnarTrace;
+import rocks.cta.dflt.impl.core.SubTraceImpl;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.core.callables.MethodInvocationImpl;
+
+/**
+ * JUnit test for the {@link ColumnarTrace} class and its callable views.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class ColumnarTraceTest {
+
+	/**
+	 * Depth of the deep call tree.
+	 */
+	private static final int DEEP_TREE_DEPTH = 20000;
+
+	/**
+	 * Tests that a columnar copy exposes the same structure and data as the copied trace.
+	 */
+	@Test
+	public void testCopyOf() {
+		Trace source = new TraceCreator().createTrace();
+		assertEqualTraces(source, ColumnarTrace.copyOf(source));
+	}
+
+	/**
+	 * Tests building and copying traces into an off-heap store and serializing them.
+	 * 
+	 * @throws IOException
+	 *             if serialization fails
+	 * @throws ClassNotFoundException
+	 *             if deserialization fails
+	 */
+	@Test
+	public void testOffHeapStore() throws IOException, ClassNotFoundException {
+		Trace source = new TraceCreator().createTrace();
+		assertEqualTraces(source, ColumnarTrace.copyOf(source, CallableStore.offHeap()));
+		assertColumns(createTrace(CallableStore.offHeap()));
+		assertColumns(serializeAndDeserialize(createTrace(CallableStore.offHeap())));
+	}
+
+	/**
+	 * Tests building and copying traces into memory-mapped stores and serializing them.
+	 * 
+	 * @throws IOException
+	 *             if a file cannot be created or serialization fails
+	 * @throws ClassNotFoundException
+	 *             if deserialization fails
+	 */
+	@Test
+	public void testMappedStore() throws IOException, ClassNotFoundException {
+		Path copyFile = Files.createTempFile("trace", ".bin");
+		Path file = Files.createTempFile("trace", ".bin");
+		Trace source = new TraceCreator().createTrace();
+		try (ColumnarTrace copy = ColumnarTrace.copyOf(source, CallableStore.mapped(copyFile));
+				ColumnarTrace trace = createTrace(CallableStore.mapped(file))) {
+			assertEqualTraces(source, copy);
+			assertColumns(trace);
+			assertColumns(serializeAndDeserialize(trace));
+		} finally {
+			copyFile.toFile().deleteOnExit();
+			file.toFile().deleteOnExit();
+		}
+	}
+
+	/**
+	 * Tests that closing a trace releases its store and deletes the mapped file, if requested.
+	 * 
+	 * @throws IOException
+	 *             if a file cannot be created or serialization fails
+	 * @throws ClassNotFoundException
+	 *             if deserialization fails
+	 */
+	@Test
+	public void testClose() throws IOException, ClassNotFoundException {
+		Path file = Files.createTempFile("trace", ".bin");
+		ColumnarTrace trace = createTrace(CallableStore.mapped(file, true));
+		ColumnarTrace copy = serializeAndDeserialize(trace);
+		trace.close();
+		Assert.assertFalse(Files.exists(file));
+		trace.close();
+		assertColumns(copy);
+		copy.close();
+
+		ColumnarTrace offHeapTrace = createTrace(CallableStore.offHeap());
+		offHeapTrace.close();
+		try {
+			offHeapTrace.getTimestamp(0);
+			Assert.fail("Closed store must not be accessible.");
+		} catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Serializes and deserializes the passed trace with Java serialization.
+	 * 
+	 * @param trace
+	 *            trace to serialize
+	 * @return deserialized trace
+	 * @throws IOException
+	 *             if serialization fails
+	 * @throws ClassNotFoundException
+	 *             if deserialization fails
+	 */
+	private static ColumnarTrace serializeAndDeserialize(ColumnarTrace trace) throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(trace);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			return (ColumnarTrace) in.readObject();
+		}
+	}
+
+	/**
+	 * Asserts that the passed traces have the same structure and data.
+	 * 
+	 * @param source
+	 *            expected trace
+	 * @param trace
+	 *            actual trace
+	 */
+	private static void assertEqualTraces(Trace source, Trace trace) {
+
+		Assert.assertEquals(source.getTraceId(), trace.getTraceId());
+		Assert.assertEquals(source.size(), trace.size());
+		Assert.assertEquals(source.getResponseTime(), trace.getResponseTime());
+
+		Iterator<SubTrace> sourceSubTraces = source.subTraceIterator();
+		Iterator<SubTrace> subTraces = trace.subTraceIterator();
+		while (sourceSubTraces.hasNext()) {
+			SubTrace sourceSubTrace = sourceSubTraces.next();
+			SubTrace subTrace = subTraces.next();
+			Assert.assertEquals(sourceSubTrace.getSubTraceId(), subTrace.getSubTraceId());
+			Assert.assertEquals(sourceSubTrace.size(), subTrace.size());
+			Assert.assertSame(trace, subTrace.getContainingTrace());
+		}
+		Assert.assertFalse(subTraces.hasNext());
+
+		Iterator<Callable> sourceCallables = source.iterator();
+		Iterator<Callable> callables = trace.iterator();
+		while (sourceCallables.hasNext()) {
+			Callable sourceCallable = sourceCallables.next();
+			Callable callable = callables.next();
+			Assert.assertEquals(sourceCallable.getCallableType(), callable.getCallableType());
+			Assert.assertEquals(sourceCallable.getTimestamp(), callable.getTimestamp());
+			Assert.assertEquals(sourceCallable.getContainingSubTrace().getSubTraceId(), callable.getContainingSubTrace().getSubTraceId());
+			if (sourceCallable instanceof NestingCallable) {
+				NestingCallable sourceNesting = (NestingCallable) sourceCallable;
+				NestingCallable nesting = (NestingCallable) callable;
+				Assert.assertEquals(sourceNesting.getChildCount(), nesting.getChildCount());
+				Assert.assertEquals(sourceNesting.getCallees().size(), nesting.getCallees().size());
+			}
+			if (sourceCallable instanceof MethodInvocation) {
+				MethodInvocation sourceMI = (MethodInvocation) sourceCallable;
+				MethodInvocation mi = (MethodInvocation) callable;
+				Assert.assertEquals(sourceMI.getSignature(), mi.getSignature());
+				Assert.assertEquals(sourceMI.getMethodName(), mi.getMethodName());
+				Assert.assertEquals(sourceMI.getClassName(), mi.getClassName());
+				Assert.assertEquals(sourceMI.getPackageName(), mi.getPackageName());
+			}
+			if (sourceCallable instanceof RemoteInvocation) {
+				Assert.assertEquals(((RemoteInvocation) sourceCallable).getTargetSubTrace().get().getSubTraceId(), ((RemoteInvocation) callable)
+						.getTargetSubTrace().get().getSubTraceId());
+			}
+		}
+		Assert.assertFalse(callables.hasNext());
+	}
+
+	/**
+	 * Tests copying a call tree that is too deep for recursive processing.
+	 */
+	@Test
+	public void testCopyDeepCallTree() {
+		TraceImpl source = new TraceImpl(1);
+		SubTraceImpl sourceSubTrace = new SubTraceImpl(1, null, source);
+		source.setRoot(sourceSubTrace);
+		MethodInvocationImpl parent = new MethodInvocationImpl(null, sourceSubTrace);
+		sourceSubTrace.setRoot(parent);
+		for (int i = 1; i < DEEP_TREE_DEPTH; i++) {
+			MethodInvocationImpl child = new MethodInvocationImpl(parent, sourceSubTrace);
+			child.setTimestamp(i);
+			parent = child;
+		}
+
+		ColumnarTrace trace = ColumnarTrace.copyOf(source);
+		Assert.assertEquals(DEEP_TREE_DEPTH, trace.size());
+		Assert.assertEquals(DEEP_TREE_DEPTH - 1, trace.getDescendantCount(0));
+		Assert.assertEquals(DEEP_TREE_DEPTH - 1, trace.getTimestamp(DEEP_TREE_DEPTH - 1));
+		Assert.assertEquals(DEEP_TREE_DEPTH - 2, trace.getParentIndex(DEEP_TREE_DEPTH - 1));
+	}
+
+	/**
+	 * Tests that the descendant counts reflect callables added after the counts have been read.
+	 */
+	@Test
+	public void testDescendantCounts() {
+		ColumnarTrace trace = createTrace(CallableStore.heap());
+		ColumnarMethodInvocation root = (ColumnarMethodInvocation) trace.getCallable(0);
+		ColumnarMethodInvocation child = (ColumnarMethodInvocation) trace.getCallable(1);
+		Assert.assertEquals(3, root.getChildCount());
+		Assert.assertEquals(1, child.getChildCount());
+
+		trace.addMethodInvocation(child, trace.getSubTraces().get(0));
+		Assert.assertEquals(4, root.getChildCount());
+		Assert.assertEquals(2, child.getChildCount());
+		Assert.assertEquals(0, trace.getDescendantCount(trace.size() - 1));
+	}
+
+	/**
+	 * Tests building a trace and reading its columns.
+	 */
+	@Test
+	public void testColumns() {
+		assertColumns(createTrace(CallableStore.heap()));
+	}
+
+	/**
+	 * Creates a small trace with different callable types.
+	 * 
+	 * @param store
+	 *            store for the columns of the trace
+	 * @return the trace
+	 */
+	private static ColumnarTrace createTrace(CallableStore store) {
+		ColumnarTrace trace = new ColumnarTrace(1, store);
+		ColumnarSubTrace subTrace = trace.addSubTrace(1, null);
+		ColumnarMethodInvocation root = trace.addMethodInvocation(null, subTrace);
+		root.setSignature(null, "void", "my.package", "MyClass", "root", null);
+		root.setResponseTime(100);
+		root.setCPUTime(80);
+		ColumnarMethodInvocation child = trace.addMethodInvocation(root, subTrace);
+		child.setSignature(null, "void", "my.package", "MyClass", "child", null);
+		child.setResponseTime(30);
+		child.setCPUTime(20);
+		child.addLabel("label");
+		ColumnarDatabaseInvocation query = trace.addDatabaseInvocation(child, subTrace);
+		query.setSQLStatement("SELECT * FROM T WHERE ID = ?");
+		query.setPrepared(true);
+		query.addParameterBinding(1, "42");
+		query.setResponseTime(10);
+		trace.addLoggingInvocation(root, subTrace).setMessage("done");
+		return trace;
+	}
+
+	/**
+	 * Asserts the structure and data of a trace created by {@link #createTrace(CallableStore)}.
+	 * 
+	 * @param trace
+	 *            trace to check
+	 */
+	private static void assertColumns(ColumnarTrace trace) {
+		ColumnarSubTrace subTrace = trace.getSubTraces().get(0);
+		ColumnarMethodInvocation root = (ColumnarMethodInvocation) trace.getCallable(0);
+		ColumnarMethodInvocation child = (ColumnarMethodInvocation) trace.getCallable(1);
+		ColumnarDatabaseInvocation query = (ColumnarDatabaseInvocation) trace.getCallable(2);
+
+		Assert.assertEquals(4, trace.size());
+		Assert.assertEquals(4, subTrace.size());
+		Assert.assertEquals(root, subTrace.getRoot());
+		Assert.assertEquals(3, root.getChildCount());
+		Assert.assertEquals(1, child.getChildCount());
+		Assert.assertEquals(CallableType.LOGGING_INVOCATION, trace.getType(trace.getNextSiblingIndex(child.getIndex())));
+		Assert.assertEquals(child.getIndex(), trace.getFirstChildIndex(root.getIndex()));
+		Assert.assertEquals(ColumnarTrace.NONE, trace.getParentIndex(root.getIndex()));
+		Assert.assertEquals(child, query.getParent());
+
+		List<Callable> callees = root.getCallees();
+		Assert.assertEquals(2, callees.size());
+		Assert.assertEquals(1, root.getCallees(TimedCallable.class).size());
+		Assert.assertEquals(70, root.getExclusiveTime());
+		Assert.assertEquals(60L, (long) root.getExclusiveCPUTime().get());
+		Assert.assertEquals(20, child.getExclusiveTime());
+
+		Assert.assertEquals("label", child.getLabels().get().get(0));
+		Assert.assertFalse(root.getLabels().isPresent());
+		Assert.assertEquals("SELECT * FROM T WHERE ID = 42", query.getBoundSQLStatement().get());
+		Assert.assertEquals("child", child.getMethodName().get());
+		Assert.assertEquals(root.getInternedSignature().getPackageNameId(), child.getInternedSignature().getPackageNameId());
+	}
+
+	/**
+	 * Tests that callables can only be added to their own trace and sub trace.
+	 */
+	@Test
+	public void testInvalidParent() {
+		ColumnarTrace trace = new ColumnarTrace(1);
+		ColumnarSubTrace subTrace = trace.addSubTrace(1, null);
+		ColumnarMethodInvocation root = trace.addMethodInvocation(null, subTrace);
+		ColumnarSubTrace otherSubTrace = trace.addSubTrace(2, subTrace);
+
+		try {
+			trace.addMethodInvocation(root, otherSubTrace);
+			Assert.fail("Parent of another sub trace must be rejected.");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			trace.addMethodInvocation(null, subTrace);
+			Assert.fail("Second root of a sub trace must be rejected.");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		try {
+			new ColumnarTrace(2).addMethodInvocation(null, subTrace);
+			Assert.fail("Sub trace of another trace must be rejected.");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+}
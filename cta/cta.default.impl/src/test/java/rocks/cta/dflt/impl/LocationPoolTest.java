@@ -0,0 +1,96 @@
+package rocks.cta.dflt.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import rocks.cta.dflt.impl.core.LocationImpl;
+import rocks.cta.dflt.impl.core.LocationPool;
+import rocks.cta.dflt.impl.tranformer.DefaultCTATransformer;
+
+/**
+ * JUnit test for the {@link LocationPool} class.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class LocationPoolTest {
+
+	/**
+	 * Number of interned locations that are not referenced.
+	 */
+	private static final int NUM_LOCATIONS = 1000;
+
+	/**
+	 * Maximum number of garbage collections to wait for the removal of unreferenced locations.
+	 */
+	private static final int MAX_GC_RUNS = 20;
+
+	/**
+	 * Tests that equal locations are interned to the same instance.
+	 */
+	@Test
+	public void testIntern() {
+		LocationPool pool = new LocationPool();
+		LocationImpl location = pool.intern("host", "JVM", null, "bt", null);
+		Assert.assertTrue(location.isInterned());
+		Assert.assertSame(location, pool.intern("host", "JVM", null, "bt", null));
+		Assert.assertSame(location, pool.intern(new LocationImpl("host", "JVM", null, "bt")));
+		Assert.assertSame(location, pool.intern(location));
+		Assert.assertNotSame(location, pool.intern("host", "JVM", null, "bt", "node"));
+		Assert.assertNull(pool.intern(null));
+		Assert.assertEquals(2, pool.size());
+
+		Assert.assertSame(LocationPool.getDefault().intern(location), new DefaultCTATransformer().transform(location));
+	}
+
+	/**
+	 * Tests that locations are removed from the pool once they are no longer referenced.
+	 */
+	@Test
+	public void testUnreferencedLocationsAreRemoved() {
+		LocationPool pool = new LocationPool();
+		LocationImpl location = pool.intern("host", "JVM", null, null, null);
+		for (int i = 0; i < NUM_LOCATIONS; i++) {
+			pool.intern("host" + i, "JVM", null, null, null);
+		}
+		for (int i = 0; i < MAX_GC_RUNS && pool.size() > 1; i++) {
+			System.gc();
+		}
+		Assert.assertEquals(1, pool.size());
+		Assert.assertSame(location, pool.intern("host", "JVM", null, null, null));
+	}
+
+	/**
+	 * Tests that interned locations cannot be modified.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testInternedLocationIsImmutable() {
+		LocationPool.getDefault().intern("host", null, null, null, null).setHost("other");
+	}
+
+	/**
+	 * Tests that deserialized interned locations are resolved to the instance of the default pool.
+	 * 
+	 * @throws IOException
+	 *             if serialization fails
+	 * @throws ClassNotFoundException
+	 *             if deserialization fails
+	 */
+	@Test
+	public void testSerialization() throws IOException, ClassNotFoundException {
+		LocationImpl location = LocationPool.getDefault().intern("host", "JVM", "app", "bt", null);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(location);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			Assert.assertSame(location, in.readObject());
+		}
+	}
+}
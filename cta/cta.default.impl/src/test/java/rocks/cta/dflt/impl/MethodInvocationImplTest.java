@@ -1,13 +1,17 @@
 package rocks.cta.dflt.impl;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.MethodInvocation;
 import rocks.cta.dflt.impl.core.LocationImpl;
+import rocks.cta.dflt.impl.core.StringPool;
 import rocks.cta.dflt.impl.core.SubTraceImpl;
 import rocks.cta.dflt.impl.core.TraceImpl;
 import rocks.cta.dflt.impl.core.callables.MethodInvocationImpl;
@@ -138,6 +142,89 @@ public class MethodInvocationImplTest {
 
 	}
 
+	/**
+	 * Tests that method invocations with equal signatures share the interned signature.
+	 */
+	@Test
+	public void testSignatureInterning() {
+		TraceImpl trace = new TraceImpl(2);
+		SubTraceImpl subTrace = new SubTraceImpl(1, null, trace);
+		trace.setRoot(subTrace);
+		MethodInvocationImpl root = new MethodInvocationImpl(null, subTrace);
+		subTrace.setRoot(root);
+		Assert.assertEquals(StringPool.NULL_ID, root.getSignatureId());
+		Assert.assertFalse(root.getMethodName().isPresent());
+		Assert.assertNull(root.getSignature());
+
+		MethodInvocationImpl first = new MethodInvocationImpl(root, subTrace);
+		first.setSignature("void my.test.TestClassOne.doMethodOne(int,int)", "void", PACKAGE_NAMES[0], CLASS_NAMES[0], METHOD_NAMES[0],
+				Arrays.asList(PARAMETER_TYPES[0]));
+		MethodInvocationImpl second = new MethodInvocationImpl(root, subTrace);
+		second.setMethodName(METHOD_NAMES[0]);
+		second.setSignature("void my.test.TestClassOne.doMethodOne(int,int)");
+		second.setParameterTypes(Arrays.asList(PARAMETER_TYPES[0]));
+		second.setReturnType("void");
+		second.setClassName(CLASS_NAMES[0]);
+		second.setPackageName(PACKAGE_NAMES[0]);
+		Assert.assertEquals(CLASS_NAMES[0], second.getClassName().get());
+		try {
+			second.getSignatureId();
+			Assert.fail("Pending signature parts must be interned explicitly.");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		second.internSignature();
+		MethodInvocationImpl other = new MethodInvocationImpl(root, subTrace);
+		other.setSignature("void my.test.TestClassOne.doMethodOne(int)", "void", PACKAGE_NAMES[0], CLASS_NAMES[0], METHOD_NAMES[0],
+				Arrays.asList(PARAMETER_TYPES[0][0]));
+
+		Assert.assertEquals(first.getSignatureId(), second.getSignatureId());
+		Assert.assertSame(first.getInternedSignature(), second.getInternedSignature());
+		Assert.assertTrue(first.getSignatureId() != other.getSignatureId());
+		Assert.assertEquals("void my.test.TestClassOne.doMethodOne(int,int)", second.getSignature());
+		Assert.assertEquals(Arrays.asList(PARAMETER_TYPES[0]), second.getParameterTypes().get());
+		Assert.assertEquals(Arrays.asList(PARAMETER_TYPES[0][0]), other.getParameterTypes().get());
+		Assert.assertEquals(METHOD_NAMES[0], other.getInternedSignature().getMethodName());
+		Assert.assertSame(trace.getSignature(first.getSignatureId()), first.getInternedSignature());
+		// setting single parts does not intern intermediate signatures
+		Assert.assertEquals(2, trace.getSignatureCount());
+	}
+
+	/**
+	 * Tests reading signatures set by the setters of single parts on several threads before and
+	 * after they have been interned.
+	 */
+	@Test
+	public void testConcurrentSignatureReads() {
+		int numCallees = 20000;
+		TraceImpl trace = new TraceImpl(3);
+		SubTraceImpl subTrace = new SubTraceImpl(1, null, trace);
+		trace.setRoot(subTrace);
+		MethodInvocationImpl root = new MethodInvocationImpl(null, subTrace);
+		subTrace.setRoot(root);
+		for (int i = 0; i < numCallees; i++) {
+			MethodInvocationImpl callee = new MethodInvocationImpl(root, subTrace);
+			callee.setSignature("signature" + i);
+			callee.setClassName("Class" + i);
+			callee.setMethodName("method" + i);
+		}
+
+		for (int round = 0; round < 2; round++) {
+			List<String> classNames = trace.parallelStream().skip(1).map(callable -> ((MethodInvocation) callable).getClassName().get())
+					.collect(Collectors.toList());
+			Assert.assertEquals(numCallees, classNames.size());
+			for (int i = 0; i < numCallees; i++) {
+				Assert.assertEquals("Class" + i, classNames.get(i));
+			}
+			if (round == 0) {
+				// reading does not intern the pending parts
+				Assert.assertEquals(0, trace.getSignatureCount());
+				trace.forEach(callable -> ((MethodInvocationImpl) callable).internSignature());
+			}
+		}
+		Assert.assertEquals(numCallees, trace.getSignatureCount());
+	}
+
 	/**
 	 * Tests retrieval of labels.
 	 */
@@ -0,0 +1,130 @@
+package rocks.cta.dflt.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import rocks.cta.api.core.Trace;
+import rocks.cta.api.core.TreeIterator;
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.utils.PreOrderIndex;
+import rocks.cta.dflt.impl.columnar.ColumnarTrace;
+import rocks.cta.dflt.impl.core.SubTraceImpl;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.core.callables.AbstractNestingCallableImpl;
+import rocks.cta.dflt.impl.core.callables.MethodInvocationImpl;
+
+/**
+ * JUnit test for the {@link PreOrderIndex}.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class PreOrderIndexTest {
+
+	/**
+	 * Tests the index of a trace against the ancestors derived from its iterator.
+	 */
+	@Test
+	public void testIndex() {
+		TraceImpl trace = new TraceCreator().createTrace();
+		assertIndex(trace, new PreOrderIndex(trace));
+		assertIndex(trace, trace.getPreOrderIndex());
+
+		ColumnarTrace columnarTrace = ColumnarTrace.copyOf(trace);
+		assertIndex(columnarTrace, new PreOrderIndex(columnarTrace, true));
+		Assert.assertEquals(-1, new PreOrderIndex(columnarTrace).indexOf(columnarTrace.getRoot().getRoot()));
+	}
+
+	/**
+	 * Tests that the index is cached until callables are added.
+	 */
+	@Test
+	public void testCaching() {
+		TraceImpl trace = new TraceCreator().createTrace();
+		PreOrderIndex index = trace.getPreOrderIndex();
+		Assert.assertSame(index, trace.getPreOrderIndex());
+		new MethodInvocationImpl((AbstractNestingCallableImpl) trace.getRoot().getRoot(), (SubTraceImpl) trace.getRoot());
+		Assert.assertNotSame(index, trace.getPreOrderIndex());
+		Assert.assertEquals(index.size() + 1, trace.getPreOrderIndex().size());
+
+		trace.freeze();
+		Assert.assertSame(trace.getPreOrderIndex(), trace.getPreOrderIndex());
+	}
+
+	/**
+	 * Tests the index of an empty trace.
+	 */
+	@Test
+	public void testEmptyTrace() {
+		PreOrderIndex index = new PreOrderIndex(new TraceImpl(1));
+		Assert.assertEquals(0, index.size());
+		Assert.assertEquals(-1, index.indexOf(new TraceCreator().createTrace().getRoot().getRoot()));
+	}
+
+	/**
+	 * Asserts that the index is consistent with the iterator of the trace.
+	 * 
+	 * @param trace
+	 *            indexed trace
+	 * @param index
+	 *            index of the trace
+	 */
+	private static void assertIndex(Trace trace, PreOrderIndex index) {
+		List<List<Integer>> ancestors = new ArrayList<List<Integer>>();
+		List<Integer> path = new ArrayList<Integer>();
+		List<Integer> pathDepths = new ArrayList<Integer>();
+		TreeIterator<Callable> iterator = trace.iterator();
+		int position = 0;
+		while (iterator.hasNext()) {
+			Callable callable = iterator.next();
+			int depth = iterator.currentDepth();
+			while (!pathDepths.isEmpty() && pathDepths.get(pathDepths.size() - 1) >= depth) {
+				path.remove(path.size() - 1);
+				pathDepths.remove(pathDepths.size() - 1);
+			}
+			ancestors.add(new ArrayList<Integer>(path));
+
+			Assert.assertEquals(callable, index.get(position));
+			Assert.assertEquals(position, index.indexOf(callable));
+			Assert.assertEquals(depth, index.depth(position));
+			Assert.assertEquals(path.isEmpty() ? -1 : path.get(path.size() - 1).intValue(), index.parent(position));
+
+			path.add(position);
+			pathDepths.add(depth);
+			position++;
+		}
+		Assert.assertEquals(position, index.size());
+		Assert.assertEquals(position, index.subtreeSize(0));
+
+		for (int descendant = 0; descendant < index.size(); descendant++) {
+			int subtreeSize = 0;
+			for (int other = 0; other < index.size(); other++) {
+				boolean expected = ancestors.get(descendant).contains(other);
+				Assert.assertEquals(expected, index.isAncestor(other, descendant));
+				Assert.assertEquals(expected, index.isAncestor(index.get(other), index.get(descendant)));
+				if (other == descendant || ancestors.get(other).contains(descendant)) {
+					subtreeSize++;
+				}
+				if (expected) {
+					int child = index.childContaining(other, descendant);
+					Assert.assertEquals(other, index.parent(child));
+					Assert.assertTrue(child == descendant || index.isAncestor(child, descendant));
+				} else {
+					Assert.assertEquals(-1, index.childContaining(other, descendant));
+				}
+			}
+			Assert.assertEquals(subtreeSize, index.subtreeSize(descendant));
+
+			int previousChild = descendant;
+			for (int i = 0; i < index.childCount(descendant); i++) {
+				int child = index.child(descendant, i);
+				Assert.assertEquals(descendant, index.parent(child));
+				Assert.assertTrue(child > previousChild);
+				previousChild = child;
+			}
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package rocks.cta.dflt.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import rocks.cta.dflt.impl.core.StringPool;
+import rocks.cta.dflt.impl.core.SubTraceImpl;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.core.callables.MethodInvocationImpl;
+
+/**
+ * JUnit test for the {@link StringPool} class.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class StringPoolTest {
+
+	/**
+	 * Number of Strings to register for testing the growth of the pool.
+	 */
+	private static final int NUM_STRINGS = 10000;
+
+	/**
+	 * Tests that Strings with equal hash codes get distinct identifiers.
+	 */
+	@Test
+	public void testHashCollisions() {
+		Assert.assertEquals("Aa".hashCode(), "BB".hashCode());
+
+		StringPool pool = new StringPool();
+		int first = pool.register("Aa");
+		int second = pool.register("BB");
+		Assert.assertTrue(first != second);
+		Assert.assertEquals("Aa", pool.get(first));
+		Assert.assertEquals("BB", pool.get(second));
+		Assert.assertEquals(first, pool.register(new String("Aa")));
+		Assert.assertEquals(2, pool.size());
+
+		TraceImpl trace = new TraceImpl(1);
+		SubTraceImpl subTrace = new SubTraceImpl(1, null, trace);
+		trace.setRoot(subTrace);
+		MethodInvocationImpl method = new MethodInvocationImpl(null, subTrace);
+		subTrace.setRoot(method);
+		Assert.assertFalse(method.getClassName().isPresent());
+		method.setClassName("Aa");
+		method.setMethodName("BB");
+		Assert.assertEquals("Aa", method.getClassName().get());
+		Assert.assertEquals("BB", method.getMethodName().get());
+	}
+
+	/**
+	 * Tests dense identifiers and lookups while the pool grows.
+	 */
+	@Test
+	public void testGrowth() {
+		StringPool pool = new StringPool();
+		for (int i = 0; i < NUM_STRINGS; i++) {
+			Assert.assertEquals(i, pool.register("string" + i));
+		}
+		for (int i = 0; i < NUM_STRINGS; i++) {
+			Assert.assertEquals(i, pool.indexOf("string" + i));
+			Assert.assertEquals("string" + i, pool.get(i));
+		}
+		Assert.assertEquals(NUM_STRINGS, pool.size());
+		Assert.assertEquals(StringPool.NULL_ID, pool.indexOf("unknown"));
+		Assert.assertEquals(StringPool.NULL_ID, pool.register(null));
+		Assert.assertNull(pool.get(StringPool.NULL_ID));
+	}
+}
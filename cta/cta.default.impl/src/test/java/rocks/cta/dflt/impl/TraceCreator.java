@@ -74,7 +74,18 @@ public class TraceCreator {
 	 * @return trace instance
 	 */
 	public TraceImpl createTrace() {
-		TraceImpl trace = new TraceImpl(1);
+		return createTrace(1);
+	}
+
+	/**
+	 * Initialize SubTrace.
+	 * 
+	 * @param traceId
+	 *            identifier of the trace to create
+	 * @return trace instance
+	 */
+	public TraceImpl createTrace(long traceId) {
+		TraceImpl trace = new TraceImpl(traceId);
 
 		SubTraceImpl subTrace = new SubTraceImpl(1, null, trace);
 		subTrace.setLocation(new LocationImpl());
@@ -129,6 +140,7 @@ public class TraceCreator {
 			methodInvocation.setPackageName("package");
 			methodInvocation.setClassName("MyClass");
 			methodInvocation.setMethodName("SubTrace Invocation");
+			methodInvocation.internSignature();
 
 			for (int i = 0; i < WIDTH; i++) {
 				createChildNode(methodInvocation, subTrace, trace, depth + 1);
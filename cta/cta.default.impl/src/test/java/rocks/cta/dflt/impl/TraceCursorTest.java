@@ -0,0 +1,101 @@
+package rocks.cta.dflt.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import rocks.cta.api.core.Trace;
+import rocks.cta.api.core.TraceCursor;
+import rocks.cta.api.core.TreeIterator;
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.MethodInvocation;
+import rocks.cta.api.core.callables.TimedCallable;
+import rocks.cta.api.utils.CallableTraceCursor;
+import rocks.cta.dflt.impl.columnar.ColumnarTrace;
+import rocks.cta.dflt.impl.columnar.ColumnarTraceCursor;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.core.callables.TraceImplCursor;
+
+/**
+ * JUnit test for the {@link TraceCursor} implementations.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class TraceCursorTest {
+
+	/**
+	 * Tests the generic cursor against the iterator of the trace.
+	 */
+	@Test
+	public void testCallableTraceCursor() {
+		Trace trace = new TraceCreator().createTrace();
+		assertSameTraversal(trace, new CallableTraceCursor(trace));
+	}
+
+	/**
+	 * Tests the cursor of the default implementation against the iterator of the trace.
+	 */
+	@Test
+	public void testTraceImplCursor() {
+		TraceImpl trace = new TraceCreator().createTrace();
+		TraceCursor cursor = trace.cursor();
+		Assert.assertTrue(cursor instanceof TraceImplCursor);
+		assertSameTraversal(trace, cursor);
+	}
+
+	/**
+	 * Tests the cursor of the columnar implementation against the iterator of the trace.
+	 */
+	@Test
+	public void testColumnarTraceCursor() {
+		ColumnarTrace trace = ColumnarTrace.copyOf(new TraceCreator().createTrace());
+		TraceCursor cursor = trace.cursor();
+		Assert.assertTrue(cursor instanceof ColumnarTraceCursor);
+		assertSameTraversal(trace, cursor);
+	}
+
+	/**
+	 * Tests a cursor on an empty trace.
+	 */
+	@Test
+	public void testEmptyTrace() {
+		TraceCursor cursor = new TraceImpl(1).cursor();
+		Assert.assertFalse(cursor.moveNext());
+		Assert.assertFalse(cursor.moveNext());
+	}
+
+	/**
+	 * Asserts that the cursor visits the same callables with the same properties as the iterator
+	 * of the trace.
+	 * 
+	 * @param trace
+	 *            trace to walk
+	 * @param cursor
+	 *            new cursor on the trace
+	 */
+	private static void assertSameTraversal(Trace trace, TraceCursor cursor) {
+		TreeIterator<Callable> iterator = trace.iterator();
+		int count = 0;
+		while (iterator.hasNext()) {
+			Callable callable = iterator.next();
+			Assert.assertTrue(cursor.moveNext());
+			Assert.assertEquals(callable, cursor.callable());
+			Assert.assertEquals(callable.getCallableType(), cursor.type());
+			Assert.assertEquals(iterator.currentDepth(), cursor.depth());
+			Assert.assertEquals(callable.getTimestamp(), cursor.timestamp());
+			if (callable instanceof TimedCallable) {
+				Assert.assertEquals(((TimedCallable) callable).getResponseTime(), cursor.responseTime());
+			} else {
+				Assert.assertEquals(-1, cursor.responseTime());
+			}
+			if (callable instanceof MethodInvocation) {
+				Assert.assertEquals(((MethodInvocation) callable).getSignature(), cursor.signature(cursor.signatureId()));
+			} else {
+				Assert.assertEquals(TraceCursor.NO_SIGNATURE, cursor.signatureId());
+			}
+			count++;
+		}
+		Assert.assertFalse(cursor.moveNext());
+		Assert.assertTrue(count > 0);
+	}
+}
@@ -1,18 +1,33 @@
 package rocks.cta.dflt.impl;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import org.junit.Assert;
+import rocks.cta.api.core.Identifiable;
+import rocks.cta.api.core.SubTrace;
 import rocks.cta.api.core.Trace;
 import rocks.cta.api.core.callables.Callable;
 import rocks.cta.api.core.callables.MethodInvocation;
 import rocks.cta.api.core.callables.NestingCallable;
 import rocks.cta.api.core.callables.RemoteInvocation;
+import rocks.cta.api.core.callables.TimedCallable;
 import rocks.cta.api.utils.CallableIterator;
 import rocks.cta.api.utils.CallableIteratorOnTrace;
 import rocks.cta.api.utils.SubTraceIterator;
+import rocks.cta.dflt.impl.core.SubTraceImpl;
 import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.core.callables.AbstractCallableImpl;
+import rocks.cta.dflt.impl.core.callables.AbstractNestingCallableImpl;
+import rocks.cta.dflt.impl.core.callables.AbstractTimedCallableImpl;
+import rocks.cta.dflt.impl.core.callables.DatabaseInvocationImpl;
+import rocks.cta.dflt.impl.core.callables.MethodInvocationImpl;
 
 /**
  * JUnit test for the {@link TraceImpl} class and corresponding iterators
@@ -61,4 +76,212 @@ public class TraceImplTest {
 		}
 	}
 
+	/**
+	 * Tests that a frozen trace provides the same values as a trace that has not been frozen.
+	 */
+	@Test
+	public void testFreeze() {
+		TraceImpl reference = createTimedTrace();
+		TraceImpl frozen = createTimedTrace();
+		Assert.assertFalse(frozen.isFrozen());
+		Assert.assertSame(frozen, frozen.freeze());
+		Assert.assertTrue(frozen.isFrozen());
+		Assert.assertSame(frozen, frozen.freeze());
+
+		Assert.assertEquals(reference.size(), frozen.size());
+		Iterator<SubTrace> referenceSubTraces = reference.subTraceIterator();
+		Iterator<SubTrace> frozenSubTraces = frozen.subTraceIterator();
+		while (referenceSubTraces.hasNext()) {
+			Assert.assertEquals(referenceSubTraces.next().size(), frozenSubTraces.next().size());
+		}
+		Assert.assertFalse(frozenSubTraces.hasNext());
+
+		Iterator<Callable> referenceCallables = reference.iterator();
+		Iterator<Callable> frozenCallables = frozen.iterator();
+		while (referenceCallables.hasNext()) {
+			Callable expected = referenceCallables.next();
+			Callable actual = frozenCallables.next();
+			Assert.assertEquals(expected.getLabels(), actual.getLabels());
+			if (expected instanceof TimedCallable) {
+				Assert.assertEquals(((TimedCallable) expected).getExclusiveTime(), ((TimedCallable) actual).getExclusiveTime());
+			}
+			if (expected instanceof MethodInvocation) {
+				Assert.assertEquals(((MethodInvocation) expected).getExclusiveCPUTime(), ((MethodInvocation) actual).getExclusiveCPUTime());
+			}
+		}
+		Assert.assertFalse(frozenCallables.hasNext());
+	}
+
+	/**
+	 * Tests that a frozen trace cannot be modified.
+	 */
+	@Test
+	public void testFrozenTraceIsImmutable() {
+		TraceImpl trace = new TraceCreator().createTrace().freeze();
+		SubTraceImpl subTrace = (SubTraceImpl) trace.getRoot();
+		AbstractNestingCallableImpl root = (AbstractNestingCallableImpl) subTrace.getRoot();
+		try {
+			new MethodInvocationImpl(root, subTrace);
+			Assert.fail("Callables must not be added to a frozen trace.");
+		} catch (IllegalStateException e) {
+			Assert.assertEquals(TraceCreator.WIDTH, root.getCallees().size());
+		}
+		try {
+			root.setResponseTime(1);
+			Assert.fail("Callables of a frozen trace must not be modified.");
+		} catch (IllegalStateException e) {
+			Assert.assertEquals(-1, root.getResponseTime());
+		}
+		try {
+			new SubTraceImpl(TraceCreator.INVOKED_SUB_TRACE_ID + 1, subTrace, trace);
+			Assert.fail("SubTraces must not be added to a frozen trace.");
+		} catch (IllegalStateException e) {
+			Assert.assertEquals(1, subTrace.getSubTraces().size());
+		}
+		try {
+			trace.registerStringConstant("label");
+			Assert.fail("Strings must not be registered in a frozen trace.");
+		} catch (IllegalStateException e) {
+			Assert.assertTrue(trace.isFrozen());
+		}
+		try {
+			root.getCallees().clear();
+			Assert.fail("Callees of a frozen trace must not be modified.");
+		} catch (UnsupportedOperationException e) {
+			Assert.assertEquals(TraceCreator.WIDTH, root.getCallees().size());
+		}
+		for (Identifiable identifiable : Arrays.<Identifiable> asList(trace, subTrace, root)) {
+			try {
+				identifiable.setIdentifier("id");
+				Assert.fail("Identifiers of a frozen trace must not be modified.");
+			} catch (IllegalStateException e) {
+				Assert.assertFalse(identifiable.getIdentifier().isPresent());
+			}
+		}
+	}
+
+	/**
+	 * Tests that the bound SQL statement of a database invocation is computed on freezing.
+	 */
+	@Test
+	public void testBoundSQLStatement() {
+		TraceImpl trace = new TraceImpl(1);
+		SubTraceImpl subTrace = new SubTraceImpl(1, null, trace);
+		trace.setRoot(subTrace);
+		MethodInvocationImpl root = new MethodInvocationImpl(null, subTrace);
+		subTrace.setRoot(root);
+		DatabaseInvocationImpl query = new DatabaseInvocationImpl(root, subTrace);
+		query.setSQLStatement("SELECT * FROM T WHERE A = ?");
+		query.setPrepared(true);
+		query.addParameterBinding(1, "x");
+		Assert.assertEquals("SELECT * FROM T WHERE A = x", query.getBoundSQLStatement().get());
+		query.addParameterBinding(1, "y");
+		Assert.assertEquals("SELECT * FROM T WHERE A = y", query.getBoundSQLStatement().get());
+		DatabaseInvocationImpl unbound = new DatabaseInvocationImpl(root, subTrace);
+		unbound.setSQLStatement("SELECT * FROM T WHERE A = ? AND B = ?");
+		unbound.setPrepared(true);
+		unbound.addParameterBinding(1, "x");
+
+		trace.freeze();
+		Assert.assertEquals("SELECT * FROM T WHERE A = y", query.getBoundSQLStatement().get());
+		Assert.assertSame(query.getBoundSQLStatement().get(), query.getBoundSQLStatement().get());
+		try {
+			unbound.getBoundSQLStatement();
+			Assert.fail("Missing parameter bindings must be reported.");
+		} catch (IllegalStateException e) {
+			Assert.assertTrue(trace.isFrozen());
+		}
+	}
+
+	/**
+	 * Tests the label index of a trace.
+	 */
+	@Test
+	public void testLabelIndex() {
+		TraceImpl trace = createTimedTrace();
+		for (String label : Arrays.asList("label0", "label1", "label2")) {
+			List<Callable> expected = scanCallablesWithLabel(trace, label);
+			Assert.assertFalse(expected.isEmpty());
+			Assert.assertEquals(expected, trace.getCallablesWithLabel(label));
+			Assert.assertSame(trace.getCallablesWithLabel(label), trace.getCallablesWithLabel(label));
+		}
+		Assert.assertTrue(trace.getCallablesWithLabel("unknown").isEmpty());
+		Assert.assertTrue(trace.getCallablesWithLabel(null).isEmpty());
+
+		AbstractCallableImpl root = (AbstractCallableImpl) trace.getRoot().getRoot();
+		root.addLabel("new");
+		root.addLabel("new");
+		Assert.assertEquals(Arrays.asList("label0", "new", "new"), root.getLabels().get());
+		Assert.assertEquals(Collections.singletonList(root), trace.getCallablesWithLabel("new"));
+
+		// callables are inserted in pre-order when a label is added after the index was built
+		List<Callable> withLabel = trace.getCallablesWithLabel("label1");
+		int count = withLabel.size();
+		root.addLabel("label1");
+		Assert.assertSame(withLabel, trace.getCallablesWithLabel("label1"));
+		Assert.assertEquals(count + 1, withLabel.size());
+		Assert.assertSame(root, withLabel.get(0));
+		List<Callable> callables = new ArrayList<Callable>();
+		trace.forEach(callables::add);
+		Collections.reverse(callables);
+		for (Callable callable : callables) {
+			if (!callable.getLabels().orElse(Collections.<String> emptyList()).contains("label2")) {
+				((AbstractCallableImpl) callable).addLabel("label2");
+			}
+		}
+		Assert.assertEquals(scanCallablesWithLabel(trace, "label1"), withLabel);
+		Assert.assertEquals(scanCallablesWithLabel(trace, "label2"), trace.getCallablesWithLabel("label2"));
+
+		trace.freeze();
+		Assert.assertEquals(Collections.singletonList(root), trace.getCallablesWithLabel("new"));
+		TraceImpl frozen = createTimedTrace().freeze();
+		Assert.assertEquals(count, frozen.getCallablesWithLabel("label1").size());
+	}
+
+	/**
+	 * Collects the callables carrying a label by scanning the sub traces of a trace.
+	 * 
+	 * @param trace
+	 *            trace to scan
+	 * @param label
+	 *            label of interest
+	 * @return the callables carrying the label in pre-order of their sub traces
+	 */
+	private static List<Callable> scanCallablesWithLabel(TraceImpl trace, String label) {
+		List<Callable> result = new ArrayList<Callable>();
+		Iterator<SubTrace> subTraces = trace.subTraceIterator();
+		while (subTraces.hasNext()) {
+			for (Callable callable : subTraces.next()) {
+				if (callable.getLabels().orElse(Collections.<String> emptyList()).contains(label)) {
+					result.add(callable);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Creates a trace with response times, CPU times and labels.
+	 * 
+	 * @return trace instance
+	 */
+	private static TraceImpl createTimedTrace() {
+		TraceImpl trace = new TraceCreator().createTrace();
+		int i = 0;
+		for (Callable callable : trace) {
+			long responseTime = (trace.size() - i) * 10L;
+			if (callable instanceof AbstractTimedCallableImpl) {
+				((AbstractTimedCallableImpl) callable).setResponseTime(responseTime);
+			}
+			if (callable instanceof MethodInvocationImpl && i % 3 != 0) {
+				((MethodInvocationImpl) callable).setCPUTime(responseTime / 2);
+			}
+			if (i % 5 == 0) {
+				((AbstractCallableImpl) callable).addLabel("label" + (i % 3));
+			}
+			i++;
+		}
+		return trace;
+	}
+
 }
@@ -0,0 +1,263 @@
+package rocks.cta.dflt.impl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import rocks.cta.api.core.SubTrace;
+import rocks.cta.api.core.Trace;
+import rocks.cta.api.core.TraceVisitor;
+import rocks.cta.api.core.TreeIterator;
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.DatabaseInvocation;
+import rocks.cta.api.core.callables.ExceptionThrow;
+import rocks.cta.api.core.callables.HTTPRequestProcessing;
+import rocks.cta.api.core.callables.LoggingInvocation;
+import rocks.cta.api.core.callables.MethodInvocation;
+import rocks.cta.api.core.callables.RemoteInvocation;
+import rocks.cta.api.core.callables.TimedCallable;
+import rocks.cta.api.utils.TraceWalker;
+import rocks.cta.dflt.impl.columnar.ColumnarTrace;
+import rocks.cta.dflt.impl.core.SubTraceImpl;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.core.callables.MethodInvocationImpl;
+import rocks.cta.dflt.impl.tranformer.DefaultCTATransformer;
+
+/**
+ * JUnit test for the {@link TraceVisitor} and the {@link TraceWalker}.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class TraceVisitorTest {
+
+	/**
+	 * Depth of the chain of the deep trace.
+	 */
+	private static final int DEEP_TRACE_DEPTH = 5000;
+
+	/**
+	 * Tests the order of the callbacks on a trace against the iterators of the trace.
+	 */
+	@Test
+	public void testWalkTrace() {
+		TraceImpl trace = new TraceCreator().createTrace();
+		assertWalk(trace);
+		assertWalk(ColumnarTrace.copyOf(trace));
+	}
+
+	/**
+	 * Tests that walking a callable does not visit target sub traces.
+	 */
+	@Test
+	public void testWalkCallable() {
+		TraceImpl trace = new TraceCreator().createTrace();
+		RecordingVisitor visitor = new RecordingVisitor();
+		new TraceWalker(visitor).walk(trace.getRoot().getRoot());
+
+		List<Callable> expected = new ArrayList<Callable>();
+		for (Callable callable : trace.getRoot()) {
+			expected.add(callable);
+		}
+		Assert.assertEquals(expected, visitor.callables);
+		Assert.assertEquals(0, visitor.subTraces);
+		Assert.assertEquals(0, visitor.depth);
+	}
+
+	/**
+	 * Tests a walk over a deep trace.
+	 */
+	@Test
+	public void testDeepTrace() {
+		TraceImpl trace = new TraceImpl(1);
+		SubTraceImpl subTrace = new SubTraceImpl(1, null, trace);
+		trace.setRoot(subTrace);
+		MethodInvocationImpl parent = new MethodInvocationImpl(null, subTrace);
+		subTrace.setRoot(parent);
+		for (int i = 1; i < DEEP_TRACE_DEPTH; i++) {
+			parent = new MethodInvocationImpl(parent, subTrace);
+		}
+
+		RecordingVisitor visitor = new RecordingVisitor();
+		trace.accept(visitor);
+		Assert.assertEquals(DEEP_TRACE_DEPTH, visitor.callables.size());
+		Assert.assertEquals(DEEP_TRACE_DEPTH + 1, visitor.maxDepth);
+		Assert.assertEquals(0, visitor.depth);
+	}
+
+	/**
+	 * Tests the transformation of a trace into the default implementation, which is driven by a
+	 * visitor.
+	 */
+	@Test
+	public void testTransformer() {
+		TraceImpl trace = new TraceCreator().createTrace();
+		ColumnarTrace columnarTrace = ColumnarTrace.copyOf(trace);
+		TraceImpl transformed = new DefaultCTATransformer().transform(columnarTrace);
+
+		Assert.assertEquals(trace.size(), transformed.size());
+		TreeIterator<Callable> expected = trace.iterator();
+		TreeIterator<Callable> actual = transformed.iterator();
+		while (expected.hasNext()) {
+			Callable expectedCallable = expected.next();
+			Callable actualCallable = actual.next();
+			Assert.assertEquals(expectedCallable.getCallableType(), actualCallable.getCallableType());
+			Assert.assertEquals(expected.currentDepth(), actual.currentDepth());
+			Assert.assertEquals(expectedCallable.getTimestamp(), actualCallable.getTimestamp());
+			if (expectedCallable instanceof TimedCallable) {
+				Assert.assertEquals(((TimedCallable) expectedCallable).getResponseTime(), ((TimedCallable) actualCallable).getResponseTime());
+			}
+		}
+		Assert.assertFalse(actual.hasNext());
+
+		TreeIterator<SubTrace> expectedSubTraces = trace.subTraceIterator();
+		TreeIterator<SubTrace> actualSubTraces = transformed.subTraceIterator();
+		while (expectedSubTraces.hasNext()) {
+			Assert.assertEquals(expectedSubTraces.next().getSubTraceId(), actualSubTraces.next().getSubTraceId());
+			Assert.assertEquals(expectedSubTraces.currentDepth(), actualSubTraces.currentDepth());
+		}
+		Assert.assertFalse(actualSubTraces.hasNext());
+	}
+
+	/**
+	 * Walks the trace and asserts that the visitor receives the callables in the order of the
+	 * iterator, with the remote invocations before their target sub traces.
+	 * 
+	 * @param trace
+	 *            trace to walk
+	 */
+	private static void assertWalk(Trace trace) {
+		RecordingVisitor visitor = new RecordingVisitor();
+		trace.accept(visitor);
+
+		List<Callable> expected = new ArrayList<Callable>();
+		for (Callable callable : trace) {
+			expected.add(callable);
+		}
+		List<Callable> actual = new ArrayList<Callable>();
+		int remoteInvocations = 0;
+		for (Callable callable : visitor.callables) {
+			if (callable instanceof RemoteInvocation && ((RemoteInvocation) callable).getTargetSubTrace().isPresent()) {
+				remoteInvocations++;
+			} else {
+				actual.add(callable);
+			}
+		}
+		Assert.assertEquals(expected, actual);
+		Assert.assertTrue(remoteInvocations > 0);
+
+		int subTraces = 0;
+		Iterator<SubTrace> subTraceIterator = trace.subTraceIterator();
+		while (subTraceIterator.hasNext()) {
+			subTraceIterator.next();
+			subTraces++;
+		}
+		Assert.assertEquals(subTraces, visitor.subTraces);
+		Assert.assertEquals(0, visitor.depth);
+	}
+
+	/**
+	 * Visitor recording the visited callables and checking that enter and exit callbacks are
+	 * balanced.
+	 * 
+	 * @author Alexander Wert
+	 * 
+	 */
+	private static class RecordingVisitor implements TraceVisitor {
+
+		/**
+		 * Visited callables in visiting order.
+		 */
+		private final List<Callable> callables = new ArrayList<Callable>();
+
+		/**
+		 * Number of visited sub traces.
+		 */
+		private int subTraces;
+
+		/**
+		 * Number of entered but not yet exited elements.
+		 */
+		private int depth;
+
+		/**
+		 * Maximum number of entered but not yet exited elements.
+		 */
+		private int maxDepth;
+
+		@Override
+		public void enterSubTrace(SubTrace subTrace) {
+			subTraces++;
+			enter();
+		}
+
+		@Override
+		public void exitSubTrace(SubTrace subTrace) {
+			depth--;
+		}
+
+		@Override
+		public void enterMethodInvocation(MethodInvocation methodInvocation) {
+			callables.add(methodInvocation);
+			enter();
+		}
+
+		@Override
+		public void exitMethodInvocation(MethodInvocation methodInvocation) {
+			depth--;
+		}
+
+		@Override
+		public void enterHTTPRequestProcessing(HTTPRequestProcessing httpRequestProcessing) {
+			callables.add(httpRequestProcessing);
+			enter();
+		}
+
+		@Override
+		public void exitHTTPRequestProcessing(HTTPRequestProcessing httpRequestProcessing) {
+			depth--;
+		}
+
+		@Override
+		public void enterRemoteInvocation(RemoteInvocation remoteInvocation) {
+			callables.add(remoteInvocation);
+			enter();
+		}
+
+		@Override
+		public void exitRemoteInvocation(RemoteInvocation remoteInvocation) {
+			depth--;
+		}
+
+		@Override
+		public void visitDatabaseInvocation(DatabaseInvocation databaseInvocation) {
+			callables.add(databaseInvocation);
+		}
+
+		@Override
+		public void visitLoggingInvocation(LoggingInvocation loggingInvocation) {
+			callables.add(loggingInvocation);
+		}
+
+		@Override
+		public void visitExceptionThrow(ExceptionThrow exceptionThrow) {
+			callables.add(exceptionThrow);
+		}
+
+		@Override
+		public void enterCallable(Callable callable) {
+			Assert.fail("Unexpected callable type: " + callable.getCallableType());
+		}
+
+		/**
+		 * Records that an element has been entered.
+		 */
+		private void enter() {
+			depth++;
+			maxDepth = Math.max(maxDepth, depth);
+		}
+	}
+}
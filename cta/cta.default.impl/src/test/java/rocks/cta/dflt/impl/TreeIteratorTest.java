@@ -0,0 +1,161 @@
+package rocks.cta.dflt.impl;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import rocks.cta.api.core.SubTrace;
+import rocks.cta.api.core.TreeIterator;
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.utils.ArrayStackCallableIterator;
+import rocks.cta.api.utils.ArrayStackSubTraceIterator;
+import rocks.cta.api.utils.CallableIterator;
+import rocks.cta.api.utils.CallableIteratorOnTrace;
+import rocks.cta.api.utils.SubTraceIterator;
+import rocks.cta.dflt.impl.columnar.ColumnarTrace;
+import rocks.cta.dflt.impl.core.SubTraceImpl;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.core.callables.AbstractNestingCallableImpl;
+import rocks.cta.dflt.impl.core.callables.CallableImplIterator;
+import rocks.cta.dflt.impl.core.callables.MethodInvocationImpl;
+
+/**
+ * JUnit test for the array-stack based {@link TreeIterator} implementations.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class TreeIteratorTest {
+
+	/**
+	 * Depth of the chain of the deep trace.
+	 */
+	private static final int DEEP_TRACE_DEPTH = 5000;
+
+	/**
+	 * Tests the Callable iterators on a trace against {@link CallableIteratorOnTrace}.
+	 */
+	@Test
+	public void testCallableIteratorOnTrace() {
+		TraceImpl trace = new TraceCreator().createTrace();
+		assertSameIteration(new CallableIteratorOnTrace(trace.getRoot()), trace.iterator());
+		assertSameIteration(new CallableIteratorOnTrace(trace.getRoot()), new ArrayStackCallableIterator(trace.getRoot()));
+
+		ColumnarTrace columnarTrace = ColumnarTrace.copyOf(trace);
+		assertSameIteration(new CallableIteratorOnTrace(columnarTrace.getRoot()), columnarTrace.iterator());
+	}
+
+	/**
+	 * Tests the Callable iterators on sub traces and callables against {@link CallableIterator}.
+	 */
+	@Test
+	public void testCallableIterator() {
+		TraceImpl trace = new TraceCreator().createTrace();
+		int subTraces = 0;
+		Iterator<SubTrace> subTraceIterator = trace.subTraceIterator();
+		while (subTraceIterator.hasNext()) {
+			SubTrace subTrace = subTraceIterator.next();
+			assertSameIteration(new CallableIterator(subTrace.getRoot()), subTrace.iterator());
+			assertSameIteration(new CallableIterator(subTrace.getRoot()), new ArrayStackCallableIterator(subTrace.getRoot()));
+			subTraces++;
+		}
+		Assert.assertTrue(subTraces > 1);
+
+		AbstractNestingCallableImpl root = (AbstractNestingCallableImpl) trace.getRoot().getRoot();
+		assertSameIteration(new CallableIterator(root), root.iterator());
+	}
+
+	/**
+	 * Tests the SubTrace iterators against {@link SubTraceIterator}.
+	 */
+	@Test
+	public void testSubTraceIterator() {
+		TraceImpl trace = new TraceCreator().createTrace();
+		assertSameIteration(new SubTraceIterator(trace.getRoot()), trace.subTraceIterator());
+
+		ColumnarTrace columnarTrace = ColumnarTrace.copyOf(trace);
+		assertSameIteration(new SubTraceIterator(columnarTrace.getRoot()), columnarTrace.subTraceIterator());
+	}
+
+	/**
+	 * Tests the iterators on a very deep trace.
+	 */
+	@Test
+	public void testDeepTrace() {
+		TraceImpl trace = new TraceImpl(1);
+		SubTraceImpl subTrace = new SubTraceImpl(1, null, trace);
+		trace.setRoot(subTrace);
+		MethodInvocationImpl parent = new MethodInvocationImpl(null, subTrace);
+		subTrace.setRoot(parent);
+		for (int i = 1; i < DEEP_TRACE_DEPTH; i++) {
+			parent = new MethodInvocationImpl(parent, subTrace);
+		}
+
+		TreeIterator<Callable> iterator = trace.iterator();
+		int count = 0;
+		while (iterator.hasNext()) {
+			iterator.next();
+			Assert.assertEquals(count, iterator.currentDepth());
+			count++;
+		}
+		Assert.assertEquals(DEEP_TRACE_DEPTH, count);
+		assertSameIteration(new CallableIteratorOnTrace(trace.getRoot()), trace.iterator());
+	}
+
+	/**
+	 * Tests the iterators on empty traces.
+	 */
+	@Test
+	public void testEmptyTrace() {
+		TraceImpl trace = new TraceImpl(1);
+		Assert.assertFalse(trace.iterator().hasNext());
+		Assert.assertFalse(trace.subTraceIterator().hasNext());
+		Assert.assertFalse(new CallableImplIterator(null, false).hasNext());
+		try {
+			trace.iterator().next();
+			Assert.fail("NoSuchElementException expected");
+		} catch (NoSuchElementException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Asserts that both iterators return equal elements in the same order at the same depths.
+	 * 
+	 * @param expected
+	 *            reference iterator
+	 * @param actual
+	 *            iterator to test
+	 * @param <E>
+	 *            type of the elements
+	 */
+	private static <E> void assertSameIteration(TreeIterator<E> expected, TreeIterator<E> actual) {
+		int count = 0;
+		while (expected.hasNext()) {
+			Assert.assertTrue(actual.hasNext());
+			Assert.assertEquals(expected.next(), actual.next());
+			Assert.assertEquals(expected.currentDepth(), actual.currentDepth());
+			count++;
+		}
+		Assert.assertFalse(actual.hasNext());
+		Assert.assertTrue(count > 0);
+		assertExhausted(actual);
+	}
+
+	/**
+	 * Asserts that the iterator throws a {@link NoSuchElementException} when it is exhausted.
+	 * 
+	 * @param iterator
+	 *            exhausted iterator
+	 */
+	private static void assertExhausted(Iterator<?> iterator) {
+		try {
+			iterator.next();
+			Assert.fail("NoSuchElementException expected");
+		} catch (NoSuchElementException e) {
+			// expected
+		}
+	}
+}
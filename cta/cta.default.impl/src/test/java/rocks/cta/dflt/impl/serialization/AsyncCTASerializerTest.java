@@ -0,0 +1,275 @@
+package rocks.cta.dflt.impl.serialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import rocks.cta.api.core.Trace;
+import rocks.cta.dflt.impl.TraceCreator;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.serialization.realizations.AsyncCTASerializer;
+import rocks.cta.dflt.impl.serialization.realizations.AsyncCTASerializer.OverflowPolicy;
+
+/**
+ * JUnit test for the asynchronous trace serialization.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class AsyncCTASerializerTest {
+
+	/**
+	 * Number of concurrently writing threads.
+	 */
+	private static final int NUM_THREADS = 4;
+
+	/**
+	 * Number of traces written by each thread.
+	 */
+	private static final int TRACES_PER_THREAD = 50;
+
+	/**
+	 * Tests that all traces written concurrently are serialized once the serializer is closed.
+	 * 
+	 * @throws Exception
+	 *             if a writer thread fails
+	 */
+	@Test
+	public void testConcurrentSerialization() throws Exception {
+		ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+		final AsyncCTASerializer serializer = new AsyncCTASerializer(CTASerializationFactory.getInstance().getSerializer(
+				CTASerializationFormat.BINARY), 16, 8, OverflowPolicy.BLOCK);
+		serializer.prepare(outStream);
+
+		ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (int t = 0; t < NUM_THREADS; t++) {
+			final int threadIdx = t;
+			futures.add(executor.submit(() -> {
+				for (int i = 0; i < TRACES_PER_THREAD; i++) {
+					serializer.writeTrace(new TraceCreator().createTrace(threadIdx * TRACES_PER_THREAD + i));
+				}
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+		serializer.close();
+
+		int numTraces = NUM_THREADS * TRACES_PER_THREAD;
+		Assert.assertEquals(numTraces, serializer.getQueuedCount());
+		Assert.assertEquals(numTraces, serializer.getWrittenCount());
+		Assert.assertEquals(0, serializer.getDroppedCount());
+
+		CTADeserializer deserializer = CTASerializationFactory.getInstance().getDeserializer(CTASerializationFormat.BINARY);
+		deserializer.setSource(new ByteArrayInputStream(outStream.toByteArray()));
+		Set<Long> traceIds = new HashSet<Long>();
+		Trace trace = deserializer.readNext();
+		while (trace != null) {
+			traceIds.add(trace.getTraceId());
+			trace = deserializer.readNext();
+		}
+		deserializer.close();
+		Assert.assertEquals(numTraces, traceIds.size());
+	}
+
+	/**
+	 * Tests that every trace accepted while the serializer is closed concurrently is written.
+	 * 
+	 * @throws Exception
+	 *             if a writer thread fails
+	 */
+	@Test
+	public void testWriteRacingClose() throws Exception {
+		final AsyncCTASerializer serializer = new AsyncCTASerializer(CTASerializationFactory.getInstance().getSerializer(
+				CTASerializationFormat.BINARY), 16, 8, OverflowPolicy.BLOCK);
+		serializer.prepare(new ByteArrayOutputStream());
+
+		ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (int t = 0; t < NUM_THREADS; t++) {
+			futures.add(executor.submit(() -> {
+				try {
+					while (true) {
+						serializer.writeTrace(new TraceCreator().createTrace());
+					}
+				} catch (IllegalStateException e) {
+					// serializer has been closed
+					return;
+				}
+			}));
+		}
+		Thread.sleep(50);
+		serializer.close();
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+
+		Assert.assertEquals(0, serializer.getDroppedCount());
+		Assert.assertEquals(serializer.getQueuedCount(), serializer.getWrittenCount());
+	}
+
+	/**
+	 * Tests that flushing makes the queued traces readable before the serializer is closed.
+	 */
+	@Test
+	public void testFlush() {
+		ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+		AsyncCTASerializer serializer = CTASerializationFactory.getInstance().getAsyncSerializer(CTASerializationFormat.BINARY);
+		serializer.prepare(outStream);
+		TraceImpl written = new TraceCreator().createTrace(42);
+		serializer.writeTrace(written);
+		serializer.flush();
+		Assert.assertEquals(1, serializer.getWrittenCount());
+
+		CTADeserializer deserializer = CTASerializationFactory.getInstance().getDeserializer(CTASerializationFormat.BINARY);
+		deserializer.setSource(new ByteArrayInputStream(outStream.toByteArray()));
+		Trace result = deserializer.readNext();
+		Assert.assertEquals(written.getTraceId(), result.getTraceId());
+		Assert.assertEquals(written.size(), result.size());
+		deserializer.close();
+		serializer.close();
+	}
+
+	/**
+	 * Tests that traces are dropped and counted if the queue is full.
+	 * 
+	 * @throws InterruptedException
+	 *             if the test is interrupted
+	 */
+	@Test
+	public void testDropOnOverflow() throws InterruptedException {
+		BlockingSerializer delegate = new BlockingSerializer();
+		AsyncCTASerializer serializer = new AsyncCTASerializer(delegate, 2, 1, OverflowPolicy.DROP);
+		serializer.prepare(new ByteArrayOutputStream());
+
+		// the writer thread takes the first trace and blocks in the delegate
+		serializer.writeTrace(new TraceCreator().createTrace(0));
+		delegate.started.await();
+		for (int i = 1; i <= 5; i++) {
+			serializer.writeTrace(new TraceCreator().createTrace(i));
+		}
+		Assert.assertEquals(3, serializer.getQueuedCount());
+		Assert.assertEquals(3, serializer.getDroppedCount());
+
+		delegate.release.countDown();
+		serializer.close();
+		Assert.assertEquals(3, serializer.getWrittenCount());
+		Assert.assertEquals(3, delegate.written);
+		Assert.assertTrue(delegate.closed);
+	}
+
+	/**
+	 * Tests that threads blocked on a full queue and {@link AsyncCTASerializer#close()} fail
+	 * instead of hanging if the writer thread terminates with an error.
+	 * 
+	 * @throws Exception
+	 *             if the blocked thread fails unexpectedly or does not terminate
+	 */
+	@Test
+	public void testWriterThreadFailure() throws Exception {
+		BlockingSerializer delegate = new BlockingSerializer();
+		delegate.error = new Error("writer failure");
+		AsyncCTASerializer serializer = new AsyncCTASerializer(delegate, 1, 1, OverflowPolicy.BLOCK);
+		serializer.prepare(new ByteArrayOutputStream());
+
+		// the writer thread takes the first trace and blocks in the delegate, the second fills the queue
+		serializer.writeTrace(new TraceCreator().createTrace(0));
+		delegate.started.await();
+		serializer.writeTrace(new TraceCreator().createTrace(1));
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Future<?> blocked = executor.submit(() -> serializer.writeTrace(new TraceCreator().createTrace(2)));
+		delegate.release.countDown();
+		try {
+			blocked.get(10, TimeUnit.SECONDS);
+			Assert.fail("The failure of the writer thread must be rethrown to blocked threads.");
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+			Assert.assertSame(delegate.error, e.getCause().getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+
+		try {
+			serializer.close();
+			Assert.fail("The failure of the writer thread must be rethrown by close.");
+		} catch (IllegalStateException e) {
+			Assert.assertSame(delegate.error, e.getCause());
+		}
+		Assert.assertTrue(delegate.closed);
+		Assert.assertEquals(0, serializer.getWrittenCount());
+		Assert.assertEquals(2, serializer.getDroppedCount());
+	}
+
+	/**
+	 * Serializer that blocks on the first trace until it is released.
+	 * 
+	 * @author Alexander Wert
+	 * 
+	 */
+	private static class BlockingSerializer implements CTASerializer {
+
+		/**
+		 * Counted down when the first trace is written.
+		 */
+		private final CountDownLatch started = new CountDownLatch(1);
+
+		/**
+		 * Releases the blocked writer.
+		 */
+		private final CountDownLatch release = new CountDownLatch(1);
+
+		/**
+		 * Error thrown once the blocked writer has been released, null to write the traces.
+		 */
+		private volatile Error error;
+
+		/**
+		 * Number of written traces.
+		 */
+		private volatile int written;
+
+		/**
+		 * Indicates that the serializer has been closed.
+		 */
+		private volatile boolean closed;
+
+		@Override
+		public void prepare(OutputStream outStream) {
+		}
+
+		@Override
+		public void writeTrace(Trace trace) {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+			if (error != null) {
+				throw error;
+			}
+			written++;
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+}
@@ -0,0 +1,176 @@
+package rocks.cta.dflt.impl.serialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import rocks.cta.api.core.SubTrace;
+import rocks.cta.api.core.Trace;
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.DatabaseInvocation;
+import rocks.cta.api.core.callables.MethodInvocation;
+import rocks.cta.api.core.callables.NestingCallable;
+import rocks.cta.api.core.callables.RemoteInvocation;
+import rocks.cta.dflt.impl.TraceCreator;
+import rocks.cta.dflt.impl.core.SubTraceImpl;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.core.callables.DatabaseInvocationImpl;
+import rocks.cta.dflt.impl.core.callables.MethodInvocationImpl;
+
+/**
+ * JUnit test for the streaming JSON serialization.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class JsonCTASerializerTest {
+
+	/**
+	 * Depth of the deep call tree.
+	 */
+	private static final int DEEP_TREE_DEPTH = 20000;
+
+	/**
+	 * Tests writing and reading multiple traces including a remote invocation.
+	 */
+	@Test
+	public void testRoundTrip() {
+		TraceImpl trace = new TraceCreator().createTrace();
+		byte[] bytes = serialize(trace, new TraceCreator().createTrace(2));
+
+		CTADeserializer deserializer = CTASerializationFactory.getInstance().getDeserializer(CTASerializationFormat.JSON);
+		deserializer.setSource(new ByteArrayInputStream(bytes));
+		Trace result = deserializer.readNext();
+		Assert.assertEquals(2, deserializer.readNext().getTraceId());
+		Assert.assertNull(deserializer.readNext());
+		deserializer.close();
+
+		Assert.assertEquals(trace.getTraceId(), result.getTraceId());
+		Assert.assertEquals(trace.size(), result.size());
+
+		Iterator<SubTrace> expectedSubTraces = trace.subTraceIterator();
+		Iterator<SubTrace> subTraces = result.subTraceIterator();
+		while (expectedSubTraces.hasNext()) {
+			SubTrace expectedSubTrace = expectedSubTraces.next();
+			SubTrace subTrace = subTraces.next();
+			Assert.assertEquals(expectedSubTrace.getSubTraceId(), subTrace.getSubTraceId());
+			Assert.assertEquals(expectedSubTrace.size(), subTrace.size());
+		}
+		Assert.assertFalse(subTraces.hasNext());
+
+		Iterator<Callable> expectedCallables = trace.iterator();
+		for (Callable callable : result) {
+			Callable expected = expectedCallables.next();
+			Assert.assertEquals(expected.getClass(), callable.getClass());
+			if (callable instanceof MethodInvocation) {
+				Assert.assertEquals(((MethodInvocation) expected).getSignature(), ((MethodInvocation) callable).getSignature());
+				Assert.assertEquals(((MethodInvocation) expected).getClassName(), ((MethodInvocation) callable).getClassName());
+			} else if (callable instanceof RemoteInvocation) {
+				SubTrace target = ((RemoteInvocation) callable).getTargetSubTrace().get();
+				Assert.assertEquals(callable.getContainingSubTrace(), target.getParent());
+			}
+		}
+	}
+
+	/**
+	 * Tests a call tree that is too deep for recursive processing.
+	 */
+	@Test
+	public void testDeepCallTree() {
+		TraceImpl trace = new TraceImpl(1);
+		SubTraceImpl subTrace = new SubTraceImpl(1, null, trace);
+		trace.setRoot(subTrace);
+		MethodInvocationImpl parent = new MethodInvocationImpl(null, subTrace);
+		parent.setSignature("root()");
+		subTrace.setRoot(parent);
+		for (int i = 1; i < DEEP_TREE_DEPTH; i++) {
+			MethodInvocationImpl child = new MethodInvocationImpl(parent, subTrace);
+			child.setTimestamp(i);
+			parent = child;
+		}
+		DatabaseInvocationImpl dbInvocation = new DatabaseInvocationImpl(parent, subTrace);
+		dbInvocation.setSQLStatement("SELECT * FROM T WHERE A = ?");
+		dbInvocation.setPrepared(true);
+		dbInvocation.addParameterBinding(1, "x");
+
+		CTADeserializer deserializer = CTASerializationFactory.getInstance().getDeserializer(CTASerializationFormat.JSON);
+		deserializer.setSource(new ByteArrayInputStream(serialize(trace)));
+		Trace result = deserializer.readNext();
+		deserializer.close();
+
+		Assert.assertEquals(DEEP_TREE_DEPTH + 1, result.size());
+		Callable last = null;
+		for (Callable callable : result) {
+			last = callable;
+		}
+		Assert.assertEquals("SELECT * FROM T WHERE A = x", ((DatabaseInvocationImpl) last).getBoundSQLStatement().get());
+		Assert.assertEquals(DEEP_TREE_DEPTH - 1, last.getParent().getTimestamp());
+	}
+
+	/**
+	 * Tests reading a document whose identifying fields are not the first fields of their
+	 * objects.
+	 */
+	@Test
+	public void testReorderedFields() {
+		String json = "[{\"root\":{\"location\":{\"host\":\"h\"},"
+				+ "\"root\":{\"callees\":["
+				+ "{\"callees\":[{\"sql\":\"SELECT 1\",\"type\":\"DatabaseInvocation\",\"prepared\":false}],"
+				+ "\"methodName\":\"inner\",\"type\":\"MethodInvocation\"},"
+				+ "{\"target\":\"remote\",\"targetSubTrace\":{\"root\":{\"timestamp\":3,\"type\":\"MethodInvocation\"},"
+				+ "\"subTraceId\":2},\"type\":\"RemoteInvocation\"}],"
+				+ "\"timestamp\":1,\"signature\":\"void outer()\",\"type\":\"MethodInvocation\",\"responseTime\":5},"
+				+ "\"subTraceId\":1},\"unknown\":[1,{\"a\":true}],\"traceId\":7}]";
+
+		CTADeserializer deserializer = CTASerializationFactory.getInstance().getDeserializer(CTASerializationFormat.JSON);
+		deserializer.setSource(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+		Trace result = deserializer.readNext();
+		Assert.assertNull(deserializer.readNext());
+		deserializer.close();
+
+		Assert.assertEquals(7, result.getTraceId());
+		Assert.assertEquals(1, result.getRoot().getSubTraceId());
+		Assert.assertEquals("h", result.getRoot().getLocation().getHost());
+		Assert.assertEquals(5, result.size());
+
+		MethodInvocation outer = (MethodInvocation) result.getRoot().getRoot();
+		Assert.assertEquals("void outer()", outer.getSignature());
+		Assert.assertEquals(1, outer.getTimestamp());
+		Assert.assertEquals(5, outer.getResponseTime());
+		List<Callable> callees = ((NestingCallable) outer).getCallees();
+		Assert.assertEquals(2, callees.size());
+		MethodInvocation inner = (MethodInvocation) callees.get(0);
+		Assert.assertEquals("inner", inner.getMethodName().get());
+		Assert.assertEquals("SELECT 1", ((DatabaseInvocation) ((NestingCallable) inner).getCallees().get(0)).getSQLStatement());
+		RemoteInvocation remote = (RemoteInvocation) callees.get(1);
+		Assert.assertEquals("remote", remote.getTarget());
+		SubTrace target = remote.getTargetSubTrace().get();
+		Assert.assertEquals(2, target.getSubTraceId());
+		Assert.assertEquals(3, target.getRoot().getTimestamp());
+		// signature fields are collected and interned once per method invocation
+		Assert.assertEquals(2, ((TraceImpl) result).getSignatureCount());
+	}
+
+	/**
+	 * Serializes the passed traces to JSON.
+	 * 
+	 * @param traces
+	 *            traces to serialize
+	 * @return JSON bytes
+	 */
+	private byte[] serialize(Trace... traces) {
+		ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+		CTASerializer serializer = CTASerializationFactory.getInstance().getSerializer(CTASerializationFormat.JSON);
+		serializer.prepare(outStream);
+		for (Trace trace : traces) {
+			serializer.writeTrace(trace);
+		}
+		serializer.close();
+		return outStream.toByteArray();
+	}
+}
@@ -0,0 +1,332 @@
+package rocks.cta.dflt.impl.serialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import rocks.cta.api.core.Trace;
+import rocks.cta.dflt.impl.TraceCreator;
+import rocks.cta.dflt.impl.core.SubTraceImpl;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.core.callables.MethodInvocationImpl;
+import rocks.cta.dflt.impl.serialization.realizations.KryoArchiveCTASerializer;
+import rocks.cta.dflt.impl.serialization.realizations.KryoCTASerializationEngine;
+import rocks.cta.dflt.impl.serialization.realizations.ParallelKryoArchiveDeserializer;
+import rocks.cta.dflt.impl.serialization.realizations.archive.ArchiveReader;
+import rocks.cta.dflt.impl.serialization.realizations.archive.BlockCodecs;
+import rocks.cta.dflt.impl.serialization.realizations.archive.BlockHeader;
+
+import com.esotericsoftware.kryo.io.Input;
+
+/**
+ * JUnit test for the block-compressed trace archive.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class KryoArchiveCTASerializerTest {
+
+	/**
+	 * Number of traces to write.
+	 */
+	private static final int NUM_TRACES = 200;
+
+	/**
+	 * Small block size in order to get multiple blocks.
+	 */
+	private static final int BLOCK_SIZE = 4096;
+
+	/**
+	 * Traces to write.
+	 */
+	private static TraceImpl[] traces;
+
+	/**
+	 * Creates the traces.
+	 */
+	@BeforeClass
+	public static void createTraces() {
+		traces = new TraceImpl[NUM_TRACES];
+		for (int i = 0; i < NUM_TRACES; i++) {
+			traces[i] = new TraceCreator().createTrace(1000 + i);
+		}
+	}
+
+	/**
+	 * Tests that archives are read transparently by the binary deserializer.
+	 */
+	@Test
+	public void testRoundTrip() {
+		byte[] archive = writeArchive(new KryoArchiveCTASerializer(BlockCodecs.DEFLATE, BLOCK_SIZE));
+
+		CTADeserializer deserializer = CTASerializationFactory.getInstance().getDeserializer(CTASerializationFormat.BINARY);
+		deserializer.setSource(new ByteArrayInputStream(archive));
+		for (TraceImpl trace : traces) {
+			Trace result = deserializer.readNext();
+			Assert.assertEquals(trace.getTraceId(), result.getTraceId());
+			Assert.assertEquals(trace.size(), result.size());
+		}
+		Assert.assertNull(deserializer.readNext());
+		deserializer.close();
+
+		CTADeserializer pooledDeserializer = CTASerializationFactory.getInstance().getPooledDeserializer(
+				CTASerializationFormat.BINARY_ARCHIVE);
+		pooledDeserializer.setSource(new ByteArrayInputStream(archive));
+		int count = 0;
+		while (pooledDeserializer.readNext() != null) {
+			count++;
+		}
+		pooledDeserializer.close();
+		Assert.assertEquals(NUM_TRACES, count);
+	}
+
+	/**
+	 * Tests the block headers and that compression pays off.
+	 * 
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	@Test
+	public void testBlockHeaders() throws IOException {
+		byte[] archive = writeArchive(new KryoArchiveCTASerializer(BlockCodecs.DEFLATE, BLOCK_SIZE));
+		byte[] uncompressed = writeArchive(new KryoArchiveCTASerializer(BlockCodecs.UNCOMPRESSED, BLOCK_SIZE));
+		Assert.assertTrue(archive.length < uncompressed.length);
+
+		ArchiveReader reader = new ArchiveReader(new ByteArrayInputStream(archive));
+		Input input = new Input();
+		int numBlocks = 0;
+		int numTraces = 0;
+		long lastMaxTraceId = Long.MIN_VALUE;
+		while (reader.nextBlock(input)) {
+			BlockHeader header = reader.getCurrentHeader();
+			Assert.assertEquals(BlockCodecs.DEFLATE.getId(), header.getCodecId());
+			Assert.assertEquals(traces[numTraces].getTraceId(), header.getMinTraceId());
+			numTraces += header.getTraceCount();
+			Assert.assertEquals(traces[numTraces - 1].getTraceId(), header.getMaxTraceId());
+			Assert.assertTrue(header.getMinTraceId() > lastMaxTraceId);
+			Assert.assertTrue(header.getMinTimestamp() <= header.getMaxTimestamp());
+			Assert.assertTrue(header.getEncodedLength() < header.getLength());
+			lastMaxTraceId = header.getMaxTraceId();
+			numBlocks++;
+		}
+		reader.close();
+		Assert.assertEquals(NUM_TRACES, numTraces);
+		Assert.assertTrue(numBlocks > 1);
+	}
+
+	/**
+	 * Tests that corrupted blocks are detected.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testCorruptedBlock() {
+		byte[] archive = writeArchive(new KryoArchiveCTASerializer(BlockCodecs.DEFLATE, BLOCK_SIZE));
+		// flip a byte in the encoded data of the first block
+		archive[64] ^= 0x55;
+
+		CTADeserializer deserializer = CTASerializationFactory.getInstance().getDeserializer(CTASerializationFormat.BINARY);
+		deserializer.setSource(new ByteArrayInputStream(archive));
+		while (deserializer.readNext() != null) {
+			continue;
+		}
+	}
+
+	/**
+	 * Tests reading traces by identifier.
+	 * 
+	 * @throws IOException
+	 *             if writing the archive fails
+	 */
+	@Test
+	public void testRandomAccess() throws IOException {
+		File file = File.createTempFile("archive", ".cta");
+		try {
+			CTASerializer serializer = new KryoArchiveCTASerializer(BlockCodecs.DEFLATE, BLOCK_SIZE);
+			serializer.prepare(new FileOutputStream(file));
+			// write in descending order to test sorting of the index
+			for (int i = NUM_TRACES - 1; i >= 0; i--) {
+				serializer.writeTrace(traces[i]);
+			}
+			serializer.close();
+
+			RandomAccessCTADeserializer deserializer = CTASerializationFactory.getInstance().getRandomAccessDeserializer(
+					CTASerializationFormat.BINARY_ARCHIVE);
+			deserializer.setSource(file);
+			for (int i : new int[] { 17, 0, NUM_TRACES - 1, 17, 150 }) {
+				Optional<Trace> result = deserializer.read(traces[i].getTraceId());
+				Assert.assertTrue(result.isPresent());
+				Assert.assertEquals(traces[i].getTraceId(), result.get().getTraceId());
+				Assert.assertEquals(traces[i].size(), result.get().size());
+			}
+			Assert.assertFalse(deserializer.read(1).isPresent());
+
+			Assert.assertTrue(deserializer.seek(traces[2].getTraceId()));
+			Assert.assertEquals(traces[2].getTraceId(), deserializer.readNext().getTraceId());
+			Assert.assertEquals(traces[1].getTraceId(), deserializer.readNext().getTraceId());
+			Assert.assertEquals(traces[0].getTraceId(), deserializer.readNext().getTraceId());
+			Assert.assertNull(deserializer.readNext());
+			deserializer.close();
+
+			deserializer.setSource(file);
+			int count = 0;
+			while (deserializer.readNext() != null) {
+				count++;
+			}
+			deserializer.close();
+			Assert.assertEquals(NUM_TRACES, count);
+		} finally {
+			file.delete();
+		}
+	}
+
+	/**
+	 * Tests that a trace failing to serialize leaves neither data nor an index entry behind.
+	 * 
+	 * @throws IOException
+	 *             if writing the archive fails
+	 */
+	@Test
+	public void testFailedWrite() throws IOException {
+		TraceImpl unsupported = new TraceImpl(1);
+		SubTraceImpl subTrace = new SubTraceImpl(1, null, unsupported);
+		unsupported.setRoot(subTrace);
+		MethodInvocationImpl root = new MethodInvocationImpl(null, subTrace);
+		subTrace.setRoot(root);
+		// callables of unregistered types cannot be serialized
+		new MethodInvocationImpl(root, subTrace) {
+			private static final long serialVersionUID = 1L;
+		};
+
+		File file = File.createTempFile("archive", ".cta");
+		try {
+			CTASerializer serializer = new KryoArchiveCTASerializer(BlockCodecs.DEFLATE, BLOCK_SIZE);
+			serializer.prepare(new FileOutputStream(file));
+			serializer.writeTrace(traces[0]);
+			try {
+				serializer.writeTrace(unsupported);
+				Assert.fail("Expected an unsupported callable type.");
+			} catch (IllegalArgumentException e) {
+				Assert.assertTrue(e.getMessage().contains("Unsupported callable type"));
+			}
+			serializer.writeTrace(traces[1]);
+			serializer.close();
+
+			RandomAccessCTADeserializer deserializer = CTASerializationFactory.getInstance().getRandomAccessDeserializer(
+					CTASerializationFormat.BINARY_ARCHIVE);
+			deserializer.setSource(file);
+			Assert.assertFalse(deserializer.read(unsupported.getTraceId()).isPresent());
+			Assert.assertEquals(traces[1].size(), deserializer.read(traces[1].getTraceId()).get().size());
+			deserializer.close();
+
+			deserializer.setSource(file);
+			Assert.assertEquals(traces[0].getTraceId(), deserializer.readNext().getTraceId());
+			Assert.assertEquals(traces[1].getTraceId(), deserializer.readNext().getTraceId());
+			Assert.assertNull(deserializer.readNext());
+			deserializer.close();
+		} finally {
+			file.delete();
+		}
+	}
+
+	/**
+	 * Tests decoding archives in parallel in ordered and unordered mode.
+	 * 
+	 * @throws Exception
+	 *             if writing the archive or the parallel execution fails
+	 */
+	@Test
+	public void testParallelDecoding() throws Exception {
+		File file = File.createTempFile("archive", ".cta");
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			CTASerializer serializer = new KryoArchiveCTASerializer(BlockCodecs.DEFLATE, BLOCK_SIZE);
+			serializer.prepare(new FileOutputStream(file));
+			for (TraceImpl trace : traces) {
+				serializer.writeTrace(trace);
+			}
+			serializer.close();
+
+			ParallelCTADeserializer deserializer = CTASerializationFactory.getInstance().getParallelDeserializer(
+					CTASerializationFormat.BINARY_ARCHIVE);
+			deserializer.setSource(file);
+			List<Long> orderedIds = pool.submit(
+					() -> deserializer.stream(true).map(Trace::getTraceId).collect(Collectors.toList())).get();
+			Set<Long> unorderedIds = pool.submit(
+					() -> deserializer.stream(false).map(Trace::getTraceId).collect(Collectors.toSet())).get();
+			Assert.assertEquals(NUM_TRACES, deserializer.stream(true).count());
+			deserializer.close();
+
+			Assert.assertEquals(NUM_TRACES, orderedIds.size());
+			for (int i = 0; i < NUM_TRACES; i++) {
+				Assert.assertEquals(traces[i].getTraceId(), (long) orderedIds.get(i));
+			}
+			Assert.assertEquals(new HashSet<Long>(orderedIds), unorderedIds);
+		} finally {
+			pool.shutdown();
+			file.delete();
+		}
+	}
+
+	/**
+	 * Tests that parallel decoding returns the borrowed kryo instances after each trace, hence,
+	 * four threads share a pool with a single instance.
+	 * 
+	 * @throws Exception
+	 *             if decoding fails
+	 */
+	@Test
+	public void testParallelDecodingWithPooledInstances() throws Exception {
+		File file = File.createTempFile("archive", ".cta");
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			CTASerializer serializer = new KryoArchiveCTASerializer(BlockCodecs.DEFLATE, BLOCK_SIZE);
+			serializer.prepare(new FileOutputStream(file));
+			for (TraceImpl trace : traces) {
+				serializer.writeTrace(trace);
+			}
+			serializer.close();
+
+			ParallelCTADeserializer deserializer = new ParallelKryoArchiveDeserializer(new KryoCTASerializationEngine(1,
+					KryoCTASerializationEngine.DEFAULT_BUFFER_SIZE));
+			deserializer.setSource(file);
+			Set<Long> ids = pool.submit(() -> deserializer.stream(false).map(Trace::getTraceId).collect(Collectors.toSet())).get();
+			deserializer.close();
+
+			Assert.assertEquals(NUM_TRACES, ids.size());
+			for (TraceImpl trace : traces) {
+				Assert.assertTrue(ids.contains(trace.getTraceId()));
+			}
+		} finally {
+			pool.shutdown();
+			file.delete();
+		}
+	}
+
+	/**
+	 * Writes all traces with the passed serializer.
+	 * 
+	 * @param serializer
+	 *            serializer to use
+	 * @return written bytes
+	 */
+	private byte[] writeArchive(CTASerializer serializer) {
+		ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+		serializer.prepare(outStream);
+		for (TraceImpl trace : traces) {
+			serializer.writeTrace(trace);
+		}
+		serializer.close();
+		return outStream.toByteArray();
+	}
+}
@@ -1,19 +1,58 @@
 package rocks.cta.dflt.impl.serialization;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import rocks.cta.api.core.SubTrace;
 import rocks.cta.api.core.Trace;
+import rocks.cta.api.core.callables.Callable;
+import rocks.cta.api.core.callables.DatabaseInvocation;
+import rocks.cta.api.core.callables.ExceptionThrow;
+import rocks.cta.api.core.callables.HTTPMethod;
+import rocks.cta.api.core.callables.HTTPRequestProcessing;
+import rocks.cta.api.core.callables.LoggingInvocation;
+import rocks.cta.api.core.callables.MethodInvocation;
+import rocks.cta.api.core.callables.RemoteInvocation;
 import rocks.cta.dflt.impl.TraceCreator;
+import rocks.cta.dflt.impl.core.LocationImpl;
+import rocks.cta.dflt.impl.core.SubTraceImpl;
 import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.core.callables.DatabaseInvocationImpl;
+import rocks.cta.dflt.impl.core.callables.ExceptionThrowImpl;
+import rocks.cta.dflt.impl.core.callables.HTTPRequestProcessingImpl;
+import rocks.cta.dflt.impl.core.callables.LoggingInvocationImpl;
+import rocks.cta.dflt.impl.core.callables.MethodInvocationImpl;
+import rocks.cta.dflt.impl.core.callables.RemoteInvocationImpl;
 import rocks.cta.dflt.impl.serialization.realizations.KryoCTASerializationBase;
+import rocks.cta.dflt.impl.serialization.realizations.KryoCTASerializationEngine;
+import rocks.cta.dflt.impl.serialization.realizations.TraceStreamFormat;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
 
 /**
  * JUnit test for trace serialization.
@@ -73,6 +112,559 @@ public class KryoCTASerializerTest {
 		Assert.assertNull(t3);
 	}
 
+	/**
+	 * Tests that the fields of all callable types survive serialization.
+	 */
+	@Test
+	public void testSerializationOfCallableTypes() {
+		TraceImpl trace = new TraceImpl(42);
+		SubTraceImpl subTrace = new SubTraceImpl(1, null, trace);
+		subTrace.setLocation(new LocationImpl("host", "JVM", null, "bt"));
+		trace.setRoot(subTrace);
+
+		HTTPRequestProcessingImpl httpRequest = new HTTPRequestProcessingImpl(null, subTrace);
+		subTrace.setRoot(httpRequest);
+		httpRequest.setTimestamp(1000000L);
+		httpRequest.setResponseTime(500);
+		httpRequest.setUri("/index");
+		httpRequest.setRequestMethod(HTTPMethod.POST);
+		httpRequest.setHTTPHeaders(Collections.singletonMap("Accept", "*/*"));
+		httpRequest.setHTTPParameters(Collections.singletonMap("q", new String[] { "a", "b" }));
+		httpRequest.addLabel("entry");
+
+		MethodInvocationImpl method = new MethodInvocationImpl(httpRequest, subTrace);
+		method.setTimestamp(999990L);
+		method.setResponseTime(100);
+		method.setCPUTime(Optional.of(80L));
+		method.setSignature("void my.Clazz.doIt(int)");
+		method.setClassName("Clazz");
+		method.setParameterTypes(Arrays.asList("int"));
+		method.addParameterValue(1, "7");
+
+		DatabaseInvocationImpl dbInvocation = new DatabaseInvocationImpl(method, subTrace);
+		dbInvocation.setSQLStatement("SELECT * FROM T WHERE A = ?");
+		dbInvocation.setPrepared(true);
+		dbInvocation.addParameterBinding(1, "x");
+		dbInvocation.setDBProductName(Optional.of("db"));
+
+		ExceptionThrowImpl exceptionThrow = new ExceptionThrowImpl(method, subTrace);
+		exceptionThrow.setErrorMessage("error");
+		exceptionThrow.setThrowableType("java.lang.RuntimeException");
+		exceptionThrow.addLabel("entry");
+
+		LoggingInvocationImpl logging = new LoggingInvocationImpl(httpRequest, subTrace);
+		logging.setLoggingLevel("WARN");
+		logging.setMessage("message");
+
+		RemoteInvocationImpl remoteInvocation = new RemoteInvocationImpl(httpRequest, subTrace);
+		remoteInvocation.setTarget("remote");
+		SubTraceImpl targetSubTrace = new SubTraceImpl(2, subTrace, trace);
+		remoteInvocation.setTargetSubTrace(targetSubTrace);
+		MethodInvocationImpl remoteRoot = new MethodInvocationImpl(null, targetSubTrace);
+		remoteRoot.setSignature("void my.Clazz.doIt(int)");
+		targetSubTrace.setRoot(remoteRoot);
+
+		ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+		CTASerializer serializer = CTASerializationFactory.getInstance().getSerializer(CTASerializationFormat.BINARY);
+		serializer.prepare(outStream);
+		serializer.writeTrace(trace);
+		serializer.close();
+
+		CTADeserializer deserializer = CTASerializationFactory.getInstance().getDeserializer(CTASerializationFormat.BINARY);
+		deserializer.setSource(new ByteArrayInputStream(outStream.toByteArray()));
+		Trace result = deserializer.readNext();
+		deserializer.close();
+
+		Assert.assertEquals(trace.size(), result.size());
+		Assert.assertEquals("JVM", result.getRoot().getLocation().getRuntimeEnvironment().get());
+		Assert.assertFalse(result.getRoot().getLocation().getApplication().isPresent());
+
+		HTTPRequestProcessing resultRequest = (HTTPRequestProcessing) result.getRoot().getRoot();
+		Assert.assertEquals(1000000L, resultRequest.getTimestamp());
+		Assert.assertEquals(500, resultRequest.getResponseTime());
+		Assert.assertEquals(HTTPMethod.POST, resultRequest.getRequestMethod().get());
+		Assert.assertEquals("*/*", resultRequest.getHTTPHeaders().get().get("Accept"));
+		Assert.assertEquals("b", resultRequest.getHTTPParameters().get().get("q")[1]);
+		Assert.assertFalse(resultRequest.getHTTPAttributes().isPresent());
+		Assert.assertEquals(Arrays.asList("entry"), resultRequest.getLabels().get());
+
+		MethodInvocation resultMethod = (MethodInvocation) resultRequest.getCallees().get(0);
+		Assert.assertEquals(999990L, resultMethod.getTimestamp());
+		Assert.assertEquals(80L, (long) resultMethod.getCPUTime().get());
+		Assert.assertEquals(method.getSignature(), resultMethod.getSignature());
+		Assert.assertEquals(Arrays.asList("int"), resultMethod.getParameterTypes().get());
+		Assert.assertEquals("7", resultMethod.getParameterValues().get().get(1));
+
+		DatabaseInvocation resultDbInvocation = (DatabaseInvocation) resultMethod.getCallees().get(0);
+		Assert.assertEquals("SELECT * FROM T WHERE A = x", resultDbInvocation.getBoundSQLStatement().get());
+		Assert.assertEquals("db", resultDbInvocation.getDBProductName().get());
+		Assert.assertFalse(resultDbInvocation.getDBUrl().isPresent());
+
+		ExceptionThrow resultException = (ExceptionThrow) resultMethod.getCallees().get(1);
+		Assert.assertEquals("error", resultException.getErrorMessage());
+		Assert.assertFalse(resultException.getCause().isPresent());
+		Assert.assertEquals(Arrays.asList("entry"), resultException.getLabels().get());
+
+		LoggingInvocation resultLogging = (LoggingInvocation) resultRequest.getCallees().get(1);
+		Assert.assertEquals("WARN", resultLogging.getLoggingLevel().get());
+
+		RemoteInvocation resultRemote = (RemoteInvocation) resultRequest.getCallees().get(2);
+		Assert.assertEquals("remote", resultRemote.getTarget());
+		SubTrace resultTarget = resultRemote.getTargetSubTrace().get();
+		Assert.assertEquals(2, resultTarget.getSubTraceId());
+		Assert.assertSame(result.getRoot(), resultTarget.getParent());
+		Assert.assertEquals(method.getSignature(), ((MethodInvocation) resultTarget.getRoot()).getSignature());
+		for (Callable callable : result) {
+			Assert.assertSame(result, callable.getContainingSubTrace().getContainingTrace());
+		}
+	}
+
+	/**
+	 * Tests serializing a callable on its own.
+	 */
+	@Test
+	public void testSerializationOfDetachedCallable() {
+		TraceImpl trace = new TraceImpl(1);
+		SubTraceImpl subTrace = new SubTraceImpl(1, null, trace);
+		trace.setRoot(subTrace);
+		MethodInvocationImpl root = new MethodInvocationImpl(null, subTrace);
+		root.setTimestamp(100L);
+		subTrace.setRoot(root);
+		MethodInvocationImpl method = new MethodInvocationImpl(root, subTrace);
+		method.setTimestamp(200L);
+		method.setSignature("void my.Clazz.doIt(int)");
+		method.addLabel("label");
+		DatabaseInvocationImpl dbInvocation = new DatabaseInvocationImpl(method, subTrace);
+		dbInvocation.setTimestamp(250L);
+		dbInvocation.setSQLStatement("SELECT 1");
+		RemoteInvocationImpl remoteInvocation = new RemoteInvocationImpl(method, subTrace);
+		remoteInvocation.setTarget("remote");
+		remoteInvocation.setTargetSubTrace(new SubTraceImpl(2, subTrace, trace));
+
+		Kryo kryo = new TestKryoSerialization().getKryo();
+		Output output = new Output(256, -1);
+		kryo.writeObject(output, method);
+		MethodInvocationImpl result = kryo.readObject(new Input(output.toBytes()), MethodInvocationImpl.class);
+
+		Assert.assertNull(result.getParent());
+		Assert.assertSame(result, result.getContainingSubTrace().getRoot());
+		Assert.assertEquals(200L, result.getTimestamp());
+		Assert.assertEquals(method.getSignature(), result.getSignature());
+		Assert.assertEquals(Arrays.asList("label"), result.getLabels().get());
+		Assert.assertEquals(2, result.getCallees().size());
+		Assert.assertEquals(250L, result.getCallees().get(0).getTimestamp());
+		Assert.assertEquals("SELECT 1", ((DatabaseInvocation) result.getCallees().get(0)).getSQLStatement());
+		RemoteInvocation resultRemote = (RemoteInvocation) result.getCallees().get(1);
+		Assert.assertEquals("remote", resultRemote.getTarget());
+		Assert.assertFalse(resultRemote.getTargetSubTrace().isPresent());
+	}
+
+	/**
+	 * Tests that equal locations of read sub traces are interned.
+	 */
+	@Test
+	public void testLocationInterning() {
+		CTADeserializer deserializer = CTASerializationFactory.getInstance().getDeserializer(CTASerializationFormat.BINARY);
+		deserializer.setSource(new ByteArrayInputStream(serialize(CTASerializationFormat.BINARY, mainTrace, new TraceCreator().createTrace(2))));
+		Trace first = deserializer.readNext();
+		Trace second = deserializer.readNext();
+		deserializer.close();
+
+		SubTrace root = first.getRoot();
+		Assert.assertEquals(mainTrace.getRoot().getLocation(), root.getLocation());
+		Assert.assertTrue(((LocationImpl) root.getLocation()).isInterned());
+		Assert.assertSame(root.getLocation(), root.getSubTraces().get(0).getLocation());
+		Assert.assertSame(root.getLocation(), second.getRoot().getLocation());
+	}
+
+	/**
+	 * Tests that lazily read traces provide the skeleton right away and equal eagerly read traces
+	 * once their callables are accessed.
+	 */
+	@Test
+	public void testLazyDeserialization() {
+		ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+		CTASerializer serializer = CTASerializationFactory.getInstance().getSerializer(CTASerializationFormat.BINARY);
+		serializer.prepare(outStream);
+		serializer.writeTrace(mainTrace);
+		serializer.writeTrace(secondTrace);
+		serializer.close();
+
+		CTADeserializer deserializer = CTASerializationFactory.getInstance().getLazyDeserializer(CTASerializationFormat.BINARY);
+		deserializer.setSource(new ByteArrayInputStream(outStream.toByteArray()));
+		Trace lazyTrace = deserializer.readNext();
+		Trace lazySecondTrace = deserializer.readNext();
+		Assert.assertNull(deserializer.readNext());
+		deserializer.close();
+
+		Assert.assertEquals(mainTrace.getTraceId(), lazyTrace.getTraceId());
+		Assert.assertEquals(mainTrace.getResponseTime(), lazyTrace.getResponseTime());
+		Assert.assertEquals(mainTrace.getRoot().getSubTraceId(), lazyTrace.getRoot().getSubTraceId());
+		Assert.assertEquals(mainTrace.getRoot().getLocation().getHost(), lazyTrace.getRoot().getLocation().getHost());
+		Assert.assertEquals(mainTrace.getRoot().getSubTraces().size(), lazyTrace.getRoot().getSubTraces().size());
+		Assert.assertNull(lazySecondTrace.getRoot());
+
+		Assert.assertEquals(mainTrace.size(), lazyTrace.size());
+		Assert.assertEquals(mainTrace.getResponseTime(), lazyTrace.getResponseTime());
+		Iterator<Callable> expected = mainTrace.iterator();
+		for (Callable callable : lazyTrace) {
+			Callable expectedCallable = expected.next();
+			Assert.assertEquals(expectedCallable.getClass(), callable.getClass());
+			Assert.assertEquals(expectedCallable.getTimestamp(), callable.getTimestamp());
+			Assert.assertSame(lazyTrace, callable.getContainingSubTrace().getContainingTrace());
+		}
+	}
+
+	/**
+	 * Tests decoding lazily read call trees on other threads after the reader has read further
+	 * dictionary deltas, and Java serialization of traces whose call trees have not been decoded.
+	 * 
+	 * @throws Exception
+	 *             if a loading thread or the Java serialization fails
+	 */
+	@Test
+	public void testLazyLoadingOnOtherThreads() throws Exception {
+		byte[] stream = serialize(CTASerializationFormat.BINARY_DICTIONARY, mainTrace, secondTrace, mainTrace);
+		CTADeserializer deserializer = CTASerializationFactory.getInstance().getLazyDeserializer(CTASerializationFormat.BINARY);
+		deserializer.setSource(new ByteArrayInputStream(stream));
+		Trace[] lazyTraces = { deserializer.readNext(), deserializer.readNext(), deserializer.readNext() };
+		deserializer.close();
+
+		int[] sizes = new int[lazyTraces.length];
+		Thread[] threads = new Thread[lazyTraces.length];
+		for (int i = 0; i < threads.length; i++) {
+			int index = i;
+			threads[i] = new Thread(() -> sizes[index] = lazyTraces[index].size());
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		Assert.assertEquals(mainTrace.size(), sizes[0]);
+		Assert.assertEquals(secondTrace.size(), sizes[1]);
+		Assert.assertEquals(mainTrace.size(), sizes[2]);
+
+		deserializer.setSource(new ByteArrayInputStream(stream));
+		Trace unloadedTrace = deserializer.readNext();
+		deserializer.close();
+		ByteArrayOutputStream javaStream = new ByteArrayOutputStream();
+		try (ObjectOutputStream objectOutput = new ObjectOutputStream(javaStream)) {
+			objectOutput.writeObject(unloadedTrace);
+		}
+		try (ObjectInputStream objectInput = new ObjectInputStream(new ByteArrayInputStream(javaStream.toByteArray()))) {
+			Iterator<Callable> expected = mainTrace.iterator();
+			for (Callable callable : (Trace) objectInput.readObject()) {
+				Assert.assertEquals(expected.next().getTimestamp(), callable.getTimestamp());
+			}
+			Assert.assertFalse(expected.hasNext());
+		}
+	}
+
+	/**
+	 * Tests decoding the call trees of many sub traces of the same trace on several threads at the
+	 * same time, as all call trees register their Strings and signatures in the pools of the trace.
+	 * 
+	 * @throws Exception
+	 *             if a loading thread fails
+	 */
+	@Test
+	public void testConcurrentLazyLoadingOfOneTrace() throws Exception {
+		int numSubTraces = 32;
+		int numCallees = 200;
+		TraceImpl trace = new TraceImpl(7);
+		SubTraceImpl rootSubTrace = new SubTraceImpl(0, null, trace);
+		trace.setRoot(rootSubTrace);
+		MethodInvocationImpl rootInvocation = new MethodInvocationImpl(null, rootSubTrace);
+		rootSubTrace.setRoot(rootInvocation);
+		for (int s = 0; s < numSubTraces; s++) {
+			RemoteInvocationImpl remoteInvocation = new RemoteInvocationImpl(rootInvocation, rootSubTrace);
+			SubTraceImpl subTrace = new SubTraceImpl(s + 1, rootSubTrace, trace);
+			subTrace.setLocation(new LocationImpl("host" + s, "jvm", "app", "bt"));
+			remoteInvocation.setTargetSubTrace(subTrace);
+			MethodInvocationImpl subTraceRoot = new MethodInvocationImpl(null, subTrace);
+			subTrace.setRoot(subTraceRoot);
+			for (int i = 0; i < numCallees; i++) {
+				new MethodInvocationImpl(subTraceRoot, subTrace).setSignature("s" + s + "m" + i, "void", "p" + s, "C" + i, "m" + i,
+						Collections.singletonList("int" + i));
+			}
+		}
+		byte[] stream = serialize(CTASerializationFormat.BINARY, trace);
+
+		for (int round = 0; round < 10; round++) {
+			CTADeserializer deserializer = CTASerializationFactory.getInstance().getLazyDeserializer(CTASerializationFormat.BINARY);
+			deserializer.setSource(new ByteArrayInputStream(stream));
+			Trace lazyTrace = deserializer.readNext();
+			deserializer.close();
+
+			List<SubTrace> subTraces = lazyTrace.getRoot().getSubTraces();
+			ExecutorService executor = Executors.newFixedThreadPool(4);
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<Callable>> roots = new ArrayList<Future<Callable>>();
+			for (SubTrace subTrace : subTraces) {
+				roots.add(executor.submit(() -> {
+					start.await();
+					return subTrace.getRoot();
+				}));
+			}
+			start.countDown();
+			for (Future<Callable> root : roots) {
+				root.get();
+			}
+			executor.shutdown();
+
+			for (SubTrace subTrace : subTraces) {
+				long s = subTrace.getSubTraceId() - 1;
+				int i = 0;
+				for (Callable callee : ((MethodInvocation) subTrace.getRoot()).getCallees()) {
+					MethodInvocation methodInvocation = (MethodInvocation) callee;
+					Assert.assertEquals("s" + s + "m" + i, methodInvocation.getSignature());
+					Assert.assertEquals("C" + i, methodInvocation.getClassName().get());
+					Assert.assertEquals("int" + i, methodInvocation.getParameterTypes().get().get(0));
+					i++;
+				}
+				Assert.assertEquals(numCallees, i);
+			}
+		}
+	}
+
+	/**
+	 * Tests skipping traces and reading streams of earlier and later format versions.
+	 */
+	@Test
+	public void testStreamFormat() {
+		ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+		CTASerializer serializer = CTASerializationFactory.getInstance().getSerializer(CTASerializationFormat.BINARY);
+		serializer.prepare(outStream);
+		serializer.writeTrace(mainTrace);
+		serializer.writeTrace(secondTrace);
+		serializer.writeTrace(mainTrace);
+		serializer.close();
+		byte[] stream = outStream.toByteArray();
+
+		for (CTADeserializer deserializer : Arrays.asList(CTASerializationFactory.getInstance().getDeserializer(CTASerializationFormat.BINARY),
+				CTASerializationFactory.getInstance().getPooledDeserializer(CTASerializationFormat.BINARY))) {
+			deserializer.setSource(new ByteArrayInputStream(stream));
+			Assert.assertTrue(deserializer.skip());
+			Assert.assertEquals(secondTrace.getTraceId(), deserializer.readNext().getTraceId());
+			Assert.assertTrue(deserializer.skip());
+			Assert.assertFalse(deserializer.skip());
+			Assert.assertNull(deserializer.readNext());
+			deserializer.close();
+		}
+
+		// streams without header and length prefixes written by earlier versions
+		KryoCTASerializationEngine engine = CTASerializationFactory.getInstance().getSerializationEngine();
+		Output legacyStream = new Output(1024, -1);
+		legacyStream.writeBytes(engine.serialize(mainTrace));
+		legacyStream.writeBytes(engine.serialize(secondTrace));
+		CTADeserializer deserializer = CTASerializationFactory.getInstance().getDeserializer(CTASerializationFormat.BINARY);
+		deserializer.setSource(new ByteArrayInputStream(legacyStream.toBytes()));
+		Assert.assertEquals(mainTrace.size(), deserializer.readNext().size());
+		Assert.assertTrue(deserializer.skip());
+		Assert.assertNull(deserializer.readNext());
+		deserializer.close();
+
+		// newer writers may append data to a trace record
+		outStream.reset();
+		serializer.prepare(outStream);
+		serializer.close();
+		byte[] header = outStream.toByteArray();
+		byte[] trace = engine.serialize(mainTrace);
+		Output newerStream = new Output(1024, -1);
+		newerStream.writeBytes(header);
+		newerStream.writeVarInt(trace.length + 3, true);
+		newerStream.writeBytes(trace);
+		newerStream.writeBytes(new byte[] { 1, 2, 3 });
+		newerStream.writeVarInt(trace.length, true);
+		newerStream.writeBytes(trace);
+		deserializer.setSource(new ByteArrayInputStream(newerStream.toBytes()));
+		Assert.assertEquals(mainTrace.size(), deserializer.readNext().size());
+		Assert.assertEquals(mainTrace.size(), deserializer.readNext().size());
+		Assert.assertNull(deserializer.readNext());
+		deserializer.close();
+
+		// streams requiring a newer reader are rejected
+		header[5] = TraceStreamFormat.VERSION + 1;
+		try {
+			deserializer.setSource(new ByteArrayInputStream(header));
+			Assert.fail("Incompatible stream version has not been detected.");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Tests that a trace containing a callable of unknown type fails without affecting the
+	 * following traces.
+	 * 
+	 * @throws IOException
+	 *             if reading from or writing to file fails
+	 */
+	@Test
+	public void testUnknownCallableType() throws IOException {
+		byte[] stream = serialize(CTASerializationFormat.BINARY, mainTrace, secondTrace, mainTrace);
+		// the type table of the header refers to a class unknown to the reader, the last character
+		// of a String written by kryo is marked and hence not part of the searched prefix
+		String typeName = MethodInvocationImpl.class.getName();
+		byte[] prefix = typeName.substring(0, typeName.length() - 1).getBytes(StandardCharsets.US_ASCII);
+		int start = 0;
+		while (!Arrays.equals(prefix, Arrays.copyOfRange(stream, start, start + prefix.length))) {
+			start++;
+		}
+		stream[start] = 'X';
+		try (FileOutputStream outStream = new FileOutputStream(SERIALIZATION_FILE)) {
+			outStream.write(stream);
+		}
+
+		for (CTADeserializer deserializer : Arrays.asList(CTASerializationFactory.getInstance().getDeserializer(CTASerializationFormat.BINARY),
+				CTASerializationFactory.getInstance().getPooledDeserializer(CTASerializationFormat.BINARY),
+				CTASerializationFactory.getInstance().getMappedDeserializer(CTASerializationFormat.BINARY))) {
+			deserializer.setSource(new FileInputStream(SERIALIZATION_FILE));
+			try {
+				deserializer.readNext();
+				Assert.fail("Unknown callable type has not been detected.");
+			} catch (IllegalStateException e) {
+				Assert.assertTrue(e.getMessage().startsWith("Unknown type tag"));
+			}
+			Assert.assertEquals(secondTrace.getTraceId(), deserializer.readNext().getTraceId());
+			Assert.assertTrue(deserializer.skip());
+			Assert.assertNull(deserializer.readNext());
+			deserializer.close();
+		}
+	}
+
+	/**
+	 * Tests that streams with shared dictionary are smaller and that the traces read from such
+	 * streams share their Strings.
+	 * 
+	 * @throws FileNotFoundException
+	 *             if reading from or writing to file fails
+	 */
+	@Test
+	public void testSharedDictionary() throws FileNotFoundException {
+		byte[] stream = serialize(CTASerializationFormat.BINARY, mainTrace, secondTrace, mainTrace);
+		byte[] dictionaryStream = serialize(CTASerializationFormat.BINARY_DICTIONARY, mainTrace, secondTrace, mainTrace);
+		Assert.assertTrue(dictionaryStream.length < stream.length);
+
+		for (CTADeserializer deserializer : Arrays.asList(CTASerializationFactory.getInstance().getDeserializer(CTASerializationFormat.BINARY),
+				CTASerializationFactory.getInstance().getLazyDeserializer(CTASerializationFormat.BINARY),
+				CTASerializationFactory.getInstance().getPooledDeserializer(CTASerializationFormat.BINARY))) {
+			deserializer.setSource(new ByteArrayInputStream(dictionaryStream));
+			assertSharedStrings(deserializer.readNext(), deserializer.readNext(), deserializer.readNext());
+			Assert.assertNull(deserializer.readNext());
+			deserializer.close();
+
+			// skipped traces still contribute their Strings to the dictionary
+			deserializer.setSource(new ByteArrayInputStream(dictionaryStream));
+			Assert.assertTrue(deserializer.skip());
+			Assert.assertTrue(deserializer.skip());
+			Assert.assertEquals(mainTrace.size(), deserializer.readNext().size());
+			Assert.assertFalse(deserializer.skip());
+			deserializer.close();
+		}
+
+		FileOutputStream outStream = new FileOutputStream(SERIALIZATION_FILE);
+		try {
+			outStream.write(dictionaryStream);
+			outStream.close();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		CTADeserializer deserializer = CTASerializationFactory.getInstance().getMappedDeserializer(CTASerializationFormat.BINARY);
+		deserializer.setSource(new FileInputStream(SERIALIZATION_FILE));
+		Assert.assertTrue(deserializer.skip());
+		Trace second = deserializer.readNext();
+		Assert.assertEquals(secondTrace.getTraceId(), second.getTraceId());
+		Assert.assertEquals(mainTrace.size(), deserializer.readNext().size());
+		Assert.assertNull(deserializer.readNext());
+		deserializer.close();
+	}
+
+	/**
+	 * Tests that Strings of high cardinality survive streams with shared dictionary.
+	 */
+	@Test
+	public void testSharedDictionaryValues() {
+		TraceImpl trace = new TraceImpl(7);
+		SubTraceImpl subTrace = new SubTraceImpl(1, null, trace);
+		trace.setRoot(subTrace);
+		HTTPRequestProcessingImpl request = new HTTPRequestProcessingImpl(null, subTrace);
+		request.setUri("/orders/4711");
+		request.setHTTPHeaders(Collections.singletonMap("X-Request-Id", "a1b2"));
+		subTrace.setRoot(request);
+		LoggingInvocationImpl log = new LoggingInvocationImpl(request, subTrace);
+		log.setLoggingLevel("INFO");
+		log.setMessage("order 4711 accepted");
+		DatabaseInvocationImpl query = new DatabaseInvocationImpl(request, subTrace);
+		query.setSQLStatement("SELECT * FROM ORDERS WHERE ID = ?");
+		query.setPrepared(true);
+		query.addParameterBinding(1, "4711");
+
+		CTADeserializer deserializer = CTASerializationFactory.getInstance().getDeserializer(CTASerializationFormat.BINARY);
+		deserializer.setSource(new ByteArrayInputStream(serialize(CTASerializationFormat.BINARY_DICTIONARY, trace, trace)));
+		for (int i = 0; i < 2; i++) {
+			HTTPRequestProcessing readRequest = (HTTPRequestProcessing) deserializer.readNext().getRoot().getRoot();
+			Assert.assertEquals("/orders/4711", readRequest.getUri());
+			Assert.assertEquals("a1b2", readRequest.getHTTPHeaders().get().get("X-Request-Id"));
+			Assert.assertEquals("order 4711 accepted", ((LoggingInvocation) readRequest.getCallees().get(0)).getMessage());
+			Assert.assertEquals("SELECT * FROM ORDERS WHERE ID = 4711", ((DatabaseInvocation) readRequest.getCallees().get(1))
+					.getBoundSQLStatement().get());
+		}
+		deserializer.close();
+	}
+
+	/**
+	 * Serializes the passed traces into a byte array.
+	 * 
+	 * @param format
+	 *            target format
+	 * @param traces
+	 *            traces to serialize
+	 * @return serialized traces
+	 */
+	private byte[] serialize(CTASerializationFormat format, Trace... traces) {
+		ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+		CTASerializer serializer = CTASerializationFactory.getInstance().getSerializer(format);
+		serializer.prepare(outStream);
+		for (Trace trace : traces) {
+			serializer.writeTrace(trace);
+		}
+		serializer.close();
+		return outStream.toByteArray();
+	}
+
+	/**
+	 * Asserts that the passed copies of {@link #mainTrace} and {@link #secondTrace} have been read
+	 * correctly and that both copies of {@link #mainTrace} share their Strings.
+	 * 
+	 * @param first
+	 *            first copy of {@link #mainTrace}
+	 * @param second
+	 *            copy of {@link #secondTrace}
+	 * @param third
+	 *            second copy of {@link #mainTrace}
+	 */
+	private void assertSharedStrings(Trace first, Trace second, Trace third) {
+		Assert.assertEquals(mainTrace.size(), first.size());
+		Assert.assertEquals(secondTrace.getTraceId(), second.getTraceId());
+		Assert.assertEquals(mainTrace.size(), third.size());
+
+		Iterator<Callable> expected = mainTrace.iterator();
+		Iterator<Callable> other = third.iterator();
+		int methods = 0;
+		for (Callable callable : first) {
+			Callable expectedCallable = expected.next();
+			Callable otherCallable = other.next();
+			if (callable instanceof MethodInvocation) {
+				String signature = ((MethodInvocation) callable).getSignature();
+				Assert.assertEquals(((MethodInvocation) expectedCallable).getSignature(), signature);
+				Assert.assertSame(signature, ((MethodInvocation) otherCallable).getSignature());
+				methods++;
+			}
+		}
+		Assert.assertTrue(methods > 0);
+	}
+
 	/**
 	 * Cleans up test serialization files.
 	 */
@@ -83,4 +675,20 @@ public class KryoCTASerializerTest {
 			file.delete();
 		}
 	}
+
+	/**
+	 * Provides access to a kryo instance with the registrations of the default implementation.
+	 * 
+	 * @author Alexander Wert
+	 * 
+	 */
+	private static class TestKryoSerialization extends KryoCTASerializationBase {
+
+		/**
+		 * @return kryo instance
+		 */
+		Kryo getKryo() {
+			return getKryoInstance();
+		}
+	}
 }
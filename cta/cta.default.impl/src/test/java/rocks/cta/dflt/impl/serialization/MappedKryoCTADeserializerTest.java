@@ -0,0 +1,178 @@
+package rocks.cta.dflt.impl.serialization;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import rocks.cta.api.core.Trace;
+import rocks.cta.dflt.impl.TraceCreator;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.serialization.realizations.KryoArchiveCTASerializer;
+import rocks.cta.dflt.impl.serialization.realizations.MappedKryoCTADeserializer;
+import rocks.cta.dflt.impl.serialization.realizations.archive.BlockCodecs;
+
+/**
+ * JUnit test for the memory-mapped deserializer.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class MappedKryoCTADeserializerTest {
+
+	/**
+	 * Number of traces to write.
+	 */
+	private static final int NUM_TRACES = 100;
+
+	/**
+	 * Segment size smaller than a trace in order to test re-mapping.
+	 */
+	private static final int SEGMENT_SIZE = 64;
+
+	/**
+	 * Traces to write.
+	 */
+	private TraceImpl[] traces;
+
+	/**
+	 * File to write to.
+	 */
+	private File file;
+
+	/**
+	 * Creates the traces and the file.
+	 * 
+	 * @throws IOException
+	 *             if creating the file fails
+	 */
+	@Before
+	public void setUp() throws IOException {
+		traces = new TraceImpl[NUM_TRACES];
+		for (int i = 0; i < NUM_TRACES; i++) {
+			traces[i] = new TraceCreator().createTrace(i);
+		}
+		file = File.createTempFile("traces", ".cta");
+	}
+
+	/**
+	 * Deletes the file.
+	 */
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	/**
+	 * Tests reading a plain binary file with traces crossing segments.
+	 * 
+	 * @throws FileNotFoundException
+	 *             if the file cannot be opened
+	 */
+	@Test
+	public void testPlainBinary() throws FileNotFoundException {
+		write(CTASerializationFactory.getInstance().getSerializer(CTASerializationFormat.BINARY));
+		checkTraces(new MappedKryoCTADeserializer(SEGMENT_SIZE));
+
+		CTADeserializer deserializer = CTASerializationFactory.getInstance().getMappedDeserializer(CTASerializationFormat.BINARY);
+		deserializer.setSource(new FileInputStream(file));
+		int count = 0;
+		while (deserializer.readNext() != null) {
+			count++;
+		}
+		deserializer.close();
+		Assert.assertEquals(NUM_TRACES, count);
+
+		MappedKryoCTADeserializer skippingDeserializer = new MappedKryoCTADeserializer(SEGMENT_SIZE);
+		skippingDeserializer.setSource(file);
+		for (int i = 0; i < NUM_TRACES; i += 2) {
+			Assert.assertTrue(skippingDeserializer.skip());
+			Assert.assertEquals(traces[i + 1].getTraceId(), skippingDeserializer.readNext().getTraceId());
+		}
+		Assert.assertFalse(skippingDeserializer.skip());
+		skippingDeserializer.close();
+	}
+
+	/**
+	 * Tests that a truncated record is reported instead of being read from growing segments.
+	 * 
+	 * @throws IOException
+	 *             if writing or truncating the file fails
+	 */
+	@Test
+	public void testTruncatedRecord() throws IOException {
+		write(CTASerializationFactory.getInstance().getSerializer(CTASerializationFormat.BINARY));
+		try (RandomAccessFile truncatedFile = new RandomAccessFile(file, "rw")) {
+			truncatedFile.setLength(truncatedFile.length() - 1);
+		}
+
+		MappedKryoCTADeserializer deserializer = new MappedKryoCTADeserializer(SEGMENT_SIZE);
+		deserializer.setSource(file);
+		for (int i = 0; i < NUM_TRACES - 1; i++) {
+			Assert.assertEquals(traces[i].getTraceId(), deserializer.readNext().getTraceId());
+		}
+		try {
+			deserializer.readNext();
+			Assert.fail("Truncated record has not been detected.");
+		} catch (IllegalStateException e) {
+			Assert.assertTrue(e.getMessage().startsWith("Truncated record"));
+		} finally {
+			deserializer.close();
+		}
+	}
+
+	/**
+	 * Tests reading compressed and uncompressed archives.
+	 * 
+	 * @throws FileNotFoundException
+	 *             if the file cannot be opened
+	 */
+	@Test
+	public void testArchive() throws FileNotFoundException {
+		write(new KryoArchiveCTASerializer(BlockCodecs.DEFLATE, 1024));
+		checkTraces(new MappedKryoCTADeserializer(SEGMENT_SIZE));
+
+		write(new KryoArchiveCTASerializer(BlockCodecs.UNCOMPRESSED, 1024));
+		checkTraces(new MappedKryoCTADeserializer(SEGMENT_SIZE));
+	}
+
+	/**
+	 * Writes all traces to the file.
+	 * 
+	 * @param serializer
+	 *            serializer to use
+	 * @throws FileNotFoundException
+	 *             if the file cannot be opened
+	 */
+	private void write(CTASerializer serializer) throws FileNotFoundException {
+		serializer.prepare(new FileOutputStream(file));
+		for (TraceImpl trace : traces) {
+			serializer.writeTrace(trace);
+		}
+		serializer.close();
+	}
+
+	/**
+	 * Reads the file and compares the traces.
+	 * 
+	 * @param deserializer
+	 *            deserializer to use
+	 */
+	private void checkTraces(MappedKryoCTADeserializer deserializer) {
+		deserializer.setSource(file);
+		for (TraceImpl trace : traces) {
+			Trace result = deserializer.readNext();
+			Assert.assertEquals(trace.getTraceId(), result.getTraceId());
+			Assert.assertEquals(trace.size(), result.size());
+		}
+		Assert.assertNull(deserializer.readNext());
+		deserializer.close();
+	}
+}
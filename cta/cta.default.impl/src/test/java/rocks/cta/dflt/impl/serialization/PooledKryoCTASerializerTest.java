@@ -0,0 +1,151 @@
+package rocks.cta.dflt.impl.serialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import rocks.cta.api.core.Trace;
+import rocks.cta.dflt.impl.TraceCreator;
+import rocks.cta.dflt.impl.core.TraceImpl;
+import rocks.cta.dflt.impl.serialization.realizations.KryoCTASerializationEngine;
+import rocks.cta.dflt.impl.serialization.realizations.PooledKryoCTADeserializer;
+
+/**
+ * JUnit test for the pooled, thread-safe trace serialization.
+ * 
+ * @author Alexander Wert
+ * 
+ */
+public class PooledKryoCTASerializerTest {
+
+	/**
+	 * Number of concurrently writing threads.
+	 */
+	private static final int NUM_THREADS = 8;
+
+	/**
+	 * Number of traces written by each thread.
+	 */
+	private static final int TRACES_PER_THREAD = 50;
+
+	/**
+	 * Tests concurrent writes to one shared serializer and reading the result with the
+	 * non-pooled deserializer.
+	 * 
+	 * @throws Exception
+	 *             if a writer thread fails
+	 */
+	@Test
+	public void testConcurrentSerialization() throws Exception {
+		ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+		final CTASerializer serializer = CTASerializationFactory.getInstance().getPooledSerializer(CTASerializationFormat.BINARY);
+		serializer.prepare(outStream);
+
+		ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (int t = 0; t < NUM_THREADS; t++) {
+			final int threadIdx = t;
+			futures.add(executor.submit(() -> {
+				for (int i = 0; i < TRACES_PER_THREAD; i++) {
+					TraceImpl trace = new TraceCreator().createTrace(threadIdx * TRACES_PER_THREAD + i);
+					serializer.writeTrace(trace);
+				}
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+		serializer.close();
+
+		CTADeserializer deserializer = CTASerializationFactory.getInstance().getDeserializer(CTASerializationFormat.BINARY);
+		deserializer.setSource(new ByteArrayInputStream(outStream.toByteArray()));
+		Set<Long> traceIds = new HashSet<Long>();
+		int expectedSize = new TraceCreator().createTrace().size();
+		Trace trace = deserializer.readNext();
+		while (trace != null) {
+			traceIds.add(trace.getTraceId());
+			Assert.assertEquals(expectedSize, trace.size());
+			trace = deserializer.readNext();
+		}
+		deserializer.close();
+
+		Assert.assertEquals(NUM_THREADS * TRACES_PER_THREAD, traceIds.size());
+	}
+
+	/**
+	 * Tests that a pool with a single instance is reused for subsequent streams.
+	 */
+	@Test
+	public void testEngineRoundTrip() {
+		KryoCTASerializationEngine engine = new KryoCTASerializationEngine(1, 128);
+		TraceImpl trace = new TraceCreator().createTrace();
+		for (int i = 0; i < 3; i++) {
+			byte[] bytes = engine.serialize(trace);
+			Trace result = engine.deserialize(bytes);
+			Assert.assertEquals(trace.getTraceId(), result.getTraceId());
+			Assert.assertEquals(trace.size(), result.size());
+		}
+
+		ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+		CTASerializer serializer = CTASerializationFactory.getInstance().getSerializer(CTASerializationFormat.BINARY);
+		serializer.prepare(outStream);
+		serializer.writeTrace(trace);
+		serializer.writeTrace(trace);
+		serializer.close();
+
+		CTADeserializer deserializer = CTASerializationFactory.getInstance().getPooledDeserializer(CTASerializationFormat.BINARY);
+		deserializer.setSource(new ByteArrayInputStream(outStream.toByteArray()));
+		Assert.assertEquals(trace.size(), deserializer.readNext().size());
+		Assert.assertEquals(trace.size(), deserializer.readNext().size());
+		Assert.assertNull(deserializer.readNext());
+		deserializer.close();
+	}
+
+	/**
+	 * Tests that opening more pooled deserializers than pooled instances fails after the borrow
+	 * timeout instead of blocking forever.
+	 */
+	@Test
+	public void testPoolExhaustion() {
+		ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+		CTASerializer serializer = CTASerializationFactory.getInstance().getSerializer(CTASerializationFormat.BINARY);
+		serializer.prepare(outStream);
+		serializer.writeTrace(new TraceCreator().createTrace());
+		serializer.close();
+		byte[] bytes = outStream.toByteArray();
+
+		KryoCTASerializationEngine engine = new KryoCTASerializationEngine(2, 128, 50);
+		List<CTADeserializer> deserializers = new ArrayList<CTADeserializer>();
+		for (int i = 0; i < engine.getPoolSize(); i++) {
+			CTADeserializer deserializer = new PooledKryoCTADeserializer(engine);
+			deserializer.setSource(new ByteArrayInputStream(bytes));
+			deserializers.add(deserializer);
+		}
+
+		CTADeserializer exceeding = new PooledKryoCTADeserializer(engine);
+		try {
+			exceeding.setSource(new ByteArrayInputStream(bytes));
+			Assert.fail("Expected an exhausted pool.");
+		} catch (IllegalStateException e) {
+			Assert.assertTrue(e.getMessage().contains("exhausted"));
+		}
+
+		deserializers.get(0).close();
+		exceeding.setSource(new ByteArrayInputStream(bytes));
+		Assert.assertNotNull(exceeding.readNext());
+		exceeding.close();
+		for (int i = 1; i < deserializers.size(); i++) {
+			deserializers.get(i).close();
+		}
+	}
+}